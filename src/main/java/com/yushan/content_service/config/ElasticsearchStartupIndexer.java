@@ -1,16 +1,22 @@
 package com.yushan.content_service.config;
 
+import com.yushan.content_service.entity.elasticsearch.ChapterDocument;
+import com.yushan.content_service.entity.elasticsearch.NovelDocument;
 import com.yushan.content_service.service.ElasticsearchIndexService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
 import org.springframework.stereotype.Component;
 
 /**
  * Auto-index Elasticsearch data when application starts.
  * Runs after all beans are initialized and application is ready.
  */
+@Slf4j
 @Component
 @ConditionalOnProperty(name = "search.elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
 public class ElasticsearchStartupIndexer {
@@ -18,8 +24,15 @@ public class ElasticsearchStartupIndexer {
     @Autowired
     private ElasticsearchIndexService elasticsearchIndexService;
 
+    @Autowired
+    private ElasticsearchOperations elasticsearchOperations;
+
     @EventListener(ApplicationReadyEvent.class)
     public void onApplicationReady() {
+        // Add new fields (e.g. title.keyword used for sorting) to existing indices
+        putMapping(elasticsearchOperations.indexOps(NovelDocument.class));
+        putMapping(elasticsearchOperations.indexOps(ChapterDocument.class));
+
         try {
             // Index all data
             elasticsearchIndexService.reindexAllData();
@@ -27,4 +40,14 @@ public class ElasticsearchStartupIndexer {
             // Don't fail application startup if indexing fails
         }
     }
+
+    private void putMapping(IndexOperations indexOps) {
+        try {
+            indexOps.putMapping();
+        } catch (Exception e) {
+            // Incompatible mapping changes require recreating the index
+            log.warn("Failed to update mapping of index {}, recreate it to apply the new mapping: {}",
+                    indexOps.getIndexCoordinates().getIndexName(), e.getMessage(), e);
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.yushan.content_service.config;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,11 +10,12 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
-import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,6 +29,13 @@ import java.util.Map;
 @Configuration
 public class KafkaConfig {
 
+    /**
+     * Records a listener could not process go to {@code <topic>-failed}, are retried from
+     * there with increasing delays and finally land in {@code <topic>-failed-dlt}
+     */
+    public static final String FAILED_TOPIC_SUFFIX = "-failed";
+    public static final String DLT_TOPIC_SUFFIX = "-dlt";
+
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
@@ -60,6 +69,9 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.auto-offset-reset:earliest}")
     private String autoOffsetReset;
 
+    @Value("${spring.kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
     /**
      * Consumer factory configuration
      */
@@ -76,6 +88,9 @@ public class KafkaConfig {
         // Auto offset reset
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
         
+        // Upper bound of a batch for batch listeners
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        
         // Disable auto commit
         configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         
@@ -103,20 +118,39 @@ public class KafkaConfig {
     public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setCommonErrorHandler(errorHandler());
         
-        // Configure error handler
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
-            (record, exception) -> {
-                // Log the error and continue processing
-                System.err.println("Failed to process message: " + record + ", Error: " + exception.getMessage());
-            },
-            new FixedBackOff(1000L, 3L) // Retry 3 times with 1 second delay
-        );
-        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    /**
+     * Listener container factory that hands each poll to the listener as one list,
+     * so counter updates can be coalesced and written in bulk
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.setCommonErrorHandler(errorHandler());
         
         return factory;
     }
 
+    /**
+     * Retries a failed batch a few times in place (only the hand-off of failed records to
+     * their retry topic can fail this way, e.g. while Kafka is unavailable), then publishes
+     * the records to the dead-letter topic with the failure in the record headers
+     */
+    private DefaultErrorHandler errorHandler() {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(retryKafkaTemplate(),
+            (record, exception) -> new TopicPartition(record.topic() + FAILED_TOPIC_SUFFIX + DLT_TOPIC_SUFFIX, -1));
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(3);
+        backOff.setInitialInterval(1000L);
+        backOff.setMultiplier(2.0);
+        return new DefaultErrorHandler(recoverer, backOff);
+    }
+
     /**
      * Producer factory configuration
      */
@@ -154,6 +188,18 @@ public class KafkaConfig {
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
+    /**
+     * Kafka template that forwards consumed records unchanged (String values) to retry and
+     * dead-letter topics; the JSON template would quote them as JSON strings
+     */
+    @Bean
+    public KafkaTemplate<String, String> retryKafkaTemplate() {
+        Map<String, Object> configProps = new HashMap<>(producerFactory().getConfigurationProperties());
+        configProps.put(ProducerConfig.CLIENT_ID_CONFIG, clientId + "-retry");
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps));
+    }
+
     /**
      * Kafka template for sending messages
      */
@@ -0,0 +1,52 @@
+package com.yushan.content_service.config;
+
+import com.yushan.content_service.service.LuceneIndexService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Build the embedded search index when application starts, and rebuild it periodically.
+ * Write hooks only reach the index of the node that handled the write, so the periodic
+ * rebuild is what brings every node's local index back in line with the database.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "search.lucene.enabled", havingValue = "true", matchIfMissing = false)
+public class LuceneStartupIndexer {
+
+    @Autowired
+    private LuceneIndexService luceneIndexService;
+
+    @Value("${search.lucene.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!rebuildOnStartup && luceneIndexService.getDocumentCount() > 0) {
+            return;
+        }
+        try {
+            luceneIndexService.rebuildIndex();
+        } catch (Exception e) {
+            // Don't fail application startup if indexing fails
+            log.error("Failed to build embedded search index: {}", e.getMessage());
+        }
+    }
+
+    // Writes on other instances only reach this index through the rebuild, so its interval bounds staleness
+    @Scheduled(initialDelayString = "${search.lucene.full-rebuild-interval-ms:300000}",
+               fixedDelayString = "${search.lucene.full-rebuild-interval-ms:300000}")
+    public void rebuildPeriodically() {
+        try {
+            luceneIndexService.rebuildIndex();
+        } catch (Exception e) {
+            log.error("Periodic rebuild of embedded search index failed: {}", e.getMessage());
+        }
+    }
+}
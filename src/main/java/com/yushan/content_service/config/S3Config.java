@@ -0,0 +1,137 @@
+package com.yushan.content_service.config;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * S3 / DigitalOcean Spaces client configuration
+ *
+ * One client and one transfer manager are shared by the whole service, so connections are
+ * pooled and reused instead of being opened per upload. Building them does not connect, so
+ * they are created even when local storage is used.
+ *
+ * Uploads run on a fixed pool of transfer threads; objects above the multipart threshold are
+ * split into parts uploaded in parallel. Every request has connect, socket and per-attempt
+ * timeouts, and failed requests are retried with exponential backoff.
+ */
+@Configuration
+public class S3Config {
+
+    @Value("${app.storage.s3.access-key:test-access-key}")
+    private String accessKeyId;
+
+    @Value("${app.storage.s3.secret-key:test-secret-key}")
+    private String secretAccessKey;
+
+    @Value("${app.storage.s3.endpoint:https://test.endpoint.com}")
+    private String endpoint;
+
+    @Value("${app.storage.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${app.storage.s3.path-style-access:false}")
+    private boolean pathStyleAccess;
+
+    @Value("${app.storage.s3.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${app.storage.s3.connection-timeout-ms:2000}")
+    private int connectionTimeoutMs;
+
+    @Value("${app.storage.s3.socket-timeout-ms:10000}")
+    private int socketTimeoutMs;
+
+    // Per attempt; client-execution-timeout-ms bounds a call including its retries
+    @Value("${app.storage.s3.request-timeout-ms:30000}")
+    private int requestTimeoutMs;
+
+    @Value("${app.storage.s3.client-execution-timeout-ms:90000}")
+    private int clientExecutionTimeoutMs;
+
+    @Value("${app.storage.s3.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${app.storage.s3.connection-ttl-ms:60000}")
+    private long connectionTtlMs;
+
+    @Value("${app.storage.s3.transfer-threads:8}")
+    private int transferThreads;
+
+    @Value("${app.storage.s3.multipart-threshold-bytes:16777216}")
+    private long multipartThresholdBytes;
+
+    @Value("${app.storage.s3.multipart-part-size-bytes:8388608}")
+    private long multipartPartSizeBytes;
+
+    /**
+     * Shared S3 client with a bounded connection pool, timeouts and retries
+     */
+    @Bean
+    public AmazonS3 s3Client() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+                .withMaxConnections(maxConnections)
+                .withConnectionTimeout(connectionTimeoutMs)
+                .withSocketTimeout(socketTimeoutMs)
+                .withRequestTimeout(requestTimeoutMs)
+                .withClientExecutionTimeout(clientExecutionTimeoutMs)
+                .withRetryPolicy(PredefinedRetryPolicies.getDefaultRetryPolicyWithCustomMaxRetries(maxRetries))
+                .withThrottledRetries(true)
+                .withConnectionTTL(connectionTtlMs)
+                .withTcpKeepAlive(true)
+                .withReaper(true);
+
+        return AmazonS3ClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessKeyId, secretAccessKey)))
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region))
+                .withClientConfiguration(clientConfiguration)
+                .withPathStyleAccessEnabled(pathStyleAccess)
+                .build();
+    }
+
+    /**
+     * Transfer manager for asynchronous and multipart uploads on the shared client.
+     * Shutting it down also shuts down the client.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public TransferManager s3TransferManager(AmazonS3 s3Client, MeterRegistry meterRegistry) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor transferExecutor = new ThreadPoolExecutor(transferThreads, transferThreads,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "s3-transfer-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        transferExecutor.allowCoreThreadTimeOut(true);
+        Gauge.builder("s3.transfers.active", transferExecutor, ThreadPoolExecutor::getActiveCount)
+                .description("S3 transfer tasks running")
+                .register(meterRegistry);
+        Gauge.builder("s3.transfers.queued", transferExecutor, executor -> executor.getQueue().size())
+                .description("S3 transfer tasks waiting for a transfer thread")
+                .register(meterRegistry);
+
+        return TransferManagerBuilder.standard()
+                .withS3Client(s3Client)
+                .withExecutorFactory(() -> transferExecutor)
+                .withMultipartUploadThreshold(multipartThresholdBytes)
+                .withMinimumUploadPartSize(multipartPartSizeBytes)
+                .build();
+    }
+}
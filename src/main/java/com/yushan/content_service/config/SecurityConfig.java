@@ -91,6 +91,7 @@ public class SecurityConfig {
                 
                 // Novel APIs - following yushan-backend pattern
                 .requestMatchers(HttpMethod.POST, "/api/v1/novels").hasAnyRole("AUTHOR","ADMIN")  // Create novel
+                .requestMatchers(HttpMethod.POST, "/api/v1/novels/covers").hasAnyRole("AUTHOR","ADMIN")  // Upload cover
                 .requestMatchers(HttpMethod.GET, "/api/v1/novels").permitAll()      // List novels
                 .requestMatchers(HttpMethod.GET, "/api/v1/novels/*").permitAll()    // Get novel by ID
                 .requestMatchers(HttpMethod.PUT, "/api/v1/novels/*").authenticated() // Update novel
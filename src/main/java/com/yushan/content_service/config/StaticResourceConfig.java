@@ -17,7 +17,8 @@ public class StaticResourceConfig implements WebMvcConfigurer {
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Serve uploaded images from the uploads directory
+        // Serve uploaded images from the uploads directory; covers are served by CoverFileController,
+        // whose mapping takes precedence over this handler
         // Note: This makes images publicly accessible without authentication
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:" + uploadPath + "/")
@@ -0,0 +1,218 @@
+package com.yushan.content_service.controller;
+
+import com.yushan.content_service.service.CoverFileCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves locally stored covers.
+ *
+ * Cover files never change once written (new images get new names), so every response carries
+ * a strong ETag derived from the file name and a one-year immutable Cache-Control, and
+ * If-None-Match is answered with 304. Single byte ranges are supported. Bodies come from the
+ * hot small-file cache, from Tomcat's sendfile when the connector supports it, or otherwise
+ * through {@link FileChannel#transferTo}; file contents never pass through a heap buffer
+ * outside the cache.
+ */
+@RestController
+public class CoverFileController {
+
+    static final String COVERS_PATH = "/uploads/covers/";
+
+    // <content key>/<rendition>.<format>, or a legacy <name>.<format> directly in the covers folder
+    private static final Pattern COVER_FILE = Pattern.compile(
+            "^(?:[0-9a-f]{64}/(?:thumbnail|card|full)|[^/\\\\]+)\\.(jpeg|jpg|png|gif|webp)$");
+    private static final Pattern SINGLE_RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
+    // Request attributes through which Tomcat sends a file itself once the servlet returns
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    @Autowired
+    private CoverFileCache coverFileCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.storage.local.path:uploads}")
+    private String uploadPath = "uploads";
+
+    // Below this size writing from the cache or through transferTo is as cheap as sendfile
+    @Value("${cover.serving.sendfile-min-bytes:49152}")
+    private long sendfileMinBytes = 48 * 1024;
+
+    @RequestMapping(value = COVERS_PATH + "**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serveCover(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = resolve(request);
+        long length;
+        try {
+            length = file != null && Files.isRegularFile(file) ? Files.size(file) : -1;
+        } catch (IOException e) {
+            length = -1; // deleted in the meantime
+        }
+        if (length < 0) {
+            record("not_found");
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // Names are unique per content, so the name is a strong validator
+        String etag = "\"" + coversDir().relativize(file).toString().replace(File.separatorChar, '-') + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            record("not_modified");
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.trim().equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds != null && bounds.length == 0) {
+                record("unsatisfiable");
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        long count = end - start + 1;
+        response.setContentType(contentType(file));
+        response.setContentLengthLong(count);
+        if (RequestMethod.HEAD.name().equals(request.getMethod())) {
+            record("head");
+            return;
+        }
+
+        byte[] cached = coverFileCache.lookup(file, length);
+        if (cached != null) {
+            record("cached");
+            response.getOutputStream().write(cached, (int) start, (int) count);
+        } else if (count >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            record("sendfile");
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+        } else {
+            record("transfer");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                while (position <= end) {
+                    position += channel.transferTo(position, end - position + 1, out);
+                }
+            }
+        }
+    }
+
+    /**
+     * Map the request to a file inside the covers folder, or null if it names no cover
+     */
+    private Path resolve(HttpServletRequest request) {
+        String uri = request.getRequestURI().substring(request.getContextPath().length());
+        if (!uri.startsWith(COVERS_PATH)) {
+            return null;
+        }
+        String name = UriUtils.decode(uri.substring(COVERS_PATH.length()), StandardCharsets.UTF_8);
+        if (!COVER_FILE.matcher(name).matches()) {
+            return null;
+        }
+        Path coversDir = coversDir();
+        Path file = coversDir.resolve(name).normalize();
+        return file.startsWith(coversDir) ? file : null;
+    }
+
+    private Path coversDir() {
+        return Paths.get(uploadPath, "covers").toAbsolutePath().normalize();
+    }
+
+    /**
+     * Parse a single byte range
+     *
+     * @return inclusive {start, end}, an empty array if the range cannot be satisfied,
+     *         or null if the header is ignored and the whole file is sent
+     */
+    static long[] parseRange(String header, long length) {
+        Matcher matcher = SINGLE_RANGE.matcher(header.trim());
+        if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+            return null; // several ranges or malformed
+        }
+        try {
+            if (matcher.group(1).isEmpty()) {
+                // Suffix range: the last n bytes
+                long suffix = Long.parseLong(matcher.group(2));
+                return suffix == 0 || length == 0 ? new long[0] : new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(matcher.group(1));
+            long end = matcher.group(2).isEmpty() ? Long.MAX_VALUE : Long.parseLong(matcher.group(2));
+            if (end < start) {
+                return null;
+            }
+            // An open range is only clamped to the file once its start is known to be inside it
+            return start >= length ? new long[0] : new long[]{start, Math.min(end, length - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * If-None-Match uses weak comparison, so W/ prefixes are ignored
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String contentType(Path file) {
+        String name = file.getFileName().toString();
+        String format = name.substring(name.lastIndexOf('.') + 1);
+        return "image/" + (format.equals("jpg") ? "jpeg" : format);
+    }
+
+    private void record(String result) {
+        meterRegistry.counter("cover.serving.requests", "result", result).increment();
+    }
+}
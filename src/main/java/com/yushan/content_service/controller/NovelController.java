@@ -2,10 +2,12 @@ package com.yushan.content_service.controller;
 
 import com.yushan.content_service.dto.common.ApiResponse;
 import com.yushan.content_service.dto.common.PageResponseDTO;
+import com.yushan.content_service.dto.novel.CoverUploadResponseDTO;
 import com.yushan.content_service.dto.novel.NovelCreateRequestDTO;
 import com.yushan.content_service.dto.novel.NovelDetailResponseDTO;
 import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
 import com.yushan.content_service.dto.novel.NovelUpdateRequestDTO;
+import com.yushan.content_service.service.CoverUploadService;
 import com.yushan.content_service.service.NovelService;
 import com.yushan.content_service.security.CustomUserDetails;
 import org.springframework.security.core.Authentication;
@@ -13,6 +15,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +23,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -36,6 +40,9 @@ public class NovelController {
     @Autowired
     private NovelService novelService;
 
+    @Autowired
+    private CoverUploadService coverUploadService;
+
     /**
      * Get current user from SecurityContext
      * @return CustomUserDetails or null if not authenticated
@@ -78,6 +85,22 @@ public class NovelController {
         return ApiResponse.success("Novel created successfully", novel);
     }
 
+    /**
+     * Upload a novel cover as the raw request body
+     * POST /api/v1/novels/covers
+     */
+    @PostMapping(value = "/covers", consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE,
+            MediaType.IMAGE_GIF_VALUE, "image/webp"})
+    @PreAuthorize("isAuthorOrAdmin()")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "[AUTHOR/ADMIN] Upload a novel cover",
+            description = "Stores the image sent as the request body and returns an asset id to pass as coverAssetId when creating or updating a novel.")
+    public ApiResponse<CoverUploadResponseDTO> uploadCover(HttpServletRequest request) throws IOException {
+        CoverUploadResponseDTO cover = coverUploadService.upload(request.getInputStream(),
+                request.getContentLengthLong(), request.getContentType());
+        return ApiResponse.success("Cover uploaded successfully", cover);
+    }
+
     /**
      * Get novel by ID
      * GET /api/v1/novels/{id}
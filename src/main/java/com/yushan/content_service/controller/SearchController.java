@@ -67,13 +67,17 @@ public class SearchController {
             @Parameter(description = "Author ID filter") @RequestParam(value = "authorId", required = false) String authorId,
             @Parameter(description = "Min rating filter") @RequestParam(value = "minRating", required = false) Float minRating,
             @Parameter(description = "Min word count filter") @RequestParam(value = "minWordCount", required = false) Long minWordCount,
-            @Parameter(description = "Max word count filter") @RequestParam(value = "maxWordCount", required = false) Long maxWordCount) {
+            @Parameter(description = "Max word count filter") @RequestParam(value = "maxWordCount", required = false) Long maxWordCount,
+            @Parameter(description = "Ranking mode for relevance sort (text/popularity)") @RequestParam(value = "ranking", required = false) String ranking,
+            @Parameter(description = "Cursor from nextCursor of the previous page") @RequestParam(value = "cursor", required = false) String cursor) {
         
         NovelSearchRequestDTO request = new NovelSearchRequestDTO(page, size, sort, order, 
                                                               categoryId, status, isCompleted, q, null, authorId);
         request.setMinRating(minRating);
         request.setMinWordCount(minWordCount);
         request.setMaxWordCount(maxWordCount);
+        request.setCursor(cursor);
+        request.setRanking(ranking);
         
         PageResponseDTO<NovelDetailResponseDTO> result = searchService.searchNovels(request);
         return ApiResponse.success("Novel search completed successfully", result);
@@ -91,12 +95,14 @@ public class SearchController {
             @Parameter(description = "Page size") @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size,
             @Parameter(description = "Novel ID filter") @RequestParam(value = "novelId", required = false) Integer novelId,
             @Parameter(description = "Premium content filter") @RequestParam(value = "isPremium", required = false) Boolean isPremium,
-            @Parameter(description = "Published only filter") @RequestParam(value = "publishedOnly", defaultValue = "true") Boolean publishedOnly) {
+            @Parameter(description = "Published only filter") @RequestParam(value = "publishedOnly", defaultValue = "true") Boolean publishedOnly,
+            @Parameter(description = "Cursor from nextCursor of the previous page") @RequestParam(value = "cursor", required = false) String cursor) {
         
         ChapterSearchRequestDTO request = new ChapterSearchRequestDTO(
                 novelId, null, q, isPremium, null, publishedOnly,
                 page + 1, size, "relevance", "desc"
         );
+        request.setCursor(cursor);
         
         PageResponseDTO<ChapterSummaryDTO> result = searchService.searchChapters(request);
         return ApiResponse.success("Chapter search completed successfully", result);
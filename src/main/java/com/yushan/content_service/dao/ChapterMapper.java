@@ -4,6 +4,7 @@ import com.yushan.content_service.dto.chapter.ChapterSearchRequestDTO;
 import com.yushan.content_service.entity.Chapter;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 import java.util.UUID;
@@ -33,6 +34,10 @@ public interface ChapterMapper {
     
     List<Chapter> selectByIds(@Param("ids") List<Integer> ids);
     
+    List<Chapter> selectCountersByIds(@Param("ids") List<Integer> ids);
+    
+    List<Chapter> selectSummariesByIds(@Param("ids") List<Integer> ids);
+    
     // Novel-specific chapter queries
     List<Chapter> selectByNovelId(@Param("novelId") Integer novelId);
     
@@ -53,6 +58,9 @@ public interface ChapterMapper {
     // Get all published chapters
     List<Chapter> selectPublishedChapters();
     
+    // Row-by-row scan of published chapter summaries for index rebuilds
+    void scanPublishedChapterSummaries(ResultHandler<Chapter> handler);
+    
     // Chapter navigation
     Chapter selectNextChapter(@Param("novelId") Integer novelId,
                               @Param("chapterNumber") Integer chapterNumber);
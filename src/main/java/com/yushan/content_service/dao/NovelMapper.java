@@ -4,7 +4,9 @@ import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
 import com.yushan.content_service.entity.Novel;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -54,11 +56,30 @@ public interface NovelMapper {
     
     int updateRating(@Param("novelId") Integer novelId, @Param("avgRating") Float avgRating, @Param("reviewCnt") Integer reviewCnt);
     
+    // Multi-row counter updates; each novel carries its id and the new values
+    int updateVoteCounts(@Param("novels") List<Novel> novels);
+    
+    int updateRatings(@Param("novels") List<Novel> novels);
+    
     // Status update methods
     int updateStatus(@Param("novelId") Integer novelId, @Param("status") Integer status);
     
     int updatePublishTime(@Param("novelId") Integer novelId, @Param("publishTime") java.util.Date publishTime);
     
+    int updateCover(@Param("novelId") Integer novelId, @Param("coverJobId") java.util.UUID coverJobId,
+                    @Param("coverImgUrl") String coverImgUrl, @Param("coverStatus") String coverStatus);
+    
+    String selectCoverImgUrlForUpdate(@Param("novelId") Integer novelId);
+    
+    int updateCoverIfCurrentJob(@Param("novelId") Integer novelId, @Param("coverJobId") java.util.UUID coverJobId,
+                                @Param("coverImgUrl") String coverImgUrl, @Param("coverStatus") String coverStatus);
+    
+    List<Integer> failStaleCoverJobs(@Param("maxAgeMinutes") long maxAgeMinutes);
+    
+    List<String> selectReferencedCoverImgUrls(@Param("coverImgUrls") Collection<String> coverImgUrls);
+    
+    String selectAnyCoverImgUrl();
+    
     // Ranking and search methods
     List<Novel> selectNovelsByRanking(@Param("categoryId") Integer categoryId,
                                      @Param("sortType") String sortType,
@@ -72,6 +93,12 @@ public interface NovelMapper {
     
     List<Novel> selectByUuids(@Param("uuids") List<UUID> uuids);
     
+    // The author's published novel with the highest suggestion weight, or null
+    Novel selectMostPopularPublishedByAuthor(@Param("authorId") UUID authorId);
+    
+    // Row-by-row scan of published novels for index rebuilds
+    void scanPublishedNovels(ResultHandler<Novel> handler);
+    
     // Statistics for admin dashboard
     List<Novel> selectNovelsUnderReview(@Param("offset") int offset, @Param("limit") int limit);
     
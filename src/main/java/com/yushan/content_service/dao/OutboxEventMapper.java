@@ -0,0 +1,61 @@
+package com.yushan.content_service.dao;
+
+import com.yushan.content_service.entity.OutboxEvent;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mapper for outbox_events table (transactional outbox)
+ */
+@Mapper
+public interface OutboxEventMapper {
+
+    /**
+     * Insert events in a single multi-row statement
+     */
+    int insertBatch(@Param("events") List<OutboxEvent> events);
+
+    /**
+     * Oldest unpublished events in id order, skipping parked events and keys waiting for a retry
+     */
+    List<OutboxEvent> selectUnpublished(@Param("limit") int limit);
+
+    /**
+     * Mark relayed events as published
+     */
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    /**
+     * Lease events to this relay: their keys are skipped by other instances until the lease runs out
+     */
+    int claim(@Param("ids") List<Long> ids, @Param("leaseMs") long leaseMs);
+
+    /**
+     * Give back the lease of claimed events that were not sent
+     */
+    int releaseClaims(@Param("ids") List<Long> ids);
+
+    /**
+     * Record a failed send: retry the event's key after the backoff, or park the event
+     */
+    int recordFailure(@Param("id") Long id, @Param("attempts") int attempts,
+                      @Param("backoffMs") long backoffMs, @Param("parked") boolean parked);
+
+    /**
+     * Take the relay lock for the current transaction; false if another instance holds it
+     */
+    boolean tryRelayLock(@Param("lockId") long lockId);
+
+    /**
+     * Check whether a partition still holds events that were not relayed yet
+     */
+    boolean hasUnpublished(@Param("partition") String partition);
+
+    /**
+     * Delete published events from the default partition (for cleanup)
+     */
+    int deletePublishedFromDefault(@Param("beforeDate") LocalDateTime beforeDate);
+}
@@ -0,0 +1,30 @@
+package com.yushan.content_service.dao;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Mapper for maintaining range partitions of partitioned tables
+ */
+@Mapper
+public interface PartitionMapper {
+
+    /**
+     * Names of the partitions attached to a partitioned table
+     */
+    List<String> selectPartitionNames(@Param("table") String table);
+
+    /**
+     * Create a partition covering [from, to) if it does not exist yet
+     */
+    void createRangePartition(@Param("table") String table, @Param("partition") String partition,
+                              @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Drop a partition and all rows in it
+     */
+    void dropPartition(@Param("partition") String partition);
+}
@@ -4,6 +4,9 @@ import com.yushan.content_service.entity.ProcessedEvent;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Mapper for processed_events table to ensure idempotency
  */
@@ -21,8 +24,23 @@ public interface ProcessedEventMapper {
     int insert(ProcessedEvent processedEvent);
 
     /**
-     * Delete old processed events (for cleanup)
+     * Return which of the given idempotency keys have been processed since the given time
+     * (keys bound as one array; the time bound limits the lookup to recent partitions)
      */
-    int deleteOldProcessedEvents(@Param("beforeDate") java.time.LocalDateTime beforeDate);
-}
+    List<String> selectExistingKeys(@Param("idempotencyKeys") String[] idempotencyKeys,
+                                    @Param("since") LocalDateTime since);
+
+    /**
+     * Insert processed event records in one statement, skipping keys already processed since the given time
+     */
+    int insertKeys(@Param("idempotencyKeys") String[] idempotencyKeys,
+                   @Param("eventType") String eventType,
+                   @Param("serviceName") String serviceName,
+                   @Param("processedAt") LocalDateTime processedAt,
+                   @Param("since") LocalDateTime since);
 
+    /**
+     * Delete old rows that landed in the default partition; daily partitions are dropped instead
+     */
+    int deleteFromDefaultPartition(@Param("beforeDate") LocalDateTime beforeDate);
+}
@@ -0,0 +1,41 @@
+package com.yushan.content_service.dao;
+
+import com.yushan.content_service.entity.StorageDeletion;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * Mapper for storage_deletions table (queue of stored images to delete)
+ */
+@Mapper
+public interface StorageDeletionMapper {
+
+    /**
+     * Queue images in a single multi-row statement
+     */
+    int insertBatch(@Param("imageUrls") List<String> imageUrls);
+
+    /**
+     * Lock the oldest due rows for the current transaction, skipping rows locked by other instances
+     */
+    List<StorageDeletion> claimDue(@Param("limit") int limit);
+
+    /**
+     * Remove handled rows
+     */
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Cancel queued deletes of an image stored under a content key. Waits for a worker that has
+     * claimed such a row, so once this returns the image is either deleted or no longer queued.
+     */
+    int deleteByContentKey(@Param("contentKey") String contentKey);
+
+    /**
+     * Record a failed attempt and push the rows back by 2^attempts minutes, at most maxDelayMinutes
+     */
+    int markFailed(@Param("ids") List<Long> ids, @Param("error") String error,
+                   @Param("maxDelayMinutes") int maxDelayMinutes);
+}
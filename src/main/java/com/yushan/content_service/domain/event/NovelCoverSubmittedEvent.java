@@ -0,0 +1,37 @@
+package com.yushan.content_service.domain.event;
+
+import java.util.UUID;
+
+/**
+ * Domain event raised when a novel write submits a new cover image.
+ * The cover is processed and stored once the write has committed.
+ */
+public class NovelCoverSubmittedEvent {
+
+    private final Integer novelId;
+    private final UUID coverJobId;
+    private final String coverImgBase64;
+
+    public NovelCoverSubmittedEvent(Integer novelId, UUID coverJobId, String coverImgBase64) {
+        this.novelId = novelId;
+        this.coverJobId = coverJobId;
+        this.coverImgBase64 = coverImgBase64;
+    }
+
+    public Integer getNovelId() {
+        return novelId;
+    }
+
+    public UUID getCoverJobId() {
+        return coverJobId;
+    }
+
+    public String getCoverImgBase64() {
+        return coverImgBase64;
+    }
+
+    @Override
+    public String toString() {
+        return "NovelCoverSubmittedEvent{novelId=" + novelId + ", coverJobId=" + coverJobId + '}';
+    }
+}
@@ -43,6 +43,9 @@ public class ChapterSearchRequestDTO {
     @Schema(description = "Sort order", example = "asc", allowableValues = {"asc", "desc"})
     private String sortOrder = "asc";
 
+    @Schema(description = "Opaque cursor from a previous page; replaces page when present")
+    private String cursor;
+
     // Constructors
     public ChapterSearchRequestDTO() {}
 
@@ -142,6 +145,14 @@ public class ChapterSearchRequestDTO {
         this.sortOrder = sortOrder; 
     }
 
+    public String getCursor() { 
+        return cursor; 
+    }
+    
+    public void setCursor(String cursor) { 
+        this.cursor = cursor; 
+    }
+
     // Helper method to calculate offset for pagination
     public int getOffset() {
         return (page - 1) * pageSize;
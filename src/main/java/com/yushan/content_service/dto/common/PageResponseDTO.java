@@ -16,6 +16,8 @@ public class PageResponseDTO<T> {
     private boolean last;
     private boolean hasNext;
     private boolean hasPrevious;
+    // Cursor for the next page when results support search_after paging
+    private String nextCursor;
     
     // Constructors
     public PageResponseDTO() {
@@ -109,4 +111,12 @@ public class PageResponseDTO<T> {
     public void setHasPrevious(boolean hasPrevious) {
         this.hasPrevious = hasPrevious;
     }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
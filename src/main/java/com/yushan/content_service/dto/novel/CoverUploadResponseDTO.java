@@ -0,0 +1,39 @@
+package com.yushan.content_service.dto.novel;
+
+import java.util.Map;
+
+/**
+ * DTO for an uploaded novel cover.
+ * The asset id is passed as coverAssetId when creating or updating a novel.
+ */
+public class CoverUploadResponseDTO {
+
+    private String assetId;
+    private Map<String, String> coverImgUrls; // thumbnail, card and full rendition URLs
+
+    // Constructors
+    public CoverUploadResponseDTO() {
+    }
+
+    public CoverUploadResponseDTO(String assetId, Map<String, String> coverImgUrls) {
+        this.assetId = assetId;
+        this.coverImgUrls = coverImgUrls;
+    }
+
+    // Getters and Setters
+    public String getAssetId() {
+        return assetId;
+    }
+
+    public void setAssetId(String assetId) {
+        this.assetId = assetId;
+    }
+
+    public Map<String, String> getCoverImgUrls() {
+        return coverImgUrls;
+    }
+
+    public void setCoverImgUrls(Map<String, String> coverImgUrls) {
+        this.coverImgUrls = coverImgUrls;
+    }
+}
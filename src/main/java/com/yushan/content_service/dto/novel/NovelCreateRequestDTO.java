@@ -21,10 +21,16 @@ public class NovelCreateRequestDTO {
     @NotNull(message = "Category ID must not be null")
     private Integer categoryId;
 
+    // Legacy inline cover; prefer uploading through POST /api/v1/novels/covers and sending coverAssetId
     @Pattern(regexp = "^(|data:image/(jpeg|jpg|png|gif|webp);base64,[A-Za-z0-9+/]+=*)$", 
              message = "Cover image must be empty or a valid Base64 data URL for image")
     private String coverImgBase64;
 
+    // Asset id returned by the cover upload endpoint
+    @Pattern(regexp = "^(|[0-9a-f]{64}\\.(jpeg|jpg|png|gif|webp))$",
+             message = "Cover asset id must be empty or an id returned by the cover upload")
+    private String coverAssetId;
+
     private Boolean isCompleted;
 
     // Constructors
@@ -73,6 +79,14 @@ public class NovelCreateRequestDTO {
         this.coverImgBase64 = coverImgBase64;
     }
 
+    public String getCoverAssetId() {
+        return coverAssetId;
+    }
+
+    public void setCoverAssetId(String coverAssetId) {
+        this.coverAssetId = coverAssetId;
+    }
+
     public Boolean getIsCompleted() {
         return isCompleted;
     }
@@ -88,6 +102,7 @@ public class NovelCreateRequestDTO {
                 ", synopsis='" + synopsis + '\'' +
                 ", categoryId=" + categoryId +
                 ", coverImgBase64='" + (coverImgBase64 != null ? "[BASE64_DATA]" : "null") + '\'' +
+                ", coverAssetId='" + coverAssetId + '\'' +
                 ", isCompleted=" + isCompleted +
                 '}';
     }
@@ -1,6 +1,7 @@
 package com.yushan.content_service.dto.novel;
 
 import java.util.Date;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -25,6 +26,9 @@ public class NovelDetailResponseDTO {
     // Content information
     private String synopsis;
     private String coverImgUrl;
+    private Map<String, String> coverImgUrls; // thumbnail, card and full rendition URLs
+    private String coverAssetId; // reference to send back as coverAssetId in updates
+    private String coverStatus; // PENDING while a submitted cover is being processed
     private String status;
     private Boolean isCompleted;
 
@@ -147,6 +151,30 @@ public class NovelDetailResponseDTO {
         this.coverImgUrl = coverImgUrl;
     }
 
+    public Map<String, String> getCoverImgUrls() {
+        return coverImgUrls;
+    }
+
+    public void setCoverImgUrls(Map<String, String> coverImgUrls) {
+        this.coverImgUrls = coverImgUrls;
+    }
+
+    public String getCoverAssetId() {
+        return coverAssetId;
+    }
+
+    public void setCoverAssetId(String coverAssetId) {
+        this.coverAssetId = coverAssetId;
+    }
+
+    public String getCoverStatus() {
+        return coverStatus;
+    }
+
+    public void setCoverStatus(String coverStatus) {
+        this.coverStatus = coverStatus;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -41,6 +41,10 @@ public class NovelSearchRequestDTO {
     private Boolean isPremium;
     private Date publishedAfter;
     private Date publishedBefore;
+    // Opaque search_after cursor from a previous page; replaces page when present
+    private String cursor;
+    // Ranking mode name (text or popularity); the endpoint default applies when absent
+    private String ranking;
     
     // Constructors
     public NovelSearchRequestDTO() {
@@ -284,6 +288,22 @@ public class NovelSearchRequestDTO {
         this.publishedBefore = publishedBefore != null ? (Date) publishedBefore.clone() : null;
     }
     
+    public String getCursor() {
+        return cursor;
+    }
+    
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+    
+    public String getRanking() {
+        return ranking;
+    }
+    
+    public void setRanking(String ranking) {
+        this.ranking = ranking;
+    }
+    
     // Helper methods for advanced filtering
     public boolean hasRatingFilter() {
         return minRating != null || maxRating != null;
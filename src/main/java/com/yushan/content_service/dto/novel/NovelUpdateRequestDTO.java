@@ -17,10 +17,16 @@ public class NovelUpdateRequestDTO {
 
     private Integer categoryId;
 
+    // Legacy inline cover; prefer uploading through POST /api/v1/novels/covers and sending coverAssetId
     @Pattern(regexp = "^(|data:image/(jpeg|jpg|png|gif|webp);base64,[A-Za-z0-9+/]+=*)$", 
              message = "Cover image must be empty or a valid Base64 data URL for image")
     private String coverImgBase64;
 
+    // Asset id returned by the cover upload endpoint
+    @Pattern(regexp = "^(|[0-9a-f]{64}\\.(jpeg|jpg|png|gif|webp))$",
+             message = "Cover asset id must be empty or an id returned by the cover upload")
+    private String coverAssetId;
+
     private Boolean isCompleted;
 
     private String status;  // For admin status changes
@@ -72,6 +78,14 @@ public class NovelUpdateRequestDTO {
         this.coverImgBase64 = coverImgBase64;
     }
 
+    public String getCoverAssetId() {
+        return coverAssetId;
+    }
+
+    public void setCoverAssetId(String coverAssetId) {
+        this.coverAssetId = coverAssetId;
+    }
+
     public Boolean getIsCompleted() {
         return isCompleted;
     }
@@ -95,6 +109,7 @@ public class NovelUpdateRequestDTO {
                 ", synopsis='" + synopsis + '\'' +
                 ", categoryId=" + categoryId +
                 ", coverImgBase64='" + (coverImgBase64 != null ? "[BASE64_DATA]" : "null") + '\'' +
+                ", coverAssetId='" + coverAssetId + '\'' +
                 ", isCompleted=" + isCompleted +
                 ", status='" + status + '\'' +
                 '}';
@@ -4,6 +4,8 @@ import com.yushan.content_service.dto.common.PageResponseDTO;
 import com.yushan.content_service.dto.novel.NovelDetailResponseDTO;
 import com.yushan.content_service.dto.chapter.ChapterSummaryDTO;
 
+import java.util.Map;
+
 /**
  * DTO for combined search response.
  * Contains search results for both novels and chapters.
@@ -14,6 +16,10 @@ public class CombinedSearchResponseDTO {
     private long totalResults;
     private String searchQuery;
     private long searchTimeMs;
+    // True when a branch missed the deadline or failed and its results are missing
+    private boolean partial;
+    // Branch name (novels, chapters) to why it is missing: timeout, error or interrupted
+    private Map<String, String> branchErrors;
 
     // Constructors
     public CombinedSearchResponseDTO() {}
@@ -68,4 +74,20 @@ public class CombinedSearchResponseDTO {
     public void setSearchTimeMs(long searchTimeMs) { 
         this.searchTimeMs = searchTimeMs; 
     }
+    
+    public boolean isPartial() { 
+        return partial; 
+    }
+    
+    public void setPartial(boolean partial) { 
+        this.partial = partial; 
+    }
+    
+    public Map<String, String> getBranchErrors() { 
+        return branchErrors; 
+    }
+    
+    public void setBranchErrors(Map<String, String> branchErrors) { 
+        this.branchErrors = branchErrors; 
+    }
 }
@@ -1,5 +1,6 @@
 package com.yushan.content_service.entity;
 
+import com.yushan.content_service.enums.CoverStatus;
 import com.yushan.content_service.enums.NovelStatus;
 import java.util.Date;
 import java.util.UUID;
@@ -29,6 +30,8 @@ public class Novel {
     private Date createTime;
     private Date updateTime;
     private Date publishTime;
+    private String coverStatus;
+    private UUID coverJobId;
 
     // Constructors
     public Novel() {
@@ -223,6 +226,22 @@ public class Novel {
         this.publishTime = publishTime != null ? new Date(publishTime.getTime()) : null;
     }
 
+    public String getCoverStatus() {
+        return coverStatus;
+    }
+
+    public void setCoverStatus(String coverStatus) {
+        this.coverStatus = coverStatus;
+    }
+
+    public UUID getCoverJobId() {
+        return coverJobId;
+    }
+
+    public void setCoverJobId(UUID coverJobId) {
+        this.coverJobId = coverJobId;
+    }
+
     // Business Logic Methods - Rich Domain Model
 
     /**
@@ -401,6 +420,30 @@ public class Novel {
         this.publishTime = null;
     }
 
+    /**
+     * Start a new cover processing job; the current cover stays until the job finishes.
+     * Any earlier job still running is superseded and can no longer change the cover.
+     *
+     * @return id of the new job
+     */
+    public UUID startCoverJob() {
+        this.coverJobId = UUID.randomUUID();
+        this.coverStatus = CoverStatus.PENDING.name();
+        updateTimestamp();
+        return this.coverJobId;
+    }
+
+    /**
+     * Use a cover that is already stored, e.g. one uploaded through the cover endpoint.
+     * Any cover job still running is superseded and can no longer change the cover.
+     */
+    public void attachCover(String coverImgUrl) {
+        this.coverJobId = UUID.randomUUID();
+        this.coverImgUrl = coverImgUrl;
+        this.coverStatus = CoverStatus.READY.name();
+        updateTimestamp();
+    }
+
     /**
      * Update the update timestamp to current time.
      */
@@ -0,0 +1,84 @@
+package com.yushan.content_service.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event waiting in the transactional outbox to be relayed to Kafka
+ */
+public class OutboxEvent {
+
+    private Long id;
+    private String aggregateKey; // Kafka record key; events of one key are relayed in order
+    private String topic;
+    private String payloadType;
+    private String payload; // JSON string
+    private LocalDateTime createdAt;
+    private int attempts; // failed relay attempts so far
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String aggregateKey, String topic, String payloadType, String payload, LocalDateTime createdAt) {
+        this.aggregateKey = aggregateKey;
+        this.topic = topic;
+        this.payloadType = payloadType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getAggregateKey() {
+        return aggregateKey;
+    }
+
+    public void setAggregateKey(String aggregateKey) {
+        this.aggregateKey = aggregateKey;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getPayloadType() {
+        return payloadType;
+    }
+
+    public void setPayloadType(String payloadType) {
+        this.payloadType = payloadType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
@@ -0,0 +1,56 @@
+package com.yushan.content_service.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored image waiting in the deletion queue
+ */
+public class StorageDeletion {
+
+    private Long id;
+    private String imageUrl;
+    private Integer attempts; // failed delete attempts so far
+    private LocalDateTime createdAt;
+
+    public StorageDeletion() {
+    }
+
+    public StorageDeletion(Long id, String imageUrl, Integer attempts, LocalDateTime createdAt) {
+        this.id = id;
+        this.imageUrl = imageUrl;
+        this.attempts = attempts;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,19 +1,25 @@
 package com.yushan.content_service.entity.elasticsearch;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 
 import java.util.Date;
 
 /**
  * Elasticsearch document for chapters.
- * Maps to the chapters index in Elasticsearch.
+ * Maps to the chapters index in Elasticsearch. Content is searched through
+ * ChapterPassageDocument; this document carries titles, filters and counters.
  */
 @Document(indexName = "chapters")
 public class ChapterDocument {
 
+    public static final int PREVIEW_LENGTH = 200;
+
     @Id
     private String id;
 
@@ -26,11 +32,19 @@ public class ChapterDocument {
     @Field(type = FieldType.Integer)
     private Integer chapterNumber;
     
-    @Field(type = FieldType.Text, analyzer = "standard")
+    @MultiField(
+        mainField = @Field(type = FieldType.Text, analyzer = "standard"),
+        otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword)
+    )
     private String title;
     
-    @Field(type = FieldType.Text, analyzer = "standard")
+    // Not indexed; full text lives in the chapter_passages index and this only feeds the preview
+    @Transient
     private String content;
+
+    // Leading excerpt of the content, stored for result previews but not searchable
+    @Field(type = FieldType.Text, index = false)
+    private String preview;
     
     @Field(type = FieldType.Integer)
     private Integer wordCnt;
@@ -69,6 +83,7 @@ public class ChapterDocument {
         this.chapterNumber = chapterNumber;
         this.title = title;
         this.content = content;
+        this.preview = previewOf(content);
         this.wordCnt = wordCnt;
         this.isPremium = isPremium;
         this.yuanCost = yuanCost;
@@ -98,6 +113,9 @@ public class ChapterDocument {
     public String getContent() { return content; }
     public void setContent(String content) { this.content = content; }
 
+    public String getPreview() { return preview; }
+    public void setPreview(String preview) { this.preview = preview; }
+
     public Integer getWordCnt() { return wordCnt; }
     public void setWordCnt(Integer wordCnt) { this.wordCnt = wordCnt; }
 
@@ -121,4 +139,13 @@ public class ChapterDocument {
 
     public Date getPublishTime() { return publishTime != null ? (Date) publishTime.clone() : null; }
     public void setPublishTime(Date publishTime) { this.publishTime = publishTime != null ? (Date) publishTime.clone() : null; }
+
+    /**
+     * Build the stored preview from chapter content
+     */
+    public static String previewOf(String content) {
+        return content != null && content.length() > PREVIEW_LENGTH
+                ? content.substring(0, PREVIEW_LENGTH)
+                : content;
+    }
 }
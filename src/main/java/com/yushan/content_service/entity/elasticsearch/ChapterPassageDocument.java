@@ -0,0 +1,105 @@
+package com.yushan.content_service.entity.elasticsearch;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+
+/**
+ * Elasticsearch document for one fixed-size passage of a chapter's content.
+ * Full-text chapter search runs on passages and collapses on chapterId, so a chapter
+ * is scored by its best passage. Chapter filters are copied onto every passage.
+ * Maps to the chapter_passages index in Elasticsearch.
+ */
+@Document(indexName = "chapter_passages")
+public class ChapterPassageDocument {
+
+    /**
+     * Maximum passage length in characters
+     */
+    public static final int PASSAGE_LENGTH = 1000;
+
+    @Id
+    private String id;
+
+    @Field(type = FieldType.Integer)
+    private Integer chapterId;
+
+    @Field(type = FieldType.Integer)
+    private Integer novelId;
+
+    @Field(type = FieldType.Integer)
+    private Integer chapterNumber;
+
+    @Field(type = FieldType.Text, analyzer = "standard")
+    private String title;
+
+    @Field(type = FieldType.Boolean)
+    private Boolean isPremium;
+
+    @Field(type = FieldType.Boolean)
+    private Boolean isValid;
+
+    @Field(type = FieldType.Integer)
+    private Integer passageIndex;
+
+    // Character offset of the passage in the chapter content
+    @Field(type = FieldType.Integer)
+    private Integer startOffset;
+
+    @Field(type = FieldType.Text, analyzer = "standard")
+    private String text;
+
+    // Constructors
+    public ChapterPassageDocument() {}
+
+    public ChapterPassageDocument(Integer chapterId, Integer novelId, Integer chapterNumber, String title,
+                                  Boolean isPremium, Boolean isValid, Integer passageIndex,
+                                  Integer startOffset, String text) {
+        this.id = passageId(chapterId, passageIndex);
+        this.chapterId = chapterId;
+        this.novelId = novelId;
+        this.chapterNumber = chapterNumber;
+        this.title = title;
+        this.isPremium = isPremium;
+        this.isValid = isValid;
+        this.passageIndex = passageIndex;
+        this.startOffset = startOffset;
+        this.text = text;
+    }
+
+    public static String passageId(Integer chapterId, Integer passageIndex) {
+        return chapterId + "-" + passageIndex;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Integer getChapterId() { return chapterId; }
+    public void setChapterId(Integer chapterId) { this.chapterId = chapterId; }
+
+    public Integer getNovelId() { return novelId; }
+    public void setNovelId(Integer novelId) { this.novelId = novelId; }
+
+    public Integer getChapterNumber() { return chapterNumber; }
+    public void setChapterNumber(Integer chapterNumber) { this.chapterNumber = chapterNumber; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public Boolean getIsPremium() { return isPremium; }
+    public void setIsPremium(Boolean isPremium) { this.isPremium = isPremium; }
+
+    public Boolean getIsValid() { return isValid; }
+    public void setIsValid(Boolean isValid) { this.isValid = isValid; }
+
+    public Integer getPassageIndex() { return passageIndex; }
+    public void setPassageIndex(Integer passageIndex) { this.passageIndex = passageIndex; }
+
+    public Integer getStartOffset() { return startOffset; }
+    public void setStartOffset(Integer startOffset) { this.startOffset = startOffset; }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+}
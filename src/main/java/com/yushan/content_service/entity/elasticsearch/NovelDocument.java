@@ -4,6 +4,8 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 
 import java.util.Date;
 
@@ -20,7 +22,10 @@ public class NovelDocument {
     @Field(type = FieldType.Keyword)
     private String uuid;
     
-    @Field(type = FieldType.Text, analyzer = "standard")
+    @MultiField(
+        mainField = @Field(type = FieldType.Text, analyzer = "standard"),
+        otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword)
+    )
     private String title;
     
     @Field(type = FieldType.Text, analyzer = "standard")
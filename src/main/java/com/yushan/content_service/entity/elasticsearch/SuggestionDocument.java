@@ -0,0 +1,93 @@
+package com.yushan.content_service.entity.elasticsearch;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+
+/**
+ * Elasticsearch document for search autocomplete.
+ * One small document per novel title, author name and chapter title,
+ * weighted by popularity. Maps to the suggestions index in Elasticsearch.
+ */
+@Document(indexName = "suggestions")
+public class SuggestionDocument {
+
+    public static final String TYPE_NOVEL = "NOVEL";
+    public static final String TYPE_AUTHOR = "AUTHOR";
+    public static final String TYPE_CHAPTER = "CHAPTER";
+
+    /**
+     * A vote counts as much as this many views
+     */
+    private static final long VOTE_WEIGHT = 10L;
+
+    @Id
+    private String id;
+
+    // Indexed with edge n-gram sub-fields for prefix matching
+    @Field(type = FieldType.Search_As_You_Type)
+    private String text;
+
+    @Field(type = FieldType.Keyword)
+    private String type;
+
+    @Field(type = FieldType.Long)
+    private Long weight;
+
+    // Constructors
+    public SuggestionDocument() {}
+
+    public SuggestionDocument(String id, String text, String type, Long weight) {
+        this.id = id;
+        this.text = text;
+        this.type = type;
+        this.weight = weight;
+    }
+
+    public static SuggestionDocument forNovel(Integer novelId, String title, Long weight) {
+        return new SuggestionDocument(novelSuggestionId(novelId), title, TYPE_NOVEL, weight);
+    }
+
+    public static SuggestionDocument forAuthor(String authorId, String authorName, Long weight) {
+        return new SuggestionDocument(authorSuggestionId(authorId), authorName, TYPE_AUTHOR, weight);
+    }
+
+    public static SuggestionDocument forChapter(Integer chapterId, String title, Long weight) {
+        return new SuggestionDocument(chapterSuggestionId(chapterId), title, TYPE_CHAPTER, weight);
+    }
+
+    public static String novelSuggestionId(Integer novelId) {
+        return "novel-" + novelId;
+    }
+
+    public static String authorSuggestionId(String authorId) {
+        return "author-" + authorId;
+    }
+
+    public static String chapterSuggestionId(Integer chapterId) {
+        return "chapter-" + chapterId;
+    }
+
+    /**
+     * Popularity weight from view and vote counters
+     */
+    public static long popularityWeight(Long viewCnt, Integer voteCnt) {
+        long views = viewCnt != null ? viewCnt : 0L;
+        long votes = voteCnt != null ? voteCnt : 0L;
+        return views + votes * VOTE_WEIGHT;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Long getWeight() { return weight; }
+    public void setWeight(Long weight) { this.weight = weight; }
+}
@@ -0,0 +1,11 @@
+package com.yushan.content_service.enums;
+
+/**
+ * Enum representing the state of the latest cover processing job of a novel.
+ * Stored by name in the database; null when no cover was ever submitted.
+ */
+public enum CoverStatus {
+    PENDING,
+    READY,
+    FAILED
+}
@@ -0,0 +1,34 @@
+package com.yushan.content_service.enums;
+
+/**
+ * How text search results are scored.
+ */
+public enum SearchRankingMode {
+    TEXT("Text relevance only"),
+    POPULARITY("Text relevance boosted by views, votes, rating and recency");
+
+    private final String description;
+
+    SearchRankingMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Get SearchRankingMode by name (case insensitive)
+     */
+    public static SearchRankingMode fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (SearchRankingMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Invalid search ranking mode: " + name);
+    }
+}
@@ -1,17 +1,51 @@
 package com.yushan.content_service.listener;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.content_service.config.KafkaConfig;
+import com.yushan.content_service.entity.Novel;
 import com.yushan.content_service.service.IdempotencyService;
 import com.yushan.content_service.service.NovelService;
+import com.yushan.content_service.util.RedisUtil;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Kafka listener for engagement service events
  * Handles events from engagement-service like novel rating updates
+ *
+ * Both topics carry absolute values, so each poll batch is collapsed to the last value
+ * per novel and written with one multi-row UPDATE; idempotency is checked and recorded
+ * for the whole batch at once.
+ *
+ * Failures never hold up a partition: if the bulk update fails, novels are applied one by
+ * one and the records that still fail are handed to {@code <topic>-failed}, where they are
+ * retried with exponential delays before landing in {@code <topic>-failed-dlt}. A retried
+ * record is dropped if a newer update of the same novel was applied in the meantime.
  */
 @Slf4j
 @Component
@@ -26,86 +60,307 @@ public class EngagementEventListener {
     @Autowired
     private ObjectMapper objectMapper;
 
-    private static final String IDEMPOTENCY_PREFIX_RATING = "idempotency:novel-rating:";
-    private static final String IDEMPOTENCY_PREFIX_VOTE_COUNT = "idempotency:novel-vote-count:";
+    @Autowired
+    private KafkaTemplate<String, String> retryKafkaTemplate;
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    static final String RATING_TOPIC = "novel-rating-events";
+    static final String VOTE_COUNT_TOPIC = "novel-vote-count-events";
+
+    // Failure metadata attached to records handed to the retry topics
+    static final String HEADER_ORIGINAL_TOPIC = "engagement-original-topic";
+    static final String HEADER_ORIGINAL_OFFSET = "engagement-original-offset";
+    static final String HEADER_ORIGINAL_TIMESTAMP = "engagement-original-timestamp";
+    static final String HEADER_EXCEPTION = "engagement-exception";
+
+    private static final String APPLIED_PREFIX = "engagement:applied:";
+    private static final Duration APPLIED_TTL = Duration.ofDays(1);
+    private static final long FORWARD_TIMEOUT_MS = 10000;
 
     /**
-     * Consume NovelRatingUpdateEvent from engagement service
-     * Updates novel's average rating and review count
+     * Consume a batch of NovelRatingUpdateEvent from engagement service
+     * Updates novels' average rating and review count
      */
-    @KafkaListener(topics = "novel-rating-events", groupId = "content-service")
-    public void handleNovelRatingUpdateEvent(@Payload String eventJson) {
+    @KafkaListener(topics = RATING_TOPIC, groupId = "content-service",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void handleNovelRatingUpdateEvents(List<ConsumerRecord<String, String>> records) {
+        handleBatch(EventKind.RATING, records);
+    }
+
+    /**
+     * Consume a batch of NovelVoteCountUpdateEvent from engagement service
+     * Updates novels' vote count
+     */
+    @KafkaListener(topics = VOTE_COUNT_TOPIC, groupId = "content-service",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void handleNovelVoteCountUpdateEvents(List<ConsumerRecord<String, String>> records) {
+        handleBatch(EventKind.VOTE_COUNT, records);
+    }
+
+    /**
+     * Retry one failed engagement event; failures move it to the next, longer delayed retry
+     * topic and after the last attempt to the dead-letter topic
+     */
+    @RetryableTopic(
+            attempts = "${kafka.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${kafka.retry.multiplier:5}",
+                    maxDelayExpression = "${kafka.retry.max-delay-ms:60000}"),
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            dltTopicSuffix = KafkaConfig.DLT_TOPIC_SUFFIX,
+            kafkaTemplate = "retryKafkaTemplate",
+            exclude = JsonProcessingException.class)
+    @KafkaListener(topics = {RATING_TOPIC + KafkaConfig.FAILED_TOPIC_SUFFIX, VOTE_COUNT_TOPIC + KafkaConfig.FAILED_TOPIC_SUFFIX},
+            groupId = "content-service")
+    public void retryEngagementEvent(ConsumerRecord<String, String> record) throws JsonProcessingException {
+        EventKind kind = EventKind.fromTopic(record.topic());
+        EngagementUpdate update = parse(kind, record);
         try {
-            // Parse JSON to extract event data
-            com.fasterxml.jackson.databind.JsonNode jsonNode = objectMapper.readTree(eventJson);
-            Integer novelId = jsonNode.get("novelId").asInt();
-            Float avgRating = (float) jsonNode.get("avgRating").asDouble();
-            Integer reviewCount = jsonNode.get("reviewCount").asInt();
-            String idempotencyKey = jsonNode.has("idempotencyKey") 
-                    ? jsonNode.get("idempotencyKey").asText() 
-                    : novelId + "-" + System.currentTimeMillis();
-
-            // Idempotency check: hybrid Redis + Database
-            String idempotencyRedisKey = IDEMPOTENCY_PREFIX_RATING + idempotencyKey;
-            if (idempotencyService.isProcessed(idempotencyRedisKey, "NovelRatingUpdate")) {
-                log.info("Event already processed, skipping: novelId={}, idempotencyKey={}", 
-                        novelId, idempotencyKey);
+            if (idempotencyService.filterUnprocessed(List.of(update.idempotencyKey()), kind.eventType).isEmpty()) {
+                count(record.topic(), "duplicate", 1);
+                return;
+            }
+            Long applied = redisUtil.get(appliedKey(kind, update.novel().getId()), Long.class);
+            if (applied != null && applied >= update.timestamp()) {
+                // A newer value of this novel was applied while this one was retrying
+                idempotencyService.markProcessed(List.of(update.idempotencyKey()), kind.eventType);
+                count(record.topic(), "superseded", 1);
                 return;
             }
+            apply(kind, List.of(update));
+            idempotencyService.markProcessed(List.of(update.idempotencyKey()), kind.eventType);
+            rememberApplied(kind, List.of(update));
+            count(record.topic(), "processed", 1);
+        } catch (RuntimeException e) {
+            count(record.topic(), "failed", 1);
+            log.warn("Retry of {} event for novel {} failed on {}: {}",
+                    kind.eventType, update.novel().getId(), record.topic(), e.getMessage());
+            throw e;
+        }
+    }
 
-            // Update novel rating and review count
-            novelService.updateNovelRatingAndCount(novelId, avgRating, reviewCount);
+    /**
+     * Final stop of events that could not be processed; they stay in the dead-letter topic for inspection
+     */
+    @DltHandler
+    public void handleDeadLetter(ConsumerRecord<String, String> record) {
+        count(record.topic(), "dead_lettered", 1);
+        String exception = header(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE);
+        log.error("Engagement event dead-lettered on {} (original topic {}, offset {}): {} - {}",
+                record.topic(), header(record, HEADER_ORIGINAL_TOPIC), header(record, HEADER_ORIGINAL_OFFSET),
+                exception != null ? exception : header(record, HEADER_EXCEPTION), record.value());
+    }
 
-            // Mark as processed (both Redis and Database)
-            idempotencyService.markAsProcessed(idempotencyRedisKey, "NovelRatingUpdate");
+    private void handleBatch(EventKind kind, List<ConsumerRecord<String, String>> records) {
+        List<EngagementUpdate> updates = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                updates.add(parse(kind, record));
+            } catch (Exception e) {
+                // A malformed record can never succeed, so it skips the retry topics
+                log.error("Malformed {} event at offset {}: {}", kind.eventType, record.offset(), record.value(), e);
+                forward(record, kind.topic + KafkaConfig.FAILED_TOPIC_SUFFIX + KafkaConfig.DLT_TOPIC_SUFFIX, e);
+                count(record.topic(), "malformed", 1);
+            }
+        }
 
-            log.info("Successfully processed NOVEL_RATING_UPDATE event: novelId={}, avgRating={}, reviewCount={}", 
-                    novelId, avgRating, reviewCount);
+        Map<Integer, EngagementUpdate> latest = collapse(kind, updates);
+        if (latest.isEmpty()) {
+            return;
+        }
 
+        try {
+            apply(kind, latest.values());
+            // Mark as processed (both Redis and Database)
+            idempotencyService.markProcessed(idempotencyKeys(latest.values()), kind.eventType);
+            rememberApplied(kind, latest.values());
+            count(kind.topic, "processed", latest.size());
+            log.info("Successfully processed {} {} events for {} novels", records.size(), kind.eventType, latest.size());
         } catch (Exception e) {
-            log.error("Failed to process NOVEL_RATING_UPDATE event: {}", eventJson, e);
-            // Exception will be handled by DefaultErrorHandler (retry 3 times)
-            throw new RuntimeException("Failed to process novel rating update event", e);
+            log.warn("Bulk {} update of {} novels failed, applying them one by one: {}",
+                    kind.eventType, latest.size(), e.getMessage());
+            applyOneByOne(kind, latest.values());
         }
     }
 
     /**
-     * Consume NovelVoteCountUpdateEvent from engagement service
-     * Updates novel's vote count
+     * Apply novels separately so one failing novel does not hold back the others; the failing
+     * ones are handed to the retry topic and the batch is committed
      */
-    @KafkaListener(topics = "novel-vote-count-events", groupId = "content-service")
-    public void handleNovelVoteCountUpdateEvent(@Payload String eventJson) {
-        try {
-            // Parse JSON to extract event data
-            com.fasterxml.jackson.databind.JsonNode jsonNode = objectMapper.readTree(eventJson);
-            Integer novelId = jsonNode.get("novelId").asInt();
-            Integer voteCount = jsonNode.get("voteCount").asInt();
-            String idempotencyKey = jsonNode.has("idempotencyKey") 
-                    ? jsonNode.get("idempotencyKey").asText() 
-                    : novelId + "-" + System.currentTimeMillis();
-
-            // Idempotency check: hybrid Redis + Database
-            String idempotencyRedisKey = IDEMPOTENCY_PREFIX_VOTE_COUNT + idempotencyKey;
-            if (idempotencyService.isProcessed(idempotencyRedisKey, "NovelVoteCountUpdate")) {
-                log.info("Event already processed, skipping: novelId={}, idempotencyKey={}", 
-                        novelId, idempotencyKey);
-                return;
+    private void applyOneByOne(EventKind kind, Collection<EngagementUpdate> updates) {
+        List<EngagementUpdate> applied = new ArrayList<>(updates.size());
+        for (EngagementUpdate update : updates) {
+            try {
+                apply(kind, List.of(update));
+                idempotencyService.markProcessed(idempotencyKeys(List.of(update)), kind.eventType);
+                applied.add(update);
+            } catch (Exception e) {
+                log.warn("{} update of novel {} failed, scheduling a retry: {}",
+                        kind.eventType, update.novel().getId(), e.getMessage());
+                forward(update.record(), kind.topic + KafkaConfig.FAILED_TOPIC_SUFFIX, e);
+                count(kind.topic, "retried", 1);
             }
+        }
+        rememberApplied(kind, applied);
+        count(kind.topic, "processed", applied.size());
+    }
 
-            // Update novel vote count
-            novelService.updateNovelVoteCount(novelId, voteCount);
+    /**
+     * Drop already processed events and keep the last update per novel.
+     * Events that are superseded within the batch are still recorded as processed.
+     */
+    private Map<Integer, EngagementUpdate> collapse(EventKind kind, List<EngagementUpdate> updates) {
+        Map<Integer, EngagementUpdate> latest = new LinkedHashMap<>();
+        if (updates.isEmpty()) {
+            return latest;
+        }
 
-            // Mark as processed (both Redis and Database)
-            idempotencyService.markAsProcessed(idempotencyRedisKey, "NovelVoteCountUpdate");
+        // Idempotency check: memory + Redis + Database, at most one round trip each for the batch
+        Set<String> unprocessed = idempotencyService.filterUnprocessed(
+                updates.stream().map(EngagementUpdate::idempotencyKey).toList(), kind.eventType);
+        if (unprocessed.size() < updates.size()) {
+            log.info("Skipping {} already processed {} events", updates.size() - unprocessed.size(), kind.eventType);
+            count(kind.topic, "duplicate", updates.size() - unprocessed.size());
+        }
 
-            log.info("Successfully processed NOVEL_VOTE_COUNT_UPDATE event: novelId={}, voteCount={}", 
-                    novelId, voteCount);
+        for (EngagementUpdate update : updates) {
+            if (unprocessed.contains(update.idempotencyKey())) {
+                EngagementUpdate previous = latest.put(update.novel().getId(), update);
+                if (previous != null) {
+                    update.superseded().addAll(previous.superseded());
+                    update.superseded().add(previous.idempotencyKey());
+                }
+            }
+        }
+        return latest;
+    }
 
+    private EngagementUpdate parse(EventKind kind, ConsumerRecord<String, String> record) throws JsonProcessingException {
+        JsonNode jsonNode = objectMapper.readTree(record.value());
+        Novel novel = new Novel();
+        novel.setId(jsonNode.get("novelId").asInt());
+        if (kind == EventKind.RATING) {
+            novel.setAvgRating((float) jsonNode.get("avgRating").asDouble());
+            novel.setReviewCnt(jsonNode.get("reviewCount").asInt());
+        } else {
+            novel.setVoteCnt(jsonNode.get("voteCount").asInt());
+        }
+        String idempotencyKey = jsonNode.has("idempotencyKey")
+                ? jsonNode.get("idempotencyKey").asText()
+                : novel.getId() + "-" + System.currentTimeMillis();
+        String originalTimestamp = header(record, HEADER_ORIGINAL_TIMESTAMP);
+        long timestamp = originalTimestamp != null ? Long.parseLong(originalTimestamp) : record.timestamp();
+        return new EngagementUpdate(kind.idempotencyPrefix + idempotencyKey, novel, timestamp, record, new ArrayList<>());
+    }
+
+    private void apply(EventKind kind, Collection<EngagementUpdate> updates) {
+        if (kind == EventKind.RATING) {
+            List<Novel> ratings = new ArrayList<>(updates.size());
+            updates.forEach(update -> ratings.add(update.novel()));
+            novelService.updateNovelRatingsAndCounts(ratings);
+        } else {
+            Map<Integer, Integer> voteCounts = new LinkedHashMap<>();
+            updates.forEach(update -> voteCounts.put(update.novel().getId(), update.novel().getVoteCnt()));
+            novelService.updateNovelVoteCounts(voteCounts);
+        }
+    }
+
+    /**
+     * Remember the event time of the values now stored, so older retried values are not applied over them
+     */
+    private void rememberApplied(EventKind kind, Collection<EngagementUpdate> updates) {
+        Map<String, Long> applied = new LinkedHashMap<>();
+        for (EngagementUpdate update : updates) {
+            applied.put(appliedKey(kind, update.novel().getId()), update.timestamp());
+        }
+        try {
+            redisUtil.setAll(applied, APPLIED_TTL);
         } catch (Exception e) {
-            log.error("Failed to process NOVEL_VOTE_COUNT_UPDATE event: {}", eventJson, e);
-            // Exception will be handled by DefaultErrorHandler (retry 3 times)
-            throw new RuntimeException("Failed to process novel vote count update event", e);
+            log.warn("Failed to record applied {} events: {}", kind.eventType, e.getMessage());
         }
     }
-}
 
+    /**
+     * Hand a record to a retry or dead-letter topic and wait for Kafka to accept it, so the
+     * batch is only committed once the record is safe; if this fails the batch is retried
+     */
+    private void forward(ConsumerRecord<String, String> record, String topic, Exception cause) {
+        // Records without a timestamp (NO_TIMESTAMP) get the send time; the original is kept in a header
+        Long timestamp = record.timestamp() >= 0 ? record.timestamp() : null;
+        ProducerRecord<String, String> forwarded = new ProducerRecord<>(topic, null, timestamp, record.key(), record.value());
+        for (Header header : record.headers()) {
+            forwarded.headers().add(header);
+        }
+        if (header(record, HEADER_ORIGINAL_TOPIC) == null) {
+            addHeader(forwarded, HEADER_ORIGINAL_TOPIC, record.topic());
+            addHeader(forwarded, HEADER_ORIGINAL_OFFSET, record.partition() + "@" + record.offset());
+            addHeader(forwarded, HEADER_ORIGINAL_TIMESTAMP, String.valueOf(record.timestamp()));
+        }
+        addHeader(forwarded, HEADER_EXCEPTION, cause.getClass().getName() + ": " + cause.getMessage());
+        try {
+            retryKafkaTemplate.send(forwarded).get(FORWARD_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while forwarding record to " + topic, e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to forward record to " + topic, e);
+        }
+    }
+
+    private void count(String topic, String outcome, int amount) {
+        if (amount > 0) {
+            meterRegistry.counter("engagement.events", "topic", topic, "outcome", outcome).increment(amount);
+        }
+    }
+
+    private static Set<String> idempotencyKeys(Collection<EngagementUpdate> updates) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (EngagementUpdate update : updates) {
+            keys.addAll(update.superseded());
+            keys.add(update.idempotencyKey());
+        }
+        return keys;
+    }
+
+    private static String appliedKey(EventKind kind, Integer novelId) {
+        return APPLIED_PREFIX + kind.eventType + ":" + novelId;
+    }
+
+    private static String header(ConsumerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static void addHeader(ProducerRecord<String, String> record, String name, String value) {
+        record.headers().remove(name);
+        record.headers().add(name, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private enum EventKind {
+        RATING(RATING_TOPIC, "idempotency:novel-rating:", "NovelRatingUpdate"),
+        VOTE_COUNT(VOTE_COUNT_TOPIC, "idempotency:novel-vote-count:", "NovelVoteCountUpdate");
+
+        private final String topic;
+        private final String idempotencyPrefix;
+        private final String eventType;
+
+        EventKind(String topic, String idempotencyPrefix, String eventType) {
+            this.topic = topic;
+            this.idempotencyPrefix = idempotencyPrefix;
+            this.eventType = eventType;
+        }
+
+        static EventKind fromTopic(String topic) {
+            return topic.startsWith(RATING_TOPIC) ? RATING : VOTE_COUNT;
+        }
+    }
+
+    private record EngagementUpdate(String idempotencyKey, Novel novel, long timestamp,
+                                    ConsumerRecord<String, String> record, List<String> superseded) {
+    }
+}
@@ -4,6 +4,7 @@ import com.yushan.content_service.dto.chapter.ChapterSearchRequestDTO;
 import com.yushan.content_service.entity.Chapter;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Repository interface for Chapter aggregate.
@@ -25,6 +26,16 @@ public interface ChapterRepository {
     // Query operations
     List<Chapter> findByIds(List<Integer> ids);
     
+    /**
+     * Load chapters without title and content, for counter-only consumers
+     */
+    List<Chapter> findCountersByIds(List<Integer> ids);
+    
+    /**
+     * Load chapters with content cut to the preview length, for search indexing
+     */
+    List<Chapter> findSummariesByIds(List<Integer> ids);
+    
     List<Chapter> findByNovelId(Integer novelId);
     
     List<Chapter> findPublishedByNovelId(Integer novelId);
@@ -39,6 +50,11 @@ public interface ChapterRepository {
     
     List<Chapter> findPublishedChapters();
     
+    /**
+     * Stream all published chapter summaries one row at a time, without loading them into a list
+     */
+    void streamPublishedChapterSummaries(Consumer<Chapter> consumer);
+    
     // Chapter navigation
     Chapter findNextChapter(Integer novelId, Integer chapterNumber);
     
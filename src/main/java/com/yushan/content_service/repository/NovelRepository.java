@@ -3,8 +3,10 @@ package com.yushan.content_service.repository;
 import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
 import com.yushan.content_service.entity.Novel;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Repository interface for Novel aggregate.
@@ -47,6 +49,16 @@ public interface NovelRepository {
     
     List<Novel> findByUuids(List<UUID> uuids);
     
+    /**
+     * The author's published novel with the most views and votes, or null if there is none
+     */
+    Novel findMostPopularPublishedByAuthor(UUID authorId);
+    
+    /**
+     * Stream all published novels one row at a time, without loading them into a list
+     */
+    void streamPublishedNovels(Consumer<Novel> consumer);
+    
     // Ranking queries
     List<Novel> findNovelsByRanking(Integer categoryId, String sortType, int offset, int limit);
     
@@ -65,10 +77,39 @@ public interface NovelRepository {
     
     void updateRating(Integer novelId, Float avgRating, Integer reviewCount);
     
+    void updateVoteCounts(List<Novel> novels);
+    
+    void updateRatings(List<Novel> novels);
+    
     void updateStatus(Integer novelId, Integer status);
     
     void updatePublishTime(Integer novelId, java.util.Date publishTime);
     
+    // Cover columns are not written by save(); these are the only writes that change them
+    /**
+     * Record a new cover job; the current cover stays until the job completes
+     */
+    void startCoverJob(Integer novelId, UUID coverJobId);
+    
+    /**
+     * Attach a stored cover, superseding any running cover job
+     *
+     * @return the cover URL it replaced, read under a row lock
+     */
+    String attachCover(Integer novelId, UUID coverJobId, String coverImgUrl);
+    
+    // Cover job results; false if a newer cover job has replaced this one
+    boolean updateCoverIfCurrentJob(Integer novelId, UUID coverJobId, String coverImgUrl, String coverStatus);
+    
+    // Mark cover jobs PENDING for longer than maxAgeMinutes as FAILED; returns the novel ids
+    List<Integer> failStaleCoverJobs(long maxAgeMinutes);
+    
+    // Stored covers still used by a novel; covers are shared by novels with identical images
+    List<String> findReferencedCoverImgUrls(Collection<String> coverImgUrls);
+    
+    // Cover URL of any novel, or null if no novel has a cover
+    String findAnyCoverImgUrl();
+    
     // Admin statistics
     List<Novel> findNovelsUnderReview(int offset, int limit);
     
@@ -17,9 +17,9 @@ import java.util.List;
 public interface ChapterElasticsearchRepository extends ElasticsearchRepository<ChapterDocument, String> {
 
     /**
-     * Search chapters by title or content
+     * Search chapters by title; content is searched through the passage index
      */
-    @Query("{\"multi_match\": {\"query\": \"?0\", \"fields\": [\"title^3\", \"content^1\"], \"type\": \"best_fields\", \"fuzziness\": \"AUTO\"}}")
+    @Query("{\"multi_match\": {\"query\": \"?0\", \"fields\": [\"title^3\"], \"type\": \"best_fields\", \"fuzziness\": \"AUTO\"}}")
     Page<ChapterDocument> searchByText(String query, Pageable pageable);
 
     /**
@@ -65,7 +65,7 @@ public interface ChapterElasticsearchRepository extends ElasticsearchRepository<
     /**
      * Complex search with multiple criteria
      */
-    @Query("{\"bool\": {\"must\": [{\"multi_match\": {\"query\": \"?0\", \"fields\": [\"title^3\", \"content^1\"], \"type\": \"best_fields\", \"fuzziness\": \"AUTO\"}}], \"filter\": [{\"term\": {\"novelId\": ?1}}, {\"term\": {\"isPremium\": ?2}}, {\"term\": {\"isValid\": ?3}}]}}")
+    @Query("{\"bool\": {\"must\": [{\"multi_match\": {\"query\": \"?0\", \"fields\": [\"title^3\"], \"type\": \"best_fields\", \"fuzziness\": \"AUTO\"}}], \"filter\": [{\"term\": {\"novelId\": ?1}}, {\"term\": {\"isPremium\": ?2}}, {\"term\": {\"isValid\": ?3}}]}}")
     Page<ChapterDocument> searchWithFilters(String query, Integer novelId, Boolean isPremium, Boolean isValid, Pageable pageable);
 
     /**
@@ -0,0 +1,18 @@
+package com.yushan.content_service.repository.elasticsearch;
+
+import com.yushan.content_service.entity.elasticsearch.ChapterPassageDocument;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Elasticsearch repository for chapter passages.
+ * Searches go through ElasticsearchSearchService; this repository only maintains the index.
+ */
+@Repository
+public interface ChapterPassageElasticsearchRepository extends ElasticsearchRepository<ChapterPassageDocument, String> {
+
+    /**
+     * Delete every passage of a chapter (delete by query)
+     */
+    void deleteByChapterId(Integer chapterId);
+}
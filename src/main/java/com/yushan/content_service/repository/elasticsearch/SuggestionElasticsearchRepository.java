@@ -0,0 +1,13 @@
+package com.yushan.content_service.repository.elasticsearch;
+
+import com.yushan.content_service.entity.elasticsearch.SuggestionDocument;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Elasticsearch repository for autocomplete suggestions.
+ * Lookups go through ElasticsearchSearchService; this repository only maintains the index.
+ */
+@Repository
+public interface SuggestionElasticsearchRepository extends ElasticsearchRepository<SuggestionDocument, String> {
+}
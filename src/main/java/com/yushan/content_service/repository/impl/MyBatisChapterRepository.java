@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Repository
 public class MyBatisChapterRepository implements ChapterRepository {
@@ -59,6 +60,16 @@ public class MyBatisChapterRepository implements ChapterRepository {
         return chapterMapper.selectByIds(ids);
     }
 
+    @Override
+    public List<Chapter> findCountersByIds(List<Integer> ids) {
+        return chapterMapper.selectCountersByIds(ids);
+    }
+
+    @Override
+    public List<Chapter> findSummariesByIds(List<Integer> ids) {
+        return chapterMapper.selectSummariesByIds(ids);
+    }
+
     @Override
     public List<Chapter> findByNovelId(Integer novelId) {
         return chapterMapper.selectByNovelId(novelId);
@@ -94,6 +105,11 @@ public class MyBatisChapterRepository implements ChapterRepository {
         return chapterMapper.selectPublishedChapters();
     }
 
+    @Override
+    public void streamPublishedChapterSummaries(Consumer<Chapter> consumer) {
+        chapterMapper.scanPublishedChapterSummaries(context -> consumer.accept(context.getResultObject()));
+    }
+
     @Override
     public Chapter findNextChapter(Integer novelId, Integer chapterNumber) {
         return chapterMapper.selectNextChapter(novelId, chapterNumber);
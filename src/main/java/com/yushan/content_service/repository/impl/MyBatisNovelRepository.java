@@ -5,12 +5,15 @@ import com.yushan.content_service.dao.ChapterMapper;
 import com.yushan.content_service.dao.NovelMapper;
 import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
 import com.yushan.content_service.entity.Novel;
+import com.yushan.content_service.enums.CoverStatus;
 import com.yushan.content_service.repository.NovelRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * MyBatis implementation of NovelRepository.
@@ -105,6 +108,16 @@ public class MyBatisNovelRepository implements NovelRepository {
         return novelMapper.selectByIds(ids);
     }
     
+    @Override
+    public Novel findMostPopularPublishedByAuthor(UUID authorId) {
+        return novelMapper.selectMostPopularPublishedByAuthor(authorId);
+    }
+    
+    @Override
+    public void streamPublishedNovels(Consumer<Novel> consumer) {
+        novelMapper.scanPublishedNovels(context -> consumer.accept(context.getResultObject()));
+    }
+    
     @Override
     public List<Novel> findByUuids(List<UUID> uuids) {
         return novelMapper.selectByUuids(uuids);
@@ -150,6 +163,20 @@ public class MyBatisNovelRepository implements NovelRepository {
         novelMapper.updateRating(novelId, avgRating, reviewCount);
     }
     
+    @Override
+    public void updateVoteCounts(List<Novel> novels) {
+        if (!novels.isEmpty()) {
+            novelMapper.updateVoteCounts(novels);
+        }
+    }
+    
+    @Override
+    public void updateRatings(List<Novel> novels) {
+        if (!novels.isEmpty()) {
+            novelMapper.updateRatings(novels);
+        }
+    }
+    
     @Override
     public void updateStatus(Integer novelId, Integer status) {
         novelMapper.updateStatus(novelId, status);
@@ -160,6 +187,41 @@ public class MyBatisNovelRepository implements NovelRepository {
         novelMapper.updatePublishTime(novelId, publishTime);
     }
     
+    @Override
+    public void startCoverJob(Integer novelId, UUID coverJobId) {
+        novelMapper.updateCover(novelId, coverJobId, null, CoverStatus.PENDING.name());
+    }
+    
+    @Override
+    public String attachCover(Integer novelId, UUID coverJobId, String coverImgUrl) {
+        String replaced = novelMapper.selectCoverImgUrlForUpdate(novelId);
+        novelMapper.updateCover(novelId, coverJobId, coverImgUrl, CoverStatus.READY.name());
+        return replaced;
+    }
+    
+    @Override
+    public boolean updateCoverIfCurrentJob(Integer novelId, UUID coverJobId, String coverImgUrl, String coverStatus) {
+        return novelMapper.updateCoverIfCurrentJob(novelId, coverJobId, coverImgUrl, coverStatus) > 0;
+    }
+    
+    @Override
+    public List<Integer> failStaleCoverJobs(long maxAgeMinutes) {
+        return novelMapper.failStaleCoverJobs(maxAgeMinutes);
+    }
+    
+    @Override
+    public List<String> findReferencedCoverImgUrls(Collection<String> coverImgUrls) {
+        if (coverImgUrls.isEmpty()) {
+            return List.of();
+        }
+        return novelMapper.selectReferencedCoverImgUrls(coverImgUrls);
+    }
+    
+    @Override
+    public String findAnyCoverImgUrl() {
+        return novelMapper.selectAnyCoverImgUrl();
+    }
+    
     @Override
     public List<Novel> findNovelsUnderReview(int offset, int limit) {
         return novelMapper.selectNovelsUnderReview(offset, limit);
@@ -1,6 +1,7 @@
 package com.yushan.content_service.security;
 
-import com.yushan.content_service.util.HmacUtil;
+import com.yushan.content_service.util.HmacSignatureVerifier;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -39,6 +40,28 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
     @Value("${gateway.hmac.secret:${GATEWAY_HMAC_SECRET:yushan-gateway-hmac-secret-key-for-request-signature-2024}}")
     private String hmacSecret;
 
+    /**
+     * Slots for recently verified gateway headers; 0 disables the cache
+     */
+    @Value("${gateway.hmac.verified-cache-size:4096}")
+    private int verifiedCacheSize = 4096;
+
+    /**
+     * How long verified gateway headers are trusted without recomputing the HMAC
+     */
+    @Value("${gateway.hmac.verified-cache-ttl-ms:30000}")
+    private long verifiedCacheTtlMs = 30000;
+
+    private HmacSignatureVerifier signatureVerifier;
+
+    /**
+     * Key the verifier once; it keeps a keyed Mac per thread
+     */
+    @PostConstruct
+    public void init() {
+        signatureVerifier = new HmacSignatureVerifier(hmacSecret, verifiedCacheSize, verifiedCacheTtlMs);
+    }
+
     /**
      * Filter method that processes each request
      * 
@@ -78,7 +101,7 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
                     long timestamp = Long.parseLong(timestampStr);
                     
                     // Verify HMAC signature
-                    if (!HmacUtil.verifySignature(userId, email, role, timestamp, signature, hmacSecret)) {
+                    if (!signatureVerifier.verify(userId, email, role, timestamp, signature)) {
                         logger.warn("Gateway-validated request with invalid HMAC signature from IP: " + 
                                    request.getRemoteAddr() + " for path: " + request.getRequestURI());
                         response.setStatus(HttpStatus.FORBIDDEN.value());
@@ -9,6 +9,7 @@ import com.yushan.content_service.entity.Novel;
 import com.yushan.content_service.enums.NovelStatus;
 import com.yushan.content_service.exception.ResourceNotFoundException;
 import com.yushan.content_service.util.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.*;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class ChapterService {
 
@@ -34,12 +36,14 @@ public class ChapterService {
     @Autowired(required = false)
     private ElasticsearchAutoIndexService elasticsearchAutoIndexService;
 
-    @Autowired
-    private ChapterDomainEventPublisher chapterDomainEventPublisher;
+    @Autowired(required = false)
+    private LuceneAutoIndexService luceneAutoIndexService;
 
     @Autowired
-    private TransactionAwareKafkaPublisher transactionAwareKafkaPublisher;
+    private SearchCacheService searchCacheService;
 
+    @Autowired
+    private ChapterDomainEventPublisher chapterDomainEventPublisher;
 
     @Transactional
     public ChapterDetailResponseDTO createChapter(UUID userId, ChapterCreateRequestDTO req) {
@@ -108,18 +112,16 @@ public class ChapterService {
         redisUtil.invalidateChapterCaches(req.getNovelId());
         chapterDomainEventPublisher.publishChapterStatisticsChanged(req.getNovelId());
 
-        // Publish chapter created event AFTER transaction commit
-        final Chapter finalChapter = chapter;
-        final Novel finalNovel = novel;
-        final UUID finalUserId = userId;
-        transactionAwareKafkaPublisher.publishAfterCommit(() -> {
-            kafkaEventProducerService.publishChapterCreatedEvent(finalChapter, finalNovel, finalUserId);
-        });
+        // Publish chapter created event through the outbox; it is relayed once the transaction commits
+        kafkaEventProducerService.publishChapterCreatedEvent(chapter, novel, userId);
 
         // Auto-index to Elasticsearch
         if (elasticsearchAutoIndexService != null) {
             elasticsearchAutoIndexService.onChapterCreated(chapter);
         }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onChapterCreated(chapter);
+        }
 
         return getChapterByUuid(chapter.getUuid());
     }
@@ -430,12 +432,15 @@ public class ChapterService {
         }
 
         boolean hasChanges = false;
+        // Title, content, premium/validity flags or publish time changes need a full reindex; others are partial updates
+        boolean needsFullReindex = false;
 
         // Update only provided fields
         if (req.getTitle() != null && !req.getTitle().trim().isEmpty()) {
             if (!req.getTitle().equals(existing.getTitle())) {
                 existing.setTitle(req.getTitle());
                 hasChanges = true;
+                needsFullReindex = true;
             }
         }
 
@@ -443,6 +448,7 @@ public class ChapterService {
             if (!req.getContent().equals(existing.getContent())) {
                 existing.updateContent(req.getContent());
                 hasChanges = true;
+                needsFullReindex = true;
             }
         }
 
@@ -454,6 +460,8 @@ public class ChapterService {
         if (req.getIsPremium() != null && !req.getIsPremium().equals(existing.getIsPremium())) {
             existing.setPremiumStatus(req.getIsPremium());
             hasChanges = true;
+            // The premium flag is copied onto every content passage
+            needsFullReindex = true;
         }
 
         if (req.getYuanCost() != null && !req.getYuanCost().equals(existing.getYuanCost())) {
@@ -464,11 +472,14 @@ public class ChapterService {
         if (req.getIsValid() != null && !req.getIsValid().equals(existing.getIsValid())) {
             existing.setValidityStatus(req.getIsValid());
             hasChanges = true;
+            // Passages are dropped for invalid chapters and carry the flag otherwise
+            needsFullReindex = true;
         }
 
         if (req.getPublishTime() != null && !req.getPublishTime().equals(existing.getPublishTime())) {
             existing.setPublishTime(req.getPublishTime());
             hasChanges = true;
+            needsFullReindex = true;
         }
 
         if (hasChanges) {
@@ -484,17 +495,15 @@ public class ChapterService {
             redisUtil.deleteChapterCacheByNovelAndNumber(existing.getNovelId(), existing.getChapterNumber());
             redisUtil.invalidateChapterCaches(existing.getNovelId());
 
-            // Publish chapter updated event AFTER transaction commit
-            final Chapter finalExisting = existing;
-            final Novel finalNovel = novel;
-            final UUID finalUserId = userId;
-            transactionAwareKafkaPublisher.publishAfterCommit(() -> {
-                kafkaEventProducerService.publishChapterUpdatedEvent(finalExisting, finalNovel, finalUserId);
-            });
+            // Publish chapter updated event through the outbox; it is relayed once the transaction commits
+            kafkaEventProducerService.publishChapterUpdatedEvent(existing, novel, userId);
 
             // Auto-index to Elasticsearch
             if (elasticsearchAutoIndexService != null) {
-                elasticsearchAutoIndexService.onChapterUpdated(existing);
+                elasticsearchAutoIndexService.onChapterUpdated(existing, needsFullReindex);
+            }
+            if (luceneAutoIndexService != null) {
+                luceneAutoIndexService.onChapterUpdated(existing, needsFullReindex);
             }
         }
 
@@ -534,14 +543,10 @@ public class ChapterService {
         redisUtil.deleteChapterCache(req.getUuid());
         redisUtil.deleteChapterCacheByNovelAndNumber(chapter.getNovelId(), chapter.getChapterNumber());
         redisUtil.invalidateChapterCaches(chapter.getNovelId());
+        searchCacheService.bumpGeneration();
 
-        // Publish chapter published event AFTER transaction commit
-        final Chapter finalChapter = chapter;
-        final Novel finalNovel = novel;
-        final UUID finalUserId = userId;
-        transactionAwareKafkaPublisher.publishAfterCommit(() -> {
-            kafkaEventProducerService.publishChapterPublishedEvent(finalChapter, finalNovel, finalUserId);
-        });
+        // Publish chapter published event through the outbox; it is relayed once the transaction commits
+        kafkaEventProducerService.publishChapterPublishedEvent(chapter, novel, userId);
     }
 
     @Transactional
@@ -566,6 +571,7 @@ public class ChapterService {
             
             // Invalidate chapter caches for this novel
             redisUtil.invalidateChapterCaches(novelId);
+            searchCacheService.bumpGeneration();
             chapterDomainEventPublisher.publishChapterStatisticsChanged(novelId);
         }
     }
@@ -579,24 +585,26 @@ public class ChapterService {
         
         // Increment view count
         chapterRepository.incrementViewCount(chapter.getId());
+
+        // Queue partial counter update for Elasticsearch
+        if (elasticsearchAutoIndexService != null) {
+            elasticsearchAutoIndexService.onChapterCountersChanged(chapter.getId());
+        }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onChapterCountersChanged(chapter.getId());
+        }
         
-        // Publish chapter view event AFTER transaction commit
-        final Chapter finalChapter = chapter;
-        final UUID finalUserId = userId;
-        final String finalUserAgent = userAgent;
-        final String finalIpAddress = ipAddress;
-        final String finalReferrer = referrer;
-        transactionAwareKafkaPublisher.publishAfterCommit(() -> {
-            try {
-                Novel novel = novelService.getNovelEntity(finalChapter.getNovelId());
-                if (novel != null) {
-                    kafkaEventProducerService.publishChapterViewEvent(finalChapter, novel, finalUserId, finalUserAgent, finalIpAddress, finalReferrer);
-                }
-            } catch (Exception e) {
-                // Log error but don't fail - transaction already committed
-                System.err.println("Failed to publish chapter view event: " + e.getMessage());
-            }
-        });
+        // Publish chapter view event through the outbox; it is relayed once the transaction commits
+        Novel novel = null;
+        try {
+            novel = novelService.getNovelEntity(chapter.getNovelId());
+        } catch (Exception e) {
+            // A missing novel should not fail the view
+            log.warn("Failed to load novel {} for chapter view event: {}", chapter.getNovelId(), e.getMessage());
+        }
+        if (novel != null) {
+            kafkaEventProducerService.publishChapterViewEvent(chapter, novel, userId, userAgent, ipAddress, referrer);
+        }
     }
 
     @Transactional
@@ -618,12 +626,16 @@ public class ChapterService {
         redisUtil.deleteChapterCache(uuid);
         redisUtil.deleteChapterCacheByNovelAndNumber(chapter.getNovelId(), chapter.getChapterNumber());
         redisUtil.invalidateChapterCaches(chapter.getNovelId());
+        searchCacheService.bumpGeneration();
         chapterDomainEventPublisher.publishChapterStatisticsChanged(chapter.getNovelId());
 
         // Auto-remove from Elasticsearch
         if (elasticsearchAutoIndexService != null) {
             elasticsearchAutoIndexService.onChapterDeleted(chapter.getId());
         }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onChapterDeleted(chapter.getId());
+        }
     }
 
     @Transactional
@@ -645,10 +657,14 @@ public class ChapterService {
             if (elasticsearchAutoIndexService != null) {
                 elasticsearchAutoIndexService.onChapterDeleted(chapter.getId());
             }
+            if (luceneAutoIndexService != null) {
+                luceneAutoIndexService.onChapterDeleted(chapter.getId());
+            }
         }
 
         // Invalidate all chapter caches for this novel
         redisUtil.invalidateChapterCaches(novelId);
+        searchCacheService.bumpGeneration();
         chapterDomainEventPublisher.publishChapterStatisticsChanged(novelId);
     }
 
@@ -697,12 +713,16 @@ public class ChapterService {
         redisUtil.deleteChapterCache(uuid);
         redisUtil.deleteChapterCacheByNovelAndNumber(chapter.getNovelId(), chapter.getChapterNumber());
         redisUtil.invalidateChapterCaches(chapter.getNovelId());
+        searchCacheService.bumpGeneration();
         chapterDomainEventPublisher.publishChapterStatisticsChanged(chapter.getNovelId());
 
         // Auto-remove from Elasticsearch
         if (elasticsearchAutoIndexService != null) {
             elasticsearchAutoIndexService.onChapterDeleted(chapter.getId());
         }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onChapterDeleted(chapter.getId());
+        }
     }
 
     /**
@@ -723,6 +743,7 @@ public class ChapterService {
 
         // Invalidate all chapter caches for this novel
         redisUtil.invalidateChapterCaches(novelId);
+        searchCacheService.bumpGeneration();
         chapterDomainEventPublisher.publishChapterStatisticsChanged(novelId);
     }
 
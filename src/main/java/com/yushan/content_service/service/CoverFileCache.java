@@ -0,0 +1,108 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.util.FrequencySketch;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory cache of hot, small locally stored cover files.
+ * A file is admitted once it has been requested a few times recently, so one-off requests
+ * never push popular covers out. Entries are evicted least recently used first once the
+ * cache exceeds its byte budget. Callers check the file on disk on every request, so a
+ * deleted cover is never served and an entry whose size no longer matches is dropped.
+ */
+@Service
+public class CoverFileCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cover.serving.cache.max-bytes:33554432}")
+    private long maxBytes = 32L * 1024 * 1024;
+
+    @Value("${cover.serving.cache.max-file-bytes:262144}")
+    private long maxFileBytes = 256L * 1024;
+
+    @Value("${cover.serving.cache.min-hits:2}")
+    private int minHits = 2;
+
+    private FrequencySketch popularity;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Path, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long size;
+
+    @PostConstruct
+    public void init() {
+        popularity = new FrequencySketch(4096, 40960);
+        Gauge.builder("cover.serving.cache.bytes", this, CoverFileCache::size)
+                .description("Bytes of cover files held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a request for a file and return its contents if they are, or now become, cached
+     *
+     * @param file Normalized path of the file
+     * @param length Current size of the file on disk
+     * @return the file contents, or null if the file should be read from disk
+     */
+    public byte[] lookup(Path file, long length) throws IOException {
+        if (length > maxFileBytes) {
+            return null;
+        }
+        int hits = popularity.increment(file.toString().hashCode());
+        synchronized (this) {
+            byte[] cached = entries.get(file);
+            if (cached != null) {
+                if (cached.length == length) {
+                    return cached;
+                }
+                remove(file);
+            }
+        }
+        if (hits < minHits) {
+            return null;
+        }
+
+        // Read outside the lock; a concurrent load of the same file just replaces the entry
+        byte[] data = Files.readAllBytes(file);
+        if (data.length != length) {
+            return null;
+        }
+        put(file, data);
+        return data;
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    private synchronized void put(Path file, byte[] data) {
+        byte[] previous = entries.put(file, data);
+        size += data.length - (previous != null ? previous.length : 0);
+        Iterator<Map.Entry<Path, byte[]>> eldest = entries.entrySet().iterator();
+        while (size > maxBytes && eldest.hasNext()) {
+            size -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    private void remove(Path file) {
+        byte[] removed = entries.remove(file);
+        if (removed != null) {
+            size -= removed.length;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.domain.event.NovelCoverSubmittedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes submitted novel covers on a bounded background worker pool.
+ *
+ * Novel writes commit with the cover in PENDING state and never wait for decoding, resizing
+ * or object storage. Once the write commits, the job is queued here; the worker stores the
+ * cover renditions and attaches the full one to the novel, unless a newer cover was submitted
+ * in the meantime, in which case the stored renditions are discarded unless another novel uses
+ * the same image. When the queue is full
+ * the job is rejected and the cover marked FAILED, so the author can resubmit it.
+ *
+ * Jobs only live in memory, so jobs queued or running when an instance stops are lost. A periodic
+ * sweep marks covers PENDING for longer than {@code cover.processing.stale-after-minutes} as
+ * FAILED; a lost job is reported that way instead of staying PENDING forever.
+ *
+ * Progress is visible as the novel's cover status and through the {@code cover.jobs} timer
+ * (tagged by outcome) and the {@code cover.jobs.queued} / {@code cover.jobs.active} gauges.
+ */
+@Slf4j
+@Service
+public class CoverProcessingService {
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private NovelService novelService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cover.processing.threads:2}")
+    private int threads = 2;
+
+    @Value("${cover.processing.queue-capacity:20}")
+    private int queueCapacity = 20;
+
+    @Value("${cover.processing.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds = 30;
+
+    // Far longer than any job takes, also when the queue is full
+    @Value("${cover.processing.stale-after-minutes:15}")
+    private long staleAfterMinutes = 15;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cover-processing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("cover.jobs.queued", executor, pool -> pool.getQueue().size())
+                .description("Cover jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("cover.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Cover jobs being processed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Let running and queued jobs finish; jobs still queued after the timeout are failed by the stale job sweep
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+            log.warn("{} cover jobs were not processed before shutdown", executor.shutdownNow().size());
+        }
+    }
+
+    /**
+     * Queue a submitted cover once the novel write has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCoverSubmitted(NovelCoverSubmittedEvent event) {
+        try {
+            executor.execute(() -> process(event));
+        } catch (RejectedExecutionException e) {
+            log.warn("Cover processing queue is full, rejecting cover of novel {}", event.getNovelId());
+            record(Timer.start(meterRegistry), "rejected");
+            novelService.failCoverJob(event.getNovelId(), event.getCoverJobId());
+        }
+    }
+
+    /**
+     * Fail cover jobs that were lost, e.g. with an instance that stopped while they were queued
+     */
+    @Scheduled(fixedDelayString = "${cover.processing.stale-sweep-interval-ms:300000}",
+            initialDelayString = "${cover.processing.stale-sweep-initial-delay-ms:60000}")
+    public void failStaleJobs() {
+        try {
+            int failed = novelService.failStaleCoverJobs(staleAfterMinutes);
+            if (failed > 0) {
+                log.warn("Marked {} cover jobs pending for over {} minutes as failed", failed, staleAfterMinutes);
+                meterRegistry.counter("cover.jobs.stale").increment(failed);
+            }
+        } catch (Exception e) {
+            log.error("Failed to sweep stale cover jobs: {}", e.getMessage());
+        }
+    }
+
+    void process(NovelCoverSubmittedEvent event) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome;
+        try {
+            // Stored by content, so an image that is already stored is not processed again
+            String coverImgUrl = fileStorageService.uploadImageRenditions(event.getCoverImgBase64())
+                    .get(FileStorageService.RENDITION_FULL);
+            if (novelService.completeCoverJob(event.getNovelId(), event.getCoverJobId(), coverImgUrl)) {
+                outcome = "ready";
+            } else {
+                novelService.releaseCover(coverImgUrl);
+                outcome = "superseded";
+            }
+        } catch (Exception e) {
+            log.error("Failed to process cover of novel {}: {}", event.getNovelId(), e.getMessage());
+            outcome = "failed";
+            try {
+                novelService.failCoverJob(event.getNovelId(), event.getCoverJobId());
+            } catch (Exception ex) {
+                log.error("Failed to mark cover job of novel {} as failed: {}", event.getNovelId(), ex.getMessage());
+            }
+        }
+        record(sample, outcome);
+    }
+
+    private void record(Timer.Sample sample, String outcome) {
+        sample.stop(Timer.builder("cover.jobs")
+                .description("Cover processing jobs by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+}
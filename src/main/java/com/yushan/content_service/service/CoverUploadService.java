@@ -0,0 +1,99 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dto.novel.CoverUploadResponseDTO;
+import com.yushan.content_service.exception.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores novel covers uploaded as raw image bodies.
+ *
+ * The body is read straight into one byte array, never held as a base64 string, and rejected
+ * as soon as it exceeds the size limit. The image then goes through the regular rendition
+ * pipeline; the returned asset id is what novel create/update requests reference.
+ */
+@Slf4j
+@Service
+public class CoverUploadService {
+
+    private static final Set<String> SUPPORTED_FORMATS = Set.of("jpeg", "jpg", "png", "gif", "webp");
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Value("${cover.upload.max-bytes:10485760}")
+    private long maxBytes = 10L * 1024 * 1024;
+
+    /**
+     * Store a cover from its raw bytes
+     *
+     * @param body Image bytes
+     * @param contentLength Declared body length, or -1 if unknown
+     * @param contentType Image media type, e.g. image/png
+     * @return asset id and rendition URLs of the stored cover
+     * @throws ValidationException if the image is too large, of an unsupported type or not valid
+     */
+    public CoverUploadResponseDTO upload(InputStream body, long contentLength, String contentType) throws IOException {
+        String format = formatOf(contentType);
+        if (contentLength > maxBytes) {
+            throw new ValidationException("Cover image must be at most " + maxBytes + " bytes");
+        }
+        byte[] imageData = read(body, contentLength);
+        if (imageData.length == 0) {
+            throw new ValidationException("Cover image must not be empty");
+        }
+
+        Map<String, String> urls;
+        try {
+            urls = fileStorageService.uploadImageRenditions(imageData, format);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+        String assetId = FileStorageService.assetId(urls.get(FileStorageService.RENDITION_FULL));
+        log.debug("Stored uploaded cover {} ({} bytes)", assetId, imageData.length);
+        return new CoverUploadResponseDTO(assetId, urls);
+    }
+
+    private String formatOf(String contentType) {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            String format = mediaType.getSubtype().toLowerCase();
+            if ("image".equals(mediaType.getType()) && SUPPORTED_FORMATS.contains(format)) {
+                return format;
+            }
+        } catch (IllegalArgumentException e) {
+            // Missing or malformed content type, reported below
+        }
+        throw new ValidationException("Unsupported cover image type: " + contentType);
+    }
+
+    /**
+     * Read the whole body into a single array, failing once it exceeds the size limit
+     */
+    private byte[] read(InputStream body, long contentLength) throws IOException {
+        if (contentLength >= 0) {
+            byte[] imageData = new byte[(int) contentLength];
+            if (body.readNBytes(imageData, 0, imageData.length) < imageData.length) {
+                throw new ValidationException("Cover image upload was truncated");
+            }
+            if (body.read() != -1) {
+                throw new ValidationException("Cover image is longer than its declared length");
+            }
+            return imageData;
+        }
+        // Unknown length (chunked): read in blocks up to one byte past the limit
+        byte[] imageData = body.readNBytes((int) maxBytes + 1);
+        if (imageData.length > maxBytes) {
+            throw new ValidationException("Cover image must be at most " + maxBytes + " bytes");
+        }
+        return imageData;
+    }
+}
@@ -17,6 +17,9 @@ public class ElasticsearchAutoIndexService {
     @Autowired
     private ElasticsearchIndexService elasticsearchIndexService;
 
+    @Autowired
+    private ElasticsearchCounterSyncService elasticsearchCounterSyncService;
+
     /**
      * Index novel when created (only if published)
      */
@@ -63,6 +66,17 @@ public class ElasticsearchAutoIndexService {
         }
     }
 
+    /**
+     * Queue a partial counter update for a novel (views, votes, ratings, statistics)
+     */
+    public void onNovelCountersChanged(Integer novelId) {
+        try {
+            elasticsearchCounterSyncService.markNovelDirty(novelId);
+        } catch (Exception e) {
+            // Log error but don't fail the operation
+        }
+    }
+
     /**
      * Index chapter when created (only if published)
      */
@@ -83,12 +97,25 @@ public class ElasticsearchAutoIndexService {
      * Index chapter when updated (only if published)
      */
     public void onChapterUpdated(Chapter chapter) {
+        onChapterUpdated(chapter, true);
+    }
+
+    /**
+     * Index chapter when updated (only if published).
+     * When no text or filter field changed only counters and price are pushed as a partial update;
+     * premium and validity flags are copied onto passages and need the full reindex.
+     */
+    public void onChapterUpdated(Chapter chapter, boolean textChanged) {
         // Only index if chapter is published (is_valid = true and publish_time <= NOW())
         if (Boolean.TRUE.equals(chapter.getIsValid()) && 
             chapter.getPublishTime() != null && 
             chapter.getPublishTime().getTime() <= System.currentTimeMillis()) {
             try {
-                elasticsearchIndexService.indexChapter(chapter.getId());
+                if (textChanged) {
+                    elasticsearchIndexService.indexChapter(chapter.getId());
+                } else {
+                    elasticsearchCounterSyncService.markChapterDirty(chapter.getId());
+                }
             } catch (Exception e) {
                 // Log error but don't fail the operation
             }
@@ -102,6 +129,17 @@ public class ElasticsearchAutoIndexService {
         }
     }
 
+    /**
+     * Queue a partial counter update for a chapter (views)
+     */
+    public void onChapterCountersChanged(Integer chapterId) {
+        try {
+            elasticsearchCounterSyncService.markChapterDirty(chapterId);
+        } catch (Exception e) {
+            // Log error but don't fail the operation
+        }
+    }
+
     /**
      * Remove chapter from Elasticsearch when deleted
      */
@@ -0,0 +1,252 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.entity.Chapter;
+import com.yushan.content_service.entity.Novel;
+import com.yushan.content_service.entity.elasticsearch.ChapterDocument;
+import com.yushan.content_service.entity.elasticsearch.NovelDocument;
+import com.yushan.content_service.entity.elasticsearch.SuggestionDocument;
+import com.yushan.content_service.enums.NovelStatus;
+import com.yushan.content_service.repository.ChapterRepository;
+import com.yushan.content_service.repository.NovelRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes counter changes (views, votes, ratings, statistics) to Elasticsearch.
+ * Write paths only mark ids as dirty once their transaction commits; a scheduled job
+ * reads the current counters from the database and sends them as bulk partial updates,
+ * so text fields are never re-sent or re-analyzed.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "search.elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class ElasticsearchCounterSyncService {
+
+    @Autowired
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Autowired
+    private NovelRepository novelRepository;
+
+    @Autowired
+    private ChapterRepository chapterRepository;
+
+    @Value("${search.elasticsearch.counter-sync.batch-size:500}")
+    private int batchSize = 500;
+
+    private final Set<Integer> dirtyNovelIds = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> dirtyChapterIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Mark novel counters as changed; they are pushed on the next sync after the current transaction commits
+     */
+    public void markNovelDirty(Integer novelId) {
+        markDirty(dirtyNovelIds, novelId);
+    }
+
+    /**
+     * Mark chapter counters as changed; they are pushed on the next sync after the current transaction commits
+     */
+    public void markChapterDirty(Integer chapterId) {
+        markDirty(dirtyChapterIds, chapterId);
+    }
+
+    public int getPendingNovelCount() {
+        return dirtyNovelIds.size();
+    }
+
+    public int getPendingChapterCount() {
+        return dirtyChapterIds.size();
+    }
+
+    /**
+     * Periodically flush dirty counters to Elasticsearch
+     */
+    @Scheduled(fixedDelayString = "${search.elasticsearch.counter-sync.interval-ms:30000}")
+    public void syncCounters() {
+        syncNovelCounters();
+        syncChapterCounters();
+    }
+
+    /**
+     * Push counters of dirty novels as partial updates
+     */
+    public void syncNovelCounters() {
+        List<Integer> ids = drain(dirtyNovelIds);
+        for (List<Integer> batch : partition(ids)) {
+            try {
+                List<UpdateQuery> updates = new ArrayList<>();
+                List<UpdateQuery> weightUpdates = new ArrayList<>();
+                for (Novel novel : novelRepository.findByIds(batch)) {
+                    // Only published novels live in the index
+                    if (novel.getStatus() != null && novel.getStatus() == NovelStatus.PUBLISHED.getValue()) {
+                        updates.add(toNovelCounterUpdate(novel));
+                        weightUpdates.add(toWeightUpdate(SuggestionDocument.novelSuggestionId(novel.getId()),
+                                SuggestionDocument.popularityWeight(novel.getViewCnt(), novel.getVoteCnt())));
+                    }
+                }
+                if (!updates.isEmpty()) {
+                    elasticsearchOperations.bulkUpdate(updates, NovelDocument.class);
+                    syncSuggestionWeights(weightUpdates);
+                }
+            } catch (BulkFailureException e) {
+                log.warn("Partial novel counter sync failed for {} documents", e.getFailedDocuments().size());
+                requeueFailed(e, dirtyNovelIds);
+            } catch (Exception e) {
+                log.error("Failed to sync novel counters, will retry: {}", e.getMessage());
+                dirtyNovelIds.addAll(batch);
+            }
+        }
+    }
+
+    /**
+     * Push counters of dirty chapters as partial updates
+     */
+    public void syncChapterCounters() {
+        List<Integer> ids = drain(dirtyChapterIds);
+        long now = System.currentTimeMillis();
+        for (List<Integer> batch : partition(ids)) {
+            try {
+                List<UpdateQuery> updates = new ArrayList<>();
+                List<UpdateQuery> weightUpdates = new ArrayList<>();
+                for (Chapter chapter : chapterRepository.findCountersByIds(batch)) {
+                    // Only published chapters live in the index
+                    if (Boolean.TRUE.equals(chapter.getIsValid())
+                            && chapter.getPublishTime() != null
+                            && chapter.getPublishTime().getTime() <= now) {
+                        updates.add(toChapterCounterUpdate(chapter));
+                        weightUpdates.add(toWeightUpdate(SuggestionDocument.chapterSuggestionId(chapter.getId()),
+                                SuggestionDocument.popularityWeight(chapter.getViewCnt(), null)));
+                    }
+                }
+                if (!updates.isEmpty()) {
+                    elasticsearchOperations.bulkUpdate(updates, ChapterDocument.class);
+                    syncSuggestionWeights(weightUpdates);
+                }
+            } catch (BulkFailureException e) {
+                log.warn("Partial chapter counter sync failed for {} documents", e.getFailedDocuments().size());
+                requeueFailed(e, dirtyChapterIds);
+            } catch (Exception e) {
+                log.error("Failed to sync chapter counters, will retry: {}", e.getMessage());
+                dirtyChapterIds.addAll(batch);
+            }
+        }
+    }
+
+    /**
+     * Keep autocomplete ranking in step with popularity; failures here never requeue counters
+     */
+    private void syncSuggestionWeights(List<UpdateQuery> weightUpdates) {
+        try {
+            elasticsearchOperations.bulkUpdate(weightUpdates, SuggestionDocument.class);
+        } catch (Exception e) {
+            log.warn("Failed to sync suggestion weights: {}", e.getMessage());
+        }
+    }
+
+    private UpdateQuery toWeightUpdate(String suggestionId, long weight) {
+        return UpdateQuery.builder(suggestionId)
+                .withDocument(Document.create().append("weight", weight))
+                .build();
+    }
+
+    private UpdateQuery toNovelCounterUpdate(Novel novel) {
+        Document document = Document.create()
+                .append("chapterCnt", novel.getChapterCnt())
+                .append("wordCnt", novel.getWordCnt())
+                .append("avgRating", novel.getAvgRating() != null ? novel.getAvgRating().doubleValue() : null)
+                .append("reviewCnt", novel.getReviewCnt())
+                .append("viewCnt", novel.getViewCnt())
+                .append("voteCnt", novel.getVoteCnt())
+                .append("updateTime", novel.getUpdateTime() != null ? novel.getUpdateTime().getTime() : null);
+        return UpdateQuery.builder(novel.getId().toString())
+                .withDocument(document)
+                .build();
+    }
+
+    /**
+     * Filter flags (isPremium, isValid) are copied onto content passages, so they only change through a full reindex
+     */
+    private UpdateQuery toChapterCounterUpdate(Chapter chapter) {
+        Document document = Document.create()
+                .append("wordCnt", chapter.getWordCnt())
+                .append("yuanCost", chapter.getYuanCost() != null ? chapter.getYuanCost().doubleValue() : null)
+                .append("viewCnt", chapter.getViewCnt())
+                .append("updateTime", chapter.getUpdateTime() != null ? chapter.getUpdateTime().getTime() : null);
+        return UpdateQuery.builder(chapter.getId().toString())
+                .withDocument(document)
+                .build();
+    }
+
+    /**
+     * Inside a transaction the id is only queued once it commits, so a sync running in
+     * between cannot read and push the counters from before the change
+     */
+    private void markDirty(Set<Integer> dirtyIds, Integer id) {
+        if (id == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirtyIds.add(id);
+                }
+            });
+        } else {
+            dirtyIds.add(id);
+        }
+    }
+
+    /**
+     * Queue the failed items of a bulk update again. Documents missing from the index are left
+     * to the next full reindex, since retrying them cannot succeed.
+     */
+    private void requeueFailed(BulkFailureException e, Set<Integer> dirtyIds) {
+        e.getFailedDocuments().forEach((id, failure) -> {
+            if (failure.status() == null || failure.status() != HttpStatus.NOT_FOUND.value()) {
+                try {
+                    dirtyIds.add(Integer.valueOf(id));
+                } catch (NumberFormatException ignored) {
+                    // Not one of our counter documents
+                }
+            }
+        });
+    }
+
+    private List<Integer> drain(Set<Integer> dirtyIds) {
+        List<Integer> ids = new ArrayList<>();
+        Iterator<Integer> iterator = dirtyIds.iterator();
+        while (iterator.hasNext()) {
+            ids.add(iterator.next());
+            iterator.remove();
+        }
+        return ids;
+    }
+
+    private List<List<Integer>> partition(List<Integer> ids) {
+        List<List<Integer>> batches = new ArrayList<>();
+        int size = Math.max(1, batchSize);
+        for (int i = 0; i < ids.size(); i += size) {
+            batches.add(ids.subList(i, Math.min(i + size, ids.size())));
+        }
+        return batches;
+    }
+}
@@ -4,17 +4,26 @@ import com.yushan.content_service.entity.Novel;
 import com.yushan.content_service.entity.Chapter;
 import com.yushan.content_service.entity.elasticsearch.NovelDocument;
 import com.yushan.content_service.entity.elasticsearch.ChapterDocument;
+import com.yushan.content_service.entity.elasticsearch.ChapterPassageDocument;
+import com.yushan.content_service.entity.elasticsearch.SuggestionDocument;
 import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
 import com.yushan.content_service.repository.elasticsearch.NovelElasticsearchRepository;
 import com.yushan.content_service.repository.elasticsearch.ChapterElasticsearchRepository;
+import com.yushan.content_service.repository.elasticsearch.ChapterPassageElasticsearchRepository;
+import com.yushan.content_service.repository.elasticsearch.SuggestionElasticsearchRepository;
 import com.yushan.content_service.repository.NovelRepository;
 import com.yushan.content_service.repository.ChapterRepository;
+import com.yushan.content_service.util.PassageSplitter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -31,6 +40,12 @@ public class ElasticsearchIndexService {
     @Autowired
     private ChapterElasticsearchRepository chapterElasticsearchRepository;
 
+    @Autowired
+    private ChapterPassageElasticsearchRepository chapterPassageElasticsearchRepository;
+
+    @Autowired
+    private SuggestionElasticsearchRepository suggestionElasticsearchRepository;
+
     @Autowired
     private NovelRepository novelRepository;
 
@@ -56,6 +71,20 @@ public class ElasticsearchIndexService {
         
         // Save to Elasticsearch
         novelElasticsearchRepository.saveAll(documents);
+
+        // Feed autocomplete: one entry per title, one per author weighted by their most popular novel
+        List<SuggestionDocument> suggestions = new ArrayList<>();
+        Map<String, SuggestionDocument> authorSuggestions = new LinkedHashMap<>();
+        for (Novel novel : novels) {
+            suggestions.add(toNovelSuggestion(novel));
+            SuggestionDocument author = toAuthorSuggestion(novel);
+            if (author != null) {
+                authorSuggestions.merge(author.getId(), author,
+                        (current, candidate) -> candidate.getWeight() > current.getWeight() ? candidate : current);
+            }
+        }
+        suggestions.addAll(authorSuggestions.values());
+        suggestionElasticsearchRepository.saveAll(suggestions);
     }
 
     /**
@@ -73,6 +102,18 @@ public class ElasticsearchIndexService {
         
         // Save to Elasticsearch
         chapterElasticsearchRepository.saveAll(documents);
+
+        // Content is searched passage by passage
+        List<ChapterPassageDocument> passages = chapters.stream()
+                .flatMap(chapter -> toPassageDocuments(chapter).stream())
+                .collect(Collectors.toList());
+        chapterPassageElasticsearchRepository.saveAll(passages);
+
+        // Feed autocomplete with chapter titles
+        List<SuggestionDocument> suggestions = chapters.stream()
+                .map(this::toChapterSuggestion)
+                .collect(Collectors.toList());
+        suggestionElasticsearchRepository.saveAll(suggestions);
     }
 
     /**
@@ -83,6 +124,8 @@ public class ElasticsearchIndexService {
         if (novel != null) {
             NovelDocument document = convertToNovelDocument(novel);
             novelElasticsearchRepository.save(document);
+            suggestionElasticsearchRepository.save(toNovelSuggestion(novel));
+            refreshAuthorSuggestion(novel.getAuthorId());
         }
     }
 
@@ -94,6 +137,11 @@ public class ElasticsearchIndexService {
         if (chapter != null) {
             ChapterDocument document = convertToChapterDocument(chapter);
             chapterElasticsearchRepository.save(document);
+
+            // Edited content may split into fewer passages, so drop the old set first
+            chapterPassageElasticsearchRepository.deleteByChapterId(chapterId);
+            chapterPassageElasticsearchRepository.saveAll(toPassageDocuments(chapter));
+            suggestionElasticsearchRepository.save(toChapterSuggestion(chapter));
         }
     }
 
@@ -102,6 +150,11 @@ public class ElasticsearchIndexService {
      */
     public void removeNovel(Integer novelId) {
         novelElasticsearchRepository.deleteById(novelId.toString());
+        suggestionElasticsearchRepository.deleteById(SuggestionDocument.novelSuggestionId(novelId));
+        Novel novel = novelRepository.findById(novelId);
+        if (novel != null) {
+            refreshAuthorSuggestion(novel.getAuthorId());
+        }
     }
 
     /**
@@ -109,6 +162,8 @@ public class ElasticsearchIndexService {
      */
     public void removeChapter(Integer chapterId) {
         chapterElasticsearchRepository.deleteById(chapterId.toString());
+        chapterPassageElasticsearchRepository.deleteByChapterId(chapterId);
+        suggestionElasticsearchRepository.deleteById(SuggestionDocument.chapterSuggestionId(chapterId));
     }
 
     /**
@@ -117,6 +172,8 @@ public class ElasticsearchIndexService {
     public void clearAllData() {
         novelElasticsearchRepository.deleteAll();
         chapterElasticsearchRepository.deleteAll();
+        chapterPassageElasticsearchRepository.deleteAll();
+        suggestionElasticsearchRepository.deleteAll();
     }
 
     /**
@@ -128,6 +185,41 @@ public class ElasticsearchIndexService {
         indexAllChapters();
     }
 
+    /**
+     * Weight an author's suggestion by their most popular published novel, as the full
+     * index does, or delete it once the author has no published novel left
+     */
+    private void refreshAuthorSuggestion(UUID authorId) {
+        if (authorId == null) {
+            return;
+        }
+        Novel top = novelRepository.findMostPopularPublishedByAuthor(authorId);
+        SuggestionDocument best = top != null ? toAuthorSuggestion(top) : null;
+        if (best != null) {
+            suggestionElasticsearchRepository.save(best);
+        } else {
+            suggestionElasticsearchRepository.deleteById(SuggestionDocument.authorSuggestionId(authorId.toString()));
+        }
+    }
+
+    private SuggestionDocument toNovelSuggestion(Novel novel) {
+        return SuggestionDocument.forNovel(novel.getId(), novel.getTitle(),
+                SuggestionDocument.popularityWeight(novel.getViewCnt(), novel.getVoteCnt()));
+    }
+
+    private SuggestionDocument toAuthorSuggestion(Novel novel) {
+        if (novel.getAuthorId() == null || novel.getAuthorName() == null) {
+            return null;
+        }
+        return SuggestionDocument.forAuthor(novel.getAuthorId().toString(), novel.getAuthorName(),
+                SuggestionDocument.popularityWeight(novel.getViewCnt(), novel.getVoteCnt()));
+    }
+
+    private SuggestionDocument toChapterSuggestion(Chapter chapter) {
+        return SuggestionDocument.forChapter(chapter.getId(), chapter.getTitle(),
+                SuggestionDocument.popularityWeight(chapter.getViewCnt(), null));
+    }
+
     /**
      * Convert Novel entity to NovelDocument
      */
@@ -156,6 +248,30 @@ public class ElasticsearchIndexService {
         );
     }
 
+    /**
+     * Split chapter content into passage documents carrying the chapter's search filters
+     */
+    private List<ChapterPassageDocument> toPassageDocuments(Chapter chapter) {
+        List<PassageSplitter.Passage> passages =
+                PassageSplitter.split(chapter.getContent(), ChapterPassageDocument.PASSAGE_LENGTH);
+        if (passages.isEmpty()) {
+            // A chapter without content still needs one passage to be found by its title
+            passages = List.of(new PassageSplitter.Passage(0, 0, ""));
+        }
+        return passages.stream()
+                .map(passage -> new ChapterPassageDocument(
+                    chapter.getId(),
+                    chapter.getNovelId(),
+                    chapter.getChapterNumber(),
+                    chapter.getTitle(),
+                    chapter.getIsPremium(),
+                    chapter.getIsValid(),
+                    passage.index(),
+                    passage.offset(),
+                    passage.text()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Convert Chapter entity to ChapterDocument
      */
@@ -0,0 +1,391 @@
+package com.yushan.content_service.service;
+
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.FieldValueFactorModifier;
+import co.elastic.clients.elasticsearch._types.query_dsl.FunctionBoostMode;
+import co.elastic.clients.elasticsearch._types.query_dsl.FunctionScore;
+import co.elastic.clients.elasticsearch._types.query_dsl.FunctionScoreMode;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.search.FieldCollapse;
+import com.yushan.content_service.dto.chapter.ChapterSearchRequestDTO;
+import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
+import com.yushan.content_service.entity.elasticsearch.ChapterDocument;
+import com.yushan.content_service.entity.elasticsearch.ChapterPassageDocument;
+import com.yushan.content_service.enums.NovelStatus;
+import com.yushan.content_service.enums.SearchRankingMode;
+import com.yushan.content_service.util.SearchCursorUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import org.springframework.data.elasticsearch.core.query.HighlightQuery;
+import org.springframework.data.elasticsearch.core.query.highlight.Highlight;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightField;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightFieldParameters;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightParameters;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds Elasticsearch bool queries from search requests.
+ * Free text goes into a scored multi_match in must; every other criterion
+ * goes into filter context, which is not scored and can be cached by Elasticsearch.
+ */
+@Component
+@ConditionalOnProperty(name = "search.elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class ElasticsearchQueryBuilder {
+
+    static final String[] NOVEL_SEARCH_FIELDS = {"title^3", "synopsis^2", "authorName^1"};
+    static final String[] CHAPTER_SEARCH_FIELDS = {"title^3"};
+
+    /**
+     * Chapter fields returned in search hits; full content is never transferred
+     */
+    static final String[] CHAPTER_SUMMARY_FIELDS = {
+        "id", "uuid", "novelId", "chapterNumber", "title", "preview", "wordCnt",
+        "isPremium", "yuanCost", "viewCnt", "isValid", "createTime", "updateTime", "publishTime"
+    };
+
+    static final String PASSAGE_TEXT_FIELD = "text";
+    static final String PASSAGE_COLLAPSE_FIELD = "chapterId";
+
+    /**
+     * Cardinality aggregation counting distinct chapters among matching passages
+     */
+    static final String PASSAGE_CHAPTER_COUNT = "chapter_count";
+
+    /**
+     * search_as_you_type field and its shingle sub-fields
+     */
+    static final String[] SUGGESTION_FIELDS = {"text", "text._2gram", "text._3gram"};
+
+    /**
+     * Suggestions are fetched this many times over, so enough remain after titles shared
+     * by several novels or chapters collapse into one
+     */
+    static final int SUGGESTION_OVERFETCH = 5;
+
+    /**
+     * Status value that never matches, mirrors the SQL path for unknown status names
+     */
+    private static final String UNKNOWN_STATUS = "-1";
+
+    @Value("${search.ranking.view-weight:1.0}")
+    private double viewWeight = 1.0;
+
+    @Value("${search.ranking.vote-weight:1.0}")
+    private double voteWeight = 1.0;
+
+    @Value("${search.ranking.rating-weight:1.0}")
+    private double ratingWeight = 1.0;
+
+    @Value("${search.ranking.recency-weight:1.0}")
+    private double recencyWeight = 1.0;
+
+    /**
+     * Build a paged and sorted novel query
+     */
+    public NativeQuery buildNovelQuery(NovelSearchRequestDTO request, Pageable pageable) {
+        Query query = buildNovelBoolQuery(request);
+        if (usesPopularityScoring(request)) {
+            query = popularityScore(query);
+        }
+        NativeQueryBuilder builder = NativeQuery.builder()
+                .withQuery(query)
+                .withPageable(pageable)
+                .withTrackTotalHits(true);
+        applyCursor(builder, request.getCursor());
+        return builder.build();
+    }
+
+    /**
+     * Build a paged and sorted chapter query
+     */
+    public NativeQuery buildChapterQuery(ChapterSearchRequestDTO request, Pageable pageable) {
+        NativeQueryBuilder builder = NativeQuery.builder()
+                .withQuery(buildChapterBoolQuery(request))
+                .withPageable(pageable)
+                .withTrackTotalHits(true)
+                .withSourceFilter(new FetchSourceFilterBuilder()
+                        .withIncludes(CHAPTER_SUMMARY_FIELDS)
+                        .build());
+        applyCursor(builder, request.getCursor());
+        return builder.build();
+    }
+
+    /**
+     * Build a full-text chapter query over passages.
+     * Hits collapse on chapterId so each chapter appears once, represented by its best
+     * passage, whose highlighted fragment becomes the snippet. Only chapter ids come back;
+     * chapter fields are looked up afterwards with buildChapterLookupQuery.
+     */
+    public NativeQuery buildPassageQuery(ChapterSearchRequestDTO request, Pageable pageable) {
+        String text = request.getTitleKeyword();
+        BoolQuery.Builder bool = new BoolQuery.Builder()
+                .should(match("title", text, 3.0f))
+                .should(match(PASSAGE_TEXT_FIELD, text, 1.0f))
+                .minimumShouldMatch("1");
+        addChapterFilters(bool, request);
+
+        return NativeQuery.builder()
+                .withQuery(Query.of(q -> q.bool(bool.build())))
+                .withPageable(pageable)
+                .withFieldCollapse(FieldCollapse.of(c -> c.field(PASSAGE_COLLAPSE_FIELD)))
+                .withAggregation(PASSAGE_CHAPTER_COUNT, Aggregation.of(a -> a
+                        .cardinality(c -> c.field(PASSAGE_COLLAPSE_FIELD))))
+                .withSourceFilter(new FetchSourceFilterBuilder()
+                        .withIncludes(PASSAGE_COLLAPSE_FIELD)
+                        .build())
+                .withHighlightQuery(passageHighlight())
+                .build();
+    }
+
+    /**
+     * Fetch chapter summaries by document id
+     */
+    public NativeQuery buildChapterLookupQuery(List<String> ids) {
+        return NativeQuery.builder()
+                .withIds(ids)
+                .withMaxResults(ids.size())
+                .withSourceFilter(new FetchSourceFilterBuilder()
+                        .withIncludes(CHAPTER_SUMMARY_FIELDS)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Build an autocomplete lookup: prefix match on the suggestion index, boosted by popularity weight.
+     * Fetches more than {@code limit} hits; the caller drops duplicate texts and trims to the limit.
+     */
+    public NativeQuery buildSuggestionQuery(String prefix, int limit) {
+        Query query = Query.of(q -> q.functionScore(fs -> fs
+                .query(inner -> inner.multiMatch(m -> m
+                        .query(prefix)
+                        .type(TextQueryType.BoolPrefix)
+                        .fields(Arrays.asList(SUGGESTION_FIELDS))))
+                .functions(f -> f.fieldValueFactor(v -> v
+                        .field("weight")
+                        .modifier(FieldValueFactorModifier.Log1p)
+                        .missing(0.0)))
+                .boostMode(FunctionBoostMode.Multiply)));
+
+        return NativeQuery.builder()
+                .withQuery(query)
+                .withPageable(PageRequest.of(0, limit * SUGGESTION_OVERFETCH))
+                .withSourceFilter(new FetchSourceFilterBuilder()
+                        .withIncludes("text")
+                        .build())
+                .withTrackTotalHits(false)
+                .build();
+    }
+
+    /**
+     * Text searches sorted by popularity, or by relevance in popularity ranking mode,
+     * are scored by popularity in Elasticsearch and must be sorted by _score
+     */
+    public boolean usesPopularityScoring(NovelSearchRequestDTO request) {
+        if (!StringUtils.hasText(request.getSearch())) {
+            return false;
+        }
+        if ("popularity".equals(request.getSort())) {
+            return true;
+        }
+        return "relevance".equals(request.getSort())
+                && SearchRankingMode.fromName(request.getRanking()) == SearchRankingMode.POPULARITY;
+    }
+
+    /**
+     * Compose the bool query for novels: text in must, criteria in filter
+     */
+    public Query buildNovelBoolQuery(NovelSearchRequestDTO request) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+
+        if (StringUtils.hasText(request.getSearch())) {
+            bool.must(textQuery(request.getSearch(), NOVEL_SEARCH_FIELDS));
+        }
+
+        if (request.getCategoryId() != null && request.getCategoryId() > 0) {
+            bool.filter(term("categoryId", request.getCategoryId().longValue()));
+        }
+        if (StringUtils.hasText(request.getStatus())) {
+            bool.filter(Query.of(q -> q.term(t -> t.field("status").value(toIndexedStatus(request.getStatus())))));
+        }
+        if (request.getIsCompleted() != null) {
+            bool.filter(Query.of(q -> q.term(t -> t.field("isCompleted").value(request.getIsCompleted()))));
+        }
+        if (StringUtils.hasText(request.getAuthorId())) {
+            bool.filter(Query.of(q -> q.term(t -> t.field("authorId").value(request.getAuthorId()))));
+        }
+        if (StringUtils.hasText(request.getAuthorName())) {
+            bool.filter(Query.of(q -> q.match(m -> m.field("authorName").query(request.getAuthorName()))));
+        }
+
+        addNumberRange(bool, "avgRating", request.getMinRating(), request.getMaxRating());
+        addNumberRange(bool, "wordCnt", request.getMinWordCount(), request.getMaxWordCount());
+        addNumberRange(bool, "chapterCnt", request.getMinChapterCount(), request.getMaxChapterCount());
+        addDateRange(bool, "publishTime", request.getPublishedAfter(), request.getPublishedBefore());
+
+        return Query.of(q -> q.bool(bool.build()));
+    }
+
+    /**
+     * Compose the bool query for chapters: text in must, criteria in filter
+     */
+    public Query buildChapterBoolQuery(ChapterSearchRequestDTO request) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+
+        if (StringUtils.hasText(request.getTitleKeyword())) {
+            bool.must(textQuery(request.getTitleKeyword(), CHAPTER_SEARCH_FIELDS));
+        }
+        addChapterFilters(bool, request);
+
+        return Query.of(q -> q.bool(bool.build()));
+    }
+
+    /**
+     * Chapter criteria shared by the chapter and passage indices, all in filter context
+     */
+    private void addChapterFilters(BoolQuery.Builder bool, ChapterSearchRequestDTO request) {
+        if (request.getNovelId() != null) {
+            bool.filter(term("novelId", request.getNovelId().longValue()));
+        }
+        if (request.getChapterNumber() != null) {
+            bool.filter(term("chapterNumber", request.getChapterNumber().longValue()));
+        }
+        if (request.getIsPremium() != null) {
+            bool.filter(Query.of(q -> q.term(t -> t.field("isPremium").value(request.getIsPremium()))));
+        }
+        if (request.getIsValid() != null) {
+            bool.filter(Query.of(q -> q.term(t -> t.field("isValid").value(request.getIsValid()))));
+        }
+    }
+
+    /**
+     * Continue after the last hit of the previous page instead of skipping from offset 0
+     */
+    private void applyCursor(NativeQueryBuilder builder, String cursor) {
+        if (StringUtils.hasText(cursor)) {
+            builder.withSearchAfter(SearchCursorUtil.decode(cursor));
+        }
+    }
+
+    /**
+     * Multiply text relevance by a popularity factor: log-scaled views, votes and rating,
+     * plus a boost for novels published in the last week and month.
+     * log2p keeps the factor positive for novels with no views or votes yet.
+     */
+    private Query popularityScore(Query textQuery) {
+        return Query.of(q -> q.functionScore(fs -> fs
+                .query(textQuery)
+                .functions(
+                        logFactor("viewCnt", viewWeight),
+                        logFactor("voteCnt", voteWeight),
+                        logFactor("avgRating", ratingWeight),
+                        publishedSince("now-7d", recencyWeight),
+                        publishedSince("now-30d", recencyWeight / 2))
+                .scoreMode(FunctionScoreMode.Sum)
+                .boostMode(FunctionBoostMode.Multiply)));
+    }
+
+    private FunctionScore logFactor(String field, double weight) {
+        return FunctionScore.of(f -> f
+                .fieldValueFactor(v -> v
+                        .field(field)
+                        .modifier(FieldValueFactorModifier.Log2p)
+                        .missing(0.0))
+                .weight(weight));
+    }
+
+    private FunctionScore publishedSince(String since, double weight) {
+        return FunctionScore.of(f -> f
+                .filter(Query.of(q -> q.range(r -> r.date(d -> d.field("publishTime").gte(since)))))
+                .weight(weight));
+    }
+
+    private HighlightQuery passageHighlight() {
+        HighlightFieldParameters fieldParameters = HighlightFieldParameters.builder()
+                .withFragmentSize(ChapterDocument.PREVIEW_LENGTH)
+                .withNumberOfFragments(1)
+                .build();
+        HighlightParameters parameters = HighlightParameters.builder()
+                .withPreTags("<em>")
+                .withPostTags("</em>")
+                .build();
+        Highlight highlight = new Highlight(parameters,
+                List.of(new HighlightField(PASSAGE_TEXT_FIELD, fieldParameters)));
+        return new HighlightQuery(highlight, ChapterPassageDocument.class);
+    }
+
+    private Query textQuery(String text, String[] fields) {
+        return Query.of(q -> q.multiMatch(m -> m
+                .query(text)
+                .fields(Arrays.asList(fields))
+                .type(TextQueryType.BestFields)
+                .fuzziness("AUTO")));
+    }
+
+    private Query match(String field, String text, float boost) {
+        return Query.of(q -> q.match(m -> m
+                .field(field)
+                .query(text)
+                .fuzziness("AUTO")
+                .boost(boost)));
+    }
+
+    private Query term(String field, long value) {
+        return Query.of(q -> q.term(t -> t.field(field).value(value)));
+    }
+
+    private void addNumberRange(BoolQuery.Builder bool, String field, Number min, Number max) {
+        if (min == null && max == null) {
+            return;
+        }
+        bool.filter(Query.of(q -> q.range(r -> r.number(n -> {
+            n.field(field);
+            if (min != null) {
+                n.gte(min.doubleValue());
+            }
+            if (max != null) {
+                n.lte(max.doubleValue());
+            }
+            return n;
+        }))));
+    }
+
+    private void addDateRange(BoolQuery.Builder bool, String field, Date from, Date to) {
+        if (from == null && to == null) {
+            return;
+        }
+        bool.filter(Query.of(q -> q.range(r -> r.date(d -> {
+            d.field(field).format("epoch_millis");
+            if (from != null) {
+                d.gte(String.valueOf(from.getTime()));
+            }
+            if (to != null) {
+                d.lte(String.valueOf(to.getTime()));
+            }
+            return d;
+        }))));
+    }
+
+    /**
+     * Novels are indexed with the numeric status value, requests use the status name
+     */
+    private String toIndexedStatus(String statusName) {
+        try {
+            NovelStatus status = NovelStatus.fromName(statusName);
+            return String.valueOf(status.getValue());
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN_STATUS;
+        }
+    }
+}
@@ -7,14 +7,22 @@ import com.yushan.content_service.dto.chapter.ChapterSummaryDTO;
 import com.yushan.content_service.dto.chapter.ChapterSearchRequestDTO;
 import com.yushan.content_service.entity.elasticsearch.NovelDocument;
 import com.yushan.content_service.entity.elasticsearch.ChapterDocument;
-import com.yushan.content_service.repository.elasticsearch.NovelElasticsearchRepository;
-import com.yushan.content_service.repository.elasticsearch.ChapterElasticsearchRepository;
+import com.yushan.content_service.entity.elasticsearch.ChapterPassageDocument;
+import com.yushan.content_service.entity.elasticsearch.SuggestionDocument;
+import com.yushan.content_service.exception.ValidationException;
+import com.yushan.content_service.util.SearchCursorUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -29,11 +37,22 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(name = "search.elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
 public class ElasticsearchSearchService {
 
+    /**
+     * Unique keyword used as the last sort key so search_after cursors never skip or repeat hits
+     */
+    static final String TIEBREAKER_FIELD = "uuid";
+
     @Autowired
-    private NovelElasticsearchRepository novelElasticsearchRepository;
+    private ElasticsearchOperations elasticsearchOperations;
 
     @Autowired
-    private ChapterElasticsearchRepository chapterElasticsearchRepository;
+    private ElasticsearchQueryBuilder elasticsearchQueryBuilder;
+
+    /**
+     * Collapsed passage searches page by offset, so they stop at this many chapters
+     */
+    @Value("${search.elasticsearch.passage-search.max-results:1000}")
+    private int maxPassageResults = 1000;
 
     /**
      * Search novels using Elasticsearch
@@ -42,109 +61,208 @@ public class ElasticsearchSearchService {
         // Create pageable for Elasticsearch
         Pageable pageable = createPageable(request);
         
-        Page<NovelDocument> novelDocuments;
+        // Text, filters, paging and sorting are all evaluated by Elasticsearch
+        NativeQuery query = elasticsearchQueryBuilder.buildNovelQuery(request, pageable);
+        SearchHits<NovelDocument> searchHits = elasticsearchOperations.search(query, NovelDocument.class);
         
-        if (StringUtils.hasText(request.getSearch())) {
-            // Use Elasticsearch text search
-            novelDocuments = novelElasticsearchRepository.searchByText(request.getSearch(), pageable);
-        } else {
-            // Use Elasticsearch filters
-            novelDocuments = searchNovelsWithFilters(request, pageable);
+        return toNovelPage(searchHits, request);
+    }
+
+    /**
+     * Search chapters using Elasticsearch.
+     * Text searches run over content passages; filter-only searches run on the chapter index.
+     */
+    public PageResponseDTO<ChapterSummaryDTO> searchChapters(ChapterSearchRequestDTO request) {
+        if (StringUtils.hasText(request.getTitleKeyword())) {
+            Pageable pageable = createPageableForPassages(request);
+            NativeQuery query = elasticsearchQueryBuilder.buildPassageQuery(request, pageable);
+            SearchHits<ChapterPassageDocument> passageHits = elasticsearchOperations.search(query, ChapterPassageDocument.class);
+            return toPassagePage(passageHits, request, pageable);
         }
+
+        // Create pageable for Elasticsearch
+        Pageable pageable = createPageableForChapters(request);
+        
+        // Text, filters, paging and sorting are all evaluated by Elasticsearch
+        NativeQuery query = elasticsearchQueryBuilder.buildChapterQuery(request, pageable);
+        SearchHits<ChapterDocument> searchHits = elasticsearchOperations.search(query, ChapterDocument.class);
         
+        return toChapterPage(searchHits, request);
+    }
+
+    /**
+     * Get search suggestions using Elasticsearch
+     */
+    public List<String> getSearchSuggestions(String query, int limit) {
+        if (!StringUtils.hasText(query) || query.length() < 2) {
+            return Collections.emptyList();
+        }
+
+        // Single lookup on the suggestion index; only the suggestion text is returned
+        NativeQuery suggestionQuery = elasticsearchQueryBuilder.buildSuggestionQuery(query, limit);
+        SearchHits<SuggestionDocument> searchHits = elasticsearchOperations.search(suggestionQuery, SuggestionDocument.class);
+
+        // Titles shared by several novels or chapters collapse into one suggestion; the query over-fetches for this
+        return searchHits.getSearchHits().stream()
+                .map(hit -> hit.getContent().getText())
+                .filter(Objects::nonNull)
+                .distinct()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+
+    // Private helper methods
+
+    private PageResponseDTO<NovelDetailResponseDTO> toNovelPage(SearchHits<NovelDocument> searchHits, NovelSearchRequestDTO request) {
         // Convert Elasticsearch documents to DTOs
-        List<NovelDetailResponseDTO> novelDTOs = novelDocuments.getContent().stream()
+        List<NovelDetailResponseDTO> novelDTOs = searchHits.getSearchHits().stream()
+                .map(SearchHit::getContent)
                 .map(this::convertToNovelDTO)
                 .collect(Collectors.toList());
         
-        return new PageResponseDTO<>(
+        PageResponseDTO<NovelDetailResponseDTO> page = new PageResponseDTO<>(
             novelDTOs, 
-            novelDocuments.getTotalElements(), 
+            searchHits.getTotalHits(), 
             request.getPage(), 
             request.getSize()
         );
+        page.setNextCursor(nextCursor(searchHits, request.getSize()));
+        return page;
     }
 
-    /**
-     * Search chapters using Elasticsearch
-     */
-    public PageResponseDTO<ChapterSummaryDTO> searchChapters(ChapterSearchRequestDTO request) {
-        // Create pageable for Elasticsearch
-        Pageable pageable = createPageableForChapters(request);
-        
-        Page<ChapterDocument> chapterDocuments;
-        
-        if (StringUtils.hasText(request.getTitleKeyword())) {
-            // Use Elasticsearch text search
-            chapterDocuments = chapterElasticsearchRepository.searchByText(request.getTitleKeyword(), pageable);
-        } else {
-            // Use Elasticsearch filters
-            chapterDocuments = searchChaptersWithFilters(request, pageable);
-        }
-        
+    private PageResponseDTO<ChapterSummaryDTO> toChapterPage(SearchHits<ChapterDocument> searchHits, ChapterSearchRequestDTO request) {
         // Convert Elasticsearch documents to DTOs
-        List<ChapterSummaryDTO> chapterDTOs = chapterDocuments.getContent().stream()
-                .map(this::convertToChapterDTO)
+        List<ChapterSummaryDTO> chapterDTOs = searchHits.getSearchHits().stream()
+                .map(hit -> convertToChapterDTO(hit.getContent(), hit.getContent().getPreview()))
                 .collect(Collectors.toList());
         
-        return new PageResponseDTO<>(
+        PageResponseDTO<ChapterSummaryDTO> page = new PageResponseDTO<>(
             chapterDTOs, 
-            chapterDocuments.getTotalElements(), 
+            searchHits.getTotalHits(), 
             request.getPage() - 1, 
             request.getPageSize()
         );
+        page.setNextCursor(nextCursor(searchHits, request.getPageSize()));
+        return page;
     }
 
     /**
-     * Get search suggestions using Elasticsearch
+     * One result per chapter from collapsed passage hits, in passage score order.
+     * The best passage's highlight is the snippet; chapter fields come from the chapter index.
      */
-    public List<String> getSearchSuggestions(String query, int limit) {
-        if (!StringUtils.hasText(query) || query.length() < 2) {
-            return Collections.emptyList();
-        }
+    private PageResponseDTO<ChapterSummaryDTO> toPassagePage(SearchHits<ChapterPassageDocument> passageHits,
+                                                            ChapterSearchRequestDTO request, Pageable pageable) {
+        List<SearchHit<ChapterPassageDocument>> hits = passageHits.getSearchHits();
+        Map<String, ChapterDocument> chapters = findChapters(hits.stream()
+                .map(hit -> String.valueOf(hit.getContent().getChapterId()))
+                .distinct()
+                .collect(Collectors.toList()));
 
-        Pageable pageable = PageRequest.of(0, limit);
-        
-        // Get suggestions from novels
-        List<NovelDocument> novelSuggestions = novelElasticsearchRepository.searchSuggestions(query, pageable);
-        
-        // Get suggestions from chapters
-        List<ChapterDocument> chapterSuggestions = chapterElasticsearchRepository.searchSuggestions(query, pageable);
-        
-        // Combine and deduplicate suggestions
-        Set<String> suggestions = new HashSet<>();
-        
-        novelSuggestions.forEach(novel -> {
-            if (novel.getTitle().toLowerCase().contains(query.toLowerCase())) {
-                suggestions.add(novel.getTitle());
-            }
-            if (novel.getAuthorName().toLowerCase().contains(query.toLowerCase())) {
-                suggestions.add(novel.getAuthorName());
+        List<ChapterSummaryDTO> chapterDTOs = new ArrayList<>();
+        for (SearchHit<ChapterPassageDocument> hit : hits) {
+            ChapterDocument chapter = chapters.get(String.valueOf(hit.getContent().getChapterId()));
+            if (chapter == null) {
+                // Passages can briefly outlive a removed chapter
+                continue;
             }
-        });
-        
-        chapterSuggestions.forEach(chapter -> {
-            if (chapter.getTitle().toLowerCase().contains(query.toLowerCase())) {
-                suggestions.add(chapter.getTitle());
-            }
-        });
-        
-        return suggestions.stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+            List<String> fragments = hit.getHighlightField(ElasticsearchQueryBuilder.PASSAGE_TEXT_FIELD);
+            String snippet = fragments != null && !fragments.isEmpty() ? fragments.get(0) : chapter.getPreview();
+            chapterDTOs.add(convertToChapterDTO(chapter, snippet));
+        }
+
+        PageResponseDTO<ChapterSummaryDTO> page = new PageResponseDTO<>(
+            chapterDTOs,
+            collapsedTotal(passageHits),
+            request.getPage() - 1,
+            request.getPageSize()
+        );
+        // Collapsed results page by number; the cursor carries the next page index
+        if (!hits.isEmpty() && hits.size() >= pageable.getPageSize() && withinPassageDepth(pageable.getPageNumber() + 1, pageable.getPageSize())) {
+            page.setNextCursor(SearchCursorUtil.encode(List.<Object>of(pageable.getPageNumber() + 1)));
+        }
+        return page;
     }
 
+    private Map<String, ChapterDocument> findChapters(List<String> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        SearchHits<ChapterDocument> searchHits = elasticsearchOperations.search(
+                elasticsearchQueryBuilder.buildChapterLookupQuery(ids), ChapterDocument.class);
+        return searchHits.getSearchHits().stream()
+                .map(SearchHit::getContent)
+                .collect(Collectors.toMap(ChapterDocument::getId, document -> document, (first, second) -> first));
+    }
 
-    // Private helper methods
+    /**
+     * Number of distinct chapters among matching passages; passage count if the aggregation is missing
+     */
+    private long collapsedTotal(SearchHits<?> searchHits) {
+        if (searchHits.getAggregations() instanceof ElasticsearchAggregations aggregations) {
+            ElasticsearchAggregation chapterCount = aggregations.get(ElasticsearchQueryBuilder.PASSAGE_CHAPTER_COUNT);
+            if (chapterCount != null && chapterCount.aggregation().getAggregate().isCardinality()) {
+                return chapterCount.aggregation().getAggregate().cardinality().value();
+            }
+        }
+        return searchHits.getTotalHits();
+    }
+
+    /**
+     * Cursor from the sort values of the last hit; a short page means there is nothing after it
+     */
+    private String nextCursor(SearchHits<?> searchHits, int pageSize) {
+        List<? extends SearchHit<?>> hits = searchHits.getSearchHits();
+        if (hits.isEmpty() || hits.size() < pageSize) {
+            return null;
+        }
+        return SearchCursorUtil.encode(hits.get(hits.size() - 1).getSortValues());
+    }
 
     private Pageable createPageable(NovelSearchRequestDTO request) {
-        Sort sort = createSort(request.getSort(), request.getOrder());
-        return PageRequest.of(request.getPage(), request.getSize(), sort);
+        // Popularity-scored queries already fold the counters into _score
+        Sort primary = elasticsearchQueryBuilder.usesPopularityScoring(request)
+                ? Sort.by(Sort.Direction.DESC, "_score")
+                : createSort(request.getSort(), request.getOrder());
+        Sort sort = primary.and(Sort.by(Sort.Direction.ASC, TIEBREAKER_FIELD));
+        // With a cursor, search_after positions the page and the offset must stay at 0
+        int page = StringUtils.hasText(request.getCursor()) ? 0 : request.getPage();
+        return PageRequest.of(page, request.getSize(), sort);
+    }
+
+    /**
+     * Passage hits are collapsed per chapter, and Elasticsearch only allows search_after with
+     * collapse when sorting on the collapse field; they sort by score, or by chapter number,
+     * and page by number up to a bounded depth
+     */
+    private Pageable createPageableForPassages(ChapterSearchRequestDTO request) {
+        Sort sort = "chapterNumber".equals(request.getSortBy())
+                ? Sort.by("asc".equalsIgnoreCase(request.getSortOrder()) ? Sort.Direction.ASC : Sort.Direction.DESC, "chapterNumber")
+                : Sort.by(Sort.Direction.DESC, "_score");
+        sort = sort.and(Sort.by(Sort.Direction.ASC, ElasticsearchQueryBuilder.PASSAGE_COLLAPSE_FIELD));
+        int page = StringUtils.hasText(request.getCursor()) ? pageFromCursor(request.getCursor()) : request.getPage() - 1;
+        if (!withinPassageDepth(page, request.getPageSize())) {
+            throw new ValidationException("Text search returns at most " + maxPassageResults + " chapters; refine the query");
+        }
+        return PageRequest.of(page, request.getPageSize(), sort);
+    }
+
+    private boolean withinPassageDepth(int page, int pageSize) {
+        return (long) (page + 1) * pageSize <= maxPassageResults;
+    }
+
+    private int pageFromCursor(String cursor) {
+        List<Object> values = SearchCursorUtil.decode(cursor);
+        if (values.size() != 1 || !(values.get(0) instanceof Number number) || number.intValue() < 0) {
+            throw new ValidationException("Invalid search cursor");
+        }
+        return number.intValue();
     }
 
     private Pageable createPageableForChapters(ChapterSearchRequestDTO request) {
-        Sort sort = createSortForChapters(request.getSortBy(), request.getSortOrder());
-        return PageRequest.of(request.getPage() - 1, request.getPageSize(), sort);
+        Sort sort = createSortForChapters(request.getSortBy(), request.getSortOrder()).and(Sort.by(Sort.Direction.ASC, TIEBREAKER_FIELD));
+        int page = StringUtils.hasText(request.getCursor()) ? 0 : request.getPage() - 1;
+        return PageRequest.of(page, request.getPageSize(), sort);
     }
 
     private Sort createSort(String sortField, String order) {
@@ -189,40 +307,6 @@ public class ElasticsearchSearchService {
         }
     }
 
-    private Page<NovelDocument> searchNovelsWithFilters(NovelSearchRequestDTO request, Pageable pageable) {
-        // This is a simplified version - in production, you'd use more complex queries
-        if (request.getCategoryId() != null) {
-            return Page.empty();
-        }
-        if (request.getStatus() != null) {
-            return Page.empty();
-        }
-        if (request.getIsCompleted() != null) {
-            return Page.empty();
-        }
-        if (request.getAuthorId() != null) {
-            return Page.empty();
-        }
-        
-        // Return all novels if no filters
-        return novelElasticsearchRepository.findAll(pageable);
-    }
-
-    private Page<ChapterDocument> searchChaptersWithFilters(ChapterSearchRequestDTO request, Pageable pageable) {
-        if (request.getNovelId() != null) {
-            return chapterElasticsearchRepository.findByNovelId(request.getNovelId(), pageable);
-        }
-        if (request.getIsPremium() != null) {
-            return Page.empty();
-        }
-        if (request.getIsValid() != null) {
-            return Page.empty();
-        }
-        
-        // Return all chapters if no filters
-        return chapterElasticsearchRepository.findAll(pageable);
-    }
-
     private NovelDetailResponseDTO convertToNovelDTO(NovelDocument document) {
         // Convert Elasticsearch document to DTO
         // This is a simplified conversion - you might need to fetch additional data from database
@@ -250,7 +334,7 @@ public class ElasticsearchSearchService {
         return dto;
     }
 
-    private ChapterSummaryDTO convertToChapterDTO(ChapterDocument document) {
+    private ChapterSummaryDTO convertToChapterDTO(ChapterDocument document, String preview) {
         // Convert Elasticsearch document to DTO
         ChapterSummaryDTO dto = new ChapterSummaryDTO();
         dto.setId(Integer.valueOf(document.getId()));
@@ -258,9 +342,7 @@ public class ElasticsearchSearchService {
         dto.setNovelId(document.getNovelId());
         dto.setChapterNumber(document.getChapterNumber());
         dto.setTitle(document.getTitle());
-        dto.setPreview(document.getContent() != null && document.getContent().length() > 200 
-                     ? document.getContent().substring(0, 200) 
-                     : document.getContent());
+        dto.setPreview(preview);
         dto.setWordCnt(document.getWordCnt());
         dto.setIsPremium(document.getIsPremium());
         dto.setYuanCost(document.getYuanCost() != null ? document.getYuanCost().floatValue() : null);
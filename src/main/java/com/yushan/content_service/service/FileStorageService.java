@@ -1,11 +1,48 @@
 package com.yushan.content_service.service;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * Interface for file storage operations.
  * Provides abstraction for different storage implementations (local, S3, etc.)
+ *
+ * Cover renditions of one upload share a folder and are named after the rendition,
+ * e.g. covers/<folder>/thumbnail.jpg, so the URL of any rendition gives the URLs of all.
+ * The folder is the content key of the uploaded image (SHA-256 of its decoded bytes), so
+ * identical images are processed and stored once and may be shared by several novels.
  */
 public interface FileStorageService {
     
+    String RENDITION_THUMBNAIL = "thumbnail";
+    String RENDITION_CARD = "card";
+    String RENDITION_FULL = "full";
+    
+    List<String> RENDITIONS = List.of(RENDITION_THUMBNAIL, RENDITION_CARD, RENDITION_FULL);
+    
+    // <folder URL>/<rendition>.<extension>
+    Pattern RENDITION_URL_PATTERN = Pattern.compile(
+            "^(.*/)(" + String.join("|", RENDITIONS) + ")(\\.[A-Za-z0-9]+)$");
+    
+    // Hex SHA-256 of the decoded image bytes
+    Pattern CONTENT_KEY_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+    
+    // Reference to a stored cover handed out to clients: <content key>.<extension>
+    Pattern ASSET_ID_PATTERN = Pattern.compile("^([0-9a-f]{64})\\.(jpeg|jpg|png|gif|webp)$");
+    
+    // Path of a stored cover inside the covers folder: <content key>/full.<extension>,
+    // or a single file stored before renditions existed
+    Pattern STORED_COVER_PATTERN = Pattern.compile(
+            "^(?:[0-9a-f]{64}/" + RENDITION_FULL + "|[^/]+)\\.(jpeg|jpg|png|gif|webp)$");
+    
     /**
      * Upload an image from base64 data
      * @param base64Data Base64 encoded image data
@@ -15,12 +52,63 @@ public interface FileStorageService {
     String uploadImage(String base64Data, String fileName);
     
     /**
-     * Delete an image by its URL
+     * Upload every cover rendition of an image from base64 data, stored under the content key
+     * of the image. When the image is already stored it is neither processed nor uploaded again,
+     * and a queued delete of it is cancelled first so the returned URLs stay valid.
+     * @param base64Data Base64 encoded image data
+     * @return Public URL of each rendition by rendition name
+     */
+    Map<String, String> uploadImageRenditions(String base64Data);
+    
+    /**
+     * Upload every cover rendition of an image, stored under the content key of the image.
+     * When the image is already stored it is neither processed nor uploaded again.
+     * @param imageData Image bytes
+     * @param format Image format, also the format of the renditions
+     * @return Public URL of each rendition by rendition name
+     */
+    Map<String, String> uploadImageRenditions(byte[] imageData, String format);
+    
+    /**
+     * Look up a stored cover by asset id
+     * @param assetId Asset id of the cover, see {@link #assetId(String)}
+     * @return Public URL of each rendition by rendition name, or null if no such cover is stored
+     */
+    Map<String, String> findImageRenditions(String assetId);
+    
+    /**
+     * Content key of an image, the name of the folder its renditions are stored in
+     * @param base64Data Base64 encoded image data
+     * @return hex SHA-256 of the decoded image bytes
+     */
+    String contentKey(String base64Data);
+    
+    /**
+     * Delete an image by its URL; deleting any rendition deletes all renditions of the upload.
+     * Stored covers may be shared, so callers check that no novel references the image first;
+     * {@link StorageCleanupService} does both.
      * @param imageUrl URL of the image to delete
      * @return true if deletion was successful
      */
     boolean deleteImage(String imageUrl);
     
+    /**
+     * Delete images and all their renditions with as few storage requests as possible.
+     * Images that are already gone are skipped, so a failed call can simply be repeated.
+     * @param imageUrls URLs of the images to delete
+     * @throws RuntimeException if some images could not be deleted
+     */
+    void deleteImages(List<String> imageUrls);
+    
+    /**
+     * Walk the stored covers, one page at a time, without loading the whole listing.
+     * Each cover is reported once, by the URL of its full rendition (the URL novels store).
+     * @param storedBefore Only report covers stored or re-uploaded before this time
+     * @param pageSize Maximum number of URLs per page
+     * @param pageConsumer Receives each page of cover URLs
+     */
+    void scanImages(Instant storedBefore, int pageSize, Consumer<List<String>> pageConsumer);
+    
     /**
      * Validate image data
      * @param base64Data Base64 encoded image data
@@ -34,4 +122,68 @@ public interface FileStorageService {
      * @return true if image exists
      */
     boolean imageExists(String imageUrl);
+    
+    /**
+     * URLs of all renditions of a stored cover, derived from the URL of any of them.
+     * A cover stored before renditions existed only has its own URL, returned as the full rendition.
+     * @param imageUrl URL of a stored cover
+     * @return URL of each rendition by rendition name, or null if imageUrl is null
+     */
+    static Map<String, String> renditionUrls(String imageUrl) {
+        if (imageUrl == null || imageUrl.isBlank()) {
+            return null;
+        }
+        Map<String, String> urls = new LinkedHashMap<>();
+        Matcher matcher = RENDITION_URL_PATTERN.matcher(imageUrl);
+        if (!matcher.matches()) {
+            urls.put(RENDITION_FULL, imageUrl);
+            return urls;
+        }
+        for (String rendition : RENDITIONS) {
+            urls.put(rendition, matcher.group(1) + rendition + matcher.group(3));
+        }
+        return urls;
+    }
+    
+    /**
+     * Content key of a stored cover, taken from its URL
+     * @param imageUrl URL of any rendition of a stored cover
+     * @return the content key, or null if the cover was not stored under one
+     */
+    static String contentKeyOf(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        Matcher matcher = RENDITION_URL_PATTERN.matcher(imageUrl);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String folderUrl = matcher.group(1).substring(0, matcher.group(1).length() - 1);
+        String folder = folderUrl.substring(folderUrl.lastIndexOf('/') + 1);
+        return CONTENT_KEY_PATTERN.matcher(folder).matches() ? folder : null;
+    }
+    
+    /**
+     * Asset id of a stored cover, taken from its URL
+     * @param imageUrl URL of any rendition of a stored cover
+     * @return the asset id, or null if the cover was not stored under a content key
+     */
+    static String assetId(String imageUrl) {
+        String contentKey = contentKeyOf(imageUrl);
+        if (contentKey == null) {
+            return null;
+        }
+        return contentKey + imageUrl.substring(imageUrl.lastIndexOf('.'));
+    }
+    
+    /**
+     * Content key of decoded image bytes
+     */
+    static String contentKey(byte[] imageData) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(imageData));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
@@ -3,22 +3,41 @@ package com.yushan.content_service.service;
 import com.yushan.content_service.dao.ProcessedEventMapper;
 import com.yushan.content_service.entity.ProcessedEvent;
 import com.yushan.content_service.util.RedisUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Hybrid idempotency service: Redis (fast) + Database (persistent)
- * 
- * Flow:
- * 1. Check Redis → If exists → Skip (fast path)
- * 2. If Redis not found → Check Database (persistent)
- * 3. If Database not found → Process event + Save both Redis + Database
- * 4. If Database found → Skip + Backfill Redis cache
+ * Hybrid idempotency service: memory (fastest) + Redis (fast) + Database (persistent)
+ *
+ * Flow for a batch of keys:
+ * 1. Keys in the in-process LRU of recently processed keys → Skip (no round trip)
+ * 2. One Redis MGET for the rest → Found → Skip
+ * 3. One database query for all Redis misses → Found → Skip + Backfill Redis cache
+ * 4. Processed keys are saved with one pipelined Redis write and one database INSERT
+ *
+ * Redis is only written after the database commit, so a Redis miss never proves a key is new;
+ * the database stays the source of truth for every miss.
  */
 @Slf4j
 @Service
@@ -30,47 +49,137 @@ public class IdempotencyService {
     @Autowired
     private ProcessedEventMapper processedEventMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private static final Duration REDIS_TTL = Duration.ofDays(7); // Keep in Redis for 7 days
     private static final String SERVICE_NAME = "content-service";
+    private static final String PROCESSED = "processed";
+
+    // Keys older than this are forgotten; must match the retention of processed_events partitions
+    @Value("${idempotency.retention-days:7}")
+    private int retentionDays = 7;
+
+    @Value("${idempotency.recent-keys.max-size:100000}")
+    private int recentKeysMaxSize = 100000;
+
+    private Set<String> recentKeys;
+
+    private Counter memoryHits;
+    private Counter redisHits;
+    private Counter databaseLookups;
+
+    @PostConstruct
+    public void init() {
+        recentKeys = Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentKeysMaxSize;
+            }
+        }));
+        memoryHits = lookupCounter("memory");
+        redisHits = lookupCounter("redis");
+        databaseLookups = lookupCounter("database");
+    }
 
     /**
-     * Check if an event has already been processed (hybrid: Redis + Database)
-     * 
+     * Check if an event has already been processed (hybrid: memory + Redis + Database)
+     *
      * @param idempotencyKey Unique key for the event
      * @param eventType Type of event (e.g., "NovelRatingUpdate", "NovelVoteCountUpdate")
      * @return true if already processed, false otherwise
      */
     public boolean isProcessed(String idempotencyKey, String eventType) {
-        // 1. Check Redis first (fast path)
-        if (redisUtil.exists(idempotencyKey)) {
-            log.debug("Event already processed (Redis cache): {}", idempotencyKey);
-            return true;
+        return filterUnprocessed(List.of(idempotencyKey), eventType).isEmpty();
+    }
+
+    /**
+     * Bulk variant of {@link #isProcessed}: at most one Redis MGET and one database query for all keys
+     *
+     * @param idempotencyKeys Keys of a consumer batch
+     * @param eventType Type of event
+     * @return the keys that have not been processed yet, in input order
+     */
+    public Set<String> filterUnprocessed(Collection<String> idempotencyKeys, String eventType) {
+        // 1. Recently processed keys (no round trip)
+        List<String> keys = new ArrayList<>(idempotencyKeys.size());
+        for (String key : new LinkedHashSet<>(idempotencyKeys)) {
+            if (recentKeys.contains(key)) {
+                memoryHits.increment();
+            } else {
+                keys.add(key);
+            }
+        }
+        Set<String> unprocessed = new LinkedHashSet<>();
+        if (keys.isEmpty()) {
+            return unprocessed;
         }
 
-        // 2. Check Database (persistent, fallback)
-        boolean existsInDb = processedEventMapper.existsByIdempotencyKey(idempotencyKey);
-        if (existsInDb) {
-            log.debug("Event already processed (Database): {}", idempotencyKey);
+        // 2. Redis, one MGET for the batch
+        List<Object> cached = redisUtil.multiGet(keys);
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            if (cached.get(i) != null) {
+                redisHits.increment();
+                recentKeys.add(key);
+            } else {
+                candidates.add(key);
+            }
+        }
+
+        // 3. Database, one query for all Redis misses
+        if (!candidates.isEmpty()) {
+            databaseLookups.increment(candidates.size());
+            Set<String> existsInDb = new HashSet<>(processedEventMapper.selectExistingKeys(
+                    candidates.toArray(new String[0]), retentionStart()));
+            List<String> backfill = new ArrayList<>(existsInDb.size());
+            for (String key : candidates) {
+                if (existsInDb.contains(key)) {
+                    backfill.add(key);
+                    recentKeys.add(key);
+                } else {
+                    unprocessed.add(key);
+                }
+            }
             // Backfill Redis cache for faster future checks
-            redisUtil.set(idempotencyKey, "processed", REDIS_TTL);
-            return true;
+            redisUtil.setAll(backfill, PROCESSED, REDIS_TTL);
         }
 
-        return false;
+        // Keep input order for callers that rely on it
+        Set<String> ordered = new LinkedHashSet<>(keys);
+        ordered.retainAll(unprocessed);
+        log.debug("{} of {} {} events not processed yet", ordered.size(), idempotencyKeys.size(), eventType);
+        return ordered;
+    }
+
+    /**
+     * Mark events as processed: one database INSERT and, once it commits, one pipelined Redis write
+     *
+     * @param idempotencyKeys Keys of the processed events
+     * @param eventType Type of event
+     */
+    @Transactional
+    public void markProcessed(Collection<String> idempotencyKeys, String eventType) {
+        if (idempotencyKeys.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(idempotencyKeys));
+        int inserted = processedEventMapper.insertKeys(keys.toArray(new String[0]), eventType, SERVICE_NAME,
+                LocalDateTime.now(), retentionStart());
+        afterCommit(() -> remember(keys));
+        log.debug("Marked {} events as processed ({} new in database)", keys.size(), inserted);
     }
 
     /**
      * Mark an event as processed (save to both Redis and Database)
-     * 
+     *
      * @param idempotencyKey Unique key for the event
      * @param eventType Type of event
      * @param eventData Optional JSON string with event details (for debugging)
      */
     @Transactional
     public void markAsProcessed(String idempotencyKey, String eventType, String eventData) {
-        // Save to Redis (fast access)
-        redisUtil.set(idempotencyKey, "processed", REDIS_TTL);
-        
         // Save to Database (persistent)
         ProcessedEvent event = new ProcessedEvent();
         event.setIdempotencyKey(idempotencyKey);
@@ -78,13 +187,14 @@ public class IdempotencyService {
         event.setServiceName(SERVICE_NAME);
         event.setProcessedAt(LocalDateTime.now());
         event.setEventData(eventData);
-        
+
         int result = processedEventMapper.insert(event);
         if (result > 0) {
             log.debug("Marked event as processed (both Redis and Database): {}", idempotencyKey);
         } else {
             log.warn("Failed to insert processed event to database (may already exist): {}", idempotencyKey);
         }
+        afterCommit(() -> remember(List.of(idempotencyKey)));
     }
 
     /**
@@ -95,14 +205,38 @@ public class IdempotencyService {
     }
 
     /**
-     * Cleanup old processed events (older than specified days)
-     * Should be called periodically via scheduled job
+     * Start of the retention window, aligned to the daily partitions
      */
-    @Transactional
-    public void cleanupOldProcessedEvents(int daysToKeep) {
-        LocalDateTime beforeDate = LocalDateTime.now().minusDays(daysToKeep);
-        int deleted = processedEventMapper.deleteOldProcessedEvents(beforeDate);
-        log.info("Cleaned up {} old processed events (older than {} days)", deleted, daysToKeep);
+    private LocalDateTime retentionStart() {
+        return LocalDate.now().minusDays(retentionDays).atStartOfDay();
+    }
+
+    private void remember(List<String> keys) {
+        // Save to Redis (fast access) and memory
+        redisUtil.setAll(keys, PROCESSED, REDIS_TTL);
+        recentKeys.addAll(keys);
     }
-}
 
+    /**
+     * Run the action once the surrounding transaction commits, so a rolled back mark is never cached
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Counter lookupCounter(String tier) {
+        return Counter.builder("idempotency.lookups")
+                .description("Idempotency keys resolved per tier")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,244 @@
+package com.yushan.content_service.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageReader;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Ingestion pipeline for uploaded images.
+ *
+ * Each upload goes through the stages once, in order:
+ * 1. decode    - base64 to bytes
+ * 2. validate  - size, format and dimensions from the image header, no pixels decoded
+ * 3. rasterize - the single decode, by the reader that parsed the header, subsampled
+ *                so the raster is at most about twice the (largest) target size
+ * 4. resize    - scale the raster to the target box in halving steps
+ * 5. encode    - compress to the declared format
+ *
+ * Cover uploads produce every rendition from the one decoded raster, resizing and encoding
+ * the renditions in parallel. Stage durations are published as the {@code image.ingestion}
+ * timer tagged by stage.
+ */
+@Slf4j
+@Service
+public class ImageIngestionService {
+
+    @Autowired
+    private ImageValidationService imageValidationService;
+
+    @Autowired
+    private ImageProcessingService imageProcessingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Rendition boxes as <width>x<height>; images keep their aspect ratio inside the box
+    @Value("${cover.renditions.thumbnail:200x150}")
+    private String thumbnailSize = "200x150";
+
+    @Value("${cover.renditions.card:400x300}")
+    private String cardSize = "400x300";
+
+    @Value("${cover.renditions.full:800x600}")
+    private String fullSize = "800x600";
+
+    @Value("${cover.renditions.jpeg-quality:0.85}")
+    private float jpegQuality = 0.85f;
+
+    @Value("${cover.renditions.parallelism:0}")
+    private int parallelism = 0; // 0 = number of processors
+
+    private List<Rendition> renditions;
+    private ExecutorService renditionExecutor;
+
+    @PostConstruct
+    public void init() {
+        renditions = List.of(
+                Rendition.parse(FileStorageService.RENDITION_THUMBNAIL, thumbnailSize),
+                Rendition.parse(FileStorageService.RENDITION_CARD, cardSize),
+                Rendition.parse(FileStorageService.RENDITION_FULL, fullSize));
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        renditionExecutor = Executors.newFixedThreadPool(threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renditionExecutor.shutdownNow();
+    }
+
+    /**
+     * Decode, validate, resize and encode an image from a base64 data URL
+     *
+     * @param base64DataUrl Image as a data URL
+     * @param targetWidth Width of the box the image is resized into
+     * @param targetHeight Height of the box the image is resized into
+     * @return the encoded image
+     * @throws IllegalArgumentException if the image is not valid
+     */
+    public IngestedImage ingest(String base64DataUrl, int targetWidth, int targetHeight) throws IOException {
+        long started = System.nanoTime();
+        byte[] imageData = decode(base64DataUrl);
+        Decoded decoded = rasterize(imageData, imageValidationService.getImageFormat(base64DataUrl),
+                targetWidth, targetHeight);
+        IngestedImage image = render(decoded, new Rendition(null, targetWidth, targetHeight), null);
+        log.debug("Ingested {} as {}x{} ({} bytes) in {} ms", decoded, image.width(), image.height(),
+                image.data().length, (System.nanoTime() - started) / 1_000_000);
+        return image;
+    }
+
+    /**
+     * Produce every cover rendition from one decode of a base64 data URL
+     *
+     * @return encoded renditions by name, smallest first
+     * @throws IllegalArgumentException if the image is not valid
+     */
+    public Map<String, IngestedImage> ingestRenditions(String base64DataUrl) throws IOException {
+        byte[] imageData = decode(base64DataUrl);
+        return ingestRenditions(imageData, imageValidationService.getImageFormat(base64DataUrl));
+    }
+
+    /**
+     * Produce every cover rendition from image bytes already decoded by {@link #decode(String)}
+     *
+     * @param imageData Decoded image bytes
+     * @param format Declared image format, also the format of the renditions
+     * @return encoded renditions by name, smallest first
+     * @throws IllegalArgumentException if the image is not valid
+     */
+    public Map<String, IngestedImage> ingestRenditions(byte[] imageData, String format) throws IOException {
+        long started = System.nanoTime();
+        int maxWidth = renditions.stream().mapToInt(Rendition::width).max().orElseThrow();
+        int maxHeight = renditions.stream().mapToInt(Rendition::height).max().orElseThrow();
+        Decoded decoded = rasterize(imageData, format, maxWidth, maxHeight);
+
+        List<Future<IngestedImage>> futures = new ArrayList<>(renditions.size());
+        for (Rendition rendition : renditions) {
+            futures.add(renditionExecutor.submit(() -> render(decoded, rendition, jpegQuality)));
+        }
+        Map<String, IngestedImage> result = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < renditions.size(); i++) {
+                result.put(renditions.get(i).name(), futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering image", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to render image: " + e.getCause().getMessage(), e.getCause());
+        }
+        log.debug("Ingested {} as {} renditions in {} ms", decoded, result.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Stage 1: decode a base64 data URL to the image bytes
+     *
+     * @throws IllegalArgumentException if the data URL is not valid
+     */
+    public byte[] decode(String base64DataUrl) throws IOException {
+        if (!imageValidationService.isValidBase64DataUrl(base64DataUrl)) {
+            throw new IllegalArgumentException("Invalid image: Invalid base64 data URL format");
+        }
+        return stage("decode", () -> imageValidationService.extractImageData(base64DataUrl));
+    }
+
+    /**
+     * Stages 2-3: validate from the header and rasterize once, sized for the target box
+     */
+    private Decoded rasterize(byte[] imageData, String format, int targetWidth, int targetHeight) throws IOException {
+        ImageReader reader = imageValidationService.openReader(imageData);
+        try {
+            ImageValidationService.ImageValidationResult validation =
+                    stage("validate", () -> imageValidationService.validateHeader(imageData, format, reader));
+            if (!validation.isValid()) {
+                throw new IllegalArgumentException("Invalid image: " + validation.getErrorMessage());
+            }
+
+            BufferedImage raster = stage("rasterize",
+                    () -> imageProcessingService.decodeForTarget(reader, targetWidth, targetHeight));
+            return new Decoded(raster, format, validation.getWidth(), validation.getHeight(), imageData.length);
+        } finally {
+            imageValidationService.closeReader(reader);
+        }
+    }
+
+    /**
+     * Stages 4-5: resize and encode one rendition; the decoded raster is only read
+     */
+    private IngestedImage render(Decoded decoded, Rendition rendition, Float quality) throws IOException {
+        BufferedImage resized = stage("resize",
+                () -> imageProcessingService.resizeImage(decoded.raster(), rendition.width(), rendition.height()));
+        byte[] encoded = stage("encode", () -> quality != null
+                ? imageProcessingService.compressImage(resized, decoded.format(), quality)
+                : imageProcessingService.compressImage(resized, decoded.format()));
+        return new IngestedImage(encoded, decoded.format(), resized.getWidth(), resized.getHeight());
+    }
+
+    private <T> T stage(String name, Stage<T> stage) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return stage.run();
+        } finally {
+            sample.stop(Timer.builder("image.ingestion")
+                    .description("Time spent per image ingestion stage")
+                    .tag("stage", name)
+                    .register(meterRegistry));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Encoded image ready to be stored
+     */
+    public record IngestedImage(byte[] data, String format, int width, int height) {
+    }
+
+    /**
+     * Named box an image is resized into
+     */
+    record Rendition(String name, int width, int height) {
+
+        static Rendition parse(String name, String size) {
+            String[] parts = size.trim().toLowerCase().split("x");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid size for cover rendition " + name + ": " + size);
+            }
+            return new Rendition(name, Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+    }
+
+    private record Decoded(BufferedImage raster, String format, int width, int height, int size) {
+
+        @Override
+        public String toString() {
+            return width + "x" + height + " " + format + " image (" + size + " bytes, decoded at "
+                    + raster.getWidth() + "x" + raster.getHeight() + ")";
+        }
+    }
+}
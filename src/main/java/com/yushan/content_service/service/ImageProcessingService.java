@@ -2,7 +2,13 @@ package com.yushan.content_service.service;
 
 import org.springframework.stereotype.Service;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
@@ -17,7 +23,36 @@ public class ImageProcessingService {
     public static final int STANDARD_HEIGHT = 600;
     
     /**
-     * Resize image while maintaining aspect ratio
+     * Decode an image no larger than needed for the target size.
+     * Whole rows and columns are skipped while decoding so the raster stays within twice the
+     * target size, which bounds memory regardless of the uploaded dimensions; resizeImage
+     * then scales the rest of the way.
+     */
+    public BufferedImage decodeForTarget(ImageReader reader, int targetWidth, int targetHeight) throws IOException {
+        int factor = subsamplingFactor(reader.getWidth(0), reader.getHeight(0), targetWidth, targetHeight);
+        ImageReadParam param = reader.getDefaultReadParam();
+        if (factor > 1) {
+            param.setSourceSubsampling(factor, factor, 0, 0);
+        }
+        return reader.read(0, param);
+    }
+    
+    /**
+     * Largest subsampling factor that keeps the decoded image at least twice the size it is
+     * resized to, so the final downscale still has enough pixels to average
+     */
+    public int subsamplingFactor(int width, int height, int targetWidth, int targetHeight) {
+        if (targetWidth <= 0 || targetHeight <= 0) {
+            return 1;
+        }
+        double downscale = Math.max((double) width / targetWidth, (double) height / targetHeight);
+        return Math.max(1, (int) (downscale / 2));
+    }
+    
+    /**
+     * Resize image while maintaining aspect ratio.
+     * Large reductions are done in halving steps because a single bilinear pass only samples
+     * the 2x2 nearest source pixels and drops the rest.
      */
     public BufferedImage resizeImage(BufferedImage originalImage, int targetWidth, int targetHeight) {
         // Calculate dimensions to maintain aspect ratio
@@ -37,8 +72,22 @@ public class ImageProcessingService {
             newWidth = (int) (targetHeight * aspectRatio);
         }
         
+        // Halve while more than twice the target size
+        BufferedImage currentImage = originalImage;
+        int currentWidth = originalWidth;
+        int currentHeight = originalHeight;
+        while (newWidth > 0 && newHeight > 0 && currentWidth > newWidth * 2 && currentHeight > newHeight * 2) {
+            currentWidth /= 2;
+            currentHeight /= 2;
+            currentImage = drawScaled(currentImage, currentWidth, currentHeight);
+        }
+        
+        return drawScaled(currentImage, newWidth, newHeight);
+    }
+    
+    private BufferedImage drawScaled(BufferedImage source, int width, int height) {
         // Create resized image
-        BufferedImage resizedImage = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
+        BufferedImage resizedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
         Graphics2D g2d = resizedImage.createGraphics();
         
         // Set rendering hints for better quality
@@ -47,7 +96,7 @@ public class ImageProcessingService {
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         
         // Draw resized image
-        g2d.drawImage(originalImage, 0, 0, newWidth, newHeight, null);
+        g2d.drawImage(source, 0, 0, width, height, null);
         g2d.dispose();
         
         return resizedImage;
@@ -73,4 +122,35 @@ public class ImageProcessingService {
         
         return baos.toByteArray();
     }
+    
+    /**
+     * Compress image, encoding JPEG at the given quality (0-1); other formats are lossless
+     */
+    public byte[] compressImage(BufferedImage image, String format, float jpegQuality) throws IOException {
+        if (!"jpeg".equalsIgnoreCase(format) && !"jpg".equalsIgnoreCase(format)) {
+            return compressImage(image, format);
+        }
+        
+        // Convert to RGB for JPEG
+        BufferedImage rgbImage = image;
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+            rgbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = rgbImage.createGraphics();
+            g2d.drawImage(image, 0, 0, null);
+            g2d.dispose();
+        }
+        
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(baos)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(rgbImage, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return baos.toByteArray();
+    }
 }
@@ -3,10 +3,14 @@ package com.yushan.content_service.service;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.regex.Pattern;
 
@@ -78,9 +82,13 @@ public class ImageValidationService {
      * Validate image dimensions
      */
     public boolean isValidDimensions(BufferedImage image) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        
+        return isValidDimensions(image.getWidth(), image.getHeight());
+    }
+    
+    /**
+     * Validate image dimensions read from the image header
+     */
+    public boolean isValidDimensions(int width, int height) {
         return width >= MIN_WIDTH && width <= MAX_WIDTH &&
                height >= MIN_HEIGHT && height <= MAX_HEIGHT;
     }
@@ -112,28 +120,55 @@ public class ImageValidationService {
             
             // Extract image data
             byte[] imageData = extractImageData(base64DataUrl);
+            String format = getImageFormat(base64DataUrl);
+            
+            // Validate from the header only, without decoding the pixels
+            ImageReader reader = openReader(imageData);
+            try {
+                return validateHeader(imageData, format, reader);
+            } finally {
+                closeReader(reader);
+            }
             
+        } catch (Exception e) {
+            result.addError("Image validation failed: " + e.getMessage());
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Validate size, format and header dimensions of decoded image data without rasterizing it
+     *
+     * @param imageData Decoded image bytes
+     * @param format Format declared by the data URL
+     * @param reader Reader positioned on the image data, or null if no reader recognised it
+     */
+    public ImageValidationResult validateHeader(byte[] imageData, String format, ImageReader reader) {
+        ImageValidationResult result = new ImageValidationResult();
+        
+        try {
             // Validate file size
             if (!isValidFileSize(imageData)) {
                 result.addError("Image file size exceeds maximum limit of " + (MAX_FILE_SIZE / 1024 / 1024) + "MB");
                 return result;
             }
             
-            // Get image format
-            String format = getImageFormat(base64DataUrl);
+            // Validate image format
             if (!isSupportedFormat(format)) {
                 result.addError("Unsupported image format: " + format + ". Supported formats: " + String.join(", ", SUPPORTED_FORMATS));
                 return result;
             }
             
-            // Validate image dimensions
-            BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageData));
-            if (image == null) {
+            if (reader == null) {
                 result.addError("Unable to read image data");
                 return result;
             }
             
-            if (!isValidDimensions(image)) {
+            // Validate image dimensions
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            if (!isValidDimensions(width, height)) {
                 result.addError("Invalid image dimensions. Must be between " + MIN_WIDTH + "x" + MIN_HEIGHT + 
                               " and " + MAX_WIDTH + "x" + MAX_HEIGHT);
                 return result;
@@ -141,8 +176,8 @@ public class ImageValidationService {
             
             // Set metadata
             result.setValid(true);
-            result.setWidth(image.getWidth());
-            result.setHeight(image.getHeight());
+            result.setWidth(width);
+            result.setHeight(height);
             result.setFormat(format);
             result.setSize(imageData.length);
             
@@ -153,6 +188,42 @@ public class ImageValidationService {
         return result;
     }
     
+    /**
+     * Open a reader on decoded image data; only the header is parsed until the image is read
+     *
+     * @return the reader, or null if no installed reader recognises the data
+     */
+    public ImageReader openReader(byte[] imageData) throws IOException {
+        ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(imageData));
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            input.close();
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(input, true, true);
+        return reader;
+    }
+    
+    /**
+     * Release a reader returned by {@link #openReader} and its input stream
+     */
+    public void closeReader(ImageReader reader) {
+        if (reader == null) {
+            return;
+        }
+        try {
+            Object input = reader.getInput();
+            if (input instanceof ImageInputStream imageInputStream) {
+                imageInputStream.close();
+            }
+        } catch (IOException e) {
+            // Memory-backed stream, nothing to release
+        } finally {
+            reader.dispose();
+        }
+    }
+    
     /**
      * Get image metadata
      */
@@ -161,14 +232,20 @@ public class ImageValidationService {
         
         try {
             byte[] imageData = extractImageData(base64DataUrl);
-            BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageData));
+            ImageReader reader = openReader(imageData);
             
-            if (image != null) {
-                metadata.put("width", image.getWidth());
-                metadata.put("height", image.getHeight());
-                metadata.put("format", getImageFormat(base64DataUrl));
-                metadata.put("size", imageData.length);
-                metadata.put("aspectRatio", (double) image.getWidth() / image.getHeight());
+            if (reader != null) {
+                try {
+                    int width = reader.getWidth(0);
+                    int height = reader.getHeight(0);
+                    metadata.put("width", width);
+                    metadata.put("height", height);
+                    metadata.put("format", getImageFormat(base64DataUrl));
+                    metadata.put("size", imageData.length);
+                    metadata.put("aspectRatio", (double) width / height);
+                } finally {
+                    closeReader(reader);
+                }
             }
         } catch (Exception e) {
             metadata.put("error", e.getMessage());
@@ -22,6 +22,9 @@ import java.util.concurrent.CompletableFuture;
  * - Gamification Service: Award points and unlock achievements
  * - Engagement Service: Notify followers and update feeds
  * - User Service: Update user statistics
+ *
+ * Novel and chapter events go through the transactional outbox and are sent by
+ * {@link OutboxRelayService}, so they are published exactly when the change commits.
  */
 @Slf4j
 @Service
@@ -30,6 +33,9 @@ public class KafkaEventProducerService {
     @Autowired
     private KafkaTemplate<String, Object> kafkaTemplate;
 
+    @Autowired
+    private OutboxService outboxService;
+
     @Value("${spring.kafka.producer.topic.novel-events:novel-events}")
     private String novelEventsTopic;
 
@@ -76,7 +82,7 @@ public class KafkaEventProducerService {
                     .build();
 
             publishEvent(novelViewsTopic, event.getNovelId().toString(), event);
-            log.info("Published novel view event for novel ID: {}, user ID: {}", novel.getId(), userId);
+            log.info("Queued novel view event for novel ID: {}, user ID: {}", novel.getId(), userId);
         } catch (Exception e) {
             log.error("Failed to publish novel view event for novel ID: {}", novel.getId(), e);
         }
@@ -105,7 +111,7 @@ public class KafkaEventProducerService {
                     .build();
 
             publishEvent(novelEventsTopic, event.getNovelId().toString(), event);
-            log.info("Published novel created event for novel ID: {}", novel.getId());
+            log.info("Queued novel created event for novel ID: {}", novel.getId());
         } catch (Exception e) {
             log.error("Failed to publish novel created event for novel ID: {}", novel.getId(), e);
         }
@@ -132,7 +138,7 @@ public class KafkaEventProducerService {
                     .build();
 
             publishEvent(novelEventsTopic, event.getNovelId().toString(), event);
-            log.info("Published novel updated event for novel ID: {}", novel.getId());
+            log.info("Queued novel updated event for novel ID: {}", novel.getId());
         } catch (Exception e) {
             log.error("Failed to publish novel updated event for novel ID: {}", novel.getId(), e);
         }
@@ -161,7 +167,7 @@ public class KafkaEventProducerService {
                     .build();
 
             publishEvent(novelStatusChangesTopic, event.getNovelId().toString(), event);
-            log.info("Published novel status changed event for novel ID: {} from {} to {}", 
+            log.info("Queued novel status changed event for novel ID: {} from {} to {}", 
                     novel.getId(), previousStatus, newStatus);
         } catch (Exception e) {
             log.error("Failed to publish novel status changed event for novel ID: {}", novel.getId(), e);
@@ -199,7 +205,7 @@ public class KafkaEventProducerService {
                     .build();
 
             publishEvent(chapterEventsTopic, event.getChapterId().toString(), event);
-            log.info("Published chapter created event for chapter ID: {}, novel ID: {}", chapter.getId(), novel.getId());
+            log.info("Queued chapter created event for chapter ID: {}, novel ID: {}", chapter.getId(), novel.getId());
         } catch (Exception e) {
             log.error("Failed to publish chapter created event for chapter ID: {}", chapter.getId(), e);
         }
@@ -234,7 +240,7 @@ public class KafkaEventProducerService {
                     .build();
 
             publishEvent(chapterEventsTopic, event.getChapterId().toString(), event);
-            log.info("Published chapter updated event for chapter ID: {}, novel ID: {}", chapter.getId(), novel.getId());
+            log.info("Queued chapter updated event for chapter ID: {}, novel ID: {}", chapter.getId(), novel.getId());
         } catch (Exception e) {
             log.error("Failed to publish chapter updated event for chapter ID: {}", chapter.getId(), e);
         }
@@ -266,7 +272,7 @@ public class KafkaEventProducerService {
                     .build();
 
             publishEvent(chapterPublishedTopic, event.getChapterId().toString(), event);
-            log.info("Published chapter published event for chapter ID: {}, novel ID: {}", chapter.getId(), novel.getId());
+            log.info("Queued chapter published event for chapter ID: {}, novel ID: {}", chapter.getId(), novel.getId());
         } catch (Exception e) {
             log.error("Failed to publish chapter published event for chapter ID: {}", chapter.getId(), e);
         }
@@ -299,7 +305,7 @@ public class KafkaEventProducerService {
                     .build();
 
             publishEvent(chapterViewsTopic, event.getChapterId().toString(), event);
-            log.info("Published chapter view event for chapter ID: {}, user ID: {}", chapter.getId(), userId);
+            log.info("Queued chapter view event for chapter ID: {}, user ID: {}", chapter.getId(), userId);
         } catch (Exception e) {
             log.error("Failed to publish chapter view event for chapter ID: {}", chapter.getId(), e);
         }
@@ -310,7 +316,7 @@ public class KafkaEventProducerService {
      */
     public void publishUserActivityEvent(UserActivityEvent event) {
         try {
-            publishEvent("active", event.userId().toString(), event);
+            sendNow("active", event.userId().toString(), event);
             log.info("Published user activity event for user: {}, service: {}, endpoint: {}", 
                      event.userId(), event.serviceName(), event.endpoint());
         } catch (Exception e) {
@@ -319,9 +325,16 @@ public class KafkaEventProducerService {
     }
 
     /**
-     * Generic method to publish events to Kafka
+     * Add an event to the outbox; it is relayed to Kafka once the current transaction commits
      */
     private void publishEvent(String topic, String key, Object event) {
+        outboxService.enqueue(topic, key, event);
+    }
+
+    /**
+     * Send an event to Kafka directly, for events that are not tied to a database change
+     */
+    private void sendNow(String topic, String key, Object event) {
         CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(topic, key, event);
         
         future.whenComplete((result, ex) -> {
@@ -1,20 +1,29 @@
 package com.yushan.content_service.service;
 
+import com.yushan.content_service.dao.StorageDeletionMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.stream.Stream;
 
 /**
  * Local file storage implementation for development environment
@@ -27,7 +36,10 @@ public class LocalFileStorageService implements FileStorageService {
     private ImageValidationService imageValidationService;
     
     @Autowired
-    private ImageProcessingService imageProcessingService;
+    private ImageIngestionService imageIngestionService;
+    
+    @Autowired
+    private StorageDeletionMapper storageDeletionMapper;
     
     @Value("${app.storage.local.path:uploads}")
     private String uploadPath;
@@ -41,22 +53,11 @@ public class LocalFileStorageService implements FileStorageService {
     @Override
     public String uploadImage(String base64Data, String fileName) {
         try {
-            // Validate image
-            ImageValidationService.ImageValidationResult validation = imageValidationService.validateImage(base64Data);
-            if (!validation.isValid()) {
-                throw new IllegalArgumentException("Invalid image: " + validation.getErrorMessage());
-            }
-            
-            // Extract image data
-            byte[] imageData = imageValidationService.extractImageData(base64Data);
-            String format = imageValidationService.getImageFormat(base64Data);
-            
-            // Resize to standard size (800x600)
-            BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(imageData));
-            BufferedImage resizedImage = imageProcessingService.resizeImage(originalImage, 800, 600);
-            
-            // Compress image
-            byte[] compressedData = imageProcessingService.compressImage(resizedImage, format);
+            // Decode, validate, resize to standard size (800x600) and compress in one pass
+            ImageIngestionService.IngestedImage image = imageIngestionService.ingest(base64Data,
+                    ImageProcessingService.STANDARD_WIDTH, ImageProcessingService.STANDARD_HEIGHT);
+            byte[] compressedData = image.data();
+            String format = image.format();
             
             // Generate unique filename
             String uniqueFileName = generateUniqueFileName(fileName, format);
@@ -79,6 +80,74 @@ public class LocalFileStorageService implements FileStorageService {
         }
     }
     
+    @Override
+    public Map<String, String> uploadImageRenditions(String base64Data) {
+        try {
+            return uploadImageRenditions(imageIngestionService.decode(base64Data),
+                    imageValidationService.getImageFormat(base64Data));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload image: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Map<String, String> uploadImageRenditions(byte[] imageData, String format) {
+        try {
+            String contentKey = FileStorageService.contentKey(imageData);
+            Path folder = Paths.get(uploadPath, COVERS_DIR, contentKey);
+            // The stored image may be queued for deletion by a novel that stopped using it
+            storageDeletionMapper.deleteByContentKey(contentKey);
+            
+            // Process and save only new images; full is written last, so it marks a complete upload
+            Path fullFile = folder.resolve(RENDITION_FULL + "." + format);
+            if (Files.exists(fullFile)) {
+                // Stored again, so the orphan sweep's grace period starts over
+                Files.setLastModifiedTime(fullFile, FileTime.from(Instant.now()));
+            } else {
+                // One decode, all renditions resized and compressed in parallel
+                Map<String, ImageIngestionService.IngestedImage> renditions =
+                        imageIngestionService.ingestRenditions(imageData, format);
+                Files.createDirectories(folder);
+                for (String rendition : RENDITIONS) {
+                    // Write then move, so a concurrent upload of the same image never exposes a partial file
+                    Path tempFile = Files.createTempFile(folder, rendition, ".tmp");
+                    Files.write(tempFile, renditions.get(rendition).data());
+                    Files.move(tempFile, folder.resolve(rendition + "." + format),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            
+            // Return public URLs
+            return FileStorageService.renditionUrls(
+                    baseUrl + "/" + uploadPath + "/" + COVERS_DIR + "/" + contentKey + "/" + RENDITION_FULL + "." + format);
+            
+        } catch (IllegalArgumentException e) {
+            // Invalid image, not a storage failure
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to upload image: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Map<String, String> findImageRenditions(String assetId) {
+        Matcher matcher = ASSET_ID_PATTERN.matcher(assetId);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String fullFileName = RENDITION_FULL + "." + matcher.group(2);
+        if (!Files.exists(Paths.get(uploadPath, COVERS_DIR, matcher.group(1), fullFileName))) {
+            return null;
+        }
+        return FileStorageService.renditionUrls(
+                baseUrl + "/" + uploadPath + "/" + COVERS_DIR + "/" + matcher.group(1) + "/" + fullFileName);
+    }
+    
+    @Override
+    public String contentKey(String base64Data) {
+        return FileStorageService.contentKey(imageValidationService.extractImageData(base64Data));
+    }
+    
     @Override
     public boolean deleteImage(String imageUrl) {
         try {
@@ -86,24 +155,71 @@ public class LocalFileStorageService implements FileStorageService {
                 return false;
             }
             
-            // Extract file path from URL
-            String relativePath = imageUrl.substring(baseUrl.length() + 1);
-            Path filePath = Paths.get(relativePath);
-            
-            // Check if file exists
-            if (!Files.exists(filePath)) {
-                return false;
+            boolean deleted = false;
+            Path folder = null;
+            for (String url : FileStorageService.renditionUrls(imageUrl).values()) {
+                // Extract file path from URL
+                Path filePath = Paths.get(url.substring(baseUrl.length() + 1));
+                folder = filePath.getParent();
+                
+                // Delete file if it exists
+                deleted |= Files.deleteIfExists(filePath);
             }
             
-            // Delete file
-            Files.delete(filePath);
-            return true;
+            // Remove the rendition folder once it is empty
+            if (deleted && folder != null && !folder.endsWith(COVERS_DIR) && Files.isDirectory(folder)) {
+                try (var entries = Files.list(folder)) {
+                    if (entries.findAny().isEmpty()) {
+                        Files.delete(folder);
+                    }
+                }
+            }
+            return deleted;
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete image: " + e.getMessage(), e);
         }
     }
     
+    @Override
+    public void deleteImages(List<String> imageUrls) {
+        for (String imageUrl : imageUrls) {
+            deleteImage(imageUrl);
+        }
+    }
+    
+    @Override
+    public void scanImages(Instant storedBefore, int pageSize, Consumer<List<String>> pageConsumer) {
+        Path coversDir = Paths.get(uploadPath, COVERS_DIR);
+        if (!Files.isDirectory(coversDir)) {
+            return;
+        }
+        String coversUrl = baseUrl + "/" + uploadPath + "/" + COVERS_DIR + "/";
+        List<String> page = new ArrayList<>(pageSize);
+        // Lazily walked, so only one page of URLs is held at a time
+        try (Stream<Path> files = Files.walk(coversDir, 2)) {
+            Iterator<Path> iterator = files.iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                String name = coversDir.relativize(file).toString().replace(File.separatorChar, '/');
+                if (!STORED_COVER_PATTERN.matcher(name).matches() || !Files.isRegularFile(file)
+                        || !Files.getLastModifiedTime(file).toInstant().isBefore(storedBefore)) {
+                    continue;
+                }
+                page.add(coversUrl + name);
+                if (page.size() == pageSize) {
+                    pageConsumer.accept(page);
+                    page = new ArrayList<>(pageSize);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to scan stored images: " + e.getMessage(), e);
+        }
+        if (!page.isEmpty()) {
+            pageConsumer.accept(page);
+        }
+    }
+    
     @Override
     public boolean validateImage(String base64Data) {
         ImageValidationService.ImageValidationResult result = imageValidationService.validateImage(base64Data);
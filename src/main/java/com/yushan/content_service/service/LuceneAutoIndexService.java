@@ -0,0 +1,90 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.entity.Chapter;
+import com.yushan.content_service.entity.Novel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the embedded Lucene index in step with novel and chapter writes.
+ * Exposes the same hooks as ElasticsearchAutoIndexService; the index service decides
+ * whether a row is published and therefore indexed or removed.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "search.lucene.enabled", havingValue = "true", matchIfMissing = false)
+public class LuceneAutoIndexService {
+
+    @Autowired
+    private LuceneIndexService luceneIndexService;
+
+    public void onNovelCreated(Novel novel) {
+        indexNovel(novel.getId());
+    }
+
+    public void onNovelUpdated(Novel novel) {
+        indexNovel(novel.getId());
+    }
+
+    public void onNovelDeleted(Integer novelId) {
+        try {
+            luceneIndexService.removeNovel(novelId);
+        } catch (Exception e) {
+            log.warn("Failed to remove novel {} from embedded index: {}", novelId, e.getMessage());
+        }
+    }
+
+    /**
+     * Counter changes are batched; the novel is re-read on the next counter sync
+     */
+    public void onNovelCountersChanged(Integer novelId) {
+        luceneIndexService.markNovelDirty(novelId);
+    }
+
+    public void onChapterCreated(Chapter chapter) {
+        indexChapter(chapter.getId());
+    }
+
+    public void onChapterUpdated(Chapter chapter, boolean textChanged) {
+        if (textChanged) {
+            indexChapter(chapter.getId());
+        } else {
+            luceneIndexService.markChapterDirty(chapter.getId());
+        }
+    }
+
+    public void onChapterDeleted(Integer chapterId) {
+        try {
+            luceneIndexService.removeChapter(chapterId);
+        } catch (Exception e) {
+            log.warn("Failed to remove chapter {} from embedded index: {}", chapterId, e.getMessage());
+        }
+    }
+
+    /**
+     * Counter changes are batched; the chapter is re-read on the next counter sync
+     */
+    public void onChapterCountersChanged(Integer chapterId) {
+        luceneIndexService.markChapterDirty(chapterId);
+    }
+
+    private void indexNovel(Integer novelId) {
+        try {
+            luceneIndexService.indexNovel(novelId);
+        } catch (Exception e) {
+            // Don't fail the write; the next rebuild picks the novel up
+            log.warn("Failed to index novel {} in embedded index: {}", novelId, e.getMessage());
+        }
+    }
+
+    private void indexChapter(Integer chapterId) {
+        try {
+            luceneIndexService.indexChapter(chapterId);
+        } catch (Exception e) {
+            // Don't fail the write; the next rebuild picks the chapter up
+            log.warn("Failed to index chapter {} in embedded index: {}", chapterId, e.getMessage());
+        }
+    }
+}
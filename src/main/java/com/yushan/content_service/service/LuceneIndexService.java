@@ -0,0 +1,450 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.entity.Chapter;
+import com.yushan.content_service.entity.Novel;
+import com.yushan.content_service.entity.elasticsearch.ChapterDocument;
+import com.yushan.content_service.enums.NovelStatus;
+import com.yushan.content_service.repository.ChapterRepository;
+import com.yushan.content_service.repository.NovelRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded Lucene index of published novels and chapter titles.
+ * Serves search in-process for deployments without Elasticsearch: the index lives in a
+ * memory-mapped directory on local disk, writes go through a single IndexWriter and
+ * searches use near-real-time readers refreshed in the background.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "search.lucene.enabled", havingValue = "true", matchIfMissing = false)
+public class LuceneIndexService {
+
+    static final String FIELD_KEY = "key";
+    static final String FIELD_TYPE = "type";
+    static final String FIELD_ID = "id";
+    static final String FIELD_TITLE_SORT = "titleSort";
+    static final String TYPE_NOVEL = "novel";
+    static final String TYPE_CHAPTER = "chapter";
+
+    @Autowired
+    private NovelRepository novelRepository;
+
+    @Autowired
+    private ChapterRepository chapterRepository;
+
+    @Value("${search.lucene.index-dir:${java.io.tmpdir}/yushan-content-index}")
+    private String indexDir;
+
+    @Value("${search.lucene.ram-buffer-mb:64}")
+    private double ramBufferMb = 64;
+
+    @Value("${search.lucene.counter-sync.batch-size:500}")
+    private int batchSize = 500;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final Set<Integer> dirtyNovelIds = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> dirtyChapterIds = ConcurrentHashMap.newKeySet();
+
+    private Directory directory;
+    private volatile IndexWriter indexWriter;
+    private volatile SearcherManager searcherManager;
+
+    /**
+     * Work done with an acquired searcher
+     */
+    @FunctionalInterface
+    public interface SearcherCallback<T> {
+        T doWithSearcher(IndexSearcher searcher) throws IOException;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path path = Paths.get(indexDir);
+        Files.createDirectories(path);
+        directory = new MMapDirectory(path);
+        openWriter();
+        log.info("Opened embedded search index at {}", path);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        // Closing the writer commits pending changes
+        indexWriter.close();
+        directory.close();
+    }
+
+    public Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    /**
+     * Run a search against the latest refreshed reader
+     */
+    public <T> T search(SearcherCallback<T> callback) throws IOException {
+        SearcherManager manager = searcherManager;
+        IndexSearcher searcher = manager.acquire();
+        try {
+            return callback.doWithSearcher(searcher);
+        } finally {
+            manager.release(searcher);
+        }
+    }
+
+    /**
+     * Number of documents in the index, including both novels and chapters
+     */
+    public int getDocumentCount() {
+        return indexWriter.getDocStats().numDocs;
+    }
+
+    /**
+     * Make recent writes visible to searches; a rebuild in progress stays hidden until it completes
+     */
+    @Scheduled(fixedDelayString = "${search.lucene.refresh-interval-ms:1000}")
+    public void refresh() {
+        if (rebuilding.get()) {
+            return;
+        }
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Failed to refresh embedded search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Persist segments so a restart does not need a rebuild
+     */
+    @Scheduled(fixedDelayString = "${search.lucene.commit-interval-ms:60000}")
+    public void commit() {
+        if (rebuilding.get() || !indexWriter.hasUncommittedChanges()) {
+            return;
+        }
+        try {
+            indexWriter.commit();
+        } catch (IOException e) {
+            log.warn("Failed to commit embedded search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the whole index by streaming published rows from the database.
+     * Rows are written as they are read, so memory stays bounded by the writer's RAM buffer.
+     */
+    @Transactional(readOnly = true)
+    public void rebuildIndex() throws IOException {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Embedded search index rebuild already running");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        AtomicLong novels = new AtomicLong();
+        AtomicLong chapters = new AtomicLong();
+        try {
+            indexWriter.deleteAll();
+            // updateDocument instead of addDocument: hooks may write the same rows while the scan runs
+            novelRepository.streamPublishedNovels(novel -> {
+                writeQuietly(novelKey(novel.getId()), toNovelDocument(novel));
+                novels.incrementAndGet();
+            });
+            chapterRepository.streamPublishedChapterSummaries(chapter -> {
+                writeQuietly(chapterKey(chapter.getId()), toChapterDocument(chapter));
+                chapters.incrementAndGet();
+            });
+            indexWriter.commit();
+        } catch (IOException | RuntimeException e) {
+            // Drop the half-built index and go back to the last commit
+            log.error("Embedded search index rebuild failed: {}", e.getMessage());
+            indexWriter.rollback();
+            searcherManager.close();
+            openWriter();
+            throw e;
+        } finally {
+            rebuilding.set(false);
+        }
+        searcherManager.maybeRefreshBlocking();
+        log.info("Rebuilt embedded search index with {} novels and {} chapters in {} ms",
+                novels.get(), chapters.get(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Index a novel, or remove it when it is no longer published
+     */
+    public void indexNovel(Integer novelId) throws IOException {
+        Novel novel = novelRepository.findById(novelId);
+        if (novel != null && isPublished(novel)) {
+            indexWriter.updateDocument(novelKey(novelId), toNovelDocument(novel));
+        } else {
+            removeNovel(novelId);
+        }
+    }
+
+    /**
+     * Index a chapter, or remove it when it is no longer published
+     */
+    public void indexChapter(Integer chapterId) throws IOException {
+        List<Chapter> chapters = chapterRepository.findSummariesByIds(List.of(chapterId));
+        if (!chapters.isEmpty() && isPublished(chapters.get(0))) {
+            indexWriter.updateDocument(chapterKey(chapterId), toChapterDocument(chapters.get(0)));
+        } else {
+            removeChapter(chapterId);
+        }
+    }
+
+    public void removeNovel(Integer novelId) throws IOException {
+        indexWriter.deleteDocuments(novelKey(novelId));
+    }
+
+    public void removeChapter(Integer chapterId) throws IOException {
+        indexWriter.deleteDocuments(chapterKey(chapterId));
+    }
+
+    /**
+     * Mark novel counters as changed; they are re-read on the next sync
+     */
+    public void markNovelDirty(Integer novelId) {
+        if (novelId != null) {
+            dirtyNovelIds.add(novelId);
+        }
+    }
+
+    /**
+     * Mark chapter counters as changed; they are re-read on the next sync
+     */
+    public void markChapterDirty(Integer chapterId) {
+        if (chapterId != null) {
+            dirtyChapterIds.add(chapterId);
+        }
+    }
+
+    /**
+     * Periodically re-index rows whose counters changed, in batches
+     */
+    @Scheduled(fixedDelayString = "${search.lucene.counter-sync.interval-ms:30000}")
+    public void syncCounters() {
+        for (List<Integer> batch : partition(drain(dirtyNovelIds))) {
+            try {
+                for (Novel novel : novelRepository.findByIds(batch)) {
+                    if (isPublished(novel)) {
+                        indexWriter.updateDocument(novelKey(novel.getId()), toNovelDocument(novel));
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Failed to sync novel counters to embedded index, will retry: {}", e.getMessage());
+                dirtyNovelIds.addAll(batch);
+            }
+        }
+        for (List<Integer> batch : partition(drain(dirtyChapterIds))) {
+            try {
+                for (Chapter chapter : chapterRepository.findSummariesByIds(batch)) {
+                    if (isPublished(chapter)) {
+                        indexWriter.updateDocument(chapterKey(chapter.getId()), toChapterDocument(chapter));
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Failed to sync chapter counters to embedded index, will retry: {}", e.getMessage());
+                dirtyChapterIds.addAll(batch);
+            }
+        }
+    }
+
+    Document toNovelDocument(Novel novel) {
+        Document doc = new Document();
+        addIdentity(doc, TYPE_NOVEL, novelKey(novel.getId()), novel.getId());
+        doc.add(new StoredField("uuid", novel.getUuid().toString()));
+        addText(doc, "title", novel.getTitle());
+        addText(doc, "synopsis", novel.getSynopsis());
+        addText(doc, "authorName", novel.getAuthorName());
+        addKeyword(doc, "authorId", novel.getAuthorId() != null ? novel.getAuthorId().toString() : null);
+        addKeyword(doc, "status", NovelStatus.fromValue(novel.getStatus()).name());
+        addKeyword(doc, "isCompleted", novel.getIsCompleted() != null ? novel.getIsCompleted().toString() : null);
+        addLong(doc, "categoryId", novel.getCategoryId(), false);
+        addLong(doc, "chapterCnt", novel.getChapterCnt(), false);
+        addLong(doc, "wordCnt", novel.getWordCnt(), false);
+        addLong(doc, "reviewCnt", novel.getReviewCnt(), false);
+        addLong(doc, "viewCnt", novel.getViewCnt(), true);
+        addLong(doc, "voteCnt", novel.getVoteCnt(), false);
+        addDouble(doc, "avgRating", novel.getAvgRating(), true);
+        addDouble(doc, "yuanCnt", novel.getYuanCnt(), false);
+        addDate(doc, "createTime", novel.getCreateTime());
+        addDate(doc, "updateTime", novel.getUpdateTime());
+        addDate(doc, "publishTime", novel.getPublishTime());
+        if (novel.getCoverImgUrl() != null) {
+            doc.add(new StoredField("coverImgUrl", novel.getCoverImgUrl()));
+        }
+        return doc;
+    }
+
+    Document toChapterDocument(Chapter chapter) {
+        Document doc = new Document();
+        addIdentity(doc, TYPE_CHAPTER, chapterKey(chapter.getId()), chapter.getId());
+        doc.add(new StoredField("uuid", chapter.getUuid().toString()));
+        addText(doc, "title", chapter.getTitle());
+        String preview = ChapterDocument.previewOf(chapter.getContent());
+        if (preview != null) {
+            doc.add(new StoredField("preview", preview));
+        }
+        addKeyword(doc, "isPremium", chapter.getIsPremium() != null ? chapter.getIsPremium().toString() : null);
+        addKeyword(doc, "isValid", chapter.getIsValid() != null ? chapter.getIsValid().toString() : null);
+        addLong(doc, "novelId", chapter.getNovelId(), false);
+        addLong(doc, "chapterNumber", chapter.getChapterNumber(), true);
+        addLong(doc, "wordCnt", chapter.getWordCnt(), false);
+        addLong(doc, "viewCnt", chapter.getViewCnt(), true);
+        addDouble(doc, "yuanCost", chapter.getYuanCost(), false);
+        addDate(doc, "createTime", chapter.getCreateTime());
+        addDate(doc, "updateTime", chapter.getUpdateTime());
+        addDate(doc, "publishTime", chapter.getPublishTime());
+        return doc;
+    }
+
+    private void openWriter() throws IOException {
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setRAMBufferSizeMB(ramBufferMb);
+        indexWriter = new IndexWriter(directory, config);
+        // Readers come straight from the writer, so refreshes see uncommitted changes
+        searcherManager = new SearcherManager(indexWriter, new SearcherFactory());
+    }
+
+    private void writeQuietly(Term key, Document doc) {
+        try {
+            indexWriter.updateDocument(key, doc);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean isPublished(Novel novel) {
+        return novel.getStatus() != null && novel.getStatus() == NovelStatus.PUBLISHED.getValue();
+    }
+
+    private boolean isPublished(Chapter chapter) {
+        return Boolean.TRUE.equals(chapter.getIsValid())
+                && chapter.getPublishTime() != null
+                && chapter.getPublishTime().getTime() <= System.currentTimeMillis();
+    }
+
+    static Term novelKey(Integer novelId) {
+        return new Term(FIELD_KEY, TYPE_NOVEL + ":" + novelId);
+    }
+
+    static Term chapterKey(Integer chapterId) {
+        return new Term(FIELD_KEY, TYPE_CHAPTER + ":" + chapterId);
+    }
+
+    private void addIdentity(Document doc, String type, Term key, Integer id) {
+        doc.add(new StringField(FIELD_KEY, key.text(), Field.Store.NO));
+        doc.add(new StringField(FIELD_TYPE, type, Field.Store.NO));
+        doc.add(new StoredField(FIELD_ID, id.longValue()));
+        // Last sort key, keeps ordering stable between pages
+        doc.add(new NumericDocValuesField(FIELD_ID, id.longValue()));
+    }
+
+    private void addText(Document doc, String field, String value) {
+        if (value == null) {
+            return;
+        }
+        doc.add(new TextField(field, value, Field.Store.YES));
+        if ("title".equals(field)) {
+            doc.add(new SortedDocValuesField(FIELD_TITLE_SORT, new BytesRef(value.toLowerCase(Locale.ROOT))));
+        }
+    }
+
+    private void addKeyword(Document doc, String field, String value) {
+        if (value != null) {
+            doc.add(new StringField(field, value, Field.Store.YES));
+        }
+    }
+
+    private void addLong(Document doc, String field, Number value, boolean sortable) {
+        if (value == null) {
+            return;
+        }
+        doc.add(new LongPoint(field, value.longValue()));
+        doc.add(new StoredField(field, value.longValue()));
+        if (sortable) {
+            doc.add(new NumericDocValuesField(field, value.longValue()));
+        }
+    }
+
+    private void addDouble(Document doc, String field, Number value, boolean sortable) {
+        if (value == null) {
+            return;
+        }
+        doc.add(new DoublePoint(field, value.doubleValue()));
+        doc.add(new StoredField(field, value.doubleValue()));
+        if (sortable) {
+            doc.add(new DoubleDocValuesField(field, value.doubleValue()));
+        }
+    }
+
+    private void addDate(Document doc, String field, Date value) {
+        // Dates are epoch millis; all of them can be range-filtered and sorted
+        addLong(doc, field, value != null ? value.getTime() : null, true);
+    }
+
+    private List<Integer> drain(Set<Integer> dirtyIds) {
+        List<Integer> ids = new ArrayList<>();
+        Iterator<Integer> iterator = dirtyIds.iterator();
+        while (iterator.hasNext()) {
+            ids.add(iterator.next());
+            iterator.remove();
+        }
+        return ids;
+    }
+
+    private List<List<Integer>> partition(List<Integer> ids) {
+        List<List<Integer>> batches = new ArrayList<>();
+        int size = Math.max(1, batchSize);
+        for (int i = 0; i < ids.size(); i += size) {
+            batches.add(ids.subList(i, Math.min(i + size, ids.size())));
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,369 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dto.chapter.ChapterSearchRequestDTO;
+import com.yushan.content_service.dto.chapter.ChapterSummaryDTO;
+import com.yushan.content_service.dto.common.PageResponseDTO;
+import com.yushan.content_service.dto.novel.NovelDetailResponseDTO;
+import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
+import com.yushan.content_service.enums.NovelStatus;
+import com.yushan.content_service.enums.SearchRankingMode;
+import com.yushan.content_service.exception.ValidationException;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Search over the embedded Lucene index.
+ * Mirrors the Elasticsearch queries: free text is a scored best-fields match with the
+ * same field boosts, every other criterion is a non-scoring filter clause.
+ */
+@Service
+@ConditionalOnProperty(name = "search.lucene.enabled", havingValue = "true", matchIfMissing = false)
+public class LuceneSearchService {
+
+    private static final String[] NOVEL_TEXT_FIELDS = {"title", "synopsis", "authorName"};
+    private static final float[] NOVEL_TEXT_BOOSTS = {3f, 2f, 1f};
+    private static final String[] CHAPTER_TEXT_FIELDS = {"title"};
+    private static final float[] CHAPTER_TEXT_BOOSTS = {1f};
+
+    private static final SortField ID_TIEBREAKER = new SortField(LuceneIndexService.FIELD_ID, SortField.Type.LONG);
+
+    @Autowired
+    private LuceneIndexService luceneIndexService;
+
+    /**
+     * Search published novels
+     */
+    public PageResponseDTO<NovelDetailResponseDTO> searchNovels(NovelSearchRequestDTO request) throws IOException {
+        rejectCursor(request.getCursor());
+        Query query = buildNovelQuery(request);
+        Sort sort = createSort(sortFor(request), request.getOrder());
+        return luceneIndexService.search(searcher -> page(searcher, query, sort,
+                request.getPage(), request.getSize(), this::toNovelDTO));
+    }
+
+    /**
+     * Search published chapters by title
+     */
+    public PageResponseDTO<ChapterSummaryDTO> searchChapters(ChapterSearchRequestDTO request) throws IOException {
+        rejectCursor(request.getCursor());
+        Query query = buildChapterQuery(request);
+        Sort sort = createSortForChapters(request.getSortBy(), request.getSortOrder());
+        return luceneIndexService.search(searcher -> page(searcher, query, sort,
+                request.getPage() - 1, request.getPageSize(), this::toChapterDTO));
+    }
+
+    /**
+     * Cursors carry Elasticsearch sort values, which the embedded index cannot resume from
+     */
+    private void rejectCursor(String cursor) {
+        if (StringUtils.hasText(cursor)) {
+            throw new ValidationException("Cursor pagination is not available while search runs on the embedded index, use page instead");
+        }
+    }
+
+    /**
+     * The embedded index has no popularity boost, so popularity ranking sorts by popularity instead
+     */
+    private String sortFor(NovelSearchRequestDTO request) {
+        if ("relevance".equals(request.getSort())
+                && SearchRankingMode.fromName(request.getRanking()) == SearchRankingMode.POPULARITY) {
+            return "popularity";
+        }
+        return request.getSort();
+    }
+
+    Query buildNovelQuery(NovelSearchRequestDTO request) throws IOException {
+        BooleanQuery.Builder bool = new BooleanQuery.Builder()
+                .add(typeFilter(LuceneIndexService.TYPE_NOVEL), BooleanClause.Occur.FILTER);
+
+        if (StringUtils.hasText(request.getSearch())) {
+            bool.add(textQuery(request.getSearch(), NOVEL_TEXT_FIELDS, NOVEL_TEXT_BOOSTS), BooleanClause.Occur.MUST);
+        }
+
+        if (request.getCategoryId() != null && request.getCategoryId() > 0) {
+            bool.add(LongPoint.newExactQuery("categoryId", request.getCategoryId()), BooleanClause.Occur.FILTER);
+        }
+        if (StringUtils.hasText(request.getStatus())) {
+            bool.add(statusFilter(request.getStatus()), BooleanClause.Occur.FILTER);
+        }
+        if (request.getIsCompleted() != null) {
+            bool.add(new TermQuery(new Term("isCompleted", request.getIsCompleted().toString())), BooleanClause.Occur.FILTER);
+        }
+        if (StringUtils.hasText(request.getAuthorId())) {
+            bool.add(new TermQuery(new Term("authorId", request.getAuthorId())), BooleanClause.Occur.FILTER);
+        }
+        if (StringUtils.hasText(request.getAuthorName())) {
+            bool.add(textQuery(request.getAuthorName(), new String[]{"authorName"}, new float[]{1f}), BooleanClause.Occur.FILTER);
+        }
+
+        addDoubleRange(bool, "avgRating", request.getMinRating(), request.getMaxRating());
+        addLongRange(bool, "wordCnt", request.getMinWordCount(), request.getMaxWordCount());
+        addLongRange(bool, "chapterCnt", request.getMinChapterCount(), request.getMaxChapterCount());
+        addLongRange(bool, "publishTime", millis(request.getPublishedAfter()), millis(request.getPublishedBefore()));
+
+        return bool.build();
+    }
+
+    Query buildChapterQuery(ChapterSearchRequestDTO request) throws IOException {
+        BooleanQuery.Builder bool = new BooleanQuery.Builder()
+                .add(typeFilter(LuceneIndexService.TYPE_CHAPTER), BooleanClause.Occur.FILTER);
+
+        if (StringUtils.hasText(request.getTitleKeyword())) {
+            bool.add(textQuery(request.getTitleKeyword(), CHAPTER_TEXT_FIELDS, CHAPTER_TEXT_BOOSTS), BooleanClause.Occur.MUST);
+        }
+
+        if (request.getNovelId() != null) {
+            bool.add(LongPoint.newExactQuery("novelId", request.getNovelId()), BooleanClause.Occur.FILTER);
+        }
+        if (request.getChapterNumber() != null) {
+            bool.add(LongPoint.newExactQuery("chapterNumber", request.getChapterNumber()), BooleanClause.Occur.FILTER);
+        }
+        if (request.getIsPremium() != null) {
+            bool.add(new TermQuery(new Term("isPremium", request.getIsPremium().toString())), BooleanClause.Occur.FILTER);
+        }
+        if (request.getIsValid() != null) {
+            bool.add(new TermQuery(new Term("isValid", request.getIsValid().toString())), BooleanClause.Occur.FILTER);
+        }
+
+        return bool.build();
+    }
+
+    private <T> PageResponseDTO<T> page(IndexSearcher searcher, Query query, Sort sort, int page, int size,
+                                        Function<Document, T> converter) throws IOException {
+        int offset = Math.max(0, page) * size;
+        TopDocs topDocs = searcher.search(query, offset + size, sort, false);
+
+        // Hit counting stops early on large result sets; count exactly only when it did
+        long total = topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO
+                ? topDocs.totalHits.value
+                : searcher.count(query);
+
+        List<T> content = new ArrayList<>();
+        StoredFields storedFields = searcher.storedFields();
+        ScoreDoc[] hits = topDocs.scoreDocs;
+        for (int i = offset; i < hits.length; i++) {
+            content.add(converter.apply(storedFields.document(hits[i].doc)));
+        }
+        return new PageResponseDTO<>(content, total, page, size);
+    }
+
+    /**
+     * Best-fields match like Elasticsearch multi_match: each field scores the analyzed terms,
+     * the best field wins, and terms get the same AUTO fuzziness
+     */
+    private Query textQuery(String text, String[] fields, float[] boosts) throws IOException {
+        List<String> tokens = analyze(fields[0], text);
+        if (tokens.isEmpty()) {
+            return new MatchNoDocsQuery();
+        }
+        List<Query> perField = new ArrayList<>();
+        for (int i = 0; i < fields.length; i++) {
+            BooleanQuery.Builder fieldQuery = new BooleanQuery.Builder();
+            for (String token : tokens) {
+                fieldQuery.add(termQuery(fields[i], token), BooleanClause.Occur.SHOULD);
+            }
+            Query query = fieldQuery.build();
+            perField.add(boosts[i] != 1f ? new BoostQuery(query, boosts[i]) : query);
+        }
+        return new DisjunctionMaxQuery(perField, 0f);
+    }
+
+    private Query termQuery(String field, String token) {
+        int maxEdits = token.length() <= 2 ? 0 : token.length() <= 5 ? 1 : 2;
+        Term term = new Term(field, token);
+        return maxEdits == 0 ? new TermQuery(term) : new FuzzyQuery(term, maxEdits);
+    }
+
+    private List<String> analyze(String field, String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = luceneIndexService.getAnalyzer().tokenStream(field, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        }
+        return tokens;
+    }
+
+    private Query typeFilter(String type) {
+        return new TermQuery(new Term(LuceneIndexService.FIELD_TYPE, type));
+    }
+
+    /**
+     * Unknown status names match nothing, like the SQL and Elasticsearch paths
+     */
+    private Query statusFilter(String statusName) {
+        try {
+            return new TermQuery(new Term("status", NovelStatus.fromName(statusName).name()));
+        } catch (IllegalArgumentException e) {
+            return new MatchNoDocsQuery();
+        }
+    }
+
+    private void addLongRange(BooleanQuery.Builder bool, String field, Number min, Number max) {
+        if (min == null && max == null) {
+            return;
+        }
+        bool.add(LongPoint.newRangeQuery(field,
+                min != null ? min.longValue() : Long.MIN_VALUE,
+                max != null ? max.longValue() : Long.MAX_VALUE), BooleanClause.Occur.FILTER);
+    }
+
+    private void addDoubleRange(BooleanQuery.Builder bool, String field, Number min, Number max) {
+        if (min == null && max == null) {
+            return;
+        }
+        bool.add(DoublePoint.newRangeQuery(field,
+                min != null ? min.doubleValue() : Double.NEGATIVE_INFINITY,
+                max != null ? max.doubleValue() : Double.POSITIVE_INFINITY), BooleanClause.Occur.FILTER);
+    }
+
+    private Long millis(Date date) {
+        return date != null ? date.getTime() : null;
+    }
+
+    private Sort createSort(String sortField, String order) {
+        boolean reverse = !"asc".equalsIgnoreCase(order);
+
+        switch (sortField) {
+            case "relevance":
+                return new Sort(SortField.FIELD_SCORE, ID_TIEBREAKER);
+            case "title":
+                return new Sort(new SortField(LuceneIndexService.FIELD_TITLE_SORT, SortField.Type.STRING, reverse), ID_TIEBREAKER);
+            case "viewCnt":
+                return new Sort(new SortField("viewCnt", SortField.Type.LONG, reverse), ID_TIEBREAKER);
+            case "avgRating":
+                return new Sort(new SortField("avgRating", SortField.Type.DOUBLE, reverse), ID_TIEBREAKER);
+            case "createTime":
+                return new Sort(new SortField("createTime", SortField.Type.LONG, reverse), ID_TIEBREAKER);
+            case "publishTime":
+                return new Sort(new SortField("publishTime", SortField.Type.LONG, reverse), ID_TIEBREAKER);
+            case "popularity":
+                return new Sort(new SortField("viewCnt", SortField.Type.LONG, true),
+                        new SortField("avgRating", SortField.Type.DOUBLE, true), ID_TIEBREAKER);
+            default:
+                return new Sort(new SortField("createTime", SortField.Type.LONG, true), ID_TIEBREAKER);
+        }
+    }
+
+    private Sort createSortForChapters(String sortField, String order) {
+        boolean reverse = !"asc".equalsIgnoreCase(order);
+
+        switch (sortField) {
+            case "relevance":
+                return new Sort(SortField.FIELD_SCORE, ID_TIEBREAKER);
+            case "title":
+                return new Sort(new SortField(LuceneIndexService.FIELD_TITLE_SORT, SortField.Type.STRING, reverse), ID_TIEBREAKER);
+            case "chapterNumber":
+                return new Sort(new SortField("chapterNumber", SortField.Type.LONG, reverse), ID_TIEBREAKER);
+            case "viewCnt":
+                return new Sort(new SortField("viewCnt", SortField.Type.LONG, reverse), ID_TIEBREAKER);
+            case "publishTime":
+                return new Sort(new SortField("publishTime", SortField.Type.LONG, reverse), ID_TIEBREAKER);
+            default:
+                return new Sort(new SortField("chapterNumber", SortField.Type.LONG), ID_TIEBREAKER);
+        }
+    }
+
+    private NovelDetailResponseDTO toNovelDTO(Document doc) {
+        NovelDetailResponseDTO dto = new NovelDetailResponseDTO();
+        dto.setId(intValue(doc, "id"));
+        dto.setUuid(UUID.fromString(doc.get("uuid")));
+        dto.setTitle(doc.get("title"));
+        dto.setSynopsis(doc.get("synopsis"));
+        dto.setAuthorId(doc.get("authorId") != null ? UUID.fromString(doc.get("authorId")) : null);
+        dto.setAuthorUsername(doc.get("authorName"));
+        dto.setCategoryId(intValue(doc, "categoryId"));
+        dto.setStatus(doc.get("status"));
+        dto.setIsCompleted(booleanValue(doc, "isCompleted"));
+        dto.setChapterCnt(intValue(doc, "chapterCnt"));
+        dto.setWordCnt(longValue(doc, "wordCnt"));
+        dto.setAvgRating(floatValue(doc, "avgRating"));
+        dto.setReviewCnt(intValue(doc, "reviewCnt"));
+        dto.setViewCnt(longValue(doc, "viewCnt"));
+        dto.setVoteCnt(intValue(doc, "voteCnt"));
+        dto.setYuanCnt(floatValue(doc, "yuanCnt"));
+        dto.setCreateTime(dateValue(doc, "createTime"));
+        dto.setUpdateTime(dateValue(doc, "updateTime"));
+        dto.setPublishTime(dateValue(doc, "publishTime"));
+        dto.setCoverImgUrl(doc.get("coverImgUrl"));
+        return dto;
+    }
+
+    private ChapterSummaryDTO toChapterDTO(Document doc) {
+        ChapterSummaryDTO dto = new ChapterSummaryDTO();
+        dto.setId(intValue(doc, "id"));
+        dto.setUuid(UUID.fromString(doc.get("uuid")));
+        dto.setNovelId(intValue(doc, "novelId"));
+        dto.setChapterNumber(intValue(doc, "chapterNumber"));
+        dto.setTitle(doc.get("title"));
+        dto.setPreview(doc.get("preview"));
+        dto.setWordCnt(intValue(doc, "wordCnt"));
+        dto.setIsPremium(booleanValue(doc, "isPremium"));
+        dto.setYuanCost(floatValue(doc, "yuanCost"));
+        dto.setViewCnt(longValue(doc, "viewCnt"));
+        dto.setIsValid(booleanValue(doc, "isValid"));
+        dto.setCreateTime(dateValue(doc, "createTime"));
+        dto.setUpdateTime(dateValue(doc, "updateTime"));
+        dto.setPublishTime(dateValue(doc, "publishTime"));
+        return dto;
+    }
+
+    private Long longValue(Document doc, String field) {
+        IndexableField value = doc.getField(field);
+        return value != null && value.numericValue() != null ? value.numericValue().longValue() : null;
+    }
+
+    private Integer intValue(Document doc, String field) {
+        Long value = longValue(doc, field);
+        return value != null ? value.intValue() : null;
+    }
+
+    private Float floatValue(Document doc, String field) {
+        IndexableField value = doc.getField(field);
+        return value != null && value.numericValue() != null ? value.numericValue().floatValue() : null;
+    }
+
+    private Boolean booleanValue(Document doc, String field) {
+        String value = doc.get(field);
+        return value != null ? Boolean.valueOf(value) : null;
+    }
+
+    private Date dateValue(Document doc, String field) {
+        Long value = longValue(doc, field);
+        return value != null ? new Date(value) : null;
+    }
+}
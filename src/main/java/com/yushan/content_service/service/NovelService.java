@@ -1,5 +1,6 @@
 package com.yushan.content_service.service;
 
+import com.yushan.content_service.domain.event.NovelCoverSubmittedEvent;
 import com.yushan.content_service.repository.NovelRepository;
 import com.yushan.content_service.dto.common.PageResponseDTO;
 import com.yushan.content_service.dto.novel.NovelCreateRequestDTO;
@@ -7,14 +8,19 @@ import com.yushan.content_service.dto.novel.NovelDetailResponseDTO;
 import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
 import com.yushan.content_service.dto.novel.NovelUpdateRequestDTO;
 import com.yushan.content_service.entity.Novel;
+import com.yushan.content_service.enums.CoverStatus;
 import com.yushan.content_service.enums.NovelStatus;
 import com.yushan.content_service.exception.ResourceNotFoundException;
 import com.yushan.content_service.util.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -24,6 +30,7 @@ import java.util.stream.Collectors;
  * Service class for novel management operations.
  * Handles business logic for novel CRUD operations.
  */
+@Slf4j
 @Service
 public class NovelService {
 
@@ -39,14 +46,23 @@ public class NovelService {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private StorageCleanupService storageCleanupService;
+
     @Autowired
     private CategoryService categoryService;
 
     @Autowired(required = false)
     private ElasticsearchAutoIndexService elasticsearchAutoIndexService;
 
+    @Autowired(required = false)
+    private LuceneAutoIndexService luceneAutoIndexService;
+
     @Autowired
-    private TransactionAwareKafkaPublisher transactionAwareKafkaPublisher;
+    private SearchCacheService searchCacheService;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
 
     /**
      * Create a new novel
@@ -71,13 +87,20 @@ public class NovelService {
         novel.setCategoryId(request.getCategoryId());
         novel.setSynopsis(request.getSynopsis());
         
-        // Process cover image after novel is created (to get novelId)
-        if (request.getCoverImgBase64() != null && !request.getCoverImgBase64().trim().isEmpty()) {
-            novel.setCoverImgUrl(convertBase64ToUrl(request.getCoverImgBase64()));
-        }
-        
         novel.initializeAsNew();
         
+        // Uploaded covers are already stored; inline covers are processed in the background
+        // once the novel is created (to get novelId)
+        String coverImgBase64 = request.getCoverImgBase64();
+        UUID coverJobId = null;
+        checkSingleCoverSource(request.getCoverAssetId(), coverImgBase64);
+        if (hasText(request.getCoverAssetId())) {
+            novel.attachCover(resolveCoverAsset(request.getCoverAssetId()));
+        } else if (hasText(coverImgBase64)) {
+            validateCoverImage(coverImgBase64);
+            coverJobId = novel.startCoverJob();
+        }
+        
         if (Boolean.TRUE.equals(request.getIsCompleted())) {
             novel.markAsCompleted();
         } else {
@@ -86,20 +109,23 @@ public class NovelService {
         
         novelRepository.save(novel);
         
+        if (coverJobId != null) {
+            applicationEventPublisher.publishEvent(new NovelCoverSubmittedEvent(novel.getId(), coverJobId, coverImgBase64));
+        }
+        
         // Cache the new novel
         redisUtil.cacheNovel(novel.getId(), novel);
         
-        // Publish Kafka event AFTER transaction commit
-        final Novel finalNovel = novel;
-        final UUID finalUserId = userId;
-        transactionAwareKafkaPublisher.publishAfterCommit(() -> {
-            kafkaEventProducerService.publishNovelCreatedEvent(finalNovel, finalUserId);
-        });
+        // Publish Kafka event through the outbox; it is relayed once the transaction commits
+        kafkaEventProducerService.publishNovelCreatedEvent(novel, userId);
         
         // Auto-index to Elasticsearch
         if (elasticsearchAutoIndexService != null) {
             elasticsearchAutoIndexService.onNovelCreated(novel);
         }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onNovelCreated(novel);
+        }
         
         return toResponse(novel);
     }
@@ -125,9 +151,12 @@ public class NovelService {
         // Cache the updated novel
         redisUtil.cacheNovel(novelId, novel);
         
-        // Auto-index to Elasticsearch (statistics changed)
+        // Queue partial counter update for Elasticsearch (statistics changed)
         if (elasticsearchAutoIndexService != null) {
-            elasticsearchAutoIndexService.onNovelUpdated(novel);
+            elasticsearchAutoIndexService.onNovelCountersChanged(novelId);
+        }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onNovelCountersChanged(novelId);
         }
     }
 
@@ -247,14 +276,25 @@ public class NovelService {
                 changeOtherFieldsNotIsCompleted = true;
             }
         }
-        String oldCoverUrl = null;
-        if (request.getCoverImgBase64() != null && !request.getCoverImgBase64().trim().isEmpty()) {
-            String newCoverUrl = convertBase64ToUrl(request.getCoverImgBase64());
-            if (!newCoverUrl.equals(existing.getCoverImgUrl())) {
-                // Store old image URL for deletion after successful database update
-                oldCoverUrl = existing.getCoverImgUrl();
-                existing.setCoverImgUrl(newCoverUrl);
+        UUID coverJobId = null;
+        String attachedCoverUrl = null;
+        checkSingleCoverSource(request.getCoverAssetId(), request.getCoverImgBase64());
+        if (hasText(request.getCoverAssetId())) {
+            // Clients may resend the current cover with every edit; only a different one is looked up
+            if (!isCoverReady(existing) || !request.getCoverAssetId().equals(FileStorageService.assetId(existing.getCoverImgUrl()))) {
+                attachedCoverUrl = resolveCoverAsset(request.getCoverAssetId());
+                existing.attachCover(attachedCoverUrl);
                 updatedFields.add("coverImgUrl");
+                updatedFields.add("coverStatus");
+                changeOtherFieldsNotIsCompleted = true;
+            }
+        } else if (hasText(request.getCoverImgBase64())) {
+            validateCoverImage(request.getCoverImgBase64());
+            // Clients may send the current cover with every edit; it is only processed when it changed
+            if (!isCurrentCover(existing, request.getCoverImgBase64())) {
+                // Processed in the background; the current cover stays until the new one is stored
+                coverJobId = existing.startCoverJob();
+                updatedFields.add("coverStatus");
                 changeOtherFieldsNotIsCompleted = true;
             }
         }
@@ -293,30 +333,39 @@ public class NovelService {
 
         novelRepository.save(existing);
         
+        // Cover columns are written separately: save() leaves them alone so this possibly stale
+        // copy of the novel cannot undo a cover job that completed after it was read
+        if (attachedCoverUrl != null) {
+            String replacedCoverUrl = novelRepository.attachCover(id, existing.getCoverJobId(), attachedCoverUrl);
+            releaseReplacedCover(id, replacedCoverUrl, attachedCoverUrl);
+        }
+        if (coverJobId != null) {
+            novelRepository.startCoverJob(id, coverJobId);
+            applicationEventPublisher.publishEvent(new NovelCoverSubmittedEvent(id, coverJobId, request.getCoverImgBase64()));
+        }
+        
         // Invalidate caches since novel was updated
         redisUtil.invalidateNovelCaches(id);
         
         // Cache the updated novel
         redisUtil.cacheNovel(id, existing);
         
-        // Publish Kafka event only if there were actual changes - AFTER transaction commit
+        // Publish Kafka event only if there were actual changes, through the outbox
         if (!updatedFields.isEmpty()) {
-            final Novel finalExisting = existing;
-            final UUID finalAuthorId = existing.getAuthorId();
-            final String[] finalUpdatedFields = updatedFields.toArray(new String[0]);
-            transactionAwareKafkaPublisher.publishAfterCommit(() -> {
-                kafkaEventProducerService.publishNovelUpdatedEvent(finalExisting, finalAuthorId, finalUpdatedFields);
-            });
+            kafkaEventProducerService.publishNovelUpdatedEvent(existing, existing.getAuthorId(), updatedFields.toArray(new String[0]));
             
             // Auto-index to Elasticsearch
             if (elasticsearchAutoIndexService != null) {
                 elasticsearchAutoIndexService.onNovelUpdated(existing);
             }
-        }
-        
-        // Delete old image after successful database update
-        if (oldCoverUrl != null && !oldCoverUrl.trim().isEmpty()) {
-            fileStorageService.deleteImage(oldCoverUrl);
+            if (luceneAutoIndexService != null) {
+                luceneAutoIndexService.onNovelUpdated(existing);
+            }
+
+            // A status change adds or drops the novel from search results
+            if (updatedFields.contains("status")) {
+                searchCacheService.bumpGeneration();
+            }
         }
         
         return toResponse(existing);
@@ -353,6 +402,10 @@ public class NovelService {
         if (elasticsearchAutoIndexService != null) {
             elasticsearchAutoIndexService.onNovelDeleted(id);
         }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onNovelDeleted(id);
+        }
+        searchCacheService.bumpGeneration();
 
         return toResponse(existing);
     }
@@ -382,15 +435,17 @@ public class NovelService {
         
         // Cache the updated novel data
         redisUtil.cacheNovel(id, updatedNovel);
+
+        // Queue partial counter update for Elasticsearch
+        if (elasticsearchAutoIndexService != null) {
+            elasticsearchAutoIndexService.onNovelCountersChanged(id);
+        }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onNovelCountersChanged(id);
+        }
         
-        // Publish Kafka event AFTER transaction commit
-        final Novel finalNovel = novel;
-        final UUID finalUserId = userId;
-        final String finalUserAgent = userAgent;
-        final String finalIpAddress = ipAddress;
-        transactionAwareKafkaPublisher.publishAfterCommit(() -> {
-            kafkaEventProducerService.publishNovelViewEvent(finalNovel, finalUserId, finalUserAgent, finalIpAddress, null);
-        });
+        // Publish Kafka event through the outbox; it is relayed once the transaction commits
+        kafkaEventProducerService.publishNovelViewEvent(novel, userId, userAgent, ipAddress, null);
     }
 
     /**
@@ -533,6 +588,14 @@ public class NovelService {
         
         // Cache the updated novel data
         redisUtil.cacheNovel(novelId, updatedNovel);
+
+        // Queue partial counter update for Elasticsearch
+        if (elasticsearchAutoIndexService != null) {
+            elasticsearchAutoIndexService.onNovelCountersChanged(novelId);
+        }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onNovelCountersChanged(novelId);
+        }
     }
 
     /**
@@ -554,6 +617,14 @@ public class NovelService {
         
         // Cache the updated novel data
         redisUtil.cacheNovel(novelId, novel);
+
+        // Queue partial counter update for Elasticsearch
+        if (elasticsearchAutoIndexService != null) {
+            elasticsearchAutoIndexService.onNovelCountersChanged(novelId);
+        }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onNovelCountersChanged(novelId);
+        }
     }
 
     /**
@@ -576,11 +647,70 @@ public class NovelService {
         
         // Cache the updated novel data
         redisUtil.cacheNovel(novelId, novel);
+
+        // Queue partial counter update for Elasticsearch
+        if (elasticsearchAutoIndexService != null) {
+            elasticsearchAutoIndexService.onNovelCountersChanged(novelId);
+        }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onNovelCountersChanged(novelId);
+        }
+    }
+
+    /**
+     * Apply the latest vote count of many novels with one multi-row update
+     * This method is called by EngagementEventListener with a poll batch collapsed per novel
+     */
+    @Transactional
+    public void updateNovelVoteCounts(Map<Integer, Integer> voteCounts) {
+        if (voteCounts.isEmpty()) {
+            return;
+        }
+        List<Novel> novels = new ArrayList<>(voteCounts.size());
+        voteCounts.forEach((novelId, voteCount) -> {
+            Novel novel = new Novel();
+            novel.setId(novelId);
+            novel.setVoteCnt(voteCount);
+            novels.add(novel);
+        });
+        novelRepository.updateVoteCounts(novels);
+        onNovelCountersChanged(voteCounts.keySet());
+    }
+
+    /**
+     * Apply the latest rating statistics of many novels with one multi-row update
+     * Each novel carries its id, avgRating and reviewCnt; unknown ids are ignored
+     */
+    @Transactional
+    public void updateNovelRatingsAndCounts(List<Novel> ratings) {
+        if (ratings.isEmpty()) {
+            return;
+        }
+        novelRepository.updateRatings(ratings);
+        onNovelCountersChanged(ratings.stream().map(Novel::getId).collect(Collectors.toList()));
+    }
+
+    /**
+     * Drop cached copies of the novels (one DEL plus one popular-cache sweep for the batch)
+     * and queue their counters for the search indexes
+     */
+    private void onNovelCountersChanged(Collection<Integer> novelIds) {
+        redisUtil.deleteNovelCaches(novelIds);
+        redisUtil.invalidatePopularCaches();
+        for (Integer novelId : novelIds) {
+            if (elasticsearchAutoIndexService != null) {
+                elasticsearchAutoIndexService.onNovelCountersChanged(novelId);
+            }
+            if (luceneAutoIndexService != null) {
+                luceneAutoIndexService.onNovelCountersChanged(novelId);
+            }
+        }
     }
 
     /**
      * Submit novel for review (Author only)
      */
+    @Transactional
     public NovelDetailResponseDTO submitForReview(Integer novelId, UUID userId) {
         Novel novel = novelRepository.findById(novelId);
         if (novel == null) {
@@ -604,13 +734,8 @@ public class NovelService {
         // Invalidate cache since novel status changed
         redisUtil.invalidateNovelCaches(novelId);
         
-        // Publish Kafka event AFTER transaction commit
-        final Novel finalNovel = novel;
-        final String finalPreviousStatus = previousStatus;
-        final UUID finalUserId = userId;
-        transactionAwareKafkaPublisher.publishAfterCommit(() -> {
-            kafkaEventProducerService.publishNovelStatusChangedEvent(finalNovel, finalPreviousStatus, NovelStatus.UNDER_REVIEW.toString(), finalUserId, "Submitted for review");
-        });
+        // Publish Kafka event through the outbox; it is relayed once the transaction commits
+        kafkaEventProducerService.publishNovelStatusChangedEvent(novel, previousStatus, NovelStatus.UNDER_REVIEW.toString(), userId, "Submitted for review");
         
         return toResponse(novel);
     }
@@ -618,6 +743,7 @@ public class NovelService {
     /**
      * Approve novel for publishing (Admin only)
      */
+    @Transactional
     public NovelDetailResponseDTO approveNovel(Integer novelId) {
         return changeNovelStatus(novelId, NovelStatus.PUBLISHED, NovelStatus.UNDER_REVIEW, 
                 "only novels under review can be approved");
@@ -626,6 +752,7 @@ public class NovelService {
     /**
      * Reject novel (Admin only)
      */
+    @Transactional
     public NovelDetailResponseDTO rejectNovel(Integer novelId) {
         return changeNovelStatus(novelId, NovelStatus.DRAFT, NovelStatus.UNDER_REVIEW, 
                 "only novels under review can be rejected");
@@ -634,6 +761,7 @@ public class NovelService {
     /**
      * Hide novel - only published novels can be hidden
      */
+    @Transactional
     public NovelDetailResponseDTO hideNovel(Integer novelId) {
         return changeNovelStatus(novelId, NovelStatus.HIDDEN, NovelStatus.PUBLISHED, 
                 "only published novels can be hidden");
@@ -642,6 +770,7 @@ public class NovelService {
     /**
      * Unhide novel - only hidden novels can be unhidden, will return to published status
      */
+    @Transactional
     public NovelDetailResponseDTO unhideNovel(Integer novelId) {
         return changeNovelStatus(novelId, NovelStatus.PUBLISHED, NovelStatus.HIDDEN, 
                 "only hidden novels can be unhidden");
@@ -676,14 +805,19 @@ public class NovelService {
         
         // Invalidate cache since novel status changed
         redisUtil.invalidateNovelCaches(novelId);
+
+        // Publishing or hiding adds or drops the novel from search
+        if (elasticsearchAutoIndexService != null) {
+            elasticsearchAutoIndexService.onNovelUpdated(novel);
+        }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onNovelUpdated(novel);
+        }
+        searchCacheService.bumpGeneration();
         
-        // Publish Kafka event AFTER transaction commit
-        final Novel finalNovel = novel;
-        final String finalPreviousStatus = requiredCurrentStatus != null ? requiredCurrentStatus.toString() : "UNKNOWN";
-        final String finalNewStatus = newStatus.toString();
-        transactionAwareKafkaPublisher.publishAfterCommit(() -> {
-            kafkaEventProducerService.publishNovelStatusChangedEvent(finalNovel, finalPreviousStatus, finalNewStatus, null, "Status changed by admin");
-        });
+        // Publish Kafka event through the outbox; it is relayed once the transaction commits
+        String previousStatus = requiredCurrentStatus != null ? requiredCurrentStatus.toString() : "UNKNOWN";
+        kafkaEventProducerService.publishNovelStatusChangedEvent(novel, previousStatus, newStatus.toString(), null, "Status changed by admin");
         
         return toResponse(novel);
     }
@@ -708,6 +842,9 @@ public class NovelService {
         }
         dto.setSynopsis(novel.getSynopsis());
         dto.setCoverImgUrl(novel.getCoverImgUrl());
+        dto.setCoverImgUrls(FileStorageService.renditionUrls(novel.getCoverImgUrl()));
+        dto.setCoverAssetId(FileStorageService.assetId(novel.getCoverImgUrl()));
+        dto.setCoverStatus(novel.getCoverStatus());
         dto.setStatus(reverseStatus(novel.getStatus()));
         dto.setIsCompleted(novel.getIsCompleted());
         dto.setChapterCnt(novel.getChapterCnt());
@@ -754,6 +891,9 @@ public class NovelService {
                     dto.setCategoryName(categoryMap.get(novel.getCategoryId())); // Use cached category name
                     dto.setSynopsis(novel.getSynopsis());
                     dto.setCoverImgUrl(novel.getCoverImgUrl());
+                    dto.setCoverImgUrls(FileStorageService.renditionUrls(novel.getCoverImgUrl()));
+                    dto.setCoverAssetId(FileStorageService.assetId(novel.getCoverImgUrl()));
+                    dto.setCoverStatus(novel.getCoverStatus());
                     dto.setStatus(reverseStatus(novel.getStatus()));
                     dto.setIsCompleted(novel.getIsCompleted());
                     dto.setChapterCnt(novel.getChapterCnt());
@@ -860,22 +1000,131 @@ public class NovelService {
     }
 
     /**
-     * Convert Base64 data URL to a regular URL
+     * Attach a processed cover to its novel, unless a newer cover was submitted in the meantime.
+     * Runs in its own transaction because it may be called from an after-commit callback.
+     *
+     * @return false if the job was superseded; the caller then discards the stored image
      */
-    private String convertBase64ToUrl(String base64DataUrl) {
-        if (base64DataUrl == null || base64DataUrl.trim().isEmpty()) {
-            return null;
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean completeCoverJob(Integer novelId, UUID coverJobId, String coverImgUrl) {
+        Novel novel = novelRepository.findById(novelId);
+        if (novel == null || !coverJobId.equals(novel.getCoverJobId())) {
+            return false;
+        }
+        String oldCoverUrl = novel.getCoverImgUrl();
+        // Guards against a newer job being submitted between the read and this update
+        if (!novelRepository.updateCoverIfCurrentJob(novelId, coverJobId, coverImgUrl, CoverStatus.READY.name())) {
+            return false;
         }
+        novel.setCoverImgUrl(coverImgUrl);
+        novel.setCoverStatus(CoverStatus.READY.name());
+        novel.updateTimestamp();
         
-        try {
-            // Generate a unique filename
-            String fileName = "novel-" + System.currentTimeMillis();
-            
-            // Upload image and get URL
-            return fileStorageService.uploadImage(base64DataUrl, fileName);
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to convert base64 to URL: " + e.getMessage(), e);
+        redisUtil.invalidateNovelCaches(novelId);
+        redisUtil.cacheNovel(novelId, novel);
+        
+        kafkaEventProducerService.publishNovelUpdatedEvent(novel, novel.getAuthorId(), new String[]{"coverImgUrl"});
+        if (elasticsearchAutoIndexService != null) {
+            elasticsearchAutoIndexService.onNovelUpdated(novel);
+        }
+        if (luceneAutoIndexService != null) {
+            luceneAutoIndexService.onNovelUpdated(novel);
+        }
+        
+        releaseReplacedCover(novelId, oldCoverUrl, coverImgUrl);
+        return true;
+    }
+
+    /**
+     * Queue a stored cover for deletion; it is deleted in the background unless a novel uses it then.
+     * Covers are stored by content, so novels with identical images share one stored cover.
+     */
+    public void releaseCover(String coverImgUrl) {
+        storageCleanupService.scheduleDelete(coverImgUrl);
+    }
+
+    /**
+     * Mark a cover job as failed; the novel keeps its current cover.
+     * Runs in its own transaction because it may be called from an after-commit callback.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void failCoverJob(Integer novelId, UUID coverJobId) {
+        if (novelRepository.updateCoverIfCurrentJob(novelId, coverJobId, null, CoverStatus.FAILED.name())) {
+            redisUtil.invalidateNovelCaches(novelId);
+        }
+    }
+
+    /**
+     * Mark cover jobs that have been PENDING for longer than any job takes as FAILED.
+     * Jobs only live in the memory of the instance that accepted them and are lost when it stops.
+     *
+     * @return number of cover jobs marked as failed
+     */
+    @Transactional
+    public int failStaleCoverJobs(long maxAgeMinutes) {
+        List<Integer> novelIds = novelRepository.failStaleCoverJobs(maxAgeMinutes);
+        for (Integer novelId : novelIds) {
+            redisUtil.invalidateNovelCaches(novelId);
+        }
+        return novelIds.size();
+    }
+
+    /**
+     * Queue the old image for deletion in the transaction that replaces it
+     */
+    private void releaseReplacedCover(Integer novelId, String oldCoverUrl, String newCoverUrl) {
+        if (oldCoverUrl == null || oldCoverUrl.trim().isEmpty() || oldCoverUrl.equals(newCoverUrl)) {
+            return;
+        }
+        log.debug("Releasing replaced cover {} of novel {}", oldCoverUrl, novelId);
+        releaseCover(oldCoverUrl);
+    }
+
+    private static void checkSingleCoverSource(String coverAssetId, String coverImgBase64) {
+        if (hasText(coverAssetId) && hasText(coverImgBase64)) {
+            throw new IllegalArgumentException("send either coverAssetId or coverImgBase64, not both");
+        }
+    }
+
+    /**
+     * URL of a cover stored by the cover upload endpoint
+     */
+    private String resolveCoverAsset(String coverAssetId) {
+        Map<String, String> urls = fileStorageService.findImageRenditions(coverAssetId);
+        if (urls == null) {
+            throw new IllegalArgumentException("cover asset not found");
+        }
+        return urls.get(FileStorageService.RENDITION_FULL);
+    }
+
+    /**
+     * Whether the novel shows its latest cover, with no newer cover pending or failed
+     */
+    private static boolean isCoverReady(Novel novel) {
+        return novel.getCoverStatus() == null || CoverStatus.READY.name().equals(novel.getCoverStatus());
+    }
+
+    /**
+     * Whether a submitted cover is the image the novel already shows, with no newer cover pending or failed
+     */
+    private boolean isCurrentCover(Novel novel, String coverImgBase64) {
+        if (!isCoverReady(novel)) {
+            return false;
+        }
+        String currentKey = FileStorageService.contentKeyOf(novel.getCoverImgUrl());
+        return currentKey != null && currentKey.equals(fileStorageService.contentKey(coverImgBase64));
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    /**
+     * Cheap header-only check so an unreadable cover fails the request instead of the background job
+     */
+    private void validateCoverImage(String base64DataUrl) {
+        if (!fileStorageService.validateImage(base64DataUrl)) {
+            throw new IllegalArgumentException("invalid cover image");
         }
     }
 }
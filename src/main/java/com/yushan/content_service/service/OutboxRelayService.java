@@ -0,0 +1,324 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dao.OutboxEventMapper;
+import com.yushan.content_service.entity.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relays outbox events to Kafka in large batches.
+ *
+ * Batches are claimed under a transaction-scoped advisory lock and read in id order; the
+ * claim leases their keys, so Kafka acks are awaited outside any transaction and another
+ * instance only picks the keys up again once the outcome is recorded or the lease ran out. Different keys are sent in parallel; within a key each event is sent
+ * only after Kafka acknowledged the previous one, so events of one key keep their order.
+ * An event is marked published only after Kafka acknowledged it, so delivery is
+ * at-least-once. When a send fails, later events of the same key are not sent; the key is
+ * retried with exponential backoff, and after too many attempts the failed event is parked
+ * so the rest of its key can move on.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayService {
+
+    static final String OUTBOX_TABLE = "outbox_events";
+    private static final long RELAY_LOCK_ID = 0x6F7574626F78L; // "outbox"
+
+    @Autowired
+    private OutboxEventMapper outboxEventMapper;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${outbox.relay.parallelism:4}")
+    private int parallelism = 4;
+
+    @Value("${outbox.relay.max-batches-per-run:20}")
+    private int maxBatchesPerRun = 20;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs = 10000;
+
+    @Value("${outbox.relay.interval-ms:200}")
+    private long intervalMs = 200;
+
+    /**
+     * How long a claimed batch keeps other instances off its keys; at least twice the send timeout
+     */
+    @Value("${outbox.relay.claim-ttl-ms:60000}")
+    private long claimTtlMs = 60000;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts = 10;
+
+    @Value("${outbox.relay.retry-backoff-ms:1000}")
+    private long retryBackoffMs = 1000;
+
+    @Value("${outbox.relay.max-retry-backoff-ms:300000}")
+    private long maxRetryBackoffMs = 300000;
+
+    @Value("${outbox.retention-days:3}")
+    private int retentionDays = 3;
+
+    @Value("${outbox.partitions-ahead:7}")
+    private int partitionsAhead = 7;
+
+    private ExecutorService sendExecutor;
+    private ScheduledExecutorService relayScheduler;
+    private Counter relayedCounter;
+    private Counter failedCounter;
+    private Counter parkedCounter;
+
+    @PostConstruct
+    public void init() {
+        sendExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        relayedCounter = Counter.builder("outbox.events.relayed")
+                .description("Outbox events acknowledged by Kafka")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("outbox.events.failed")
+                .description("Outbox event sends that failed and will be retried")
+                .register(meterRegistry);
+        parkedCounter = Counter.builder("outbox.events.parked")
+                .description("Outbox events given up on after too many failed attempts")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (relayScheduler != null) {
+            relayScheduler.shutdownNow();
+        }
+        sendExecutor.shutdownNow();
+    }
+
+    /**
+     * Drain the outbox until it is empty or the per-run batch limit is reached
+     */
+    public void relay() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int relayed;
+            try {
+                relayed = relayBatch();
+            } catch (Exception e) {
+                log.error("Outbox relay failed, will retry: {}", e.getMessage());
+                return;
+            }
+            if (relayed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Relay one batch. The batch is claimed in a short transaction, sent without holding a
+     * transaction or connection, and the outcome is written in a second short transaction.
+     *
+     * @return number of events relayed, or 0 if another instance holds the lock
+     */
+    int relayBatch() {
+        List<OutboxEvent> events = transactionTemplate.execute(status -> claimBatch());
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+        RelayResult result = sendAll(events);
+        List<Long> published = result.published;
+        transactionTemplate.execute(status -> {
+            if (!published.isEmpty()) {
+                outboxEventMapper.markPublished(published, LocalDateTime.now());
+            }
+            for (OutboxEvent failed : result.failed) {
+                recordFailure(failed);
+            }
+            if (!result.skipped.isEmpty()) {
+                outboxEventMapper.releaseClaims(result.skipped);
+            }
+            return null;
+        });
+        relayedCounter.increment(published.size());
+        failedCounter.increment(events.size() - published.size());
+        // Stop draining on failures instead of spinning on events that cannot be sent right now
+        return published.size() == events.size() ? events.size() : 0;
+    }
+
+    /**
+     * Read the next batch under the relay lock and lease its keys, so another instance
+     * skips them until this one has recorded the outcome or the lease has run out
+     */
+    private List<OutboxEvent> claimBatch() {
+        if (!outboxEventMapper.tryRelayLock(RELAY_LOCK_ID)) {
+            return List.of();
+        }
+        List<OutboxEvent> events = outboxEventMapper.selectUnpublished(batchSize);
+        if (!events.isEmpty()) {
+            List<Long> ids = new ArrayList<>(events.size());
+            events.forEach(event -> ids.add(event.getId()));
+            outboxEventMapper.claim(ids, Math.max(claimTtlMs, 2 * sendTimeoutMs));
+        }
+        return events;
+    }
+
+    /**
+     * Create upcoming partitions and drop expired ones once all their events are relayed
+     */
+    @Scheduled(cron = "${outbox.partition-maintenance-cron:0 15 * * * *}")
+    public void maintainPartitions() {
+        try {
+            LocalDate today = LocalDate.now();
+            partitionMaintenanceService.ensureDailyPartitions(OUTBOX_TABLE, today, partitionsAhead);
+            LocalDate cutoff = today.minusDays(retentionDays);
+            partitionMaintenanceService.dropDailyPartitionsBefore(OUTBOX_TABLE, cutoff,
+                    partition -> !outboxEventMapper.hasUnpublished(partition));
+            outboxEventMapper.deletePublishedFromDefault(cutoff.atStartOfDay());
+        } catch (Exception e) {
+            log.error("Outbox partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The relay runs on its own thread rather than the shared scheduler, so long scheduled
+     * jobs such as index rebuilds or storage sweeps never hold back event publishing
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintainPartitions();
+        relayScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        relayScheduler.scheduleWithFixedDelay(this::relay, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Send every key's events one after another, each only once the previous one was acknowledged,
+     * while different keys are sent in parallel. A failed send stops its key for this batch.
+     */
+    private RelayResult sendAll(List<OutboxEvent> events) {
+        AtomicBoolean expired = new AtomicBoolean();
+        Map<String, CompletableFuture<Object>> tails = new HashMap<>();
+        List<CompletableFuture<Object>> acks = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            CompletableFuture<Object> previous = tails.getOrDefault(event.getAggregateKey(), CompletableFuture.completedFuture(null));
+            // Sends run on the relay executor, never on the producer thread that completed the previous ack
+            CompletableFuture<Object> ack = previous.thenComposeAsync(v -> expired.get()
+                    ? CompletableFuture.failedFuture(new TimeoutException("Relay batch timed out"))
+                    : send(event), sendExecutor);
+            tails.put(event.getAggregateKey(), ack);
+            acks.add(ack);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        Set<String> failedKeys = new HashSet<>();
+        RelayResult result = new RelayResult(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            // Later events of a failed key were never sent
+            if (failedKeys.contains(event.getAggregateKey())) {
+                result.skipped.add(event.getId());
+                continue;
+            }
+            if (awaitAck(acks.get(i), deadline, event)) {
+                result.published.add(event.getId());
+            } else {
+                failedKeys.add(event.getAggregateKey());
+                result.failed.add(event);
+            }
+        }
+        // Sends still queued behind a timed-out ack are dropped rather than sent after the batch gave up
+        expired.set(true);
+        return result;
+    }
+
+    /**
+     * Count the attempt of an event whose send failed; back its key off exponentially, or park the
+     * event once it has failed too often so the rest of its key can move on
+     */
+    private void recordFailure(OutboxEvent event) {
+        int attempts = event.getAttempts() + 1;
+        boolean parked = attempts >= maxAttempts;
+        long backoffMs = retryBackoffMs << Math.min(attempts - 1, 20);
+        outboxEventMapper.recordFailure(event.getId(), attempts, Math.min(backoffMs, maxRetryBackoffMs), parked);
+        if (parked) {
+            parkedCounter.increment();
+            log.error("Parked outbox event {} for key {} on topic {} after {} failed attempts",
+                    event.getId(), event.getAggregateKey(), event.getTopic(), attempts);
+        }
+    }
+
+    private CompletableFuture<Object> send(OutboxEvent event) {
+        try {
+            CompletableFuture<?> ack = kafkaTemplate.send(event.getTopic(), event.getAggregateKey(), outboxService.readPayload(event));
+            return ack != null ? ack.thenApply(result -> result) : CompletableFuture.failedFuture(new IllegalStateException("No send result"));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean awaitAck(CompletableFuture<?> ack, long deadlineNanos, OutboxEvent event) {
+        try {
+            ack.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.error("Failed to relay outbox event {} to topic {}: {}", event.getId(), event.getTopic(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static final class RelayResult {
+
+        private final List<Long> published;
+        private final List<OutboxEvent> failed = new ArrayList<>();
+        private final List<Long> skipped = new ArrayList<>();
+
+        private RelayResult(int size) {
+            this.published = new ArrayList<>(size);
+        }
+    }
+}
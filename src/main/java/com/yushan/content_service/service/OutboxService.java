@@ -0,0 +1,116 @@
+package com.yushan.content_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.content_service.dao.OutboxEventMapper;
+import com.yushan.content_service.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transactional outbox: events are stored in the same transaction as the change they
+ * describe and sent to Kafka later by {@link OutboxRelayService}.
+ *
+ * Events enqueued inside a transaction are buffered and written with one multi-row
+ * INSERT just before commit, so the write path never waits on Kafka.
+ */
+@Service
+public class OutboxService {
+
+    private static final String EVENT_PACKAGE = "com.yushan.content_service.dto.event.";
+    private static final int INSERT_CHUNK_SIZE = 500;
+
+    // Same settings as the Kafka JsonSerializer, so relayed payloads round-trip unchanged
+    private static final ObjectMapper OBJECT_MAPPER = JacksonUtils.enhancedObjectMapper();
+
+    @Autowired
+    private OutboxEventMapper outboxEventMapper;
+
+    /**
+     * Add an event to the outbox; inside a transaction it is only stored if the transaction commits
+     *
+     * @param topic Kafka topic to relay the event to
+     * @param key   Kafka record key; events with the same key are relayed in order
+     * @param event Event payload
+     */
+    public void enqueue(String topic, String key, Object event) {
+        OutboxEvent outboxEvent = new OutboxEvent(key, topic, event.getClass().getName(), null, LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            pendingEvents().add(new PendingEvent(outboxEvent, event));
+        } else {
+            outboxEvent.setPayload(serialize(event));
+            outboxEventMapper.insertBatch(List.of(outboxEvent));
+        }
+    }
+
+    /**
+     * Turn a stored payload back into the event object it was created from
+     */
+    Object readPayload(OutboxEvent outboxEvent) throws ClassNotFoundException, JsonProcessingException {
+        if (outboxEvent.getPayloadType() == null || !outboxEvent.getPayloadType().startsWith(EVENT_PACKAGE)) {
+            throw new IllegalArgumentException("Unsupported outbox payload type: " + outboxEvent.getPayloadType());
+        }
+        return OBJECT_MAPPER.readValue(outboxEvent.getPayload(), Class.forName(outboxEvent.getPayloadType()));
+    }
+
+    private List<PendingEvent> pendingEvents() {
+        @SuppressWarnings("unchecked")
+        List<PendingEvent> pending = (List<PendingEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<PendingEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    // Write before other resources prepare to commit
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insertPending(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxService.this);
+                }
+            });
+            pending = events;
+        }
+        return pending;
+    }
+
+    private void insertPending(List<PendingEvent> pending) {
+        List<OutboxEvent> events = new ArrayList<>(pending.size());
+        for (PendingEvent event : pending) {
+            event.outboxEvent().setPayload(serialize(event.payload()));
+            events.add(event.outboxEvent());
+        }
+        // A failure here rolls the transaction back, so a change is never committed without its events
+        for (int from = 0; from < events.size(); from += INSERT_CHUNK_SIZE) {
+            outboxEventMapper.insertBatch(events.subList(from, Math.min(from + INSERT_CHUNK_SIZE, events.size())));
+        }
+        pending.clear();
+    }
+
+    private static String serialize(Object event) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox event " + event.getClass().getSimpleName(), e);
+        }
+    }
+
+    private record PendingEvent(OutboxEvent outboxEvent, Object payload) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dao.PartitionMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Creates and drops daily range partitions named {@code <table>_pYYYYMMDD}.
+ * Retention works by dropping whole partitions, which frees space immediately and
+ * avoids the table and index bloat of large DELETEs.
+ */
+@Slf4j
+@Service
+public class PartitionMaintenanceService {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Autowired
+    private PartitionMapper partitionMapper;
+
+    /**
+     * Name of the partition holding rows of the given day
+     */
+    public static String dailyPartitionName(String table, LocalDate day) {
+        return table + "_p" + day.format(SUFFIX_FORMAT);
+    }
+
+    /**
+     * Make sure partitions exist from today up to {@code daysAhead} days ahead
+     */
+    public void ensureDailyPartitions(String table, LocalDate today, int daysAhead) {
+        checkIdentifier(table);
+        for (int i = 0; i <= daysAhead; i++) {
+            LocalDate day = today.plusDays(i);
+            try {
+                partitionMapper.createRangePartition(table, dailyPartitionName(table, day), day, day.plusDays(1));
+            } catch (Exception e) {
+                // Fails if the default partition already holds rows of that day; they stay there
+                log.warn("Failed to create partition {}: {}", dailyPartitionName(table, day), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drop daily partitions whose day is before the cutoff and that the caller allows to drop
+     *
+     * @return names of the dropped partitions
+     */
+    public List<String> dropDailyPartitionsBefore(String table, LocalDate cutoff, Predicate<String> canDrop) {
+        checkIdentifier(table);
+        Pattern dailyPartition = Pattern.compile(Pattern.quote(table) + "_p(\\d{8})");
+        List<String> dropped = new ArrayList<>();
+        for (String partition : partitionMapper.selectPartitionNames(table)) {
+            Matcher matcher = dailyPartition.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            LocalDate day;
+            try {
+                day = LocalDate.parse(matcher.group(1), SUFFIX_FORMAT);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            if (day.isBefore(cutoff) && canDrop.test(partition)) {
+                partitionMapper.dropPartition(partition);
+                dropped.add(partition);
+                log.info("Dropped partition {}", partition);
+            }
+        }
+        return dropped;
+    }
+
+    private static void checkIdentifier(String table) {
+        if (table == null || !IDENTIFIER.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid table name: " + table);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dao.ProcessedEventMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Retention for processed_events: creates daily partitions ahead of time and drops
+ * partitions that fell out of the retention window, instead of deleting rows.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "idempotency.retention.enabled", havingValue = "true", matchIfMissing = true)
+public class ProcessedEventRetentionService {
+
+    static final String PROCESSED_EVENTS_TABLE = "processed_events";
+
+    @Autowired
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Autowired
+    private ProcessedEventMapper processedEventMapper;
+
+    @Value("${idempotency.retention-days:7}")
+    private int retentionDays = 7;
+
+    @Value("${idempotency.partitions-ahead:7}")
+    private int partitionsAhead = 7;
+
+    /**
+     * Create upcoming partitions and drop the ones older than the retention window
+     */
+    @Scheduled(cron = "${idempotency.partition-maintenance-cron:0 20 * * * *}")
+    public void maintainPartitions() {
+        try {
+            LocalDate today = LocalDate.now();
+            partitionMaintenanceService.ensureDailyPartitions(PROCESSED_EVENTS_TABLE, today, partitionsAhead);
+            LocalDate cutoff = today.minusDays(retentionDays);
+            List<String> dropped = partitionMaintenanceService.dropDailyPartitionsBefore(PROCESSED_EVENTS_TABLE, cutoff,
+                    partition -> true);
+            int deleted = processedEventMapper.deleteFromDefaultPartition(cutoff.atStartOfDay());
+            log.info("Processed events retention: dropped {} partitions, deleted {} rows from the default partition",
+                    dropped.size(), deleted);
+        } catch (Exception e) {
+            log.error("Processed events partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintainPartitions();
+    }
+}
@@ -1,26 +1,52 @@
 package com.yushan.content_service.service;
 
-import com.amazonaws.auth.AWSStaticCredentialsProvider;
-import com.amazonaws.auth.BasicAWSCredentials;
-import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.Upload;
+import com.yushan.content_service.dao.StorageDeletionMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
 
 /**
  * S3-compatible file storage implementation for DigitalOcean Spaces
  * Handles image uploads to DigitalOcean Spaces with proper URL generation
+ *
+ * Uses the shared client and transfer manager from {@link com.yushan.content_service.config.S3Config}.
+ * Renditions are uploaded concurrently, large objects as parallel multipart uploads. Deletes
+ * are sent in the background by a small bounded pool; when its queue is full the caller sends
+ * the delete itself.
  */
+@Slf4j
 @Service
 public class S3FileStorageService implements FileStorageService {
     
@@ -28,13 +54,16 @@ public class S3FileStorageService implements FileStorageService {
     private ImageValidationService imageValidationService;
     
     @Autowired
-    private ImageProcessingService imageProcessingService;
+    private ImageIngestionService imageIngestionService;
     
-    @Value("${app.storage.s3.access-key:test-access-key}")
-    private String accessKeyId;
+    @Autowired
+    private StorageDeletionMapper storageDeletionMapper;
     
-    @Value("${app.storage.s3.secret-key:test-secret-key}")
-    private String secretAccessKey;
+    @Autowired
+    private AmazonS3 s3Client;
+    
+    @Autowired
+    private TransferManager s3TransferManager;
     
     @Value("${app.storage.s3.endpoint:https://test.endpoint.com}")
     private String endpoint;
@@ -45,99 +74,229 @@ public class S3FileStorageService implements FileStorageService {
     @Value("${app.storage.s3.region:us-east-1}")
     private String region;
     
-    private AmazonS3 s3Client;
+    @Value("${app.storage.s3.delete-threads:2}")
+    private int deleteThreads = 2;
+    
+    @Value("${app.storage.s3.delete-queue-capacity:100}")
+    private int deleteQueueCapacity = 100;
+    
+    @Value("${app.storage.s3.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds = 30;
+    
+    private ThreadPoolExecutor deleteExecutor;
     
     // Directory structure
     private static final String COVERS_DIR = "covers";
     
-    private AmazonS3 getS3Client() {
-        if (s3Client == null) {
-            BasicAWSCredentials awsCredentials = new BasicAWSCredentials(accessKeyId, secretAccessKey);
-            
-            s3Client = AmazonS3ClientBuilder.standard()
-                    .withCredentials(new AWSStaticCredentialsProvider(awsCredentials))
-                    .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region))
-                    .build();
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+    private static final Duration TOUCH_INTERVAL = Duration.ofHours(1);
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        deleteExecutor = new ThreadPoolExecutor(deleteThreads, deleteThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(deleteQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "s3-delete-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    /**
+     * Let scheduled deletes finish before the client is shut down
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        deleteExecutor.shutdown();
+        if (!deleteExecutor.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+            log.warn("{} image deletes were not sent before shutdown", deleteExecutor.shutdownNow().size());
         }
-        return s3Client;
     }
     
     @Override
     public String uploadImage(String base64Data, String fileName) {
         try {
-            // Validate image
-            ImageValidationService.ImageValidationResult validation = imageValidationService.validateImage(base64Data);
-            if (!validation.isValid()) {
-                throw new IllegalArgumentException("Invalid image: " + validation.getErrorMessage());
-            }
-            
-            // Extract image data
-            byte[] imageData = imageValidationService.extractImageData(base64Data);
-            String format = imageValidationService.getImageFormat(base64Data);
-            
-            // Resize to standard size (800x600)
-            BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(imageData));
-            BufferedImage resizedImage = imageProcessingService.resizeImage(originalImage, 800, 600);
-            
-            // Compress image
-            byte[] compressedData = imageProcessingService.compressImage(resizedImage, format);
+            // Decode, validate, resize to standard size (800x600) and compress in one pass
+            ImageIngestionService.IngestedImage image = imageIngestionService.ingest(base64Data,
+                    ImageProcessingService.STANDARD_WIDTH, ImageProcessingService.STANDARD_HEIGHT);
+            byte[] compressedData = image.data();
+            String format = image.format();
             
             // Generate unique filename
             String uniqueFileName = generateUniqueFileName(fileName, format);
             String s3Key = COVERS_DIR + "/" + uniqueFileName;
             
             // Upload to S3/Spaces
-            ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentLength(compressedData.length);
-            metadata.setContentType("image/" + format.toLowerCase());
-            metadata.setCacheControl("public, max-age=31536000"); // 1 year cache
-            
-            PutObjectRequest putObjectRequest = new PutObjectRequest(
-                    bucketName, 
-                    s3Key, 
-                    new ByteArrayInputStream(compressedData), 
-                    metadata
-            );
+            putImage(s3Key, compressedData, format).waitForCompletion();
             
-            getS3Client().putObject(putObjectRequest);
+            return getPublicUrl(s3Key);
             
-            // Return public URL - use CDN URL for DigitalOcean Spaces
-            // Remove trailing slash from endpoint if exists
-            String cleanEndpoint = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while uploading image to S3", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to upload image to S3: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Map<String, String> uploadImageRenditions(String base64Data) {
+        try {
+            return uploadImageRenditions(imageIngestionService.decode(base64Data),
+                    imageValidationService.getImageFormat(base64Data));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload image to S3: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Map<String, String> uploadImageRenditions(byte[] imageData, String format) {
+        try {
+            // All renditions of an image share a folder named after its content; each file is named after its rendition
+            String contentKey = FileStorageService.contentKey(imageData);
+            String folder = COVERS_DIR + "/" + contentKey;
+            Map<String, String> s3Keys = new LinkedHashMap<>();
+            for (String rendition : RENDITIONS) {
+                s3Keys.put(rendition, folder + "/" + rendition + "." + format.toLowerCase());
+            }
             
-            // Check if this is DigitalOcean Spaces and use CDN URL
-            if (cleanEndpoint.contains("digitaloceanspaces.com")) {
-                // Parse region from endpoint (e.g., https://sgp1.digitaloceanspaces.com -> sgp1)
-                String parsedRegion = extractRegionFromEndpoint(cleanEndpoint);
-                // Build CDN URL: https://bucket.region.cdn.digitaloceanspaces.com/key
-                return "https://" + bucketName + "." + parsedRegion + ".cdn.digitaloceanspaces.com/" + s3Key;
+            // Process and upload only new images; full is uploaded last, so it marks a complete upload
+            String fullKey = s3Keys.get(RENDITION_FULL);
+            // The stored image may be queued for deletion by a novel that stopped using it
+            storageDeletionMapper.deleteByContentKey(contentKey);
+            ObjectMetadata stored = storedMetadata(fullKey);
+            if (stored != null) {
+                touch(fullKey, stored, format);
+            } else {
+                // One decode, all renditions resized and compressed in parallel
+                Map<String, ImageIngestionService.IngestedImage> renditions =
+                        imageIngestionService.ingestRenditions(imageData, format);
+                List<Upload> uploads = new ArrayList<>();
+                for (String rendition : RENDITIONS) {
+                    if (!RENDITION_FULL.equals(rendition)) {
+                        uploads.add(putImage(s3Keys.get(rendition), renditions.get(rendition).data(), format));
+                    }
+                }
+                for (Upload upload : uploads) {
+                    upload.waitForCompletion();
+                }
+                putImage(fullKey, renditions.get(RENDITION_FULL).data(), format).waitForCompletion();
             }
             
-            // Fallback to standard endpoint URL
-            return cleanEndpoint + "/" + bucketName + "/" + s3Key;
+            Map<String, String> urls = new LinkedHashMap<>();
+            s3Keys.forEach((rendition, s3Key) -> urls.put(rendition, getPublicUrl(s3Key)));
+            return urls;
             
+        } catch (IllegalArgumentException e) {
+            // Invalid image, not a storage failure
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while uploading image to S3", e);
         } catch (Exception e) {
             throw new RuntimeException("Failed to upload image to S3: " + e.getMessage(), e);
         }
     }
     
+    @Override
+    public Map<String, String> findImageRenditions(String assetId) {
+        Matcher matcher = ASSET_ID_PATTERN.matcher(assetId);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String s3Key = COVERS_DIR + "/" + matcher.group(1) + "/" + RENDITION_FULL + "." + matcher.group(2);
+        if (!s3Client.doesObjectExist(bucketName, s3Key)) {
+            return null;
+        }
+        return FileStorageService.renditionUrls(getPublicUrl(s3Key));
+    }
+    
+    @Override
+    public String contentKey(String base64Data) {
+        return FileStorageService.contentKey(imageValidationService.extractImageData(base64Data));
+    }
+    
+    /**
+     * Schedule the deletion of an image and all its renditions
+     *
+     * @return true if the delete was scheduled; failures are logged, as the image is no longer referenced
+     */
     @Override
     public boolean deleteImage(String imageUrl) {
-        try {
-            // Extract S3 key from URL
-            String s3Key = extractS3KeyFromUrl(imageUrl);
-            if (s3Key == null) {
-                return false;
+        if (imageUrl == null) {
+            return false;
+        }
+        
+        // Extract S3 keys of all renditions from URL
+        List<String> s3Keys = new ArrayList<>();
+        for (String url : FileStorageService.renditionUrls(imageUrl).values()) {
+            String s3Key = extractS3KeyFromUrl(url);
+            if (s3Key != null) {
+                s3Keys.add(s3Key);
             }
-            
-            // Delete from S3/Spaces
-            DeleteObjectRequest deleteObjectRequest = new DeleteObjectRequest(bucketName, s3Key);
-            getS3Client().deleteObject(deleteObjectRequest);
-            
-            return true;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to delete image from S3: " + e.getMessage(), e);
         }
+        if (s3Keys.isEmpty()) {
+            return false;
+        }
+        
+        deleteExecutor.execute(() -> deleteObjects(s3Keys));
+        return true;
+    }
+    
+    @Override
+    public void deleteImages(List<String> imageUrls) {
+        List<String> s3Keys = new ArrayList<>();
+        for (String imageUrl : imageUrls) {
+            Map<String, String> renditions = FileStorageService.renditionUrls(imageUrl);
+            if (renditions == null) {
+                continue;
+            }
+            for (String url : renditions.values()) {
+                String s3Key = extractS3KeyFromUrl(url);
+                if (s3Key != null) {
+                    s3Keys.add(s3Key);
+                }
+            }
+        }
+        // Multi-object delete; missing keys count as deleted
+        for (int from = 0; from < s3Keys.size(); from += MAX_KEYS_PER_DELETE) {
+            List<String> chunk = s3Keys.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, s3Keys.size()));
+            try {
+                s3Client.deleteObjects(new DeleteObjectsRequest(bucketName)
+                        .withKeys(chunk.toArray(new String[0]))
+                        .withQuiet(true));
+            } catch (MultiObjectDeleteException e) {
+                throw new RuntimeException("Failed to delete " + e.getErrors().size() + " of " + chunk.size()
+                        + " objects from S3: " + e.getErrors().get(0).getMessage(), e);
+            }
+        }
+    }
+    
+    @Override
+    public void scanImages(Instant storedBefore, int pageSize, Consumer<List<String>> pageConsumer) {
+        String prefix = COVERS_DIR + "/";
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(bucketName)
+                .withPrefix(prefix)
+                .withMaxKeys(pageSize);
+        ListObjectsV2Result result;
+        do {
+            result = s3Client.listObjectsV2(request);
+            List<String> page = new ArrayList<>();
+            for (S3ObjectSummary summary : result.getObjectSummaries()) {
+                String name = summary.getKey().substring(prefix.length());
+                if (STORED_COVER_PATTERN.matcher(name).matches()
+                        && summary.getLastModified().toInstant().isBefore(storedBefore)) {
+                    page.add(getPublicUrl(summary.getKey()));
+                }
+            }
+            if (!page.isEmpty()) {
+                pageConsumer.accept(page);
+            }
+            request.setContinuationToken(result.getNextContinuationToken());
+        } while (result.isTruncated());
     }
     
     @Override
@@ -155,12 +314,93 @@ public class S3FileStorageService implements FileStorageService {
             }
             
             // Check if object exists in S3/Spaces
-            return getS3Client().doesObjectExist(bucketName, s3Key);
+            return s3Client.doesObjectExist(bucketName, s3Key);
         } catch (Exception e) {
             return false;
         }
     }
     
+    private void deleteObjects(List<String> s3Keys) {
+        try {
+            // Delete from S3/Spaces, renditions in one request
+            if (s3Keys.size() == 1) {
+                s3Client.deleteObject(new DeleteObjectRequest(bucketName, s3Keys.get(0)));
+            } else {
+                s3Client.deleteObjects(new DeleteObjectsRequest(bucketName)
+                        .withKeys(s3Keys.toArray(new String[0]))
+                        .withQuiet(true));
+            }
+        } catch (Exception e) {
+            log.error("Failed to delete {} from S3: {}", s3Keys, e.getMessage());
+        }
+    }
+    
+    /**
+     * Start an upload on the transfer manager; objects above the multipart threshold
+     * are uploaded in parts in parallel
+     */
+    private Upload putImage(String s3Key, byte[] data, String format) {
+        ObjectMetadata metadata = imageMetadata(format);
+        metadata.setContentLength(data.length);
+        
+        PutObjectRequest putObjectRequest = new PutObjectRequest(
+                bucketName, 
+                s3Key, 
+                new ByteArrayInputStream(data), 
+                metadata
+        );
+        
+        return s3TransferManager.upload(putObjectRequest);
+    }
+    
+    private ObjectMetadata imageMetadata(String format) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType("image/" + format.toLowerCase());
+        metadata.setCacheControl("public, max-age=31536000"); // 1 year cache
+        return metadata;
+    }
+    
+    private ObjectMetadata storedMetadata(String s3Key) {
+        try {
+            return s3Client.getObjectMetadata(bucketName, s3Key);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Copy a stored object onto itself so its last-modified time is refreshed and the orphan
+     * sweep's grace period starts over; skipped when it was refreshed recently
+     */
+    private void touch(String s3Key, ObjectMetadata stored, String format) {
+        if (stored.getLastModified() == null
+                || stored.getLastModified().toInstant().isAfter(Instant.now().minus(TOUCH_INTERVAL))) {
+            return;
+        }
+        s3Client.copyObject(new CopyObjectRequest(bucketName, s3Key, bucketName, s3Key)
+                .withNewObjectMetadata(imageMetadata(format)));
+    }
+    
+    private String getPublicUrl(String s3Key) {
+        // Return public URL - use CDN URL for DigitalOcean Spaces
+        // Remove trailing slash from endpoint if exists
+        String cleanEndpoint = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+        
+        // Check if this is DigitalOcean Spaces and use CDN URL
+        if (cleanEndpoint.contains("digitaloceanspaces.com")) {
+            // Parse region from endpoint (e.g., https://sgp1.digitaloceanspaces.com -> sgp1)
+            String parsedRegion = extractRegionFromEndpoint(cleanEndpoint);
+            // Build CDN URL: https://bucket.region.cdn.digitaloceanspaces.com/key
+            return "https://" + bucketName + "." + parsedRegion + ".cdn.digitaloceanspaces.com/" + s3Key;
+        }
+        
+        // Fallback to standard endpoint URL
+        return cleanEndpoint + "/" + bucketName + "/" + s3Key;
+    }
+    
     private String generateUniqueFileName(String fileName, String format) {
         String baseName = fileName != null ? fileName : "image";
         String uuid = UUID.randomUUID().toString();
@@ -168,19 +408,13 @@ public class S3FileStorageService implements FileStorageService {
     }
     
     private String extractS3KeyFromUrl(String imageUrl) {
-        try {
-            // URL format: https://bucket.region.digitaloceanspaces.com/path/to/file
-            // or: https://endpoint/bucket/path/to/file
-            if (imageUrl.contains(bucketName)) {
-                String[] parts = imageUrl.split(bucketName + "/");
-                if (parts.length > 1) {
-                    return parts[1];
-                }
-            }
-            return null;
-        } catch (Exception e) {
-            return null;
+        // URL format: https://bucket.region.cdn.digitaloceanspaces.com/path/to/file
+        // or: https://endpoint/bucket/path/to/file
+        String prefix = getPublicUrl("");
+        if (imageUrl.startsWith(prefix) && imageUrl.length() > prefix.length()) {
+            return imageUrl.substring(prefix.length());
         }
+        return null;
     }
     
     private String extractRegionFromEndpoint(String endpoint) {
@@ -0,0 +1,242 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.util.FrequencySketch;
+import com.yushan.content_service.util.RedisUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Redis cache for search results keyed by a hash of the normalized query.
+ * Keys embed a content generation; publishing, hiding or archiving content bumps the
+ * generation so every cached result is bypassed at once and left to expire by its TTL.
+ * TTLs grow with how often a query is seen, so popular searches stay cached longer.
+ */
+@Slf4j
+@Service
+public class SearchCacheService {
+
+    static final String KEY_PREFIX = "search:v2:";
+    static final String GENERATION_KEY = "search:generation";
+
+    /**
+     * Cursors are case-sensitive base64, so this parameter is hashed verbatim
+     */
+    public static final String CURSOR_PARAM = "cursor";
+
+    /**
+     * Free-text parameters, matched case-insensitively by every search path. Only these are
+     * normalized; sort, order and other enum-like values are compared as given by the service
+     */
+    static final Set<String> TEXT_PARAMS = Set.of("query", "search", "titleKeyword");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${search.cache.min-ttl-seconds:60}")
+    private long minTtlSeconds = 60;
+
+    @Value("${search.cache.max-ttl-seconds:900}")
+    private long maxTtlSeconds = 900;
+
+    @Value("${search.cache.generation-check-ms:1000}")
+    private long generationCheckMs = 1000;
+
+    @Value("${search.cache.sketch-width:4096}")
+    private int sketchWidth = 4096;
+
+    private FrequencySketch popularity;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Map<String, Counter> requestCounters = new ConcurrentHashMap<>();
+
+    private volatile long generation;
+    private volatile long generationCheckedAt;
+
+    @PostConstruct
+    public void init() {
+        popularity = new FrequencySketch(sketchWidth, sketchWidth * 10);
+        Gauge.builder("search.cache.hit.ratio", this, SearchCacheService::getHitRatio)
+                .description("Share of search requests served from the result cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build the cache key for a search; null parameters are ignored and order does not matter
+     */
+    public CacheKey keyFor(String scope, Map<String, ?> params) {
+        StringBuilder canonical = new StringBuilder(scope);
+        new TreeMap<>(params).forEach((name, value) -> {
+            if (value != null) {
+                canonical.append('&').append(name).append('=')
+                        .append(TEXT_PARAMS.contains(name) ? normalizeText(value.toString()) : canonicalValue(value));
+            }
+        });
+        byte[] digest = sha256(canonical.toString());
+        String hash = HexFormat.of().formatHex(digest);
+        long fingerprint = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            fingerprint = (fingerprint << 8) | (digest[i] & 0xFF);
+        }
+        return new CacheKey(scope, KEY_PREFIX + scope + ":" + currentGeneration() + ":" + hash, fingerprint);
+    }
+
+    /**
+     * Look up a cached result and record the request for hit-ratio and popularity tracking
+     */
+    public <T> T get(CacheKey key, Class<T> type) {
+        popularity.increment(key.fingerprint());
+        T value = null;
+        try {
+            value = redisUtil.get(key.redisKey(), type);
+        } catch (Exception e) {
+            log.warn("Search cache read failed: {}", e.getMessage());
+        }
+        record(key.scope(), value != null);
+        return value;
+    }
+
+    /**
+     * Cache a result; the TTL grows with the query's recent popularity
+     */
+    public void put(CacheKey key, Object value) {
+        try {
+            redisUtil.set(key.redisKey(), value, ttlSeconds(popularity.frequency(key.fingerprint())));
+        } catch (Exception e) {
+            log.warn("Search cache write failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Invalidate all cached search results. Inside a transaction the bump waits for commit,
+     * so a concurrent search cannot re-cache the pre-commit state under the new generation.
+     */
+    public void bumpGeneration() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incrementGeneration();
+                }
+            });
+        } else {
+            incrementGeneration();
+        }
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Lowercase, Unicode-normalize and collapse whitespace so equivalent queries share a key
+     */
+    public static String normalizeText(String text) {
+        if (text == null) {
+            return null;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        return WHITESPACE.matcher(normalized.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    long ttlSeconds(int frequency) {
+        long ttl = minTtlSeconds * Math.max(1, frequency);
+        return Math.max(minTtlSeconds, Math.min(maxTtlSeconds, ttl));
+    }
+
+    long currentGeneration() {
+        long now = System.currentTimeMillis();
+        if (now - generationCheckedAt >= generationCheckMs) {
+            try {
+                Object stored = redisUtil.get(GENERATION_KEY);
+                generation = stored instanceof Number number ? number.longValue() : 0L;
+            } catch (Exception e) {
+                // Keep using the last known generation while Redis is unavailable
+                log.warn("Failed to read search cache generation: {}", e.getMessage());
+            }
+            generationCheckedAt = now;
+        }
+        return generation;
+    }
+
+    private void incrementGeneration() {
+        try {
+            Long next = redisUtil.increment(GENERATION_KEY);
+            if (next != null) {
+                generation = next;
+                generationCheckedAt = System.currentTimeMillis();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to bump search cache generation: {}", e.getMessage());
+        }
+    }
+
+    private void record(String scope, boolean hit) {
+        (hit ? hits : misses).incrementAndGet();
+        String result = hit ? "hit" : "miss";
+        requestCounters.computeIfAbsent(scope + ":" + result, name -> Counter.builder("search.cache.requests")
+                .description("Search result cache lookups")
+                .tag("scope", scope)
+                .tag("result", result)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    private static String canonicalValue(Object value) {
+        if (value instanceof Object[] array) {
+            return Arrays.stream(array)
+                    .map(String::valueOf)
+                    .sorted()
+                    .toList()
+                    .toString();
+        }
+        if (value instanceof Date date) {
+            return String.valueOf(date.getTime());
+        }
+        return String.valueOf(value);
+    }
+
+    private static byte[] sha256(String input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Redis key of a search plus the fingerprint used for popularity tracking
+     */
+    public record CacheKey(String scope, String redisKey, long fingerprint) {
+    }
+}
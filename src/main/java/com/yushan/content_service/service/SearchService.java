@@ -6,12 +6,25 @@ import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
 import com.yushan.content_service.dto.chapter.ChapterSummaryDTO;
 import com.yushan.content_service.dto.chapter.ChapterSearchRequestDTO;
 import com.yushan.content_service.dto.search.CombinedSearchResponseDTO;
+import com.yushan.content_service.enums.SearchRankingMode;
+import com.yushan.content_service.exception.ValidationException;
 import com.yushan.content_service.util.RedisUtil;
+import com.yushan.content_service.util.SearchCursorUtil;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service for handling search operations.
@@ -29,117 +42,161 @@ public class SearchService {
     @Autowired
     private RedisUtil redisUtil;
 
+    @Autowired
+    private SearchCacheService searchCacheService;
+
     @Autowired(required = false)
     private ElasticsearchSearchService elasticsearchSearchService;
 
+    @Autowired(required = false)
+    private LuceneSearchService luceneSearchService;
+
+    @Value("${search.combined.timeout-ms:2000}")
+    private long combinedSearchTimeoutMs = 2000;
+
+    // Ranking mode used by each endpoint when the request does not pick one; popularity is opt-in
+    @Value("${search.ranking.novels-default:text}")
+    private String novelSearchRanking = "text";
+
+    @Value("${search.ranking.combined-default:text}")
+    private String combinedSearchRanking = "text";
+
     private static final String SEARCH_SUGGESTIONS_PREFIX = "search_suggestions:";
 
+    // Search branches mostly wait on I/O, so each one gets its own virtual thread
+    private final ExecutorService searchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    public void shutdownSearchExecutor() {
+        searchExecutor.shutdownNow();
+    }
+
     /**
-     * Combined search across novels and chapters
+     * Combined search across novels and chapters.
+     * Both branches run as separate concurrent searches, each awaited against one deadline;
+     * a branch that misses it or fails is dropped, named in branchErrors and the response is
+     * flagged as partial, while the other branch's results are still returned.
      */
     public CombinedSearchResponseDTO combinedSearch(String query, int page, int size, 
                                                    String type, Integer categoryId, 
                                                    String status, String authorId) {
-        long startTime = System.currentTimeMillis();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(combinedSearchTimeoutMs);
         
         // Check cache first
-        String cacheKey = generateCombinedSearchCacheKey(query, page, size, type, categoryId, status, authorId);
-        CombinedSearchResponseDTO cachedResult = redisUtil.get(cacheKey, CombinedSearchResponseDTO.class);
+        SearchCacheService.CacheKey cacheKey = searchCacheService.keyFor("combined",
+            combinedSearchCacheParams(query, page, size, type, categoryId, status, authorId, combinedSearchRanking));
+        CombinedSearchResponseDTO cachedResult = searchCacheService.get(cacheKey, CombinedSearchResponseDTO.class);
         if (cachedResult != null) {
             return cachedResult;
         }
 
+        boolean includeNovels = "all".equals(type) || "novels".equals(type);
+        boolean includeChapters = "all".equals(type) || "chapters".equals(type);
+        NovelSearchRequestDTO novelRequest = new NovelSearchRequestDTO(
+            page, size, "relevance", "desc", categoryId, status, null, query, null, authorId
+        );
+        novelRequest.setRanking(combinedSearchRanking);
+        ChapterSearchRequestDTO chapterRequest = new ChapterSearchRequestDTO(
+            null, null, query, null, null, true, page + 1, size, "relevance", "desc"
+        );
+
+        // Separate requests rather than one _msearch: a single round trip only returns once
+        // both searches finish, so one slow index would hold back the other branch's results
+        Future<BranchResult<PageResponseDTO<NovelDetailResponseDTO>>> novelFuture =
+            includeNovels ? submitBranch(() -> searchNovelBranch(novelRequest)) : null;
+        Future<BranchResult<PageResponseDTO<ChapterSummaryDTO>>> chapterFuture =
+            includeChapters ? submitBranch(() -> searchChapterBranch(chapterRequest)) : null;
+
+        BranchResult<PageResponseDTO<NovelDetailResponseDTO>> novelResult = awaitBranch(novelFuture, deadline);
+        BranchResult<PageResponseDTO<ChapterSummaryDTO>> chapterResult = awaitBranch(chapterFuture, deadline);
+
         PageResponseDTO<NovelDetailResponseDTO> novels = null;
         PageResponseDTO<ChapterSummaryDTO> chapters = null;
         long totalResults = 0;
-
-        // Search novels if type is "all" or "novels"
-        if ("all".equals(type) || "novels".equals(type)) {
-            NovelSearchRequestDTO novelRequest = new NovelSearchRequestDTO(
-                page, size, "relevance", "desc", categoryId, status, null, query, null, authorId
-            );
-            novels = novelService.listNovelsWithPagination(novelRequest);
-            totalResults += novels.getTotalElements();
+        long searchTime = 0;
+        Map<String, String> branchErrors = new LinkedHashMap<>();
+
+        if (novelResult != null) {
+            if (novelResult.isCompleted()) {
+                novels = novelResult.getValue();
+                totalResults += novels.getTotalElements();
+                searchTime = Math.max(searchTime, novelResult.getElapsedMs());
+            } else {
+                branchErrors.put("novels", novelResult.getError());
+            }
         }
 
-        // Search chapters if type is "all" or "chapters"
-        if ("all".equals(type) || "chapters".equals(type)) {
-            ChapterSearchRequestDTO chapterRequest = new ChapterSearchRequestDTO(
-                null, null, query, null, null, true, page + 1, size, "relevance", "desc"
-            );
-            chapters = chapterService.searchChapters(chapterRequest);
-            totalResults += chapters.getTotalElements();
+        if (chapterResult != null) {
+            if (chapterResult.isCompleted()) {
+                chapters = chapterResult.getValue();
+                totalResults += chapters.getTotalElements();
+                searchTime = Math.max(searchTime, chapterResult.getElapsedMs());
+            } else {
+                branchErrors.put("chapters", chapterResult.getError());
+            }
         }
 
-        long searchTime = System.currentTimeMillis() - startTime;
-        
         CombinedSearchResponseDTO result = new CombinedSearchResponseDTO(
             novels, chapters, totalResults, query, searchTime
         );
+        result.setPartial(!branchErrors.isEmpty());
+        result.setBranchErrors(branchErrors.isEmpty() ? null : branchErrors);
 
-        // Cache the result
-        redisUtil.set(cacheKey, result, 10 * 60); // 10 minutes cache
-
+        // Partial results are not cached so the next request gets a full answer
+        if (branchErrors.isEmpty()) {
+            searchCacheService.put(cacheKey, result);
+        }
 
         return result;
     }
 
     /**
      * Search novels with advanced filtering
-     * Uses Elasticsearch if available, falls back to MyBatis
+     * Uses Elasticsearch if available, then the embedded index, falls back to MyBatis
      */
     public PageResponseDTO<NovelDetailResponseDTO> searchNovels(NovelSearchRequestDTO request) {
+        validateCursor(request.getCursor());
+        if (!StringUtils.hasText(request.getRanking())) {
+            request.setRanking(novelSearchRanking);
+        }
+        // Reject unknown modes here; a failure inside the Elasticsearch branch would fall back silently
+        SearchRankingMode.fromName(request.getRanking());
+
         // Check cache first
-        String cacheKey = generateNovelSearchCacheKey(request);
+        SearchCacheService.CacheKey cacheKey = searchCacheService.keyFor("novels", novelSearchCacheParams(request));
         @SuppressWarnings("unchecked")
-        PageResponseDTO<NovelDetailResponseDTO> cachedResult = redisUtil.get(cacheKey, PageResponseDTO.class);
+        PageResponseDTO<NovelDetailResponseDTO> cachedResult = searchCacheService.get(cacheKey, PageResponseDTO.class);
         if (cachedResult != null) {
             return cachedResult;
         }
 
-        PageResponseDTO<NovelDetailResponseDTO> result;
-        
-        try {
-            // Try Elasticsearch first
-            result = elasticsearchSearchService.searchNovels(request);
-        } catch (Exception e) {
-            // Fall back to MyBatis if Elasticsearch is not available
-            result = novelService.listNovelsWithPagination(request);
-        }
+        PageResponseDTO<NovelDetailResponseDTO> result = searchNovelBranch(request);
 
         // Cache the result
-        redisUtil.set(cacheKey, result, 5 * 60); // 5 minutes cache
-
+        searchCacheService.put(cacheKey, result);
 
         return result;
     }
 
     /**
      * Search chapters with advanced filtering
-     * Uses Elasticsearch if available, falls back to MyBatis
+     * Uses Elasticsearch if available, then the embedded index, falls back to MyBatis
      */
     public PageResponseDTO<ChapterSummaryDTO> searchChapters(ChapterSearchRequestDTO request) {
+        validateCursor(request.getCursor());
+
         // Check cache first
-        String cacheKey = generateChapterSearchCacheKey(request);
+        SearchCacheService.CacheKey cacheKey = searchCacheService.keyFor("chapters", chapterSearchCacheParams(request));
         @SuppressWarnings("unchecked")
-        PageResponseDTO<ChapterSummaryDTO> cachedResult = redisUtil.get(cacheKey, PageResponseDTO.class);
+        PageResponseDTO<ChapterSummaryDTO> cachedResult = searchCacheService.get(cacheKey, PageResponseDTO.class);
         if (cachedResult != null) {
             return cachedResult;
         }
 
-        PageResponseDTO<ChapterSummaryDTO> result;
-        
-        try {
-            // Try Elasticsearch first
-            result = elasticsearchSearchService.searchChapters(request);
-        } catch (Exception e) {
-            // Fall back to MyBatis if Elasticsearch is not available
-            result = chapterService.searchChapters(request);
-        }
+        PageResponseDTO<ChapterSummaryDTO> result = searchChapterBranch(request);
 
         // Cache the result
-        redisUtil.set(cacheKey, result, 5 * 60); // 5 minutes cache
-
+        searchCacheService.put(cacheKey, result);
 
         return result;
     }
@@ -179,28 +236,190 @@ public class SearchService {
 
     // Private helper methods
 
+    /**
+     * Reject malformed cursors up front instead of silently falling back to the database path
+     */
+    private void validateCursor(String cursor) {
+        if (StringUtils.hasText(cursor)) {
+            SearchCursorUtil.decode(cursor);
+        }
+    }
+
+    private PageResponseDTO<NovelDetailResponseDTO> searchNovelBranch(NovelSearchRequestDTO request) {
+        if (elasticsearchSearchService != null) {
+            try {
+                return elasticsearchSearchService.searchNovels(request);
+            } catch (Exception e) {
+                stopIfCancelled(e);
+                // Fall back to MyBatis if Elasticsearch is not available
+            }
+        }
+        if (luceneSearchService != null) {
+            try {
+                return luceneSearchService.searchNovels(request);
+            } catch (ValidationException e) {
+                throw e;
+            } catch (Exception e) {
+                stopIfCancelled(e);
+                // Fall back to MyBatis if the embedded index is not available
+            }
+        }
+        return novelService.listNovelsWithPagination(request);
+    }
+
+    private PageResponseDTO<ChapterSummaryDTO> searchChapterBranch(ChapterSearchRequestDTO request) {
+        if (elasticsearchSearchService != null) {
+            try {
+                return elasticsearchSearchService.searchChapters(request);
+            } catch (Exception e) {
+                stopIfCancelled(e);
+                // Fall back to MyBatis if Elasticsearch is not available
+            }
+        }
+        if (luceneSearchService != null) {
+            try {
+                return luceneSearchService.searchChapters(request);
+            } catch (ValidationException e) {
+                throw e;
+            } catch (Exception e) {
+                stopIfCancelled(e);
+                // Fall back to MyBatis if the embedded index is not available
+            }
+        }
+        return chapterService.searchChapters(request);
+    }
+
+    /**
+     * A branch cancelled at the deadline must not go on to the slower fallbacks
+     */
+    private void stopIfCancelled(Exception e) {
+        if (e instanceof InterruptedException || Thread.currentThread().isInterrupted()) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Search branch cancelled");
+        }
+    }
+
+    private <T> Future<BranchResult<T>> submitBranch(Callable<T> branch) {
+        return searchExecutor.submit(() -> {
+            long start = System.nanoTime();
+            T value = branch.call();
+            return BranchResult.success(value, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Wait for a branch until the shared deadline; returns null when the branch was not started
+     */
+    private <T> BranchResult<T> awaitBranch(Future<BranchResult<T>> future, long deadlineNanos) {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get(Math.max(0L, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return BranchResult.failed("timeout");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return BranchResult.failed("interrupted");
+        } catch (ExecutionException e) {
+            return BranchResult.failed("error");
+        }
+    }
+
+    /**
+     * Outcome of one search branch and how long it took
+     */
+    private static final class BranchResult<T> {
+        private final T value;
+        private final long elapsedMs;
+        private final String error;
+
+        private BranchResult(T value, long elapsedMs, String error) {
+            this.value = value;
+            this.elapsedMs = elapsedMs;
+            this.error = error;
+        }
+
+        static <T> BranchResult<T> success(T value, long elapsedMs) {
+            return new BranchResult<>(value, elapsedMs, null);
+        }
+
+        static <T> BranchResult<T> failed(String error) {
+            return new BranchResult<>(null, 0L, error);
+        }
+
+        T getValue() { return value; }
+        long getElapsedMs() { return elapsedMs; }
+        boolean isCompleted() { return error == null; }
+        String getError() { return error; }
+    }
+
     private List<String> getSimpleSearchSuggestions(String query, int limit) {
         // Simple fallback suggestions
         return Collections.emptyList();
     }
 
 
-    private String generateCombinedSearchCacheKey(String query, int page, int size, String type, 
-                                                Integer categoryId, String status, String authorId) {
-        return String.format("combined_search:%s:%d:%d:%s:%s:%s:%s", 
-                           query, page, size, type, categoryId, status, authorId);
+    private Map<String, Object> combinedSearchCacheParams(String query, int page, int size, String type,
+                                                          Integer categoryId, String status, String authorId,
+                                                          String ranking) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("query", query);
+        params.put("page", page);
+        params.put("size", size);
+        params.put("type", type);
+        params.put("categoryId", categoryId);
+        params.put("status", status);
+        params.put("authorId", authorId);
+        params.put("ranking", ranking);
+        return params;
     }
 
-    private String generateNovelSearchCacheKey(NovelSearchRequestDTO request) {
-        return String.format("novel_search:%s:%d:%d:%s:%s:%s:%s:%s", 
-                           request.getSearch(), request.getPage(), request.getSize(),
-                           request.getSort(), request.getOrder(), request.getCategoryId(),
-                           request.getStatus(), request.getAuthorId());
+    private Map<String, Object> novelSearchCacheParams(NovelSearchRequestDTO request) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("search", request.getSearch());
+        params.put("page", request.getPage());
+        params.put("size", request.getSize());
+        params.put("sort", request.getSort());
+        params.put("order", request.getOrder());
+        params.put("categoryId", request.getCategoryId());
+        params.put("status", request.getStatus());
+        params.put("isCompleted", request.getIsCompleted());
+        params.put("authorName", request.getAuthorName());
+        params.put("authorId", request.getAuthorId());
+        params.put("minRating", request.getMinRating());
+        params.put("maxRating", request.getMaxRating());
+        params.put("minWordCount", request.getMinWordCount());
+        params.put("maxWordCount", request.getMaxWordCount());
+        params.put("minChapterCount", request.getMinChapterCount());
+        params.put("maxChapterCount", request.getMaxChapterCount());
+        params.put("tags", request.getTags());
+        params.put("genres", request.getGenres());
+        params.put("language", request.getLanguage());
+        params.put("contentRating", request.getContentRating());
+        params.put("isPremium", request.getIsPremium());
+        params.put("publishedAfter", request.getPublishedAfter());
+        params.put("publishedBefore", request.getPublishedBefore());
+        params.put("ranking", request.getRanking());
+        params.put(SearchCacheService.CURSOR_PARAM, request.getCursor());
+        return params;
     }
 
-    private String generateChapterSearchCacheKey(ChapterSearchRequestDTO request) {
-        return String.format("chapter_search:%s:%d:%d:%s:%s", 
-                           request.getTitleKeyword(), request.getPage(), request.getPageSize(),
-                           request.getNovelId(), request.getIsPremium());
+    private Map<String, Object> chapterSearchCacheParams(ChapterSearchRequestDTO request) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("titleKeyword", request.getTitleKeyword());
+        params.put("novelId", request.getNovelId());
+        params.put("chapterNumber", request.getChapterNumber());
+        params.put("isPremium", request.getIsPremium());
+        params.put("isValid", request.getIsValid());
+        params.put("publishedOnly", request.getPublishedOnly());
+        params.put("page", request.getPage());
+        params.put("pageSize", request.getPageSize());
+        params.put("sortBy", request.getSortBy());
+        params.put("sortOrder", request.getSortOrder());
+        params.put(SearchCacheService.CURSOR_PARAM, request.getCursor());
+        return params;
     }
 }
@@ -0,0 +1,191 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dao.StorageDeletionMapper;
+import com.yushan.content_service.entity.StorageDeletion;
+import com.yushan.content_service.repository.NovelRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background housekeeping of stored images.
+ *
+ * Images a change stops using are queued in storage_deletions in the same transaction as the
+ * change, so requests never wait on storage and a rolled back change deletes nothing. A worker
+ * drains the queue in batches: it locks due rows (SKIP LOCKED, so instances share the work),
+ * keeps images a novel uses again, and deletes the rest with one multi-object request per
+ * batch. Failed batches are retried with exponential delays.
+ *
+ * Covers that are stored but never attached (aborted submissions, uploads never used) are
+ * found by a scheduled sweep that pages through storage, checks each page against
+ * novel.cover_img_url and queues the covers no novel uses. Covers stored within the grace
+ * period are left alone, as they may be about to be attached.
+ */
+@Slf4j
+@Service
+public class StorageCleanupService {
+
+    @Autowired
+    private StorageDeletionMapper storageDeletionMapper;
+
+    @Autowired
+    private NovelRepository novelRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${storage.cleanup.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${storage.cleanup.max-batches-per-run:10}")
+    private int maxBatchesPerRun = 10;
+
+    @Value("${storage.cleanup.max-retry-delay-minutes:1440}")
+    private int maxRetryDelayMinutes = 1440;
+
+    @Value("${storage.orphan-sweep.page-size:1000}")
+    private int sweepPageSize = 1000;
+
+    @Value("${storage.orphan-sweep.min-age-hours:24}")
+    private long sweepMinAgeHours = 24;
+
+    private Counter deletedCounter;
+    private Counter keptCounter;
+    private Counter failedCounter;
+    private Counter orphanCounter;
+
+    @PostConstruct
+    public void init() {
+        deletedCounter = Counter.builder("storage.deletions.deleted")
+                .description("Stored images deleted")
+                .register(meterRegistry);
+        keptCounter = Counter.builder("storage.deletions.kept")
+                .description("Queued images kept because a novel uses them")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("storage.deletions.failed")
+                .description("Queued image deletes that failed and will be retried")
+                .register(meterRegistry);
+        orphanCounter = Counter.builder("storage.orphans.found")
+                .description("Stored covers no novel uses, queued by the orphan sweep")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a stored image for deletion; inside a transaction it is only queued if the transaction commits
+     */
+    public void scheduleDelete(String imageUrl) {
+        if (imageUrl == null || imageUrl.isBlank()) {
+            return;
+        }
+        storageDeletionMapper.insertBatch(List.of(imageUrl));
+    }
+
+    /**
+     * Drain the queue until it is empty or the per-run batch limit is reached
+     */
+    @Scheduled(fixedDelayString = "${storage.cleanup.interval-ms:10000}")
+    public void drain() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Integer handled;
+            try {
+                handled = transactionTemplate.execute(status -> deleteBatch());
+            } catch (Exception e) {
+                log.error("Storage cleanup failed, will retry: {}", e.getMessage());
+                return;
+            }
+            if (handled == null || handled < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Handle one batch of due deletions; must run in a transaction so the rows stay locked
+     *
+     * @return number of rows handled, or 0 if the batch failed
+     */
+    int deleteBatch() {
+        List<StorageDeletion> due = storageDeletionMapper.claimDue(batchSize);
+        if (due.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(due.size());
+        Set<String> imageUrls = new LinkedHashSet<>();
+        for (StorageDeletion deletion : due) {
+            ids.add(deletion.getId());
+            imageUrls.add(deletion.getImageUrl());
+        }
+
+        // Checked now rather than when queued: another novel may have attached the image since
+        Set<String> referenced = new HashSet<>(novelRepository.findReferencedCoverImgUrls(imageUrls));
+        List<String> unused = imageUrls.stream().filter(url -> !referenced.contains(url)).toList();
+        try {
+            if (!unused.isEmpty()) {
+                fileStorageService.deleteImages(unused);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to delete {} stored images, will retry: {}", unused.size(), e.getMessage());
+            storageDeletionMapper.markFailed(ids, e.getMessage(), maxRetryDelayMinutes);
+            failedCounter.increment(unused.size());
+            return 0;
+        }
+        storageDeletionMapper.deleteByIds(ids);
+        deletedCounter.increment(unused.size());
+        keptCounter.increment(referenced.size());
+        return due.size();
+    }
+
+    /**
+     * Queue stored covers that no novel uses
+     */
+    @Scheduled(cron = "${storage.orphan-sweep.cron:0 40 3 * * *}")
+    public void sweepOrphans() {
+        // A cover URL that storage does not recognise means novels and storage disagree on
+        // the URL format (e.g. a changed base URL); every cover would look orphaned
+        String sample = novelRepository.findAnyCoverImgUrl();
+        if (sample != null && !fileStorageService.imageExists(sample)) {
+            log.error("Skipping orphan sweep: cover {} of a novel is not in storage", sample);
+            return;
+        }
+
+        Instant storedBefore = Instant.now().minus(Duration.ofHours(sweepMinAgeHours));
+        AtomicLong scanned = new AtomicLong();
+        AtomicLong orphaned = new AtomicLong();
+        try {
+            fileStorageService.scanImages(storedBefore, sweepPageSize, page -> {
+                Set<String> referenced = new HashSet<>(novelRepository.findReferencedCoverImgUrls(page));
+                List<String> orphans = page.stream().filter(url -> !referenced.contains(url)).toList();
+                if (!orphans.isEmpty()) {
+                    storageDeletionMapper.insertBatch(orphans);
+                }
+                scanned.addAndGet(page.size());
+                orphaned.addAndGet(orphans.size());
+            });
+        } catch (Exception e) {
+            log.error("Orphan sweep failed after {} covers: {}", scanned.get(), e.getMessage());
+        }
+        orphanCounter.increment(orphaned.get());
+        log.info("Orphan sweep checked {} covers, queued {} for deletion", scanned.get(), orphaned.get());
+    }
+}
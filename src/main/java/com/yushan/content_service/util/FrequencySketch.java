@@ -0,0 +1,77 @@
+package com.yushan.content_service.util;
+
+/**
+ * Approximate per-key hit counter (count-min sketch) with a fixed memory footprint.
+ * All counters are halved once enough increments have been recorded, so popularity
+ * reflects recent traffic rather than the whole lifetime of the process.
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final int[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param width      counters per row, rounded up to a power of two
+     * @param sampleSize increments after which all counters are halved
+     */
+    public FrequencySketch(int width, int sampleSize) {
+        if (width <= 0 || sampleSize <= 0) {
+            throw new IllegalArgumentException("width and sampleSize must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(2, width) - 1) << 1;
+        this.table = new int[DEPTH][size];
+        this.mask = size - 1;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Record one occurrence of the key and return its estimated frequency including it
+     */
+    public synchronized int increment(long key) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(key, row);
+            if (table[row][index] < Integer.MAX_VALUE) {
+                table[row][index]++;
+            }
+            estimate = Math.min(estimate, table[row][index]);
+        }
+        if (++additions >= sampleSize) {
+            reset();
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimated frequency of the key without recording it
+     */
+    public synchronized int frequency(long key) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, table[row][indexOf(key, row)]);
+        }
+        return estimate;
+    }
+
+    private void reset() {
+        for (int[] row : table) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+        additions = 0;
+    }
+
+    private int indexOf(long key, int row) {
+        long hash = (key + SEEDS[row]) * SEEDS[row];
+        hash ^= hash >>> 32;
+        return (int) hash & mask;
+    }
+}
@@ -0,0 +1,232 @@
+package com.yushan.content_service.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Verifies gateway HMAC-SHA256 signatures over userId|email|role|timestamp for one secret.
+ *
+ * Built for the request path: each thread keeps a Mac already keyed with the secret and its
+ * own scratch buffers, the message is encoded straight into bytes and the Base64 signature
+ * is decoded into bytes, so a verification allocates nothing. Signatures are compared as bytes
+ * in constant time. Verified headers are remembered in a small fixed-size table for a short
+ * time, so the same gateway headers seen again skip the HMAC; the timestamp tolerance is
+ * still checked on every call.
+ */
+public class HmacSignatureVerifier {
+
+    static final String HMAC_ALGORITHM = "HmacSHA256";
+    static final long TIMESTAMP_TOLERANCE_MS = 5 * 60 * 1000; // 5 minutes
+
+    private static final int MAC_LENGTH = 32;
+    // Base64 of 32 bytes: 43 characters and one '=' of padding
+    private static final int SIGNATURE_LENGTH = 44;
+    private static final byte[] BASE64_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(BASE64_VALUES, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final long cacheTtlMs;
+    private final AtomicReferenceArray<Verified> verified;
+    private final int mask;
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * @param secret     shared secret key
+     * @param cacheSize  slots for verified headers, rounded up to a power of two; 0 disables the cache
+     * @param cacheTtlMs how long verified headers are remembered
+     */
+    public HmacSignatureVerifier(String secret, int cacheSize, long cacheTtlMs) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalArgumentException("secret must not be empty");
+        }
+        if (cacheSize < 0 || cacheTtlMs < 0) {
+            throw new IllegalArgumentException("cacheSize and cacheTtlMs must not be negative");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.cacheTtlMs = cacheTtlMs;
+        int slots = cacheSize == 0 ? 0 : Integer.highestOneBit(Math.max(2, cacheSize) - 1) << 1;
+        this.verified = new AtomicReferenceArray<>(slots);
+        this.mask = slots - 1;
+        // Fail at startup rather than on the first request if the algorithm or key is unusable
+        newMac();
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(newMac()));
+    }
+
+    /**
+     * Verify a gateway signature
+     *
+     * @param userId User ID
+     * @param email User email
+     * @param role User role, signed as USER when null
+     * @param timestamp Request timestamp (milliseconds)
+     * @param signature Base64-encoded signature to verify
+     * @return true if the signature is valid and the timestamp within tolerance
+     */
+    public boolean verify(String userId, String email, String role, long timestamp, String signature) {
+        long now = System.currentTimeMillis();
+        // Reject replays: the timestamp must be within the tolerance in either direction
+        if (Math.abs(now - timestamp) > TIMESTAMP_TOLERANCE_MS || userId == null || email == null) {
+            return false;
+        }
+        String signedRole = role != null ? role : "USER";
+        Scratch buffers = scratch.get();
+        if (!decodeSignature(signature, buffers.provided)) {
+            return false;
+        }
+
+        int slot = -1;
+        if (mask >= 0) {
+            // Indexed by the signed fields only, so the slot reveals nothing about signatures
+            slot = (31 * (31 * userId.hashCode() + email.hashCode()) + Long.hashCode(timestamp)) & mask;
+            Verified entry = verified.get(slot);
+            if (entry != null && now < entry.expiresAt() && entry.timestamp() == timestamp
+                    && entry.userId().equals(userId) && entry.email().equals(email)
+                    && entry.role().equals(signedRole) && MessageDigest.isEqual(entry.mac(), buffers.provided)) {
+                return true;
+            }
+        }
+
+        try {
+            int length = buffers.encode(userId, email, signedRole, timestamp);
+            buffers.mac.update(buffers.message, 0, length);
+            buffers.mac.doFinal(buffers.expected, 0);
+        } catch (GeneralSecurityException | IllegalStateException e) {
+            buffers.mac.reset();
+            return false;
+        }
+        if (!MessageDigest.isEqual(buffers.expected, buffers.provided)) {
+            return false;
+        }
+        if (slot >= 0) {
+            long expiresAt = Math.min(now + cacheTtlMs, timestamp + TIMESTAMP_TOLERANCE_MS);
+            verified.set(slot, new Verified(userId, email, signedRole, timestamp,
+                    buffers.expected.clone(), expiresAt));
+        }
+        return true;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + HMAC_ALGORITHM, e);
+        }
+    }
+
+    /**
+     * Decode a canonical Base64 HMAC-SHA256 signature
+     *
+     * @return false if the signature is not the canonical encoding of 32 bytes
+     */
+    static boolean decodeSignature(String signature, byte[] out) {
+        if (signature == null || signature.length() != SIGNATURE_LENGTH
+                || signature.charAt(SIGNATURE_LENGTH - 1) != '=') {
+            return false;
+        }
+        int bits = 0;
+        int bitCount = 0;
+        int written = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH - 1; i++) {
+            char c = signature.charAt(i);
+            int value = c < 128 ? BASE64_VALUES[c] : -1;
+            if (value < 0) {
+                return false;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[written++] = (byte) (bits >> bitCount);
+                bits &= (1 << bitCount) - 1;
+            }
+        }
+        // The two bits left over must be zero, as in the encoder's output
+        return written == MAC_LENGTH && bits == 0;
+    }
+
+    /**
+     * Per-thread Mac and buffers
+     */
+    private static final class Scratch {
+
+        private final Mac mac;
+        private final byte[] expected = new byte[MAC_LENGTH];
+        private final byte[] provided = new byte[MAC_LENGTH];
+        private byte[] message = new byte[256];
+
+        private Scratch(Mac mac) {
+            this.mac = mac;
+        }
+
+        /**
+         * Encode userId|email|role|timestamp as UTF-8 into the message buffer
+         *
+         * @return number of bytes written
+         */
+        private int encode(String userId, String email, String role, long timestamp) {
+            int length = put(userId, 0);
+            message[length++] = '|';
+            length = put(email, length);
+            message[length++] = '|';
+            length = put(role, length);
+            message[length++] = '|';
+            // Timestamps within the tolerance are positive, so only digits are written
+            ensureCapacity(length + 19);
+            int start = length;
+            do {
+                message[length++] = (byte) ('0' + timestamp % 10);
+                timestamp /= 10;
+            } while (timestamp > 0);
+            reverse(start, length - 1);
+            return length;
+        }
+
+        private int put(String value, int offset) {
+            // Room for the value plus the separator that follows it
+            ensureCapacity(offset + value.length() + 1);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    // Rare non-ASCII value: let the JDK encode it
+                    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                    ensureCapacity(offset + utf8.length + 1);
+                    System.arraycopy(utf8, 0, message, offset, utf8.length);
+                    return offset + utf8.length;
+                }
+                message[offset + i] = (byte) c;
+            }
+            return offset + value.length();
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > message.length) {
+                message = Arrays.copyOf(message, Math.max(capacity, message.length * 2));
+            }
+        }
+
+        private void reverse(int from, int to) {
+            while (from < to) {
+                byte b = message[from];
+                message[from++] = message[to];
+                message[to--] = b;
+            }
+        }
+    }
+
+    private record Verified(String userId, String email, String role, long timestamp, byte[] mac, long expiresAt) {
+    }
+}
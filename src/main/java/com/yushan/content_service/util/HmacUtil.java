@@ -1,26 +1,20 @@
 package com.yushan.content_service.util;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
-
 /**
  * HMAC Utility for verifying gateway-validated requests
- * 
+ *
  * This utility verifies HMAC signatures to ensure requests
  * are actually from the API Gateway and not forged by attackers.
+ * The request path uses a long-lived {@link HmacSignatureVerifier} directly;
+ * this static entry point reuses one for the most recently used secret.
  */
 public class HmacUtil {
 
-    private static final String HMAC_ALGORITHM = "HmacSHA256";
-    private static final long TIMESTAMP_TOLERANCE_MS = 5 * 60 * 1000; // 5 minutes
+    private static volatile KeyedVerifier lastVerifier;
 
     /**
      * Verify HMAC signature from gateway
-     * 
+     *
      * @param userId User ID
      * @param email User email
      * @param role User role
@@ -29,75 +23,21 @@ public class HmacUtil {
      * @param secret Shared secret key
      * @return true if signature is valid, false otherwise
      */
-    public static boolean verifySignature(String userId, String email, String role, long timestamp, 
+    public static boolean verifySignature(String userId, String email, String role, long timestamp,
                                           String signature, String secret) {
         try {
-            // Check timestamp to prevent replay attacks (allow 5 minutes tolerance)
-            long currentTime = System.currentTimeMillis();
-            long timeDiff = Math.abs(currentTime - timestamp);
-            if (timeDiff > TIMESTAMP_TOLERANCE_MS) {
-                return false; // Timestamp too old or too far in future
+            KeyedVerifier keyed = lastVerifier;
+            if (keyed == null || !keyed.secret().equals(secret)) {
+                // No verified-signature cache here: callers may pass any secret
+                keyed = new KeyedVerifier(secret, new HmacSignatureVerifier(secret, 0, 0));
+                lastVerifier = keyed;
             }
-
-            // Generate expected signature
-            String expectedSignature = generateSignature(userId, email, role, timestamp, secret);
-            
-            // Use constant-time comparison to prevent timing attacks
-            return constantTimeEquals(expectedSignature, signature);
+            return keyed.verifier().verify(userId, email, role, timestamp, signature);
         } catch (Exception e) {
             return false;
         }
     }
 
-    /**
-     * Generate HMAC signature (for verification)
-     * 
-     * @param userId User ID
-     * @param email User email
-     * @param role User role
-     * @param timestamp Request timestamp
-     * @param secret Shared secret key
-     * @return Base64-encoded HMAC signature
-     * @throws NoSuchAlgorithmException if HMAC algorithm not available
-     * @throws InvalidKeyException if secret key is invalid
-     */
-    private static String generateSignature(String userId, String email, String role, long timestamp, String secret) 
-            throws NoSuchAlgorithmException, InvalidKeyException {
-        
-        // Create message to sign: userId|email|role|timestamp
-        String message = String.format("%s|%s|%s|%d", userId, email, role != null ? role : "USER", timestamp);
-        
-        // Generate HMAC
-        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
-        SecretKeySpec secretKeySpec = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
-        mac.init(secretKeySpec);
-        
-        byte[] hmacBytes = mac.doFinal(message.getBytes(StandardCharsets.UTF_8));
-        
-        // Return Base64-encoded signature
-        return Base64.getEncoder().encodeToString(hmacBytes);
-    }
-
-    /**
-     * Constant-time string comparison to prevent timing attacks
-     * 
-     * @param a First string
-     * @param b Second string
-     * @return true if strings are equal, false otherwise
-     */
-    private static boolean constantTimeEquals(String a, String b) {
-        if (a == null || b == null) {
-            return false;
-        }
-        if (a.length() != b.length()) {
-            return false;
-        }
-        
-        int result = 0;
-        for (int i = 0; i < a.length(); i++) {
-            result |= a.charAt(i) ^ b.charAt(i);
-        }
-        return result == 0;
+    private record KeyedVerifier(String secret, HmacSignatureVerifier verifier) {
     }
 }
-
@@ -0,0 +1,54 @@
+package com.yushan.content_service.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits long text into passages of a bounded length for passage-level search.
+ * Cuts fall on whitespace where possible; text without whitespace (e.g. CJK) is cut at the limit.
+ */
+public class PassageSplitter {
+
+    private PassageSplitter() {
+    }
+
+    /**
+     * A passage and the character offset where it starts in the source text
+     */
+    public record Passage(int index, int offset, String text) {
+    }
+
+    public static List<Passage> split(String text, int maxLength) {
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("maxLength must be positive");
+        }
+        List<Passage> passages = new ArrayList<>();
+        if (text == null) {
+            return passages;
+        }
+        int length = text.length();
+        int start = 0;
+        while (start < length) {
+            while (start < length && Character.isWhitespace(text.charAt(start))) {
+                start++;
+            }
+            if (start >= length) {
+                break;
+            }
+            int end = Math.min(start + maxLength, length);
+            if (end < length) {
+                int boundary = end;
+                while (boundary > start && !Character.isWhitespace(text.charAt(boundary))) {
+                    boundary--;
+                }
+                // A run longer than the passage has no boundary to cut on
+                if (boundary > start) {
+                    end = boundary;
+                }
+            }
+            passages.add(new Passage(passages.size(), start, text.substring(start, end).stripTrailing()));
+            start = end;
+        }
+        return passages;
+    }
+}
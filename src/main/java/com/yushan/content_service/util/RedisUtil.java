@@ -2,10 +2,18 @@ package com.yushan.content_service.util;
 
 import com.yushan.content_service.dto.common.PageResponseDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -68,6 +76,52 @@ public class RedisUtil {
         return null;
     }
 
+    /**
+     * Get the values of several keys with one MGET; missing keys map to null
+     */
+    public List<Object> multiGet(List<String> keys) {
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+        return values != null ? values : new ArrayList<>(Collections.nCopies(keys.size(), null));
+    }
+
+    /**
+     * Set the same value with TTL on several keys in one pipelined round trip
+     */
+    public void setAll(Collection<String> keys, Object value, Duration ttl) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String key : keys) {
+                    ops.opsForValue().set(key, value, ttl);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Set several key-value pairs with TTL in one pipelined round trip
+     */
+    public void setAll(Map<String, ?> values, Duration ttl) {
+        if (values.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                values.forEach((key, value) -> ops.opsForValue().set(key, value, ttl));
+                return null;
+            }
+        });
+    }
+
     /**
      * Delete key
      */
@@ -388,8 +442,27 @@ public class RedisUtil {
         deleteNovelCache(novelId);
         deleteViewCountCache(novelId);
         invalidateChapterCaches(novelId);
-        
-        // Invalidate popular caches
+        invalidatePopularCaches();
+    }
+
+    /**
+     * Delete the cached novels of several ids with a single DEL
+     */
+    public void deleteNovelCaches(Collection<Integer> novelIds) {
+        if (novelIds.isEmpty()) {
+            return;
+        }
+        Set<String> keys = new HashSet<>();
+        for (Integer novelId : novelIds) {
+            keys.add(NOVEL_PREFIX + novelId);
+        }
+        delete(keys);
+    }
+
+    /**
+     * Invalidate all popular caches
+     */
+    public void invalidatePopularCaches() {
         Set<String> popularKeys = keys(POPULAR_PREFIX + "*");
         if (!popularKeys.isEmpty()) {
             delete(popularKeys);
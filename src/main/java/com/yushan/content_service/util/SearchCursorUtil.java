@@ -0,0 +1,58 @@
+package com.yushan.content_service.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.content_service.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encodes Elasticsearch search_after sort values as opaque cursors.
+ *
+ * Clients only pass the cursor back; its content is the sort values of the
+ * last hit of the previous page, serialized as JSON and Base64URL encoded.
+ */
+public class SearchCursorUtil {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private SearchCursorUtil() {
+    }
+
+    /**
+     * Encode sort values of the last hit into a cursor
+     */
+    public static String encode(List<Object> sortValues) {
+        if (sortValues == null || sortValues.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] json = OBJECT_MAPPER.writeValueAsBytes(sortValues);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decode a cursor into search_after values
+     *
+     * @throws ValidationException if the cursor was not produced by {@link #encode(List)}
+     */
+    public static List<Object> decode(String cursor) {
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor);
+            List<Object> sortValues = OBJECT_MAPPER.readValue(
+                    new String(json, StandardCharsets.UTF_8), new TypeReference<List<Object>>() {});
+            if (sortValues == null || sortValues.isEmpty()) {
+                throw new ValidationException("Invalid search cursor");
+            }
+            return sortValues;
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new ValidationException("Invalid search cursor", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+-- Create outbox_events table for the transactional outbox
+-- Events are written in the same transaction as the change they describe and
+-- relayed to Kafka afterwards, so a crash after commit cannot lose them.
+-- Daily range partitions let published events be removed by dropping whole partitions.
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL,
+    aggregate_key VARCHAR(100) NOT NULL,
+    topic VARCHAR(100) NOT NULL,
+    payload_type VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Catches rows when partition maintenance has fallen behind
+CREATE TABLE IF NOT EXISTS outbox_events_default PARTITION OF outbox_events DEFAULT;
+
+-- The relay only ever reads unpublished events in id order
+CREATE INDEX IF NOT EXISTS idx_outbox_events_unpublished ON outbox_events(id) WHERE published_at IS NULL;
+
+-- Partitions for the coming week; the relay keeps creating them ahead of time
+DO $$
+DECLARE
+    day DATE;
+BEGIN
+    FOR day IN SELECT generate_series(CURRENT_DATE, CURRENT_DATE + 7, INTERVAL '1 day')::DATE LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF outbox_events FOR VALUES FROM (%L) TO (%L)',
+            'outbox_events_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+    END LOOP;
+END $$;
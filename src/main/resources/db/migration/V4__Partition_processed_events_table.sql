@@ -0,0 +1,43 @@
+-- Move processed_events to daily range partitions on processed_at
+-- Retention drops whole partitions instead of running large DELETEs, and lookups that
+-- bound processed_at only touch the partitions of the retention window.
+
+ALTER TABLE processed_events RENAME TO processed_events_unpartitioned;
+ALTER INDEX IF EXISTS processed_events_pkey RENAME TO processed_events_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_processed_events_processed_at;
+DROP INDEX IF EXISTS idx_processed_events_event_type_service;
+
+-- The primary key has to include the partition key; a key is unique in practice because
+-- the service checks the retention window before inserting it
+CREATE TABLE processed_events (
+    idempotency_key VARCHAR(255) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    service_name VARCHAR(50) NOT NULL,
+    processed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    event_data TEXT,
+    PRIMARY KEY (idempotency_key, processed_at)
+) PARTITION BY RANGE (processed_at);
+
+-- Catches rows when partition maintenance has fallen behind
+CREATE TABLE IF NOT EXISTS processed_events_default PARTITION OF processed_events DEFAULT;
+
+-- Partitions for the last week (the default retention window) and the coming week;
+-- the retention manager keeps creating them ahead of time
+DO $$
+DECLARE
+    day DATE;
+BEGIN
+    FOR day IN SELECT generate_series(CURRENT_DATE - 7, CURRENT_DATE + 7, INTERVAL '1 day')::DATE LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF processed_events FOR VALUES FROM (%L) TO (%L)',
+            'processed_events_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+    END LOOP;
+END $$;
+
+-- Older rows are past retention and are not carried over
+INSERT INTO processed_events (idempotency_key, event_type, service_name, processed_at, event_data)
+SELECT idempotency_key, event_type, service_name, processed_at, event_data
+FROM processed_events_unpartitioned
+WHERE processed_at >= CURRENT_DATE - 7;
+
+DROP TABLE processed_events_unpartitioned;
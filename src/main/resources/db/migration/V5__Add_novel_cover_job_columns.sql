@@ -0,0 +1,9 @@
+-- Covers are processed by a background worker after the novel write commits.
+-- cover_status tracks the latest cover job (PENDING, READY, FAILED; NULL when none was submitted)
+-- and cover_job_id identifies it, so a slower, superseded job can never overwrite a newer cover.
+
+ALTER TABLE novel ADD COLUMN IF NOT EXISTS cover_status VARCHAR(16);
+ALTER TABLE novel ADD COLUMN IF NOT EXISTS cover_job_id UUID;
+
+COMMENT ON COLUMN novel.cover_status IS 'State of the latest cover processing job: PENDING, READY or FAILED';
+COMMENT ON COLUMN novel.cover_job_id IS 'Latest cover processing job; only that job may set cover_img_url';
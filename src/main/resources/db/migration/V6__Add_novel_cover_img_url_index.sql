@@ -0,0 +1,5 @@
+-- Covers are stored under a hash of their content, so novels submitting the same image share
+-- one stored cover. Before a replaced cover is deleted, the novels still referencing it are
+-- counted by URL; this index keeps that lookup off a full table scan.
+
+CREATE INDEX IF NOT EXISTS idx_novel_cover_img_url ON novel(cover_img_url) WHERE cover_img_url IS NOT NULL;
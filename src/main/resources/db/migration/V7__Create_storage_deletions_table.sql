@@ -0,0 +1,16 @@
+-- Queue of stored images to delete, drained in batches by StorageCleanupService.
+-- Rows are written in the same transaction as the change that stops using an image, so a
+-- rolled back change never deletes anything and a committed one is never forgotten.
+-- The worker checks again that no novel uses the image before deleting it.
+
+CREATE TABLE IF NOT EXISTS storage_deletions (
+    id BIGSERIAL PRIMARY KEY,
+    image_url VARCHAR(1000) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    not_before TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- The worker reads due rows; failed rows are pushed back with exponential delays
+CREATE INDEX IF NOT EXISTS idx_storage_deletions_due ON storage_deletions(not_before, id);
@@ -0,0 +1,9 @@
+-- Cover jobs run in memory on the instance that accepted them, so a restart loses the jobs it
+-- had queued or running. cover_job_started_at lets a periodic sweep mark PENDING jobs that are
+-- far older than any job takes as FAILED, so authors see the failure and can resubmit.
+
+ALTER TABLE novel ADD COLUMN IF NOT EXISTS cover_job_started_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_novel_cover_pending ON novel(cover_job_started_at) WHERE cover_status = 'PENDING';
+
+COMMENT ON COLUMN novel.cover_job_started_at IS 'When the latest cover job was submitted';
@@ -0,0 +1,21 @@
+-- Retry state for outbox events. When the first unpublished event of a key fails to send, the
+-- relay counts the attempt and holds the whole key back until next_attempt_at, doubling the wait
+-- each time. After outbox.relay.max-attempts failures the event is parked: the relay skips it
+-- and moves on to the later events of its key. Parked events stay unpublished, so their
+-- partition is kept until they are resolved by hand.
+
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP;
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS parked_at TIMESTAMP;
+
+-- The relay reads events that are neither published nor parked
+DROP INDEX IF EXISTS idx_outbox_events_unpublished;
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events(id) WHERE published_at IS NULL AND parked_at IS NULL;
+
+-- Keys whose head event is waiting for its next attempt
+CREATE INDEX IF NOT EXISTS idx_outbox_events_backoff ON outbox_events(next_attempt_at)
+    WHERE published_at IS NULL AND parked_at IS NULL AND next_attempt_at IS NOT NULL;
+
+COMMENT ON COLUMN outbox_events.attempts IS 'Failed relay attempts of this event';
+COMMENT ON COLUMN outbox_events.next_attempt_at IS 'Earliest time the relay sends this event and later events of its key again';
+COMMENT ON COLUMN outbox_events.parked_at IS 'When the relay gave up on this event after too many failed attempts';
@@ -3,6 +3,8 @@ package com.yushan.content_service;
 import com.yushan.content_service.service.ElasticsearchSearchService;
 import com.yushan.content_service.repository.elasticsearch.NovelElasticsearchRepository;
 import com.yushan.content_service.repository.elasticsearch.ChapterElasticsearchRepository;
+import com.yushan.content_service.repository.elasticsearch.ChapterPassageElasticsearchRepository;
+import com.yushan.content_service.repository.elasticsearch.SuggestionElasticsearchRepository;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
@@ -27,6 +29,12 @@ class ContentServiceApplicationTests {
     @MockBean
     private ChapterElasticsearchRepository chapterElasticsearchRepository;
 
+    @MockBean
+    private ChapterPassageElasticsearchRepository chapterPassageElasticsearchRepository;
+
+    @MockBean
+    private SuggestionElasticsearchRepository suggestionElasticsearchRepository;
+
     @Test
     void contextLoads() {
         // This test will pass if the application context loads successfully
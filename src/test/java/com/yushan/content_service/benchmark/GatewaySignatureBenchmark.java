@@ -0,0 +1,124 @@
+package com.yushan.content_service.benchmark;
+
+import com.yushan.content_service.security.GatewayAuthenticationFilter;
+import com.yushan.content_service.util.HmacSignatureVerifier;
+import com.yushan.content_service.util.HmacUtil;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for gateway signature verification on the request path.
+ *
+ * Compares the verifier with and without its verified-headers cache, the static
+ * HmacUtil entry point, and the whole GatewayAuthenticationFilter. Run after
+ * {@code mvn test-compile} with the test classpath, e.g. from the IDE through
+ * {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewaySignatureBenchmark {
+
+    private static final String SECRET = "benchmark-gateway-secret";
+    private static final String USER_ID = "3f2b6c1e-8d4a-4f7b-9c2d-1a5e6b7c8d9e";
+    private static final String EMAIL = "reader@example.com";
+    private static final String ROLE = "USER";
+
+    private HmacSignatureVerifier cachedVerifier;
+    private HmacSignatureVerifier uncachedVerifier;
+    private GatewayAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain filterChain = (req, res) -> { };
+    private long timestamp;
+    private String signature;
+
+    @Setup(Level.Trial)
+    public void setUpVerifiers() {
+        cachedVerifier = new HmacSignatureVerifier(SECRET, 4096, 30000);
+        uncachedVerifier = new HmacSignatureVerifier(SECRET, 0, 0);
+        filter = new GatewayAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "hmacSecret", SECRET);
+        filter.init();
+        response = new MockHttpServletResponse();
+    }
+
+    /**
+     * Signed headers are renewed every iteration so they stay within the timestamp tolerance
+     */
+    @Setup(Level.Iteration)
+    public void signHeaders() throws Exception {
+        timestamp = System.currentTimeMillis();
+        signature = sign(USER_ID + "|" + EMAIL + "|" + ROLE + "|" + timestamp);
+        request = new MockHttpServletRequest("GET", "/api/v1/novels");
+        request.addHeader("X-Gateway-Validated", "true");
+        request.addHeader("X-User-Id", USER_ID);
+        request.addHeader("X-User-Email", EMAIL);
+        request.addHeader("X-User-Username", "reader");
+        request.addHeader("X-User-Role", ROLE);
+        request.addHeader("X-User-Status", "0");
+        request.addHeader("X-Gateway-Timestamp", String.valueOf(timestamp));
+        request.addHeader("X-Gateway-Signature", signature);
+    }
+
+    @Benchmark
+    public boolean verifyCached() {
+        return cachedVerifier.verify(USER_ID, EMAIL, ROLE, timestamp, signature);
+    }
+
+    @Benchmark
+    public boolean verifyUncached() {
+        return uncachedVerifier.verify(USER_ID, EMAIL, ROLE, timestamp, signature);
+    }
+
+    @Benchmark
+    public boolean verifyStaticUtil() {
+        return HmacUtil.verifySignature(USER_ID, EMAIL, ROLE, timestamp, signature, SECRET);
+    }
+
+    @Benchmark
+    public int filterGatewayRequest() throws Exception {
+        // Each request starts unauthenticated, as it does on a servlet thread
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, response, filterChain);
+        return response.getStatus();
+    }
+
+    private static String sign(String message) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getEncoder().encodeToString(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GatewaySignatureBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,134 @@
+package com.yushan.content_service.controller;
+
+import com.yushan.content_service.service.CoverFileCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoverFileControllerTest {
+
+    private static final String KEY = "a".repeat(64);
+    private static final String URL = "/uploads/covers/" + KEY + "/full.png";
+    private static final String ETAG = "\"" + KEY + "-full.png\"";
+
+    @Mock
+    private CoverFileCache coverFileCache;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private CoverFileController coverFileController;
+
+    @TempDir
+    Path uploadDir;
+
+    private MockMvc mockMvc;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(coverFileController, "uploadPath", uploadDir.toString());
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path folder = Files.createDirectories(uploadDir.resolve("covers").resolve(KEY));
+        Files.write(folder.resolve("full.png"), content);
+        mockMvc = MockMvcBuilders.standaloneSetup(coverFileController).build();
+    }
+
+    @Test
+    void serveCover_ShouldSendFileWithStrongEtagAndLongLivedCaching() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get(URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().bytes(content));
+        assertThat(meterRegistry.counter("cover.serving.requests", "result", "transfer").count()).isEqualTo(1);
+    }
+
+    @Test
+    void serveCover_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get(URL).header("If-None-Match", "\"other\", W/" + ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(content().bytes(new byte[0]));
+        verify(coverFileCache, never()).lookup(any(), anyLong());
+    }
+
+    @Test
+    void serveCover_WithRange_ShouldSendPartialContent() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get(URL).header("Range", "bytes=10-19"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 10-19/1000"))
+                .andExpect(header().longValue("Content-Length", 10))
+                .andExpect(content().bytes(Arrays.copyOfRange(content, 10, 20)));
+        mockMvc.perform(get(URL).header("Range", "bytes=-100"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 900-999/1000"));
+    }
+
+    @Test
+    void serveCover_WithRangePastTheEnd_ShouldReturnRangeNotSatisfiable() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get(URL).header("Range", "bytes=1000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */1000"));
+    }
+
+    @Test
+    void serveCover_WithCachedFile_ShouldSendCachedBytes() throws Exception {
+        // Arrange
+        when(coverFileCache.lookup(uploadDir.resolve("covers").resolve(KEY).resolve("full.png")
+                .toAbsolutePath().normalize(), 1000)).thenReturn(content);
+
+        // Act & Assert
+        mockMvc.perform(get(URL).header("Range", "bytes=0-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(new byte[]{0, 1, 2, 3}));
+        assertThat(meterRegistry.counter("cover.serving.requests", "result", "cached").count()).isEqualTo(1);
+    }
+
+    @Test
+    void serveCover_WithUnknownOrEscapingPath_ShouldReturnNotFound() throws Exception {
+        // Arrange
+        Files.write(uploadDir.resolve("secret.png"), content);
+
+        // Act & Assert
+        mockMvc.perform(get("/uploads/covers/" + KEY + "/missing.png"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get(URI.create("/uploads/covers/%2E%2E%2Fsecret.png")))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/uploads/covers/" + KEY + "/full.txt"))
+                .andExpect(status().isNotFound());
+    }
+}
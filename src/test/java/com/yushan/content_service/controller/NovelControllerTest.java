@@ -2,10 +2,12 @@ package com.yushan.content_service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yushan.content_service.config.TestSecurityContextConfig;
+import com.yushan.content_service.dto.novel.CoverUploadResponseDTO;
 import com.yushan.content_service.dto.novel.NovelCreateRequestDTO;
 import com.yushan.content_service.dto.novel.NovelDetailResponseDTO;
 import com.yushan.content_service.dto.novel.NovelUpdateRequestDTO;
 import com.yushan.content_service.dto.common.PageResponseDTO;
+import com.yushan.content_service.service.CoverUploadService;
 import com.yushan.content_service.service.NovelService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,6 +22,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.mockito.Mockito.*;
@@ -36,6 +39,9 @@ public class NovelControllerTest {
     @Mock
     private NovelService novelService;
 
+    @Mock
+    private CoverUploadService coverUploadService;
+
     @InjectMocks
     private NovelController novelController;
 
@@ -84,6 +90,33 @@ public class NovelControllerTest {
         verify(novelService).createNovel(any(UUID.class), anyString(), any(NovelCreateRequestDTO.class));
     }
 
+    @Test
+    void uploadCover_WithImageBody_ShouldReturnCreatedAsset() throws Exception {
+        // Arrange
+        byte[] image = {1, 2, 3};
+        when(coverUploadService.upload(any(), eq(3L), eq("image/png")))
+            .thenReturn(new CoverUploadResponseDTO("abc.png", Map.of("full", "http://cdn/covers/abc/full.png")));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/novels/covers")
+                .contentType(MediaType.IMAGE_PNG)
+                .content(image))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.assetId").value("abc.png"))
+                .andExpect(jsonPath("$.data.coverImgUrls.full").value("http://cdn/covers/abc/full.png"));
+    }
+
+    @Test
+    void uploadCover_WithJsonBody_ShouldReturnUnsupportedMediaType() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/novels/covers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(coverUploadService);
+    }
+
     @Test
     void createNovel_WithInvalidData_ShouldReturnBadRequest() throws Exception {
         // Arrange
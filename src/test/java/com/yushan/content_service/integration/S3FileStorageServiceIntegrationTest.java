@@ -0,0 +1,187 @@
+package com.yushan.content_service.integration;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.yushan.content_service.config.S3Config;
+import com.yushan.content_service.dao.StorageDeletionMapper;
+import com.yushan.content_service.service.FileStorageService;
+import com.yushan.content_service.service.ImageIngestionService;
+import com.yushan.content_service.service.ImageProcessingService;
+import com.yushan.content_service.service.ImageValidationService;
+import com.yushan.content_service.service.S3FileStorageService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for S3 storage against MinIO as a local S3-compatible stand-in
+ *
+ * This test class verifies:
+ * - Renditions are uploaded through the shared client and transfer manager
+ * - Objects above the multipart threshold are uploaded in parts
+ * - Stored images are found by asset id and not uploaded twice
+ * - Deletes scheduled in the background remove every rendition
+ */
+@SpringBootTest(classes = {
+        S3Config.class,
+        S3FileStorageService.class,
+        ImageIngestionService.class,
+        ImageValidationService.class,
+        ImageProcessingService.class,
+        S3FileStorageServiceIntegrationTest.MetricsConfiguration.class
+})
+@org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable(named = "CI", matches = "true")
+public class S3FileStorageServiceIntegrationTest {
+
+    private static final String BUCKET = "covers-test";
+
+    static GenericContainer<?> minio = new GenericContainer<>(DockerImageName.parse("minio/minio:latest"))
+            .withEnv("MINIO_ROOT_USER", "minio-access-key")
+            .withEnv("MINIO_ROOT_PASSWORD", "minio-secret-key")
+            .withCommand("server", "/data")
+            .withExposedPorts(9000);
+
+    static {
+        minio.start();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.storage.s3.endpoint", () -> "http://" + minio.getHost() + ":" + minio.getMappedPort(9000));
+        registry.add("app.storage.s3.access-key", () -> "minio-access-key");
+        registry.add("app.storage.s3.secret-key", () -> "minio-secret-key");
+        registry.add("app.storage.s3.bucket-name", () -> BUCKET);
+        registry.add("app.storage.s3.path-style-access", () -> "true");
+        // Low threshold so the full rendition goes through a multipart upload
+        registry.add("app.storage.s3.multipart-threshold-bytes", () -> "1048576");
+        registry.add("app.storage.s3.multipart-part-size-bytes", () -> "5242880");
+    }
+
+    @TestConfiguration
+    static class MetricsConfiguration {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        StorageDeletionMapper storageDeletionMapper() {
+            return Mockito.mock(StorageDeletionMapper.class);
+        }
+    }
+
+    @Autowired
+    private S3FileStorageService s3FileStorageService;
+
+    @Autowired
+    private AmazonS3 s3Client;
+
+    @BeforeEach
+    void setUp() {
+        if (!s3Client.doesBucketExistV2(BUCKET)) {
+            s3Client.createBucket(BUCKET);
+        }
+    }
+
+    @Test
+    void uploadImageRenditions_ShouldStoreEveryRenditionAndUseMultipartForLargeOnes() throws IOException {
+        // Arrange
+        byte[] image = noisePng(800, 600, 1);
+        String assetId = FileStorageService.contentKey(image) + ".png";
+
+        // Act
+        Map<String, String> urls = s3FileStorageService.uploadImageRenditions(image, "png");
+
+        // Assert
+        assertThat(urls).containsOnlyKeys(FileStorageService.RENDITIONS);
+        for (String url : urls.values()) {
+            assertThat(s3FileStorageService.imageExists(url)).isTrue();
+        }
+        String fullKey = key(assetId, FileStorageService.RENDITION_FULL);
+        String thumbnailKey = key(assetId, FileStorageService.RENDITION_THUMBNAIL);
+        // Multipart uploads get an ETag of <hash>-<parts>
+        assertThat(s3Client.getObjectMetadata(BUCKET, fullKey).getETag()).contains("-");
+        assertThat(s3Client.getObjectMetadata(BUCKET, thumbnailKey).getETag()).doesNotContain("-");
+        assertThat(s3Client.getObjectMetadata(BUCKET, fullKey).getCacheControl()).isEqualTo("public, max-age=31536000");
+        assertThat(s3FileStorageService.findImageRenditions(assetId)).isEqualTo(urls);
+    }
+
+    @Test
+    void uploadImageRenditions_WithStoredImage_ShouldNotUploadAgain() throws IOException {
+        // Arrange
+        byte[] image = noisePng(400, 300, 2);
+        Map<String, String> urls = s3FileStorageService.uploadImageRenditions(image, "png");
+        String fullKey = key(FileStorageService.contentKey(image) + ".png", FileStorageService.RENDITION_FULL);
+        Date storedAt = s3Client.getObjectMetadata(BUCKET, fullKey).getLastModified();
+
+        // Act
+        Map<String, String> result = s3FileStorageService.uploadImageRenditions(image, "png");
+
+        // Assert
+        assertThat(result).isEqualTo(urls);
+        assertThat(s3Client.getObjectMetadata(BUCKET, fullKey).getLastModified()).isEqualTo(storedAt);
+    }
+
+    @Test
+    void deleteImage_ShouldRemoveEveryRenditionInTheBackground() throws Exception {
+        // Arrange
+        byte[] image = noisePng(400, 300, 3);
+        Map<String, String> urls = s3FileStorageService.uploadImageRenditions(image, "png");
+
+        // Act
+        boolean scheduled = s3FileStorageService.deleteImage(urls.get(FileStorageService.RENDITION_FULL));
+
+        // Assert
+        assertThat(scheduled).isTrue();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (urls.values().stream().anyMatch(s3FileStorageService::imageExists)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        for (String url : urls.values()) {
+            assertThat(s3FileStorageService.imageExists(url)).isFalse();
+        }
+        assertThat(s3FileStorageService.findImageRenditions(FileStorageService.contentKey(image) + ".png")).isNull();
+    }
+
+    private String key(String assetId, String rendition) {
+        String[] parts = assetId.split("\\.");
+        return "covers/" + parts[0] + "/" + rendition + "." + parts[1];
+    }
+
+    /**
+     * Random pixels barely compress, so the PNG stays close to its raw size
+     */
+    private byte[] noisePng(int width, int height, long seed) throws IOException {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
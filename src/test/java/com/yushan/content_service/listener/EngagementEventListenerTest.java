@@ -0,0 +1,175 @@
+package com.yushan.content_service.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yushan.content_service.entity.Novel;
+import com.yushan.content_service.service.IdempotencyService;
+import com.yushan.content_service.service.NovelService;
+import com.yushan.content_service.util.RedisUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EngagementEventListenerTest {
+
+    @Mock
+    private NovelService novelService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private KafkaTemplate<String, String> retryKafkaTemplate;
+
+    @Mock
+    private RedisUtil redisUtil;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private EngagementEventListener engagementEventListener;
+
+    @Test
+    void handleNovelVoteCountUpdateEvents_ShouldApplyLastValuePerNovel() {
+        // Arrange
+        allUnprocessed("NovelVoteCountUpdate");
+
+        // Act
+        engagementEventListener.handleNovelVoteCountUpdateEvents(List.of(
+                record("novel-vote-count-events", 0, "{\"novelId\":1,\"voteCount\":5,\"idempotencyKey\":\"a\"}"),
+                record("novel-vote-count-events", 1, "{\"novelId\":2,\"voteCount\":7,\"idempotencyKey\":\"b\"}"),
+                record("novel-vote-count-events", 2, "{\"novelId\":1,\"voteCount\":6,\"idempotencyKey\":\"c\"}")));
+
+        // Assert
+        verify(novelService).updateNovelVoteCounts(Map.of(1, 6, 2, 7));
+        verify(idempotencyService).markProcessed(Set.of(
+                "idempotency:novel-vote-count:a",
+                "idempotency:novel-vote-count:b",
+                "idempotency:novel-vote-count:c"), "NovelVoteCountUpdate");
+        verifyNoInteractions(retryKafkaTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleNovelRatingUpdateEvents_ShouldSkipProcessedAndDeadLetterMalformedEvents() {
+        // Arrange
+        when(idempotencyService.filterUnprocessed(anyCollection(), eq("NovelRatingUpdate")))
+                .thenReturn(Set.of("idempotency:novel-rating:b"));
+        when(retryKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        ArgumentCaptor<List<Novel>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        engagementEventListener.handleNovelRatingUpdateEvents(List.of(
+                record("novel-rating-events", 0, "{\"novelId\":1,\"avgRating\":4.0,\"reviewCount\":3,\"idempotencyKey\":\"a\"}"),
+                record("novel-rating-events", 1, "not json"),
+                record("novel-rating-events", 2, "{\"novelId\":2,\"avgRating\":4.5,\"reviewCount\":8,\"idempotencyKey\":\"b\"}")));
+
+        // Assert
+        verify(novelService).updateNovelRatingsAndCounts(captor.capture());
+        assertThat(captor.getValue()).singleElement().satisfies(novel -> {
+            assertThat(novel.getId()).isEqualTo(2);
+            assertThat(novel.getAvgRating()).isEqualTo(4.5f);
+            assertThat(novel.getReviewCnt()).isEqualTo(8);
+        });
+        verify(idempotencyService).markProcessed(Set.of("idempotency:novel-rating:b"), "NovelRatingUpdate");
+        verify(retryKafkaTemplate).send(argThat((ProducerRecord<String, String> forwarded) ->
+                forwarded.topic().equals("novel-rating-events-failed-dlt") && forwarded.value().equals("not json")));
+    }
+
+    @Test
+    void handleNovelVoteCountUpdateEvents_WhenAllProcessed_ShouldNotUpdate() {
+        // Arrange
+        when(idempotencyService.filterUnprocessed(anyCollection(), anyString())).thenReturn(Set.of());
+
+        // Act
+        engagementEventListener.handleNovelVoteCountUpdateEvents(List.of(
+                record("novel-vote-count-events", 0, "{\"novelId\":1,\"voteCount\":5,\"idempotencyKey\":\"a\"}")));
+
+        // Assert
+        verifyNoInteractions(novelService);
+        verify(idempotencyService, never()).markProcessed(anyCollection(), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleNovelVoteCountUpdateEvents_WhenOneNovelFails_ShouldRetryItOutOfBand() {
+        // Arrange
+        allUnprocessed("NovelVoteCountUpdate");
+        doThrow(new RuntimeException("bulk failed")).when(novelService).updateNovelVoteCounts(Map.of(1, 5, 2, 7));
+        doThrow(new RuntimeException("row locked")).when(novelService).updateNovelVoteCounts(Map.of(1, 5));
+        when(retryKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        ArgumentCaptor<ProducerRecord<String, String>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+
+        // Act
+        engagementEventListener.handleNovelVoteCountUpdateEvents(List.of(
+                record("novel-vote-count-events", 10, "{\"novelId\":1,\"voteCount\":5,\"idempotencyKey\":\"a\"}"),
+                record("novel-vote-count-events", 11, "{\"novelId\":2,\"voteCount\":7,\"idempotencyKey\":\"b\"}")));
+
+        // Assert
+        verify(novelService).updateNovelVoteCounts(Map.of(2, 7));
+        verify(idempotencyService).markProcessed(Set.of("idempotency:novel-vote-count:b"), "NovelVoteCountUpdate");
+        verify(retryKafkaTemplate).send(captor.capture());
+        ProducerRecord<String, String> forwarded = captor.getValue();
+        assertThat(forwarded.topic()).isEqualTo("novel-vote-count-events-failed");
+        assertThat(header(forwarded, EngagementEventListener.HEADER_ORIGINAL_OFFSET)).isEqualTo("0@10");
+        assertThat(header(forwarded, EngagementEventListener.HEADER_EXCEPTION)).contains("row locked");
+        assertThat(meterRegistry.counter("engagement.events", "topic", "novel-vote-count-events", "outcome", "retried").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void retryEngagementEvent_WhenNewerValueWasApplied_ShouldDropTheRetry() throws Exception {
+        // Arrange
+        allUnprocessed("NovelVoteCountUpdate");
+        when(redisUtil.get("engagement:applied:NovelVoteCountUpdate:1", Long.class)).thenReturn(2000L);
+        ConsumerRecord<String, String> retried = record("novel-vote-count-events-failed", 0,
+                "{\"novelId\":1,\"voteCount\":5,\"idempotencyKey\":\"a\"}");
+        retried.headers().add(EngagementEventListener.HEADER_ORIGINAL_TIMESTAMP, "1000".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        engagementEventListener.retryEngagementEvent(retried);
+
+        // Assert
+        verifyNoInteractions(novelService);
+        verify(idempotencyService).markProcessed(List.of("idempotency:novel-vote-count:a"), "NovelVoteCountUpdate");
+        assertThat(meterRegistry.counter("engagement.events", "topic", "novel-vote-count-events-failed", "outcome", "superseded").count())
+                .isEqualTo(1.0);
+    }
+
+    private void allUnprocessed(String eventType) {
+        when(idempotencyService.filterUnprocessed(anyCollection(), eq(eventType)))
+                .thenAnswer(invocation -> new LinkedHashSet<>(invocation.<List<String>>getArgument(0)));
+    }
+
+    private ConsumerRecord<String, String> record(String topic, long offset, String value) {
+        return new ConsumerRecord<>(topic, 0, offset, null, value);
+    }
+
+    private String header(ProducerRecord<String, String> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+}
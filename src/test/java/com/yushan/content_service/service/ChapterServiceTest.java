@@ -33,7 +33,7 @@ public class ChapterServiceTest {
     private NovelService novelService;
     private ElasticsearchAutoIndexService elasticsearchAutoIndexService;
     private ChapterDomainEventPublisher chapterDomainEventPublisher;
-    private TransactionAwareKafkaPublisher transactionAwareKafkaPublisher;
+    private SearchCacheService searchCacheService;
     private ChapterService chapterService;
 
     @BeforeEach
@@ -44,7 +44,7 @@ public class ChapterServiceTest {
         novelService = Mockito.mock(NovelService.class);
         elasticsearchAutoIndexService = Mockito.mock(ElasticsearchAutoIndexService.class);
         chapterDomainEventPublisher = Mockito.mock(ChapterDomainEventPublisher.class);
-        transactionAwareKafkaPublisher = Mockito.mock(TransactionAwareKafkaPublisher.class);
+        searchCacheService = Mockito.mock(SearchCacheService.class);
 
         chapterService = new ChapterService();
         // Inject dependencies using ReflectionTestUtils
@@ -54,7 +54,7 @@ public class ChapterServiceTest {
         ReflectionTestUtils.setField(chapterService, "novelService", novelService);
         ReflectionTestUtils.setField(chapterService, "elasticsearchAutoIndexService", elasticsearchAutoIndexService);
         ReflectionTestUtils.setField(chapterService, "chapterDomainEventPublisher", chapterDomainEventPublisher);
-        ReflectionTestUtils.setField(chapterService, "transactionAwareKafkaPublisher", transactionAwareKafkaPublisher);
+        ReflectionTestUtils.setField(chapterService, "searchCacheService", searchCacheService);
     }
 
     @Test
@@ -362,6 +362,43 @@ public class ChapterServiceTest {
         verify(chapterRepository).save(any(Chapter.class));
     }
 
+    @Test
+    void testUpdateChapter_PremiumToggle_ShouldFullyReindex() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID chapterUuid = UUID.randomUUID();
+        ChapterUpdateRequestDTO requestDTO = new ChapterUpdateRequestDTO();
+        requestDTO.setUuid(chapterUuid);
+        requestDTO.setIsPremium(true);
+
+        Chapter existingChapter = new Chapter();
+        existingChapter.setId(1);
+        existingChapter.setUuid(chapterUuid);
+        existingChapter.setNovelId(1);
+        existingChapter.setChapterNumber(1);
+        existingChapter.setTitle("Original Chapter");
+        existingChapter.setContent("Original content");
+        existingChapter.setWordCnt(100);
+        existingChapter.setIsPremium(false);
+        existingChapter.setIsValid(true);
+        existingChapter.setPublishTime(new Date());
+
+        Novel novel = new Novel();
+        novel.setId(1);
+        novel.setAuthorId(userId);
+        novel.setStatus(1); // ACTIVE
+
+        when(chapterRepository.findByUuid(chapterUuid)).thenReturn(existingChapter);
+        when(novelService.getNovelEntity(existingChapter.getNovelId())).thenReturn(novel);
+
+        // When
+        chapterService.updateChapter(userId, requestDTO);
+
+        // Then
+        // Passages copy the premium flag, so a partial chapter update would leave them stale
+        verify(elasticsearchAutoIndexService).onChapterUpdated(existingChapter, true);
+    }
+
     @Test
     void testUpdateChapter_NotFound() {
         // Given
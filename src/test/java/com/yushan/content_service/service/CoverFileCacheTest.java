@@ -0,0 +1,74 @@
+package com.yushan.content_service.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class CoverFileCacheTest {
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private CoverFileCache coverFileCache;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(coverFileCache, "maxBytes", 250L);
+        ReflectionTestUtils.setField(coverFileCache, "maxFileBytes", 100L);
+        coverFileCache.init();
+    }
+
+    @Test
+    void lookup_ShouldCacheFilesOnlyOnceTheyAreRequestedAgain() throws Exception {
+        // Arrange
+        Path file = Files.write(dir.resolve("a.png"), new byte[100]);
+
+        // Act
+        byte[] first = coverFileCache.lookup(file, 100);
+        byte[] second = coverFileCache.lookup(file, 100);
+
+        // Assert
+        assertThat(first).isNull();
+        assertThat(second).hasSize(100);
+        assertThat(coverFileCache.size()).isEqualTo(100);
+    }
+
+    @Test
+    void lookup_ShouldSkipLargeFilesAndEvictLeastRecentlyUsed() throws Exception {
+        // Arrange
+        Path large = Files.write(dir.resolve("large.png"), new byte[101]);
+        Path a = Files.write(dir.resolve("a.png"), new byte[100]);
+        Path b = Files.write(dir.resolve("b.png"), new byte[100]);
+        Path c = Files.write(dir.resolve("c.png"), new byte[100]);
+        for (Path file : new Path[]{large, large, a, a, b, b}) {
+            coverFileCache.lookup(file, Files.size(file));
+        }
+
+        // Act
+        coverFileCache.lookup(a, 100); // a is now more recently used than b
+        coverFileCache.lookup(c, 100);
+        coverFileCache.lookup(c, 100);
+
+        // Assert: a and c fit the budget, so b was evicted; a is served without reading the file
+        assertThat(coverFileCache.size()).isEqualTo(200);
+        Files.delete(a);
+        assertThat(coverFileCache.lookup(a, 100)).hasSize(100);
+    }
+}
@@ -0,0 +1,130 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.domain.event.NovelCoverSubmittedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoverProcessingServiceTest {
+
+    private static final String COVER = "data:image/png;base64,AAAA";
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private NovelService novelService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private CoverProcessingService coverProcessingService;
+
+    @Test
+    void onCoverSubmitted_ShouldStoreCoverAndAttachItInTheBackground() throws Exception {
+        // Arrange
+        coverProcessingService.init();
+        UUID jobId = UUID.randomUUID();
+        when(fileStorageService.uploadImageRenditions(COVER)).thenReturn(renditions("http://new"));
+        when(novelService.completeCoverJob(1, jobId, "http://new")).thenReturn(true);
+
+        // Act
+        coverProcessingService.onCoverSubmitted(new NovelCoverSubmittedEvent(1, jobId, COVER));
+        coverProcessingService.shutdown();
+
+        // Assert
+        verify(novelService).completeCoverJob(1, jobId, "http://new");
+        verify(novelService, never()).releaseCover(anyString());
+        assertThat(meterRegistry.timer("cover.jobs", "outcome", "ready").count()).isEqualTo(1);
+    }
+
+    @Test
+    void process_WhenJobWasSuperseded_ShouldReleaseStoredCover() {
+        // Arrange
+        UUID jobId = UUID.randomUUID();
+        when(fileStorageService.uploadImageRenditions(COVER)).thenReturn(renditions("http://stale"));
+        when(novelService.completeCoverJob(1, jobId, "http://stale")).thenReturn(false);
+
+        // Act
+        coverProcessingService.process(new NovelCoverSubmittedEvent(1, jobId, COVER));
+
+        // Assert
+        verify(novelService).releaseCover("http://stale");
+        assertThat(meterRegistry.timer("cover.jobs", "outcome", "superseded").count()).isEqualTo(1);
+    }
+
+    @Test
+    void process_WhenUploadFails_ShouldMarkCoverFailed() {
+        // Arrange
+        UUID jobId = UUID.randomUUID();
+        when(fileStorageService.uploadImageRenditions(COVER)).thenThrow(new RuntimeException("storage down"));
+
+        // Act
+        coverProcessingService.process(new NovelCoverSubmittedEvent(1, jobId, COVER));
+
+        // Assert
+        verify(novelService).failCoverJob(1, jobId);
+        verify(novelService, never()).completeCoverJob(any(), any(), any());
+        assertThat(meterRegistry.timer("cover.jobs", "outcome", "failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void onCoverSubmitted_WhenQueueIsFull_ShouldRejectAndMarkCoverFailed() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(coverProcessingService, "threads", 1);
+        ReflectionTestUtils.setField(coverProcessingService, "queueCapacity", 1);
+        coverProcessingService.init();
+        CountDownLatch release = new CountDownLatch(1);
+        when(fileStorageService.uploadImageRenditions(COVER)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return renditions("http://new");
+        });
+        UUID rejectedJobId = UUID.randomUUID();
+
+        // Act
+        coverProcessingService.onCoverSubmitted(new NovelCoverSubmittedEvent(1, UUID.randomUUID(), COVER));
+        coverProcessingService.onCoverSubmitted(new NovelCoverSubmittedEvent(2, UUID.randomUUID(), COVER));
+        coverProcessingService.onCoverSubmitted(new NovelCoverSubmittedEvent(3, rejectedJobId, COVER));
+        release.countDown();
+        coverProcessingService.shutdown();
+
+        // Assert
+        verify(novelService).failCoverJob(3, rejectedJobId);
+        assertThat(meterRegistry.timer("cover.jobs", "outcome", "rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void failStaleJobs_ShouldFailJobsPendingLongerThanTheLimit() {
+        // Arrange
+        when(novelService.failStaleCoverJobs(15)).thenReturn(2);
+
+        // Act
+        coverProcessingService.failStaleJobs();
+
+        // Assert
+        verify(novelService).failStaleCoverJobs(15);
+        assertThat(meterRegistry.counter("cover.jobs.stale").count()).isEqualTo(2);
+    }
+
+    private Map<String, String> renditions(String fullUrl) {
+        return Map.of(FileStorageService.RENDITION_THUMBNAIL, fullUrl + "/thumbnail",
+                FileStorageService.RENDITION_FULL, fullUrl);
+    }
+}
@@ -0,0 +1,119 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dto.novel.CoverUploadResponseDTO;
+import com.yushan.content_service.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoverUploadServiceTest {
+
+    private static final String KEY = "ab".repeat(32);
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @InjectMocks
+    private CoverUploadService coverUploadService;
+
+    @Test
+    void upload_WithImageBody_ShouldStoreRenditionsAndReturnAssetId() throws IOException {
+        // Arrange
+        byte[] image = {1, 2, 3, 4};
+        when(fileStorageService.uploadImageRenditions(image, "png")).thenReturn(
+                FileStorageService.renditionUrls("http://cdn/covers/" + KEY + "/full.png"));
+
+        // Act
+        CoverUploadResponseDTO result = coverUploadService.upload(new ByteArrayInputStream(image), image.length, "image/png");
+
+        // Assert
+        assertThat(result.getAssetId()).isEqualTo(KEY + ".png");
+        assertThat(result.getCoverImgUrls()).containsEntry("thumbnail", "http://cdn/covers/" + KEY + "/thumbnail.png");
+    }
+
+    @Test
+    void upload_WithUnknownLengthOverLimit_ShouldStopReadingPastTheLimit() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(coverUploadService, "maxBytes", 8L);
+        CountingInputStream body = new CountingInputStream(1_000_000);
+
+        // Act & Assert
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> coverUploadService.upload(body, -1, "image/jpeg"));
+        assertThat(exception.getMessage()).isEqualTo("Cover image must be at most 8 bytes");
+        assertThat(body.read).isEqualTo(9L);
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    void upload_WithDeclaredLengthOverLimit_ShouldRejectBeforeReading() {
+        // Arrange
+        ReflectionTestUtils.setField(coverUploadService, "maxBytes", 8L);
+        CountingInputStream body = new CountingInputStream(9);
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> coverUploadService.upload(body, 9, "image/png"));
+        assertThat(body.read).isZero();
+    }
+
+    @Test
+    void upload_WithUnsupportedType_ShouldThrowException() {
+        // Act & Assert
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> coverUploadService.upload(new ByteArrayInputStream(new byte[]{1}), 1, "image/svg+xml"));
+        assertThat(exception.getMessage()).isEqualTo("Unsupported cover image type: image/svg+xml");
+    }
+
+    @Test
+    void upload_WithInvalidImage_ShouldThrowValidationException() {
+        // Arrange
+        when(fileStorageService.uploadImageRenditions(any(byte[].class), anyString()))
+                .thenThrow(new IllegalArgumentException("Invalid image: Unable to read image data"));
+
+        // Act & Assert
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> coverUploadService.upload(new ByteArrayInputStream(new byte[]{1}), 1, "image/png"));
+        assertThat(exception.getMessage()).isEqualTo("Invalid image: Unable to read image data");
+    }
+
+    /**
+     * Body of the given length that counts the bytes read from it
+     */
+    private static class CountingInputStream extends InputStream {
+        private final long length;
+        private long read;
+
+        CountingInputStream(long length) {
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            return read < length ? (int) (read++ & 0x7f) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (read >= length) {
+                return -1;
+            }
+            int n = (int) Math.min(len, length - read);
+            read += n;
+            return n;
+        }
+    }
+}
@@ -20,6 +20,9 @@ class ElasticsearchAutoIndexServiceTest {
     @Mock
     private ElasticsearchIndexService elasticsearchIndexService;
 
+    @Mock
+    private ElasticsearchCounterSyncService elasticsearchCounterSyncService;
+
     @InjectMocks
     private ElasticsearchAutoIndexService elasticsearchAutoIndexService;
 
@@ -159,6 +162,36 @@ class ElasticsearchAutoIndexServiceTest {
         verify(elasticsearchIndexService).indexChapter(1);
     }
 
+    @Test
+    void onChapterUpdated_WithoutTextChange_ShouldQueuePartialUpdate() {
+        // When
+        elasticsearchAutoIndexService.onChapterUpdated(testChapter, false);
+
+        // Then
+        verify(elasticsearchCounterSyncService).markChapterDirty(1);
+        verify(elasticsearchIndexService, never()).indexChapter(anyInt());
+    }
+
+    @Test
+    void onNovelCountersChanged_ShouldQueuePartialUpdate() {
+        // When
+        elasticsearchAutoIndexService.onNovelCountersChanged(1);
+
+        // Then
+        verify(elasticsearchCounterSyncService).markNovelDirty(1);
+        verifyNoInteractions(elasticsearchIndexService);
+    }
+
+    @Test
+    void onChapterCountersChanged_ShouldQueuePartialUpdate() {
+        // When
+        elasticsearchAutoIndexService.onChapterCountersChanged(1);
+
+        // Then
+        verify(elasticsearchCounterSyncService).markChapterDirty(1);
+        verifyNoInteractions(elasticsearchIndexService);
+    }
+
     @Test
     void onChapterUpdated_WithInvalidChapter_ShouldRemoveChapter() {
         // Given
@@ -0,0 +1,189 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.entity.Chapter;
+import com.yushan.content_service.entity.Novel;
+import com.yushan.content_service.entity.elasticsearch.ChapterDocument;
+import com.yushan.content_service.entity.elasticsearch.NovelDocument;
+import com.yushan.content_service.repository.ChapterRepository;
+import com.yushan.content_service.repository.NovelRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ElasticsearchCounterSyncService.
+ */
+@ExtendWith(MockitoExtension.class)
+class ElasticsearchCounterSyncServiceTest {
+
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Mock
+    private NovelRepository novelRepository;
+
+    @Mock
+    private ChapterRepository chapterRepository;
+
+    @InjectMocks
+    private ElasticsearchCounterSyncService counterSyncService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void syncNovelCounters_ShouldSendPartialDocumentWithoutTextFields() {
+        // Arrange
+        Novel novel = new Novel();
+        novel.setId(1);
+        novel.setStatus(2); // PUBLISHED
+        novel.setTitle("Title");
+        novel.setSynopsis("Synopsis");
+        novel.setViewCnt(100L);
+        novel.setVoteCnt(10);
+        novel.setAvgRating(4.5f);
+        when(novelRepository.findByIds(List.of(1))).thenReturn(List.of(novel));
+
+        counterSyncService.markNovelDirty(1);
+        counterSyncService.markNovelDirty(1);
+
+        // Act
+        counterSyncService.syncNovelCounters();
+
+        // Assert
+        ArgumentCaptor<List<UpdateQuery>> captor = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).bulkUpdate(captor.capture(), eq(NovelDocument.class));
+        assertThat(captor.getValue()).hasSize(1);
+        UpdateQuery update = captor.getValue().get(0);
+        assertThat(update.getId()).isEqualTo("1");
+        assertThat(update.getDocument()).containsEntry("viewCnt", 100L);
+        assertThat(update.getDocument()).containsEntry("voteCnt", 10);
+        assertThat(update.getDocument()).doesNotContainKeys("title", "synopsis");
+        assertThat(counterSyncService.getPendingNovelCount()).isZero();
+    }
+
+    @Test
+    void syncNovelCounters_WithUnpublishedNovel_ShouldSkipBulkUpdate() {
+        // Arrange
+        Novel novel = new Novel();
+        novel.setId(1);
+        novel.setStatus(0); // DRAFT
+        when(novelRepository.findByIds(List.of(1))).thenReturn(List.of(novel));
+        counterSyncService.markNovelDirty(1);
+
+        // Act
+        counterSyncService.syncNovelCounters();
+
+        // Assert
+        verify(elasticsearchOperations, never()).bulkUpdate(anyList(), any(Class.class));
+    }
+
+    @Test
+    void syncNovelCounters_WhenElasticsearchFails_ShouldRequeueIds() {
+        // Arrange
+        Novel novel = new Novel();
+        novel.setId(1);
+        novel.setStatus(2);
+        when(novelRepository.findByIds(List.of(1))).thenReturn(List.of(novel));
+        doThrow(new RuntimeException("connection refused"))
+                .when(elasticsearchOperations).bulkUpdate(anyList(), eq(NovelDocument.class));
+        counterSyncService.markNovelDirty(1);
+
+        // Act
+        counterSyncService.syncNovelCounters();
+
+        // Assert
+        assertThat(counterSyncService.getPendingNovelCount()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void syncChapterCounters_ShouldUseCounterProjectionAndSendPartialDocument() {
+        // Arrange
+        Chapter chapter = new Chapter();
+        chapter.setId(5);
+        chapter.setIsValid(true);
+        chapter.setViewCnt(42L);
+        chapter.setPublishTime(new Date(System.currentTimeMillis() - 1000));
+        when(chapterRepository.findCountersByIds(List.of(5))).thenReturn(List.of(chapter));
+        counterSyncService.markChapterDirty(5);
+
+        // Act
+        counterSyncService.syncChapterCounters();
+
+        // Assert
+        ArgumentCaptor<List<UpdateQuery>> captor = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).bulkUpdate(captor.capture(), eq(ChapterDocument.class));
+        UpdateQuery update = captor.getValue().get(0);
+        assertThat(update.getId()).isEqualTo("5");
+        assertThat(update.getDocument()).containsEntry("viewCnt", 42L);
+        assertThat(update.getDocument()).doesNotContainKeys("title", "content", "isPremium", "isValid");
+        verify(chapterRepository, never()).findByIds(anyList());
+    }
+
+    @Test
+    void syncNovelCounters_WhenBulkItemsFail_ShouldRequeueOnlyRetryableIds() {
+        // Arrange
+        Novel first = new Novel();
+        first.setId(1);
+        first.setStatus(2);
+        Novel second = new Novel();
+        second.setId(2);
+        second.setStatus(2);
+        when(novelRepository.findByIds(anyList())).thenReturn(List.of(first, second));
+        doThrow(new BulkFailureException("bulk failed", Map.of(
+                "1", new BulkFailureException.FailureDetails(429, "es_rejected_execution_exception"),
+                "2", new BulkFailureException.FailureDetails(404, "document_missing_exception"))))
+                .when(elasticsearchOperations).bulkUpdate(anyList(), eq(NovelDocument.class));
+        counterSyncService.markNovelDirty(1);
+        counterSyncService.markNovelDirty(2);
+
+        // Act
+        counterSyncService.syncNovelCounters();
+
+        // Assert
+        assertThat(counterSyncService.getPendingNovelCount()).isEqualTo(1);
+    }
+
+    @Test
+    void markChapterDirty_InsideTransaction_ShouldWaitForCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            counterSyncService.markChapterDirty(5);
+
+            // Assert
+            assertThat(counterSyncService.getPendingChapterCount()).isZero();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(counterSyncService.getPendingChapterCount()).isEqualTo(1);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void syncCounters_WithNothingDirty_ShouldNotTouchDatabaseOrElasticsearch() {
+        // Act
+        counterSyncService.syncCounters();
+
+        // Assert
+        verifyNoInteractions(novelRepository, chapterRepository, elasticsearchOperations);
+    }
+}
@@ -6,12 +6,17 @@ import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
 import com.yushan.content_service.entity.Chapter;
 import com.yushan.content_service.entity.Novel;
 import com.yushan.content_service.entity.elasticsearch.ChapterDocument;
+import com.yushan.content_service.entity.elasticsearch.ChapterPassageDocument;
 import com.yushan.content_service.entity.elasticsearch.NovelDocument;
+import com.yushan.content_service.entity.elasticsearch.SuggestionDocument;
 import com.yushan.content_service.repository.elasticsearch.ChapterElasticsearchRepository;
+import com.yushan.content_service.repository.elasticsearch.ChapterPassageElasticsearchRepository;
 import com.yushan.content_service.repository.elasticsearch.NovelElasticsearchRepository;
+import com.yushan.content_service.repository.elasticsearch.SuggestionElasticsearchRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -21,10 +26,12 @@ import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,6 +47,12 @@ class ElasticsearchIndexServiceTest {
     @Mock
     private ChapterElasticsearchRepository chapterElasticsearchRepository;
 
+    @Mock
+    private ChapterPassageElasticsearchRepository chapterPassageElasticsearchRepository;
+
+    @Mock
+    private SuggestionElasticsearchRepository suggestionElasticsearchRepository;
+
     @Mock
     private NovelRepository novelRepository;
 
@@ -105,6 +118,35 @@ class ElasticsearchIndexServiceTest {
         verify(novelElasticsearchRepository).saveAll(anyList());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void indexAllNovels_ShouldFeedTitleAndAuthorSuggestions() {
+        // Arrange
+        Novel secondNovel = new Novel();
+        secondNovel.setId(2);
+        secondNovel.setUuid(UUID.randomUUID());
+        secondNovel.setTitle("Second Novel");
+        secondNovel.setAuthorId(testNovel.getAuthorId());
+        secondNovel.setAuthorName("Test Author");
+        secondNovel.setStatus(2);
+        secondNovel.setViewCnt(5000L);
+        secondNovel.setVoteCnt(0);
+        when(novelRepository.findNovelsWithPagination(any(NovelSearchRequestDTO.class)))
+                .thenReturn(Arrays.asList(testNovel, secondNovel));
+        ArgumentCaptor<List<SuggestionDocument>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        elasticsearchIndexService.indexAllNovels();
+
+        // Assert
+        verify(suggestionElasticsearchRepository).saveAll(captor.capture());
+        List<SuggestionDocument> suggestions = captor.getValue();
+        assertThat(suggestions).extracting(SuggestionDocument::getText)
+                .containsExactly("Test Novel", "Second Novel", "Test Author");
+        // Author is weighted by their most popular novel
+        assertThat(suggestions.get(2).getWeight()).isEqualTo(5000L);
+    }
+
     @Test
     void indexAllChapters_ShouldIndexAllPublishedChapters() {
         // Arrange
@@ -133,6 +175,29 @@ class ElasticsearchIndexServiceTest {
         verify(novelElasticsearchRepository).save(any(NovelDocument.class));
     }
 
+    @Test
+    void indexNovel_ShouldWeightAuthorSuggestionByMostPopularPublishedNovel() {
+        // Arrange
+        Novel popularNovel = new Novel();
+        popularNovel.setId(2);
+        popularNovel.setAuthorId(testNovel.getAuthorId());
+        popularNovel.setAuthorName("Test Author");
+        popularNovel.setViewCnt(5000L);
+        popularNovel.setVoteCnt(0);
+        when(novelRepository.findById(1)).thenReturn(testNovel);
+        when(novelRepository.findMostPopularPublishedByAuthor(testNovel.getAuthorId())).thenReturn(popularNovel);
+        ArgumentCaptor<SuggestionDocument> captor = ArgumentCaptor.forClass(SuggestionDocument.class);
+
+        // Act
+        elasticsearchIndexService.indexNovel(1);
+
+        // Assert
+        verify(suggestionElasticsearchRepository, times(2)).save(captor.capture());
+        SuggestionDocument author = captor.getAllValues().get(1);
+        assertThat(author.getId()).isEqualTo(SuggestionDocument.authorSuggestionId(testNovel.getAuthorId().toString()));
+        assertThat(author.getWeight()).isEqualTo(SuggestionDocument.popularityWeight(5000L, 0));
+    }
+
     @Test
     void indexNovel_WithInvalidNovelId_ShouldNotIndex() {
         // Arrange
@@ -159,6 +224,30 @@ class ElasticsearchIndexServiceTest {
         // Assert
         verify(chapterRepository).findById(chapterId);
         verify(chapterElasticsearchRepository).save(any(ChapterDocument.class));
+        verify(chapterPassageElasticsearchRepository).deleteByChapterId(chapterId);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void indexChapter_ShouldSplitContentIntoPassages() {
+        // Arrange
+        testChapter.setContent("word ".repeat(500));
+        when(chapterRepository.findById(1)).thenReturn(testChapter);
+        ArgumentCaptor<List<ChapterPassageDocument>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        elasticsearchIndexService.indexChapter(1);
+
+        // Assert
+        verify(chapterPassageElasticsearchRepository).saveAll(captor.capture());
+        List<ChapterPassageDocument> passages = captor.getValue();
+        assertThat(passages).hasSize(3);
+        assertThat(passages).extracting(ChapterPassageDocument::getId).containsExactly("1-0", "1-1", "1-2");
+        assertThat(passages).allSatisfy(passage -> {
+            assertThat(passage.getChapterId()).isEqualTo(1);
+            assertThat(passage.getTitle()).isEqualTo("Test Chapter");
+            assertThat(passage.getText().length()).isLessThanOrEqualTo(ChapterPassageDocument.PASSAGE_LENGTH);
+        });
     }
 
     @Test
@@ -185,6 +274,22 @@ class ElasticsearchIndexServiceTest {
 
         // Assert
         verify(novelElasticsearchRepository).deleteById(eq("1"));
+        verify(suggestionElasticsearchRepository).deleteById(eq("novel-1"));
+    }
+
+    @Test
+    void removeNovel_WhenAuthorHasNoPublishedNovelLeft_ShouldDeleteAuthorSuggestion() {
+        // Arrange
+        when(novelRepository.findById(1)).thenReturn(testNovel);
+        when(novelRepository.findMostPopularPublishedByAuthor(testNovel.getAuthorId())).thenReturn(null);
+
+        // Act
+        elasticsearchIndexService.removeNovel(1);
+
+        // Assert
+        verify(suggestionElasticsearchRepository).deleteById(
+                SuggestionDocument.authorSuggestionId(testNovel.getAuthorId().toString()));
+        verify(suggestionElasticsearchRepository, never()).save(any(SuggestionDocument.class));
     }
 
     @Test
@@ -197,6 +302,7 @@ class ElasticsearchIndexServiceTest {
 
         // Assert
         verify(chapterElasticsearchRepository).deleteById(eq("1"));
+        verify(chapterPassageElasticsearchRepository).deleteByChapterId(chapterId);
     }
 
     @Test
@@ -207,6 +313,7 @@ class ElasticsearchIndexServiceTest {
         // Assert
         verify(novelElasticsearchRepository).deleteAll();
         verify(chapterElasticsearchRepository).deleteAll();
+        verify(chapterPassageElasticsearchRepository).deleteAll();
     }
 
     @Test
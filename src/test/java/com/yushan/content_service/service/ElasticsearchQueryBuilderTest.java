@@ -0,0 +1,195 @@
+package com.yushan.content_service.service;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.yushan.content_service.dto.chapter.ChapterSearchRequestDTO;
+import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ElasticsearchQueryBuilder.
+ */
+class ElasticsearchQueryBuilderTest {
+
+    private ElasticsearchQueryBuilder queryBuilder;
+
+    @BeforeEach
+    void setUp() {
+        queryBuilder = new ElasticsearchQueryBuilder();
+    }
+
+    @Test
+    void buildNovelBoolQuery_WithoutCriteria_ShouldBeEmptyBool() {
+        // Act
+        Query query = queryBuilder.buildNovelBoolQuery(new NovelSearchRequestDTO());
+
+        // Assert
+        assertThat(query.isBool()).isTrue();
+        assertThat(query.bool().must()).isEmpty();
+        assertThat(query.bool().filter()).isEmpty();
+    }
+
+    @Test
+    void buildNovelBoolQuery_WithTextAndFilters_ShouldPutFiltersInFilterContext() {
+        // Arrange
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setSearch("dragon");
+        request.setCategoryId(3);
+        request.setIsCompleted(true);
+        request.setMinRating(4.0f);
+
+        // Act
+        Query query = queryBuilder.buildNovelBoolQuery(request);
+
+        // Assert
+        assertThat(query.bool().must()).hasSize(1);
+        assertThat(query.bool().must().get(0).multiMatch().query()).isEqualTo("dragon");
+        List<Query> filters = query.bool().filter();
+        assertThat(filters).hasSize(3);
+        assertThat(filters.get(0).term().field()).isEqualTo("categoryId");
+        assertThat(filters.get(0).term().value().longValue()).isEqualTo(3L);
+        assertThat(filters.get(1).term().field()).isEqualTo("isCompleted");
+        assertThat(filters.get(2).range().number().field()).isEqualTo("avgRating");
+        assertThat(filters.get(2).range().number().gte()).isEqualTo(4.0);
+    }
+
+    @Test
+    void buildNovelBoolQuery_WithStatusName_ShouldFilterOnIndexedStatusValue() {
+        // Arrange
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setStatus("published");
+
+        // Act
+        Query query = queryBuilder.buildNovelBoolQuery(request);
+
+        // Assert
+        assertThat(query.bool().filter().get(0).term().value().stringValue()).isEqualTo("2");
+    }
+
+    @Test
+    void buildNovelBoolQuery_WithUnknownStatus_ShouldMatchNothing() {
+        // Arrange
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setStatus("UNKNOWN");
+
+        // Act
+        Query query = queryBuilder.buildNovelBoolQuery(request);
+
+        // Assert
+        assertThat(query.bool().filter().get(0).term().value().stringValue()).isEqualTo("-1");
+    }
+
+    @Test
+    void buildChapterBoolQuery_WithFilters_ShouldCombineAllFilters() {
+        // Arrange
+        ChapterSearchRequestDTO request = new ChapterSearchRequestDTO();
+        request.setTitleKeyword("battle");
+        request.setNovelId(7);
+        request.setIsPremium(false);
+        request.setIsValid(true);
+
+        // Act
+        Query query = queryBuilder.buildChapterBoolQuery(request);
+
+        // Assert
+        assertThat(query.bool().must()).hasSize(1);
+        assertThat(query.bool().filter())
+                .extracting(filter -> filter.term().field())
+                .containsExactly("novelId", "isPremium", "isValid");
+    }
+
+    @Test
+    void buildChapterQuery_ShouldExcludeContentFromSource() {
+        // Act
+        NativeQuery query = queryBuilder.buildChapterQuery(new ChapterSearchRequestDTO(), PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(query.getSourceFilter()).isNotNull();
+        assertThat(query.getSourceFilter().getIncludes()).contains("title", "preview").doesNotContain("content");
+        assertThat(query.getHighlightQuery()).isEmpty();
+    }
+
+    @Test
+    void buildPassageQuery_ShouldCollapseHitsPerChapterAndHighlightPassageText() {
+        // Arrange
+        ChapterSearchRequestDTO request = new ChapterSearchRequestDTO();
+        request.setTitleKeyword("battle");
+        request.setNovelId(7);
+
+        // Act
+        NativeQuery query = queryBuilder.buildPassageQuery(request, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(query.getQuery().bool().should()).hasSize(2);
+        assertThat(query.getQuery().bool().filter()).hasSize(1);
+        assertThat(query.getQuery().bool().filter().get(0).term().field()).isEqualTo("novelId");
+        assertThat(query.getFieldCollapse().field()).isEqualTo("chapterId");
+        assertThat(query.getAggregations()).containsKey(ElasticsearchQueryBuilder.PASSAGE_CHAPTER_COUNT);
+        assertThat(query.getHighlightQuery()).isPresent();
+        assertThat(query.getHighlightQuery().get().getHighlight().getFields())
+                .extracting(field -> field.getName())
+                .containsExactly("text");
+    }
+
+    @Test
+    void buildNovelQuery_WithPopularityRanking_ShouldScoreByPopularityInElasticsearch() {
+        // Arrange
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setSearch("dragon");
+        request.setSort("relevance");
+        request.setRanking("popularity");
+
+        // Act
+        NativeQuery query = queryBuilder.buildNovelQuery(request, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(query.getQuery().isFunctionScore()).isTrue();
+        assertThat(query.getQuery().functionScore().query().bool().must().get(0).multiMatch().query()).isEqualTo("dragon");
+        assertThat(query.getQuery().functionScore().functions())
+                .filteredOn(function -> function.isFieldValueFactor())
+                .extracting(function -> function.fieldValueFactor().field())
+                .containsExactly("viewCnt", "voteCnt", "avgRating");
+        assertThat(query.getQuery().functionScore().functions())
+                .filteredOn(function -> function.filter() != null)
+                .hasSize(2);
+    }
+
+    @Test
+    void buildNovelQuery_WithTextRankingOrWithoutText_ShouldKeepPlainBoolQuery() {
+        // Arrange
+        NovelSearchRequestDTO textRanking = new NovelSearchRequestDTO();
+        textRanking.setSearch("dragon");
+        textRanking.setSort("relevance");
+        textRanking.setRanking("text");
+        NovelSearchRequestDTO browse = new NovelSearchRequestDTO();
+        browse.setSort("popularity");
+
+        // Act
+        NativeQuery textQuery = queryBuilder.buildNovelQuery(textRanking, PageRequest.of(0, 10));
+        NativeQuery browseQuery = queryBuilder.buildNovelQuery(browse, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(textQuery.getQuery().isBool()).isTrue();
+        assertThat(browseQuery.getQuery().isBool()).isTrue();
+        assertThat(queryBuilder.usesPopularityScoring(browse)).isFalse();
+    }
+
+    @Test
+    void buildSuggestionQuery_ShouldPrefixMatchAndBoostByWeight() {
+        // Act
+        NativeQuery query = queryBuilder.buildSuggestionQuery("dra", 8);
+
+        // Assert
+        assertThat(query.getPageable().getPageSize()).isEqualTo(8 * ElasticsearchQueryBuilder.SUGGESTION_OVERFETCH);
+        assertThat(query.getQuery().isFunctionScore()).isTrue();
+        assertThat(query.getQuery().functionScore().query().multiMatch().query()).isEqualTo("dra");
+        assertThat(query.getQuery().functionScore().functions().get(0).fieldValueFactor().field()).isEqualTo("weight");
+        assertThat(query.getSourceFilter().getIncludes()).containsExactly("text");
+    }
+}
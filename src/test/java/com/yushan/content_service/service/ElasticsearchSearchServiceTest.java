@@ -6,22 +6,30 @@ import com.yushan.content_service.dto.common.PageResponseDTO;
 import com.yushan.content_service.dto.novel.NovelDetailResponseDTO;
 import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
 import com.yushan.content_service.entity.elasticsearch.ChapterDocument;
+import com.yushan.content_service.entity.elasticsearch.ChapterPassageDocument;
 import com.yushan.content_service.entity.elasticsearch.NovelDocument;
-import com.yushan.content_service.repository.elasticsearch.ChapterElasticsearchRepository;
-import com.yushan.content_service.repository.elasticsearch.NovelElasticsearchRepository;
+import com.yushan.content_service.entity.elasticsearch.SuggestionDocument;
+import com.yushan.content_service.exception.ValidationException;
+import com.yushan.content_service.util.SearchCursorUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -29,10 +37,10 @@ import static org.mockito.Mockito.*;
 class ElasticsearchSearchServiceTest {
 
     @Mock
-    private NovelElasticsearchRepository novelElasticsearchRepository;
+    private ElasticsearchOperations elasticsearchOperations;
 
-    @Mock
-    private ChapterElasticsearchRepository chapterElasticsearchRepository;
+    @Spy
+    private ElasticsearchQueryBuilder elasticsearchQueryBuilder;
 
     @InjectMocks
     private ElasticsearchSearchService elasticsearchSearchService;
@@ -103,8 +111,8 @@ class ElasticsearchSearchServiceTest {
     void searchNovels_WithSearchText_ShouldReturnNovels() {
         // Arrange
         novelSearchRequest.setSearch("test");
-        Page<NovelDocument> mockPage = new PageImpl<>(Arrays.asList(testNovelDocument));
-        when(novelElasticsearchRepository.searchByText(eq("test"), any(Pageable.class))).thenReturn(mockPage);
+        SearchHits<NovelDocument> hits = searchHitsOf(testNovelDocument);
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(NovelDocument.class))).thenReturn(hits);
 
         // Act
         PageResponseDTO<NovelDetailResponseDTO> result = elasticsearchSearchService.searchNovels(novelSearchRequest);
@@ -117,101 +125,142 @@ class ElasticsearchSearchServiceTest {
         assertThat(result.getCurrentPage()).isEqualTo(0);
         assertThat(result.getSize()).isEqualTo(10);
         
-        verify(novelElasticsearchRepository).searchByText(eq("test"), any(Pageable.class));
+        verify(elasticsearchQueryBuilder).buildNovelQuery(eq(novelSearchRequest), any(Pageable.class));
     }
 
     @Test
-    void searchNovels_WithoutSearchText_ShouldUseFilters() {
+    void searchNovels_ShouldPushPaginationAndSortToElasticsearch() {
         // Arrange
-        novelSearchRequest.setSearch(null);
-        Page<NovelDocument> mockPage = new PageImpl<>(Arrays.asList(testNovelDocument));
-        when(novelElasticsearchRepository.findAll(any(Pageable.class))).thenReturn(mockPage);
+        novelSearchRequest.setPage(2);
+        novelSearchRequest.setSize(5);
+        SearchHits<NovelDocument> hits = searchHitsOf(testNovelDocument);
+        ArgumentCaptor<NativeQuery> queryCaptor = ArgumentCaptor.forClass(NativeQuery.class);
+        when(elasticsearchOperations.search(queryCaptor.capture(), eq(NovelDocument.class))).thenReturn(hits);
 
         // Act
-        PageResponseDTO<NovelDetailResponseDTO> result = elasticsearchSearchService.searchNovels(novelSearchRequest);
+        elasticsearchSearchService.searchNovels(novelSearchRequest);
 
         // Assert
-        assertThat(result).isNotNull();
-        assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getTitle()).isEqualTo("Test Novel");
-        
-        verify(novelElasticsearchRepository).findAll(any(Pageable.class));
+        Pageable pageable = queryCaptor.getValue().getPageable();
+        assertThat(pageable.getPageNumber()).isEqualTo(2);
+        assertThat(pageable.getPageSize()).isEqualTo(5);
+        assertThat(pageable.getSort().getOrderFor("title.keyword")).isNotNull();
     }
 
     @Test
-    void searchNovels_WithEmptySearchText_ShouldUseFilters() {
+    void searchNovels_WithFullPage_ShouldReturnCursorFromLastHitSortValues() {
         // Arrange
-        novelSearchRequest.setSearch("");
-        Page<NovelDocument> mockPage = new PageImpl<>(Arrays.asList(testNovelDocument));
-        when(novelElasticsearchRepository.findAll(any(Pageable.class))).thenReturn(mockPage);
+        novelSearchRequest.setSize(1);
+        SearchHits<NovelDocument> hits = searchHitsOf(testNovelDocument);
+        List<Object> sortValues = List.of("Test Novel", testNovelDocument.getUuid());
+        when(hits.getSearchHits().get(0).getSortValues()).thenReturn(sortValues);
+        ArgumentCaptor<NativeQuery> queryCaptor = ArgumentCaptor.forClass(NativeQuery.class);
+        when(elasticsearchOperations.search(queryCaptor.capture(), eq(NovelDocument.class))).thenReturn(hits);
 
         // Act
         PageResponseDTO<NovelDetailResponseDTO> result = elasticsearchSearchService.searchNovels(novelSearchRequest);
 
         // Assert
-        assertThat(result).isNotNull();
-        assertThat(result.getContent()).hasSize(1);
-        
-        verify(novelElasticsearchRepository).findAll(any(Pageable.class));
+        assertThat(result.getNextCursor()).isNotNull();
+        assertThat(SearchCursorUtil.decode(result.getNextCursor())).isEqualTo(sortValues);
+        assertThat(queryCaptor.getValue().getPageable().getSort().getOrderFor("uuid")).isNotNull();
     }
 
     @Test
-    void searchNovels_WithCategoryFilter_ShouldReturnEmptyPage() {
+    void searchNovels_WithShortPage_ShouldNotReturnCursor() {
         // Arrange
-        novelSearchRequest.setCategoryId(1);
+        SearchHits<NovelDocument> hits = searchHitsOf(testNovelDocument);
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(NovelDocument.class))).thenReturn(hits);
 
         // Act
         PageResponseDTO<NovelDetailResponseDTO> result = elasticsearchSearchService.searchNovels(novelSearchRequest);
 
         // Assert
-        assertThat(result).isNotNull();
-        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getNextCursor()).isNull();
     }
 
     @Test
-    void searchNovels_WithStatusFilter_ShouldReturnEmptyPage() {
+    void searchNovels_WithPopularitySortAndText_ShouldSortByScore() {
         // Arrange
-        novelSearchRequest.setStatus("DRAFT");
+        novelSearchRequest.setSearch("dragon");
+        novelSearchRequest.setSort("popularity");
+        SearchHits<NovelDocument> hits = searchHitsOf(testNovelDocument);
+        ArgumentCaptor<NativeQuery> queryCaptor = ArgumentCaptor.forClass(NativeQuery.class);
+        when(elasticsearchOperations.search(queryCaptor.capture(), eq(NovelDocument.class))).thenReturn(hits);
 
         // Act
-        PageResponseDTO<NovelDetailResponseDTO> result = elasticsearchSearchService.searchNovels(novelSearchRequest);
+        elasticsearchSearchService.searchNovels(novelSearchRequest);
 
         // Assert
-        assertThat(result).isNotNull();
-        assertThat(result.getContent()).isEmpty();
+        Sort sort = queryCaptor.getValue().getPageable().getSort();
+        assertThat(sort.getOrderFor("_score")).isNotNull();
+        assertThat(sort.getOrderFor("viewCnt")).isNull();
+        assertThat(queryCaptor.getValue().getQuery().isFunctionScore()).isTrue();
     }
 
     @Test
-    void searchNovels_WithIsCompletedFilter_ShouldReturnEmptyPage() {
+    void searchNovels_WithCursor_ShouldSearchAfterInsteadOfOffset() {
         // Arrange
-        novelSearchRequest.setIsCompleted(true);
+        List<Object> sortValues = List.of("Test Novel", testNovelDocument.getUuid());
+        novelSearchRequest.setPage(3);
+        novelSearchRequest.setCursor(SearchCursorUtil.encode(sortValues));
+        SearchHits<NovelDocument> hits = searchHitsOf();
+        ArgumentCaptor<NativeQuery> queryCaptor = ArgumentCaptor.forClass(NativeQuery.class);
+        when(elasticsearchOperations.search(queryCaptor.capture(), eq(NovelDocument.class))).thenReturn(hits);
 
         // Act
-        PageResponseDTO<NovelDetailResponseDTO> result = elasticsearchSearchService.searchNovels(novelSearchRequest);
+        elasticsearchSearchService.searchNovels(novelSearchRequest);
 
         // Assert
-        assertThat(result).isNotNull();
-        assertThat(result.getContent()).isEmpty();
+        assertThat(queryCaptor.getValue().getPageable().getPageNumber()).isZero();
+        assertThat(queryCaptor.getValue().getSearchAfter()).isEqualTo(sortValues);
     }
 
     @Test
-    void searchNovels_WithAuthorIdFilter_ShouldReturnEmptyPage() {
+    void searchNovels_WithFiltersAndText_ShouldReturnFilteredNovels() {
         // Arrange
+        novelSearchRequest.setSearch("test");
+        novelSearchRequest.setCategoryId(1);
+        novelSearchRequest.setStatus("PUBLISHED");
+        novelSearchRequest.setIsCompleted(false);
         novelSearchRequest.setAuthorId("550e8400-e29b-41d4-a716-446655440001");
+        SearchHits<NovelDocument> hits = searchHitsOf(testNovelDocument);
+        ArgumentCaptor<NativeQuery> queryCaptor = ArgumentCaptor.forClass(NativeQuery.class);
+        when(elasticsearchOperations.search(queryCaptor.capture(), eq(NovelDocument.class))).thenReturn(hits);
+
+        // Act
+        PageResponseDTO<NovelDetailResponseDTO> result = elasticsearchSearchService.searchNovels(novelSearchRequest);
+
+        // Assert
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(queryCaptor.getValue().getQuery().bool().must()).hasSize(1);
+        assertThat(queryCaptor.getValue().getQuery().bool().filter()).hasSize(4);
+    }
+
+    @Test
+    void searchNovels_WithNoMatches_ShouldReturnEmptyPage() {
+        // Arrange
+        novelSearchRequest.setCategoryId(99);
+        SearchHits<NovelDocument> hits = searchHitsOf();
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(NovelDocument.class))).thenReturn(hits);
+
         // Act
         PageResponseDTO<NovelDetailResponseDTO> result = elasticsearchSearchService.searchNovels(novelSearchRequest);
 
         // Assert
         assertThat(result).isNotNull();
         assertThat(result.getContent()).isEmpty();
+        assertThat(result.getTotalElements()).isZero();
     }
 
     @Test
-    void searchChapters_WithTitleKeyword_ShouldReturnChapters() {
+    void searchChapters_WithTitleKeyword_ShouldSearchPassagesAndReturnChapters() {
         // Arrange
         chapterSearchRequest.setTitleKeyword("test");
-        Page<ChapterDocument> mockPage = new PageImpl<>(Arrays.asList(testChapterDocument));
-        when(chapterElasticsearchRepository.searchByText(eq("test"), any(Pageable.class))).thenReturn(mockPage);
+        SearchHits<ChapterPassageDocument> passageHits = searchHitsOf(passage(1));
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ChapterPassageDocument.class))).thenReturn(passageHits);
+        SearchHits<ChapterDocument> chapterHits = searchHitsOf(testChapterDocument);
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ChapterDocument.class))).thenReturn(chapterHits);
 
         // Act
         PageResponseDTO<ChapterSummaryDTO> result = elasticsearchSearchService.searchChapters(chapterSearchRequest);
@@ -224,69 +273,111 @@ class ElasticsearchSearchServiceTest {
         assertThat(result.getCurrentPage()).isEqualTo(0); // page is decremented by 1
         assertThat(result.getSize()).isEqualTo(10);
         
-        verify(chapterElasticsearchRepository).searchByText(eq("test"), any(Pageable.class));
+        verify(elasticsearchQueryBuilder).buildPassageQuery(eq(chapterSearchRequest), any(Pageable.class));
+        verify(elasticsearchQueryBuilder).buildChapterLookupQuery(List.of("1"));
     }
 
     @Test
-    void searchChapters_WithoutTitleKeyword_ShouldUseFilters() {
+    void searchChapters_WithTitleKeyword_ShouldUseBestPassageHighlightAsPreview() {
         // Arrange
-        chapterSearchRequest.setTitleKeyword(null);
-        Page<ChapterDocument> mockPage = new PageImpl<>(Arrays.asList(testChapterDocument));
-        when(chapterElasticsearchRepository.findAll(any(Pageable.class))).thenReturn(mockPage);
+        chapterSearchRequest.setTitleKeyword("test");
+        SearchHits<ChapterPassageDocument> passageHits = searchHitsOf(passage(1));
+        when(passageHits.getSearchHits().get(0).getHighlightField("text")).thenReturn(List.of("This is <em>test</em> content"));
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ChapterPassageDocument.class))).thenReturn(passageHits);
+        SearchHits<ChapterDocument> chapterHits = searchHitsOf(testChapterDocument);
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ChapterDocument.class))).thenReturn(chapterHits);
 
         // Act
         PageResponseDTO<ChapterSummaryDTO> result = elasticsearchSearchService.searchChapters(chapterSearchRequest);
 
         // Assert
-        assertThat(result).isNotNull();
-        assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getTitle()).isEqualTo("Test Chapter");
-        
-        verify(chapterElasticsearchRepository).findAll(any(Pageable.class));
+        assertThat(result.getContent().get(0).getPreview()).isEqualTo("This is <em>test</em> content");
     }
 
     @Test
-    void searchChapters_WithNovelIdFilter_ShouldReturnChaptersForNovel() {
+    void searchChapters_WithFullPassagePage_ShouldReturnNextPageCursor() {
         // Arrange
-        chapterSearchRequest.setNovelId(1);
-        Page<ChapterDocument> mockPage = new PageImpl<>(Arrays.asList(testChapterDocument));
-        when(chapterElasticsearchRepository.findByNovelId(eq(1), any(Pageable.class))).thenReturn(mockPage);
+        chapterSearchRequest.setTitleKeyword("test");
+        chapterSearchRequest.setPageSize(1);
+        SearchHits<ChapterPassageDocument> passageHits = searchHitsOf(passage(1));
+        ArgumentCaptor<NativeQuery> queryCaptor = ArgumentCaptor.forClass(NativeQuery.class);
+        when(elasticsearchOperations.search(queryCaptor.capture(), eq(ChapterPassageDocument.class))).thenReturn(passageHits);
+        SearchHits<ChapterDocument> chapterHits = searchHitsOf(testChapterDocument);
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ChapterDocument.class))).thenReturn(chapterHits);
+
+        // Act
+        PageResponseDTO<ChapterSummaryDTO> first = elasticsearchSearchService.searchChapters(chapterSearchRequest);
+        chapterSearchRequest.setCursor(first.getNextCursor());
+        elasticsearchSearchService.searchChapters(chapterSearchRequest);
+
+        // Assert
+        assertThat(SearchCursorUtil.decode(first.getNextCursor())).containsExactly(1);
+        assertThat(queryCaptor.getAllValues().get(1).getPageable().getPageNumber()).isEqualTo(1);
+    }
+
+    @Test
+    void searchChapters_WithPassageCursorPastMaxDepth_ShouldRejectWithoutSearching() {
+        // Arrange
+        chapterSearchRequest.setTitleKeyword("test");
+        chapterSearchRequest.setPageSize(10);
+        chapterSearchRequest.setCursor(SearchCursorUtil.encode(List.<Object>of(100)));
+
+        // Act & Assert
+        assertThatThrownBy(() -> elasticsearchSearchService.searchChapters(chapterSearchRequest))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(elasticsearchOperations);
+    }
+
+    @Test
+    void searchChapters_WhenPassageOutlivesChapter_ShouldSkipIt() {
+        // Arrange
+        chapterSearchRequest.setTitleKeyword("test");
+        SearchHits<ChapterPassageDocument> passageHits = searchHitsOf(passage(1), passage(2));
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ChapterPassageDocument.class))).thenReturn(passageHits);
+        SearchHits<ChapterDocument> chapterHits = searchHitsOf(testChapterDocument);
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ChapterDocument.class))).thenReturn(chapterHits);
 
         // Act
         PageResponseDTO<ChapterSummaryDTO> result = elasticsearchSearchService.searchChapters(chapterSearchRequest);
 
         // Assert
-        assertThat(result).isNotNull();
-        assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getNovelId()).isEqualTo(1);
-        
-        verify(chapterElasticsearchRepository).findByNovelId(eq(1), any(Pageable.class));
+        assertThat(result.getContent()).extracting(ChapterSummaryDTO::getId).containsExactly(1);
     }
 
     @Test
-    void searchChapters_WithIsPremiumFilter_ShouldReturnEmptyPage() {
+    void searchChapters_WithoutTitleKeyword_ShouldUseStoredPreview() {
         // Arrange
-        chapterSearchRequest.setIsPremium(true);
+        testChapterDocument.setContent(null);
+        testChapterDocument.setPreview("Stored preview");
+        SearchHits<ChapterDocument> hits = searchHitsOf(testChapterDocument);
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(ChapterDocument.class))).thenReturn(hits);
 
         // Act
         PageResponseDTO<ChapterSummaryDTO> result = elasticsearchSearchService.searchChapters(chapterSearchRequest);
 
         // Assert
-        assertThat(result).isNotNull();
-        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getContent().get(0).getPreview()).isEqualTo("Stored preview");
     }
 
     @Test
-    void searchChapters_WithIsValidFilter_ShouldReturnEmptyPage() {
+    void searchChapters_WithNovelIdAndPremiumFilters_ShouldUseFilterContext() {
         // Arrange
-        chapterSearchRequest.setIsValid(false);
+        chapterSearchRequest.setNovelId(1);
+        chapterSearchRequest.setIsPremium(true);
+        chapterSearchRequest.setIsValid(true);
+        SearchHits<ChapterDocument> hits = searchHitsOf(testChapterDocument);
+        ArgumentCaptor<NativeQuery> queryCaptor = ArgumentCaptor.forClass(NativeQuery.class);
+        when(elasticsearchOperations.search(queryCaptor.capture(), eq(ChapterDocument.class))).thenReturn(hits);
 
         // Act
         PageResponseDTO<ChapterSummaryDTO> result = elasticsearchSearchService.searchChapters(chapterSearchRequest);
 
         // Assert
-        assertThat(result).isNotNull();
-        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).getNovelId()).isEqualTo(1);
+        assertThat(queryCaptor.getValue().getQuery().bool().must()).isEmpty();
+        assertThat(queryCaptor.getValue().getQuery().bool().filter()).hasSize(3);
+        assertThat(queryCaptor.getValue().getPageable().getPageNumber()).isEqualTo(0);
     }
 
     @Test
@@ -294,116 +385,132 @@ class ElasticsearchSearchServiceTest {
         // Arrange
         String query = "test";
         int limit = 5;
-        List<NovelDocument> novelSuggestions = Arrays.asList(testNovelDocument);
-        List<ChapterDocument> chapterSuggestions = Arrays.asList(testChapterDocument);
-        
-        when(novelElasticsearchRepository.searchSuggestions(eq(query), any(Pageable.class))).thenReturn(novelSuggestions);
-        when(chapterElasticsearchRepository.searchSuggestions(eq(query), any(Pageable.class))).thenReturn(chapterSuggestions);
+        SearchHits<SuggestionDocument> hits = searchHitsOf(
+                SuggestionDocument.forNovel(1, "Test Novel", 1500L),
+                SuggestionDocument.forAuthor("550e8400-e29b-41d4-a716-446655440001", "Test Author", 1500L),
+                SuggestionDocument.forChapter(1, "Test Chapter", 100L));
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(SuggestionDocument.class))).thenReturn(hits);
 
         // Act
         List<String> result = elasticsearchSearchService.getSearchSuggestions(query, limit);
 
         // Assert
-        assertThat(result).isNotNull();
-        assertThat(result).contains("Test Novel");
-        assertThat(result).contains("Test Author");
-        assertThat(result).contains("Test Chapter");
-        
-        verify(novelElasticsearchRepository).searchSuggestions(eq(query), any(Pageable.class));
-        verify(chapterElasticsearchRepository).searchSuggestions(eq(query), any(Pageable.class));
+        assertThat(result).containsExactly("Test Novel", "Test Author", "Test Chapter");
+        verify(elasticsearchQueryBuilder).buildSuggestionQuery(query, limit);
     }
 
     @Test
-    void getSearchSuggestions_WithEmptyQuery_ShouldReturnEmptyList() {
+    void getSearchSuggestions_WithDuplicateTitles_ShouldDeduplicate() {
         // Arrange
-        String query = "";
-        int limit = 5;
+        SearchHits<SuggestionDocument> hits = searchHitsOf(
+                SuggestionDocument.forChapter(1, "Prologue", 100L),
+                SuggestionDocument.forChapter(2, "Prologue", 50L));
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(SuggestionDocument.class))).thenReturn(hits);
 
         // Act
-        List<String> result = elasticsearchSearchService.getSearchSuggestions(query, limit);
+        List<String> result = elasticsearchSearchService.getSearchSuggestions("pro", 5);
+
+        // Assert
+        assertThat(result).containsExactly("Prologue");
+    }
+
+    @Test
+    void getSearchSuggestions_WithDuplicateTitles_ShouldStillFillTheLimit() {
+        // Arrange
+        SearchHits<SuggestionDocument> hits = searchHitsOf(
+                SuggestionDocument.forChapter(1, "Prologue", 100L),
+                SuggestionDocument.forChapter(2, "Prologue", 90L),
+                SuggestionDocument.forNovel(3, "Promise", 80L),
+                SuggestionDocument.forNovel(4, "Prophecy", 70L));
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(SuggestionDocument.class))).thenReturn(hits);
+
+        // Act
+        List<String> result = elasticsearchSearchService.getSearchSuggestions("pro", 2);
+
+        // Assert
+        assertThat(result).containsExactly("Prologue", "Promise");
+    }
+
+    @Test
+    void getSearchSuggestions_WithEmptyQuery_ShouldReturnEmptyList() {
+        // Act
+        List<String> result = elasticsearchSearchService.getSearchSuggestions("", 5);
 
         // Assert
         assertThat(result).isNotNull();
         assertThat(result).isEmpty();
-        
-        verify(novelElasticsearchRepository, never()).searchSuggestions(anyString(), any(Pageable.class));
-        verify(chapterElasticsearchRepository, never()).searchSuggestions(anyString(), any(Pageable.class));
+        verifyNoInteractions(elasticsearchOperations);
     }
 
     @Test
     void getSearchSuggestions_WithNullQuery_ShouldReturnEmptyList() {
-        // Arrange
-        String query = null;
-        int limit = 5;
-
         // Act
-        List<String> result = elasticsearchSearchService.getSearchSuggestions(query, limit);
+        List<String> result = elasticsearchSearchService.getSearchSuggestions(null, 5);
 
         // Assert
         assertThat(result).isNotNull();
         assertThat(result).isEmpty();
-        
-        verify(novelElasticsearchRepository, never()).searchSuggestions(anyString(), any(Pageable.class));
-        verify(chapterElasticsearchRepository, never()).searchSuggestions(anyString(), any(Pageable.class));
+        verifyNoInteractions(elasticsearchOperations);
     }
 
     @Test
     void getSearchSuggestions_WithShortQuery_ShouldReturnEmptyList() {
-        // Arrange
-        String query = "a";
-        int limit = 5;
-
         // Act
-        List<String> result = elasticsearchSearchService.getSearchSuggestions(query, limit);
+        List<String> result = elasticsearchSearchService.getSearchSuggestions("a", 5);
 
         // Assert
         assertThat(result).isNotNull();
         assertThat(result).isEmpty();
-        
-        verify(novelElasticsearchRepository, never()).searchSuggestions(anyString(), any(Pageable.class));
-        verify(chapterElasticsearchRepository, never()).searchSuggestions(anyString(), any(Pageable.class));
+        verifyNoInteractions(elasticsearchOperations);
     }
 
     @Test
     void getSearchSuggestions_WithLimit_ShouldRespectLimit() {
         // Arrange
-        String query = "test";
         int limit = 2;
-        List<NovelDocument> novelSuggestions = Arrays.asList(testNovelDocument);
-        List<ChapterDocument> chapterSuggestions = Arrays.asList(testChapterDocument);
-        
-        when(novelElasticsearchRepository.searchSuggestions(eq(query), any(Pageable.class))).thenReturn(novelSuggestions);
-        when(chapterElasticsearchRepository.searchSuggestions(eq(query), any(Pageable.class))).thenReturn(chapterSuggestions);
+        SearchHits<SuggestionDocument> hits = searchHitsOf(
+                SuggestionDocument.forNovel(1, "Test Novel", 10L),
+                SuggestionDocument.forNovel(2, "Test Novel Two", 5L),
+                SuggestionDocument.forNovel(3, "Test Novel Three", 1L));
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(SuggestionDocument.class))).thenReturn(hits);
 
         // Act
-        List<String> result = elasticsearchSearchService.getSearchSuggestions(query, limit);
+        List<String> result = elasticsearchSearchService.getSearchSuggestions("test", limit);
 
         // Assert
-        assertThat(result).isNotNull();
         assertThat(result).hasSizeLessThanOrEqualTo(limit);
     }
 
     @Test
     void getSearchSuggestions_WithNoMatchingSuggestions_ShouldReturnEmptyList() {
         // Arrange
-        String query = "nonexistent";
-        int limit = 5;
-        
-        NovelDocument novelDoc = new NovelDocument();
-        novelDoc.setTitle("Different Title");
-        novelDoc.setAuthorName("Different Author");
-        
-        ChapterDocument chapterDoc = new ChapterDocument();
-        chapterDoc.setTitle("Different Chapter");
-        
-        when(novelElasticsearchRepository.searchSuggestions(eq(query), any(Pageable.class))).thenReturn(Arrays.asList(novelDoc));
-        when(chapterElasticsearchRepository.searchSuggestions(eq(query), any(Pageable.class))).thenReturn(Arrays.asList(chapterDoc));
+        SearchHits<SuggestionDocument> hits = searchHitsOf();
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(SuggestionDocument.class))).thenReturn(hits);
 
         // Act
-        List<String> result = elasticsearchSearchService.getSearchSuggestions(query, limit);
+        List<String> result = elasticsearchSearchService.getSearchSuggestions("nonexistent", 5);
 
         // Assert
         assertThat(result).isNotNull();
         assertThat(result).isEmpty();
     }
+
+    private ChapterPassageDocument passage(int chapterId) {
+        return new ChapterPassageDocument(chapterId, 1, chapterId, "Test Chapter", false, true, 0, 0, "This is test content");
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    private <T> SearchHits<T> searchHitsOf(T... documents) {
+        List<SearchHit<T>> hitList = new ArrayList<>();
+        for (T document : documents) {
+            SearchHit<T> hit = mock(SearchHit.class);
+            lenient().when(hit.getContent()).thenReturn(document);
+            hitList.add(hit);
+        }
+        SearchHits<T> hits = mock(SearchHits.class);
+        lenient().when(hits.getSearchHits()).thenReturn(hitList);
+        lenient().when(hits.getTotalHits()).thenReturn((long) documents.length);
+        return hits;
+    }
 }
@@ -0,0 +1,103 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dao.ProcessedEventMapper;
+import com.yushan.content_service.util.RedisUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private RedisUtil redisUtil;
+
+    @Mock
+    private ProcessedEventMapper processedEventMapper;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService.init();
+    }
+
+    @Test
+    void filterUnprocessed_ShouldUseOneRedisAndOneDatabaseRoundTrip() {
+        // Arrange
+        when(redisUtil.multiGet(List.of("a", "b", "c"))).thenReturn(Arrays.asList("processed", null, null));
+        when(processedEventMapper.selectExistingKeys(eq(new String[]{"b", "c"}), any(LocalDateTime.class))).thenReturn(List.of("c"));
+
+        // Act
+        Set<String> unprocessed = idempotencyService.filterUnprocessed(List.of("a", "b", "c", "b"), "NovelVoteCountUpdate");
+
+        // Assert
+        assertThat(unprocessed).containsExactly("b");
+        verify(redisUtil).setAll(List.of("c"), "processed", java.time.Duration.ofDays(7));
+        verify(redisUtil, never()).exists(anyString());
+        verify(processedEventMapper, never()).existsByIdempotencyKey(anyString());
+    }
+
+    @Test
+    void filterUnprocessed_ShouldCheckEveryRedisMissInTheDatabase() {
+        // Arrange
+        when(redisUtil.multiGet(anyList())).thenReturn(Arrays.asList(null, null));
+        when(processedEventMapper.selectExistingKeys(eq(new String[]{"elsewhere", "new"}), any(LocalDateTime.class)))
+                .thenReturn(List.of("elsewhere"));
+
+        // Act
+        Set<String> unprocessed = idempotencyService.filterUnprocessed(List.of("elsewhere", "new"), "NovelRatingUpdate");
+
+        // Assert
+        assertThat(unprocessed).containsExactly("new");
+        assertThat(meterRegistry.counter("idempotency.lookups", "tier", "database").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void markProcessed_ShouldInsertOnceAndAnswerLaterChecksFromMemory() {
+        // Act
+        idempotencyService.markProcessed(List.of("a", "b", "a"), "NovelVoteCountUpdate");
+        Set<String> unprocessed = idempotencyService.filterUnprocessed(List.of("a", "b"), "NovelVoteCountUpdate");
+
+        // Assert
+        verify(processedEventMapper).insertKeys(eq(new String[]{"a", "b"}), eq("NovelVoteCountUpdate"),
+                eq("content-service"), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(redisUtil).setAll(List.of("a", "b"), "processed", java.time.Duration.ofDays(7));
+        assertThat(unprocessed).isEmpty();
+        verify(redisUtil, never()).multiGet(anyList());
+        assertThat(meterRegistry.counter("idempotency.lookups", "tier", "memory").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void filterUnprocessed_ShouldOnlyLookInTheRetentionWindow() {
+        // Arrange
+        when(redisUtil.multiGet(anyList())).thenReturn(Arrays.asList((Object) null));
+        when(processedEventMapper.selectExistingKeys(any(), any())).thenReturn(List.of());
+
+        // Act
+        idempotencyService.filterUnprocessed(List.of("a"), "NovelVoteCountUpdate");
+
+        // Assert
+        verify(processedEventMapper).selectExistingKeys(any(),
+                eq(java.time.LocalDate.now().minusDays(7).atStartOfDay()));
+    }
+}
@@ -0,0 +1,122 @@
+package com.yushan.content_service.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageIngestionServiceTest {
+
+    @Spy
+    private ImageValidationService imageValidationService = new ImageValidationService();
+
+    @Spy
+    private ImageProcessingService imageProcessingService = new ImageProcessingService();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private ImageIngestionService imageIngestionService;
+
+    @Test
+    void ingest_WithValidImage_ShouldDecodeOnceAndTimeEachStage() throws IOException {
+        // Arrange
+        String dataUrl = "data:image/png;base64," + Base64.getEncoder().encodeToString(png(1600, 600));
+
+        // Act
+        ImageIngestionService.IngestedImage image = imageIngestionService.ingest(dataUrl, 800, 600);
+
+        // Assert
+        assertThat(image.format()).isEqualTo("png");
+        assertThat(image.width()).isEqualTo(800);
+        assertThat(image.height()).isEqualTo(300);
+        assertThat(ImageIO.read(new java.io.ByteArrayInputStream(image.data())).getWidth()).isEqualTo(800);
+        verify(imageValidationService).extractImageData(dataUrl);
+        verify(imageValidationService, never()).validateImage(anyString());
+        for (String stage : new String[]{"decode", "validate", "rasterize", "resize", "encode"}) {
+            assertThat(meterRegistry.timer("image.ingestion", "stage", stage).count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void ingestRenditions_ShouldRenderEveryRenditionFromOneDecode() throws IOException {
+        // Arrange
+        imageIngestionService.init();
+        String dataUrl = "data:image/png;base64," + Base64.getEncoder().encodeToString(png(1600, 1200));
+
+        // Act
+        Map<String, ImageIngestionService.IngestedImage> renditions = imageIngestionService.ingestRenditions(dataUrl);
+        imageIngestionService.shutdown();
+
+        // Assert
+        assertThat(renditions).containsOnlyKeys("thumbnail", "card", "full");
+        assertThat(renditions.get("thumbnail").width()).isEqualTo(200);
+        assertThat(renditions.get("card").width()).isEqualTo(400);
+        assertThat(renditions.get("full").width()).isEqualTo(800);
+        assertThat(renditions.get("full").height()).isEqualTo(600);
+        verify(imageValidationService).extractImageData(dataUrl);
+        assertThat(meterRegistry.timer("image.ingestion", "stage", "rasterize").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("image.ingestion", "stage", "encode").count()).isEqualTo(3);
+    }
+
+    @Test
+    void ingest_WithOversizedHeader_ShouldRejectWithoutRasterizing() throws IOException {
+        // Arrange
+        byte[] png = png(1, 1);
+        setPngWidth(png, 20000);
+        String dataUrl = "data:image/png;base64," + Base64.getEncoder().encodeToString(png);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> imageIngestionService.ingest(dataUrl, 800, 600));
+        assertThat(exception.getMessage()).startsWith("Invalid image: Invalid image dimensions");
+        assertThat(meterRegistry.timer("image.ingestion", "stage", "rasterize").count()).isZero();
+        verify(imageProcessingService, never()).resizeImage(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void ingest_WithInvalidDataUrl_ShouldThrowException() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> imageIngestionService.ingest("invalid-data", 800, 600));
+        assertThat(exception.getMessage()).isEqualTo("Invalid image: Invalid base64 data URL format");
+        verify(imageValidationService, never()).extractImageData(anyString());
+    }
+
+    private byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Rewrite the width in the IHDR chunk, which follows the 8-byte signature, and its CRC
+     */
+    private void setPngWidth(byte[] png, int width) {
+        ByteBuffer buffer = ByteBuffer.wrap(png);
+        buffer.putInt(16, width);
+        CRC32 crc = new CRC32();
+        crc.update(png, 12, 17);
+        buffer.putInt(29, (int) crc.getValue());
+    }
+}
@@ -6,7 +6,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -126,4 +131,52 @@ class ImageProcessingServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.length).isGreaterThan(0);
     }
+
+    @Test
+    void subsamplingFactor_ShouldKeepDecodedImageAtLeastTwiceTheTarget() {
+        // Act & Assert
+        assertThat(imageProcessingService.subsamplingFactor(10000, 10000, 800, 600)).isEqualTo(8);
+        assertThat(imageProcessingService.subsamplingFactor(1600, 1200, 800, 600)).isEqualTo(1);
+        assertThat(imageProcessingService.subsamplingFactor(400, 300, 800, 600)).isEqualTo(1);
+        assertThat(imageProcessingService.subsamplingFactor(4000, 3000, 0, 600)).isEqualTo(1);
+    }
+
+    @Test
+    void decodeForTarget_WithLargeImage_ShouldDecodeSubsampled() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB), "png", out);
+        ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(out.toByteArray()));
+        ImageReader reader = ImageIO.getImageReaders(input).next();
+        reader.setInput(input, true, true);
+
+        // Act
+        BufferedImage result = imageProcessingService.decodeForTarget(reader, 800, 600);
+
+        // Assert
+        assertThat(result.getWidth()).isEqualTo(2000);
+        assertThat(result.getHeight()).isEqualTo(1500);
+        reader.dispose();
+    }
+
+    @Test
+    void resizeImage_WithLargeReduction_ShouldResizeInSteps() {
+        // Arrange
+        BufferedImage largeImage = new BufferedImage(1000, 1000, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 1000; x++) {
+            for (int y = 0; y < 1000; y++) {
+                // One-pixel stripes average to grey; a single bilinear pass would alias them
+                largeImage.setRGB(x, y, x % 2 == 0 ? 0xFFFFFF : 0x000000);
+            }
+        }
+
+        // Act
+        BufferedImage result = imageProcessingService.resizeImage(largeImage, 100, 100);
+
+        // Assert
+        assertThat(result.getWidth()).isEqualTo(100);
+        assertThat(result.getHeight()).isEqualTo(100);
+        int blue = result.getRGB(50, 50) & 0xFF;
+        assertThat(blue).isBetween(64, 192);
+    }
 }
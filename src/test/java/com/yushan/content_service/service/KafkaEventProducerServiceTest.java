@@ -1,5 +1,6 @@
 package com.yushan.content_service.service;
 
+import com.yushan.content_service.dto.event.UserActivityEvent;
 import com.yushan.content_service.entity.Chapter;
 import com.yushan.content_service.entity.Novel;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 
+import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -24,6 +26,9 @@ class KafkaEventProducerServiceTest {
     @Mock
     private KafkaTemplate<String, Object> kafkaTemplate;
 
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private KafkaEventProducerService kafkaEventProducerService;
 
@@ -50,10 +55,6 @@ class KafkaEventProducerServiceTest {
         testChapter.setIsValid(true);
         testChapter.setCreateTime(new Date());
         testChapter.setUpdateTime(new Date());
-
-        // Mock KafkaTemplate.send to return a successful CompletableFuture
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(null);
-        when(kafkaTemplate.send(any(), anyString(), any())).thenReturn(future);
     }
 
     @Test
@@ -68,7 +69,8 @@ class KafkaEventProducerServiceTest {
         kafkaEventProducerService.publishNovelViewEvent(testNovel, userId, userAgent, ipAddress, referrer);
 
         // Assert
-        verify(kafkaTemplate).send(any(), anyString(), any());
+        verify(outboxService).enqueue(any(), eq("1"), any());
+        verifyNoInteractions(kafkaTemplate);
     }
 
     @Test
@@ -80,7 +82,8 @@ class KafkaEventProducerServiceTest {
         kafkaEventProducerService.publishNovelCreatedEvent(testNovel, userId);
 
         // Assert
-        verify(kafkaTemplate).send(any(), anyString(), any());
+        verify(outboxService).enqueue(any(), eq("1"), any());
+        verifyNoInteractions(kafkaTemplate);
     }
 
     @Test
@@ -93,7 +96,8 @@ class KafkaEventProducerServiceTest {
         kafkaEventProducerService.publishNovelUpdatedEvent(testNovel, userId, changedFields);
 
         // Assert
-        verify(kafkaTemplate).send(any(), anyString(), any());
+        verify(outboxService).enqueue(any(), eq("1"), any());
+        verifyNoInteractions(kafkaTemplate);
     }
 
     @Test
@@ -108,7 +112,8 @@ class KafkaEventProducerServiceTest {
         kafkaEventProducerService.publishNovelStatusChangedEvent(testNovel, oldStatus, newStatus, userId, reason);
 
         // Assert
-        verify(kafkaTemplate).send(any(), anyString(), any());
+        verify(outboxService).enqueue(any(), eq("1"), any());
+        verifyNoInteractions(kafkaTemplate);
     }
 
     @Test
@@ -120,7 +125,8 @@ class KafkaEventProducerServiceTest {
         kafkaEventProducerService.publishChapterCreatedEvent(testChapter, testNovel, userId);
 
         // Assert
-        verify(kafkaTemplate).send(any(), anyString(), any());
+        verify(outboxService).enqueue(any(), eq("1"), any());
+        verifyNoInteractions(kafkaTemplate);
     }
 
     @Test
@@ -132,7 +138,8 @@ class KafkaEventProducerServiceTest {
         kafkaEventProducerService.publishChapterUpdatedEvent(testChapter, testNovel, userId);
 
         // Assert
-        verify(kafkaTemplate).send(any(), anyString(), any());
+        verify(outboxService).enqueue(any(), eq("1"), any());
+        verifyNoInteractions(kafkaTemplate);
     }
 
     @Test
@@ -144,7 +151,8 @@ class KafkaEventProducerServiceTest {
         kafkaEventProducerService.publishChapterPublishedEvent(testChapter, testNovel, userId);
 
         // Assert
-        verify(kafkaTemplate).send(any(), anyString(), any());
+        verify(outboxService).enqueue(any(), eq("1"), any());
+        verifyNoInteractions(kafkaTemplate);
     }
 
     @Test
@@ -159,7 +167,24 @@ class KafkaEventProducerServiceTest {
         kafkaEventProducerService.publishChapterViewEvent(testChapter, testNovel, userId, userAgent, ipAddress, referrer);
 
         // Assert
-        verify(kafkaTemplate).send(any(), anyString(), any());
+        verify(outboxService).enqueue(any(), eq("1"), any());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void publishUserActivityEvent_ShouldSendDirectly() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        UserActivityEvent event = new UserActivityEvent(userId, "content-service", "/api/v1/novels", "GET", LocalDateTime.now());
+        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(null);
+        when(kafkaTemplate.send(any(), anyString(), any())).thenReturn(future);
+
+        // Act
+        kafkaEventProducerService.publishUserActivityEvent(event);
+
+        // Assert
+        verify(kafkaTemplate).send(eq("active"), eq(userId.toString()), eq(event));
+        verifyNoInteractions(outboxService);
     }
 
 }
@@ -1,27 +1,35 @@
 package com.yushan.content_service.service;
 
+import com.yushan.content_service.dao.StorageDeletionMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class LocalFileStorageServiceTest {
@@ -33,7 +41,10 @@ class LocalFileStorageServiceTest {
     private ImageValidationService imageValidationService;
 
     @Mock
-    private ImageProcessingService imageProcessingService;
+    private ImageIngestionService imageIngestionService;
+
+    @Mock
+    private StorageDeletionMapper storageDeletionMapper;
 
     private String testBase64Data;
 
@@ -51,15 +62,10 @@ class LocalFileStorageServiceTest {
         validResult.setValid(true);
         lenient().when(imageValidationService.validateImage(anyString())).thenReturn(validResult);
         
-        // Mock imageProcessingService methods with correct parameters
-        BufferedImage mockResizedImage = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        // Mock the ingestion pipeline with correct parameters
         byte[] mockCompressedData = new byte[]{1, 2, 3, 4};
-        lenient().when(imageProcessingService.resizeImage(any(BufferedImage.class), eq(800), eq(600))).thenReturn(mockResizedImage);
-        lenient().when(imageProcessingService.compressImage(any(BufferedImage.class), anyString())).thenReturn(mockCompressedData);
-        
-        // Mock extractImageData and getImageFormat for all tests
-        lenient().when(imageValidationService.extractImageData(anyString())).thenReturn(new byte[]{1, 2, 3, 4});
-        lenient().when(imageValidationService.getImageFormat(anyString())).thenReturn("jpg");
+        lenient().when(imageIngestionService.ingest(anyString(), eq(800), eq(600)))
+                .thenReturn(new ImageIngestionService.IngestedImage(mockCompressedData, "jpg", 800, 600));
     }
 
     @Test
@@ -179,13 +185,104 @@ class LocalFileStorageServiceTest {
     }
 
     @Test
-    void uploadImage_WithInvalidData_ShouldThrowException() {
+    void uploadImage_WithValidData_ShouldStoreIngestedImage() throws IOException {
+        // Act
+        String url = localFileStorageService.uploadImage(testBase64Data, "cover.png");
+
+        // Assert
+        String fileName = url.substring(url.lastIndexOf('/') + 1);
+        Path stored = Paths.get(System.getProperty("java.io.tmpdir"), "covers", fileName);
+        assertThat(fileName).startsWith("cover_").endsWith(".jpg");
+        assertThat(Files.readAllBytes(stored)).containsExactly(1, 2, 3, 4);
+        verify(imageIngestionService).ingest(testBase64Data, 800, 600);
+        verify(imageValidationService, never()).validateImage(anyString());
+
+        // Cleanup
+        Files.deleteIfExists(stored);
+    }
+
+    @Test
+    void uploadImageRenditions_ThenDeleteImage_ShouldStoreOnceByContentAndRemoveEveryRendition() throws IOException {
+        // Arrange
+        byte[] imageData = new byte[]{9, 8, 7};
+        Map<String, ImageIngestionService.IngestedImage> renditions = new java.util.LinkedHashMap<>();
+        renditions.put("thumbnail", new ImageIngestionService.IngestedImage(new byte[]{1}, "png", 200, 150));
+        renditions.put("card", new ImageIngestionService.IngestedImage(new byte[]{2}, "png", 400, 300));
+        renditions.put("full", new ImageIngestionService.IngestedImage(new byte[]{3}, "png", 800, 600));
+        when(imageIngestionService.decode(testBase64Data)).thenReturn(imageData);
+        when(imageValidationService.getImageFormat(testBase64Data)).thenReturn("png");
+        when(imageIngestionService.ingestRenditions(imageData, "png")).thenReturn(renditions);
+
+        // Act - the second upload of the same image finds it stored
+        Map<String, String> urls = localFileStorageService.uploadImageRenditions(testBase64Data);
+        Map<String, String> again = localFileStorageService.uploadImageRenditions(testBase64Data);
+
+        // Assert
+        assertThat(urls).containsOnlyKeys("thumbnail", "card", "full");
+        assertThat(again).isEqualTo(urls);
+        assertThat(FileStorageService.renditionUrls(urls.get("full"))).isEqualTo(urls);
+        assertThat(FileStorageService.contentKeyOf(urls.get("card"))).isEqualTo(FileStorageService.contentKey(imageData));
+        Path folder = Paths.get(urls.get("full").substring("http://localhost:8082/".length())).getParent();
+        assertThat(Files.readAllBytes(folder.resolve("card.png"))).containsExactly(2);
+        verify(imageIngestionService, times(1)).ingestRenditions(imageData, "png");
+        // Both uploads cancel queued deletes of the image before checking whether it is stored
+        verify(storageDeletionMapper, times(2)).deleteByContentKey(FileStorageService.contentKey(imageData));
+
+        // Act - deleting the full rendition removes the whole upload
+        boolean deleted = localFileStorageService.deleteImage(urls.get("full"));
+
+        // Assert
+        assertThat(deleted).isTrue();
+        assertThat(Files.exists(folder)).isFalse();
+    }
+
+    @Test
+    void scanImages_ShouldReportEachOldCoverOnceByItsFullUrl(@TempDir Path uploadDir) throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(localFileStorageService, "uploadPath", uploadDir.toString());
+        String key = "ab".repeat(32);
+        Path coversDir = Files.createDirectories(uploadDir.resolve("covers"));
+        Path folder = Files.createDirectories(coversDir.resolve(key));
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+        for (Path file : new Path[]{folder.resolve("full.png"), folder.resolve("thumbnail.png"),
+                folder.resolve("card123.tmp"), coversDir.resolve("legacy_1.jpg")}) {
+            Files.setLastModifiedTime(Files.write(file, new byte[]{1}), old);
+        }
+        Files.write(coversDir.resolve("recent_2.jpg"), new byte[]{1});
+        List<List<String>> pages = new ArrayList<>();
+
+        // Act
+        localFileStorageService.scanImages(Instant.now().minus(Duration.ofDays(1)), 1, pages::add);
+
+        // Assert
+        String coversUrl = "http://localhost:8082/" + uploadDir + "/covers/";
+        assertThat(pages).hasSize(2).allSatisfy(page -> assertThat(page).hasSize(1));
+        assertThat(pages.stream().flatMap(List::stream))
+                .containsExactlyInAnyOrder(coversUrl + key + "/full.png", coversUrl + "legacy_1.jpg");
+    }
+
+    @Test
+    void renditionUrls_ShouldDeriveRenditionsOrKeepLegacyUrl() {
+        // Act
+        Map<String, String> renditions = FileStorageService.renditionUrls("http://cdn/covers/novel_1/full.jpg");
+        Map<String, String> legacy = FileStorageService.renditionUrls("http://cdn/covers/novel_1.jpg");
+
+        // Assert
+        assertThat(renditions).containsExactly(
+                Map.entry("thumbnail", "http://cdn/covers/novel_1/thumbnail.jpg"),
+                Map.entry("card", "http://cdn/covers/novel_1/card.jpg"),
+                Map.entry("full", "http://cdn/covers/novel_1/full.jpg"));
+        assertThat(legacy).containsExactly(Map.entry("full", "http://cdn/covers/novel_1.jpg"));
+        assertThat(FileStorageService.contentKeyOf("http://cdn/covers/novel_1/full.jpg")).isNull();
+        assertThat(FileStorageService.renditionUrls(null)).isNull();
+    }
+
+    @Test
+    void uploadImage_WithInvalidData_ShouldThrowException() throws IOException {
         // Arrange
         String invalidData = "invalid-data";
-        ImageValidationService.ImageValidationResult invalidResult = new ImageValidationService.ImageValidationResult();
-        invalidResult.setValid(false);
-        invalidResult.addError("Invalid format");
-        when(imageValidationService.validateImage(invalidData)).thenReturn(invalidResult);
+        when(imageIngestionService.ingest(invalidData, 800, 600))
+                .thenThrow(new IllegalArgumentException("Invalid image: Invalid format"));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
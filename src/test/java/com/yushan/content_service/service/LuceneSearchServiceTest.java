@@ -0,0 +1,274 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dto.chapter.ChapterSearchRequestDTO;
+import com.yushan.content_service.dto.chapter.ChapterSummaryDTO;
+import com.yushan.content_service.dto.common.PageResponseDTO;
+import com.yushan.content_service.dto.novel.NovelDetailResponseDTO;
+import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
+import com.yushan.content_service.entity.Chapter;
+import com.yushan.content_service.entity.Novel;
+import com.yushan.content_service.exception.ValidationException;
+import com.yushan.content_service.repository.ChapterRepository;
+import com.yushan.content_service.repository.NovelRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the embedded Lucene search, run against a real index in a temporary directory.
+ */
+@ExtendWith(MockitoExtension.class)
+class LuceneSearchServiceTest {
+
+    @TempDir
+    Path indexDir;
+
+    @Mock
+    private NovelRepository novelRepository;
+
+    @Mock
+    private ChapterRepository chapterRepository;
+
+    @InjectMocks
+    private LuceneIndexService luceneIndexService;
+
+    private LuceneSearchService luceneSearchService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(luceneIndexService, "indexDir", indexDir.toString());
+        luceneIndexService.open();
+
+        luceneSearchService = new LuceneSearchService();
+        ReflectionTestUtils.setField(luceneSearchService, "luceneIndexService", luceneIndexService);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        luceneIndexService.close();
+    }
+
+    @Test
+    void searchNovels_ShouldRankTitleMatchesAboveSynopsisMatches() throws Exception {
+        // Arrange
+        rebuildWith(List.of(
+                novel(1, "A Quiet Village", "A dragon sleeps under the hill", 1, 4.0f, 10L),
+                novel(2, "Dragon Emperor", "An emperor rises", 1, 4.0f, 10L)),
+                List.of());
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setSearch("dragon");
+        request.setSort("relevance");
+
+        // Act
+        PageResponseDTO<NovelDetailResponseDTO> result = luceneSearchService.searchNovels(request);
+
+        // Assert
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting(NovelDetailResponseDTO::getId).containsExactly(2, 1);
+        assertThat(result.getContent().get(0).getStatus()).isEqualTo("PUBLISHED");
+    }
+
+    @Test
+    void searchNovels_WithTypo_ShouldMatchFuzzily() throws Exception {
+        // Arrange
+        rebuildWith(List.of(novel(1, "Dragon Emperor", "An emperor rises", 1, 4.0f, 10L)), List.of());
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setSearch("dragn");
+
+        // Act
+        PageResponseDTO<NovelDetailResponseDTO> result = luceneSearchService.searchNovels(request);
+
+        // Assert
+        assertThat(result.getContent()).extracting(NovelDetailResponseDTO::getTitle).containsExactly("Dragon Emperor");
+    }
+
+    @Test
+    void searchNovels_WithFilters_ShouldOnlyReturnMatchingNovels() throws Exception {
+        // Arrange
+        rebuildWith(List.of(
+                novel(1, "Sword Saint", "Blades", 1, 4.8f, 10L),
+                novel(2, "Sword Heart", "Blades", 2, 4.9f, 10L),
+                novel(3, "Sword Song", "Blades", 1, 3.1f, 10L)),
+                List.of());
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setSearch("sword");
+        request.setCategoryId(1);
+        request.setMinRating(4.0f);
+
+        // Act
+        PageResponseDTO<NovelDetailResponseDTO> result = luceneSearchService.searchNovels(request);
+
+        // Assert
+        assertThat(result.getContent()).extracting(NovelDetailResponseDTO::getId).containsExactly(1);
+        assertThat(result.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void searchNovels_WithSecondPage_ShouldSkipFirstPageHits() throws Exception {
+        // Arrange
+        rebuildWith(List.of(
+                novel(1, "First", "Story", 1, 4.0f, 300L),
+                novel(2, "Second", "Story", 1, 4.0f, 200L),
+                novel(3, "Third", "Story", 1, 4.0f, 100L)),
+                List.of());
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setSort("viewCnt");
+        request.setOrder("desc");
+        request.setPage(1);
+        request.setSize(2);
+
+        // Act
+        PageResponseDTO<NovelDetailResponseDTO> result = luceneSearchService.searchNovels(request);
+
+        // Assert
+        assertThat(result.getContent()).extracting(NovelDetailResponseDTO::getId).containsExactly(3);
+        assertThat(result.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void searchNovels_WithCursor_ShouldRejectRequest() {
+        // Arrange
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setSearch("dragon");
+        request.setCursor("WzEwLDFd");
+
+        // Act & Assert
+        assertThatThrownBy(() -> luceneSearchService.searchNovels(request))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void searchNovels_WithPopularityRanking_ShouldSortByPopularity() throws Exception {
+        // Arrange
+        rebuildWith(List.of(
+                novel(1, "Dragon Emperor", "An emperor rises", 1, 4.0f, 10L),
+                novel(2, "A Quiet Village", "A dragon sleeps under the hill", 1, 4.0f, 5000L)),
+                List.of());
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setSearch("dragon");
+        request.setSort("relevance");
+        request.setRanking("popularity");
+
+        // Act
+        PageResponseDTO<NovelDetailResponseDTO> result = luceneSearchService.searchNovels(request);
+
+        // Assert
+        assertThat(result.getContent()).extracting(NovelDetailResponseDTO::getId).containsExactly(2, 1);
+    }
+
+    @Test
+    void searchChapters_ShouldMatchTitlesAndReturnStoredPreview() throws Exception {
+        // Arrange
+        rebuildWith(List.of(), List.of(
+                chapter(10, 1, 1, "The Battle Begins", "Steel rang out across the valley"),
+                chapter(11, 1, 2, "Aftermath", "The battle was over")));
+        ChapterSearchRequestDTO request = new ChapterSearchRequestDTO();
+        request.setTitleKeyword("battle");
+
+        // Act
+        PageResponseDTO<ChapterSummaryDTO> result = luceneSearchService.searchChapters(request);
+
+        // Assert
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).getId()).isEqualTo(10);
+        assertThat(result.getContent().get(0).getPreview()).isEqualTo("Steel rang out across the valley");
+    }
+
+    @Test
+    void indexNovel_WhenNovelIsNoLongerPublished_ShouldRemoveItFromIndex() throws Exception {
+        // Arrange
+        Novel novel = novel(1, "Dragon Emperor", "An emperor rises", 1, 4.0f, 10L);
+        rebuildWith(List.of(novel), List.of());
+        novel.setStatus(0); // DRAFT
+        when(novelRepository.findById(1)).thenReturn(novel);
+
+        // Act
+        luceneIndexService.indexNovel(1);
+        luceneIndexService.refresh();
+
+        // Assert
+        assertThat(luceneSearchService.searchNovels(new NovelSearchRequestDTO()).getContent()).isEmpty();
+    }
+
+    @Test
+    void syncCounters_ShouldReindexDirtyNovels() throws Exception {
+        // Arrange
+        Novel novel = novel(1, "Dragon Emperor", "An emperor rises", 1, 4.0f, 10L);
+        rebuildWith(List.of(novel), List.of());
+        novel.setViewCnt(500L);
+        when(novelRepository.findByIds(List.of(1))).thenReturn(List.of(novel));
+        luceneIndexService.markNovelDirty(1);
+
+        // Act
+        luceneIndexService.syncCounters();
+        luceneIndexService.refresh();
+
+        // Assert
+        PageResponseDTO<NovelDetailResponseDTO> result = luceneSearchService.searchNovels(new NovelSearchRequestDTO());
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).getViewCnt()).isEqualTo(500L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuildWith(List<Novel> novels, List<Chapter> chapters) throws Exception {
+        doAnswer(invocation -> {
+            novels.forEach(invocation.<Consumer<Novel>>getArgument(0));
+            return null;
+        }).when(novelRepository).streamPublishedNovels(any(Consumer.class));
+        doAnswer(invocation -> {
+            chapters.forEach(invocation.<Consumer<Chapter>>getArgument(0));
+            return null;
+        }).when(chapterRepository).streamPublishedChapterSummaries(any(Consumer.class));
+        luceneIndexService.rebuildIndex();
+    }
+
+    private Novel novel(int id, String title, String synopsis, int categoryId, float rating, long views) {
+        Novel novel = new Novel();
+        novel.setId(id);
+        novel.setUuid(UUID.randomUUID());
+        novel.setTitle(title);
+        novel.setSynopsis(synopsis);
+        novel.setAuthorId(UUID.randomUUID());
+        novel.setAuthorName("Author " + id);
+        novel.setCategoryId(categoryId);
+        novel.setStatus(2); // PUBLISHED
+        novel.setIsCompleted(false);
+        novel.setAvgRating(rating);
+        novel.setViewCnt(views);
+        novel.setCreateTime(new Date());
+        novel.setPublishTime(new Date());
+        return novel;
+    }
+
+    private Chapter chapter(int id, int novelId, int number, String title, String content) {
+        Chapter chapter = new Chapter();
+        chapter.setId(id);
+        chapter.setUuid(UUID.randomUUID());
+        chapter.setNovelId(novelId);
+        chapter.setChapterNumber(number);
+        chapter.setTitle(title);
+        chapter.setContent(content);
+        chapter.setIsPremium(false);
+        chapter.setIsValid(true);
+        chapter.setViewCnt(0L);
+        chapter.setPublishTime(new Date(System.currentTimeMillis() - 1000));
+        return chapter;
+    }
+}
@@ -1,5 +1,6 @@
 package com.yushan.content_service.service;
 
+import com.yushan.content_service.domain.event.NovelCoverSubmittedEvent;
 import com.yushan.content_service.repository.NovelRepository;
 import com.yushan.content_service.dto.novel.NovelCreateRequestDTO;
 import com.yushan.content_service.dto.novel.NovelDetailResponseDTO;
@@ -12,7 +13,9 @@ import com.yushan.content_service.exception.ResourceNotFoundException;
 import com.yushan.content_service.util.RedisUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.Date;
@@ -32,7 +35,10 @@ public class NovelServiceTest {
     private KafkaEventProducerService kafkaEventProducerService;
     private CategoryService categoryService;
     private ElasticsearchAutoIndexService elasticsearchAutoIndexService;
-    private TransactionAwareKafkaPublisher transactionAwareKafkaPublisher;
+    private SearchCacheService searchCacheService;
+    private FileStorageService fileStorageService;
+    private StorageCleanupService storageCleanupService;
+    private ApplicationEventPublisher applicationEventPublisher;
     private NovelService novelService;
 
     @BeforeEach
@@ -42,7 +48,10 @@ public class NovelServiceTest {
         kafkaEventProducerService = Mockito.mock(KafkaEventProducerService.class);
         categoryService = Mockito.mock(CategoryService.class);
         elasticsearchAutoIndexService = Mockito.mock(ElasticsearchAutoIndexService.class);
-        transactionAwareKafkaPublisher = Mockito.mock(TransactionAwareKafkaPublisher.class);
+        searchCacheService = Mockito.mock(SearchCacheService.class);
+        fileStorageService = Mockito.mock(FileStorageService.class);
+        storageCleanupService = Mockito.mock(StorageCleanupService.class);
+        applicationEventPublisher = Mockito.mock(ApplicationEventPublisher.class);
 
         novelService = new NovelService();
         try {
@@ -66,9 +75,21 @@ public class NovelServiceTest {
             f5.setAccessible(true);
             f5.set(novelService, elasticsearchAutoIndexService);
             
-            java.lang.reflect.Field f6 = NovelService.class.getDeclaredField("transactionAwareKafkaPublisher");
-            f6.setAccessible(true);
-            f6.set(novelService, transactionAwareKafkaPublisher);
+            java.lang.reflect.Field f7 = NovelService.class.getDeclaredField("searchCacheService");
+            f7.setAccessible(true);
+            f7.set(novelService, searchCacheService);
+            
+            java.lang.reflect.Field f8 = NovelService.class.getDeclaredField("fileStorageService");
+            f8.setAccessible(true);
+            f8.set(novelService, fileStorageService);
+            
+            java.lang.reflect.Field f9 = NovelService.class.getDeclaredField("applicationEventPublisher");
+            f9.setAccessible(true);
+            f9.set(novelService, applicationEventPublisher);
+            
+            java.lang.reflect.Field f10 = NovelService.class.getDeclaredField("storageCleanupService");
+            f10.setAccessible(true);
+            f10.set(novelService, storageCleanupService);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -123,7 +144,217 @@ public class NovelServiceTest {
 
         verify(novelRepository).save(any(Novel.class));
         verify(redisUtil).cacheNovel(anyInt(), any(Novel.class));
-        verify(transactionAwareKafkaPublisher).publishAfterCommit(any(Runnable.class));
+        verify(kafkaEventProducerService).publishNovelCreatedEvent(any(Novel.class), any());
+    }
+
+    @Test
+    void createNovel_WithCover_ShouldCommitPendingAndQueueCoverJob() {
+        // Arrange
+        NovelCreateRequestDTO request = new NovelCreateRequestDTO();
+        request.setTitle("Test Novel");
+        request.setCategoryId(1);
+        request.setCoverImgBase64("data:image/png;base64,AAAA");
+        com.yushan.content_service.entity.Category mockCategory = new com.yushan.content_service.entity.Category();
+        mockCategory.setId(1);
+        mockCategory.setIsActive(true);
+        when(categoryService.getCategoryById(1)).thenReturn(mockCategory);
+        when(fileStorageService.validateImage("data:image/png;base64,AAAA")).thenReturn(true);
+        when(novelRepository.save(any(Novel.class))).thenAnswer(invocation -> {
+            Novel novel = invocation.getArgument(0);
+            novel.setId(1);
+            return novel;
+        });
+        ArgumentCaptor<NovelCoverSubmittedEvent> captor = ArgumentCaptor.forClass(NovelCoverSubmittedEvent.class);
+
+        // Act
+        NovelDetailResponseDTO result = novelService.createNovel(UUID.randomUUID(), "test-author", request);
+
+        // Assert
+        assertEquals("PENDING", result.getCoverStatus());
+        assertNull(result.getCoverImgUrl());
+        verify(fileStorageService, never()).uploadImage(anyString(), anyString());
+        verify(applicationEventPublisher).publishEvent(captor.capture());
+        assertEquals(1, captor.getValue().getNovelId());
+        assertNotNull(captor.getValue().getCoverJobId());
+    }
+
+    @Test
+    void createNovel_WithUnreadableCover_ShouldThrowException() {
+        // Arrange
+        NovelCreateRequestDTO request = new NovelCreateRequestDTO();
+        request.setTitle("Test Novel");
+        request.setCategoryId(1);
+        request.setCoverImgBase64("data:image/png;base64,AAAA");
+        com.yushan.content_service.entity.Category mockCategory = new com.yushan.content_service.entity.Category();
+        mockCategory.setId(1);
+        mockCategory.setIsActive(true);
+        when(categoryService.getCategoryById(1)).thenReturn(mockCategory);
+        when(fileStorageService.validateImage(anyString())).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> novelService.createNovel(UUID.randomUUID(), "test-author", request));
+        verify(novelRepository, never()).save(any(Novel.class));
+        verifyNoInteractions(applicationEventPublisher);
+    }
+
+    @Test
+    void completeCoverJob_WithCurrentJob_ShouldAttachCoverAndQueueOldOneForDeletion() {
+        // Arrange
+        Novel novel = createTestNovel(1, "Test Novel");
+        novel.setCoverImgUrl("http://old");
+        UUID jobId = novel.startCoverJob();
+        when(novelRepository.findById(1)).thenReturn(novel);
+        when(novelRepository.updateCoverIfCurrentJob(1, jobId, "http://new", "READY")).thenReturn(true);
+
+        // Act
+        boolean applied = novelService.completeCoverJob(1, jobId, "http://new");
+
+        // Assert
+        assertTrue(applied);
+        assertEquals("http://new", novel.getCoverImgUrl());
+        verify(redisUtil).invalidateNovelCaches(1);
+        verify(kafkaEventProducerService).publishNovelUpdatedEvent(novel, novel.getAuthorId(), new String[]{"coverImgUrl"});
+        verify(storageCleanupService).scheduleDelete("http://old");
+        verify(fileStorageService, never()).deleteImage(anyString());
+    }
+
+    @Test
+    void completeCoverJob_WhenSuperseded_ShouldLeaveCoverUnchanged() {
+        // Arrange
+        Novel novel = createTestNovel(1, "Test Novel");
+        UUID staleJobId = novel.startCoverJob();
+        novel.startCoverJob();
+        when(novelRepository.findById(1)).thenReturn(novel);
+
+        // Act
+        boolean applied = novelService.completeCoverJob(1, staleJobId, "http://stale");
+
+        // Assert
+        assertFalse(applied);
+        verify(novelRepository, never()).updateCoverIfCurrentJob(any(), any(), any(), any());
+        verifyNoInteractions(kafkaEventProducerService, fileStorageService, storageCleanupService);
+    }
+
+    @Test
+    void updateNovel_WithCurrentCover_ShouldNotQueueCoverJob() {
+        // Arrange
+        String key = "ab".repeat(32);
+        Novel existing = createTestNovel(1, "Test Novel");
+        existing.setStatus(NovelStatus.DRAFT.getValue());
+        existing.setCoverImgUrl("http://cdn/covers/" + key + "/full.png");
+        existing.setCoverStatus("READY");
+        NovelUpdateRequestDTO request = new NovelUpdateRequestDTO();
+        request.setCoverImgBase64("data:image/png;base64,AAAA");
+        when(novelRepository.findById(1)).thenReturn(existing);
+        when(novelRepository.save(any(Novel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(fileStorageService.validateImage(request.getCoverImgBase64())).thenReturn(true);
+        when(fileStorageService.contentKey(request.getCoverImgBase64())).thenReturn(key);
+
+        // Act
+        NovelDetailResponseDTO result = novelService.updateNovel(1, request);
+
+        // Assert
+        assertEquals("READY", result.getCoverStatus());
+        assertNull(existing.getCoverJobId());
+        verifyNoInteractions(applicationEventPublisher, kafkaEventProducerService);
+    }
+
+    @Test
+    void updateNovel_WithNewCover_ShouldStartJobWithoutSavingCoverColumns() {
+        // Arrange
+        Novel existing = createTestNovel(1, "Test Novel");
+        existing.setStatus(NovelStatus.DRAFT.getValue());
+        existing.setCoverImgUrl("http://old");
+        existing.setCoverStatus("READY");
+        NovelUpdateRequestDTO request = new NovelUpdateRequestDTO();
+        request.setCoverImgBase64("data:image/png;base64,AAAA");
+        when(novelRepository.findById(1)).thenReturn(existing);
+        when(novelRepository.save(any(Novel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(fileStorageService.validateImage(request.getCoverImgBase64())).thenReturn(true);
+        when(fileStorageService.contentKey(request.getCoverImgBase64())).thenReturn("ef".repeat(32));
+
+        // Act
+        NovelDetailResponseDTO result = novelService.updateNovel(1, request);
+
+        // Assert
+        assertEquals("PENDING", result.getCoverStatus());
+        verify(novelRepository).startCoverJob(1, existing.getCoverJobId());
+        verify(novelRepository, never()).attachCover(any(), any(), any());
+        verify(applicationEventPublisher).publishEvent(any(NovelCoverSubmittedEvent.class));
+        verifyNoInteractions(storageCleanupService);
+    }
+
+    @Test
+    void updateNovel_WithCoverAsset_ShouldAttachStoredCoverAndReleaseOldOne() {
+        // Arrange
+        String assetId = "cd".repeat(32) + ".png";
+        String coverUrl = "http://cdn/covers/" + "cd".repeat(32) + "/full.png";
+        Novel existing = createTestNovel(1, "Test Novel");
+        existing.setCoverImgUrl("http://old");
+        UUID pendingJobId = existing.startCoverJob();
+        NovelUpdateRequestDTO request = new NovelUpdateRequestDTO();
+        request.setCoverAssetId(assetId);
+        when(novelRepository.findById(1)).thenReturn(existing);
+        when(novelRepository.save(any(Novel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(fileStorageService.findImageRenditions(assetId)).thenReturn(FileStorageService.renditionUrls(coverUrl));
+        when(novelRepository.attachCover(eq(1), any(UUID.class), eq(coverUrl))).thenReturn("http://old");
+
+        // Act
+        NovelDetailResponseDTO result = novelService.updateNovel(1, request);
+
+        // Assert
+        assertEquals(coverUrl, result.getCoverImgUrl());
+        assertEquals("READY", result.getCoverStatus());
+        assertEquals(assetId, result.getCoverAssetId());
+        assertNotEquals(pendingJobId, existing.getCoverJobId());
+        verify(novelRepository).attachCover(1, existing.getCoverJobId(), coverUrl);
+        verify(storageCleanupService).scheduleDelete("http://old");
+        verify(fileStorageService, never()).validateImage(anyString());
+        verifyNoInteractions(applicationEventPublisher);
+    }
+
+    @Test
+    void createNovel_WithCoverAssetAndBase64_ShouldThrowException() {
+        // Arrange
+        NovelCreateRequestDTO request = new NovelCreateRequestDTO();
+        request.setTitle("Test Novel");
+        request.setCategoryId(1);
+        request.setCoverAssetId("cd".repeat(32) + ".png");
+        request.setCoverImgBase64("data:image/png;base64,AAAA");
+        com.yushan.content_service.entity.Category category = new com.yushan.content_service.entity.Category();
+        category.setId(1);
+        category.setIsActive(true);
+        when(categoryService.getCategoryById(1)).thenReturn(category);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> novelService.createNovel(UUID.randomUUID(), "author", request));
+        assertEquals("send either coverAssetId or coverImgBase64, not both", exception.getMessage());
+        verify(novelRepository, never()).save(any(Novel.class));
+    }
+
+    @Test
+    void failStaleCoverJobs_ShouldInvalidateCachesOfFailedNovels() {
+        // Arrange
+        when(novelRepository.failStaleCoverJobs(15)).thenReturn(List.of(1, 2));
+
+        // Act
+        int failed = novelService.failStaleCoverJobs(15);
+
+        // Assert
+        assertEquals(2, failed);
+        verify(redisUtil).invalidateNovelCaches(1);
+        verify(redisUtil).invalidateNovelCaches(2);
+    }
+
+    @Test
+    void releaseCover_ShouldQueueDeletionWithoutTouchingStorage() {
+        // Act
+        novelService.releaseCover("http://shared");
+
+        // Assert
+        verify(storageCleanupService).scheduleDelete("http://shared");
+        verifyNoInteractions(fileStorageService);
     }
 
     @Test
@@ -199,7 +430,7 @@ public class NovelServiceTest {
 
         verify(novelRepository).findById(novelId);
         verify(novelRepository).save(any(Novel.class));
-        verify(transactionAwareKafkaPublisher).publishAfterCommit(any(Runnable.class));
+        verify(kafkaEventProducerService).publishNovelUpdatedEvent(any(Novel.class), any(), any(String[].class));
     }
 
     @Test
@@ -239,7 +470,7 @@ public class NovelServiceTest {
         assertEquals("UNDER_REVIEW", result.getStatus());
         verify(novelRepository).findById(novelId);
         verify(novelRepository).save(any(Novel.class));
-        verify(transactionAwareKafkaPublisher).publishAfterCommit(any(Runnable.class));
+        verify(kafkaEventProducerService).publishNovelStatusChangedEvent(any(Novel.class), any(), any(), any(), any());
     }
 
     @Test
@@ -280,7 +511,7 @@ public class NovelServiceTest {
         assertEquals("PUBLISHED", result.getStatus());
         verify(novelRepository).findById(novelId);
         verify(novelRepository).save(any(Novel.class));
-        verify(transactionAwareKafkaPublisher).publishAfterCommit(any(Runnable.class));
+        verify(kafkaEventProducerService).publishNovelStatusChangedEvent(any(Novel.class), any(), any(), any(), any());
     }
 
     @Test
@@ -304,7 +535,9 @@ public class NovelServiceTest {
         assertEquals("HIDDEN", result.getStatus());
         verify(novelRepository).findById(novelId);
         verify(novelRepository).save(any(Novel.class));
-        verify(transactionAwareKafkaPublisher).publishAfterCommit(any(Runnable.class));
+        verify(kafkaEventProducerService).publishNovelStatusChangedEvent(any(Novel.class), any(), any(), any(), any());
+        verify(elasticsearchAutoIndexService).onNovelUpdated(novel);
+        verify(searchCacheService).bumpGeneration();
     }
 
     @Test
@@ -358,7 +591,7 @@ public class NovelServiceTest {
         verify(novelRepository).incrementViewCount(novelId);
         verify(redisUtil).incrementCachedViewCount(novelId);
         verify(redisUtil).cacheNovel(eq(novelId), any(Novel.class));
-        verify(transactionAwareKafkaPublisher).publishAfterCommit(any(Runnable.class));
+        verify(kafkaEventProducerService).publishNovelViewEvent(any(Novel.class), any(), any(), any(), any());
     }
 
     @Test
@@ -441,7 +674,7 @@ public class NovelServiceTest {
         assertEquals("DRAFT", result.getStatus());
         verify(novelRepository).findById(novelId);
         verify(novelRepository).save(any(Novel.class));
-        verify(transactionAwareKafkaPublisher).publishAfterCommit(any(Runnable.class));
+        verify(kafkaEventProducerService).publishNovelStatusChangedEvent(any(Novel.class), any(), any(), any(), any());
     }
 
     @Test
@@ -465,7 +698,7 @@ public class NovelServiceTest {
         assertEquals("PUBLISHED", result.getStatus());
         verify(novelRepository).findById(novelId);
         verify(novelRepository).save(any(Novel.class));
-        verify(transactionAwareKafkaPublisher).publishAfterCommit(any(Runnable.class));
+        verify(kafkaEventProducerService).publishNovelStatusChangedEvent(any(Novel.class), any(), any(), any(), any());
     }
 
     @Test
@@ -580,6 +813,36 @@ public class NovelServiceTest {
         verify(redisUtil).cacheNovel(eq(novelId), any(Novel.class));
     }
 
+    @Test
+    void updateNovelVoteCounts_ShouldUpdateAllNovelsInOneStatement() {
+        // Arrange
+        java.util.Map<Integer, Integer> voteCounts = new java.util.LinkedHashMap<>();
+        voteCounts.put(1, 10);
+        voteCounts.put(2, 20);
+
+        // Act
+        novelService.updateNovelVoteCounts(voteCounts);
+
+        // Assert
+        verify(novelRepository).updateVoteCounts(argThat(novels -> novels.size() == 2
+                && novels.get(0).getId() == 1 && novels.get(0).getVoteCnt() == 10
+                && novels.get(1).getId() == 2 && novels.get(1).getVoteCnt() == 20));
+        verify(novelRepository, never()).findById(anyInt());
+        verify(redisUtil).deleteNovelCaches(voteCounts.keySet());
+        verify(redisUtil, times(1)).invalidatePopularCaches();
+        verify(elasticsearchAutoIndexService).onNovelCountersChanged(1);
+        verify(elasticsearchAutoIndexService).onNovelCountersChanged(2);
+    }
+
+    @Test
+    void updateNovelRatingsAndCounts_WithEmptyBatch_ShouldDoNothing() {
+        // Act
+        novelService.updateNovelRatingsAndCounts(List.of());
+
+        // Assert
+        verifyNoInteractions(novelRepository, redisUtil, elasticsearchAutoIndexService);
+    }
+
     @Test
     void getNovelsByIds_ShouldReturnNovelsByIds() {
         // Arrange
@@ -0,0 +1,145 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dao.OutboxEventMapper;
+import com.yushan.content_service.entity.OutboxEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayServiceTest {
+
+    @Mock
+    private OutboxEventMapper outboxEventMapper;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private OutboxRelayService outboxRelayService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        outboxRelayService.init();
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(outboxService.readPayload(any())).thenAnswer(invocation -> "payload-" + invocation.<OutboxEvent>getArgument(0).getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxRelayService.shutdown();
+    }
+
+    @Test
+    void relayBatch_ShouldSendEventsAndMarkThemPublished() {
+        // Arrange
+        when(outboxEventMapper.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxEventMapper.selectUnpublished(anyInt())).thenReturn(List.of(event(1L, "1"), event(2L, "2"), event(3L, "1")));
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        outboxRelayService.relayBatch();
+
+        // Assert
+        verify(kafkaTemplate).send("novel-events", "1", "payload-1");
+        verify(kafkaTemplate).send("novel-events", "2", "payload-2");
+        verify(kafkaTemplate).send("novel-events", "1", "payload-3");
+        verify(outboxEventMapper).claim(List.of(1L, 2L, 3L), 60000L);
+        verify(outboxEventMapper).markPublished(argThat(ids -> ids.containsAll(List.of(1L, 2L, 3L)) && ids.size() == 3),
+                any(LocalDateTime.class));
+        assertThat(meterRegistry.counter("outbox.events.relayed").count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void relayBatch_WhenSendFails_ShouldHoldBackLaterEventsOfTheSameKey() {
+        // Arrange
+        when(outboxEventMapper.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxEventMapper.selectUnpublished(anyInt())).thenReturn(List.of(event(1L, "1"), event(2L, "2"), event(3L, "1")));
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaTemplate.send("novel-events", "1", "payload-1")).thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        // Act
+        int relayed = outboxRelayService.relayBatch();
+
+        // Assert
+        assertThat(relayed).isZero();
+        verify(kafkaTemplate, never()).send("novel-events", "1", "payload-3");
+        verify(outboxEventMapper).markPublished(eq(List.of(2L)), any(LocalDateTime.class));
+        verify(outboxEventMapper).recordFailure(1L, 1, 1000L, false);
+        verify(outboxEventMapper, never()).recordFailure(eq(3L), anyInt(), anyLong(), anyBoolean());
+        verify(outboxEventMapper).releaseClaims(List.of(3L));
+        assertThat(meterRegistry.counter("outbox.events.failed").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void relayBatch_WhenEventKeepsFailing_ShouldBackOffAndFinallyParkIt() {
+        // Arrange
+        OutboxEvent retried = event(1L, "1");
+        retried.setAttempts(3);
+        OutboxEvent exhausted = event(2L, "2");
+        exhausted.setAttempts(9);
+        when(outboxEventMapper.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxEventMapper.selectUnpublished(anyInt())).thenReturn(List.of(retried, exhausted));
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        // Act
+        outboxRelayService.relayBatch();
+
+        // Assert
+        verify(outboxEventMapper).recordFailure(1L, 4, 8000L, false);
+        verify(outboxEventMapper).recordFailure(eq(2L), eq(10), anyLong(), eq(true));
+        verify(outboxEventMapper, never()).markPublished(anyList(), any());
+        assertThat(meterRegistry.counter("outbox.events.parked").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void relayBatch_WhenAnotherInstanceHoldsTheLock_ShouldSkip() {
+        // Arrange
+        when(outboxEventMapper.tryRelayLock(anyLong())).thenReturn(false);
+
+        // Act
+        int relayed = outboxRelayService.relayBatch();
+
+        // Assert
+        assertThat(relayed).isZero();
+        verify(outboxEventMapper, never()).selectUnpublished(anyInt());
+        verify(outboxEventMapper, never()).claim(anyList(), anyLong());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    private OutboxEvent event(Long id, String key) {
+        OutboxEvent event = new OutboxEvent(key, "novel-events", "com.yushan.content_service.dto.event.NovelUpdatedEvent", "{}", LocalDateTime.now());
+        event.setId(id);
+        return event;
+    }
+}
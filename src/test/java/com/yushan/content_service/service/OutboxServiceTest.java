@@ -0,0 +1,117 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dao.OutboxEventMapper;
+import com.yushan.content_service.dto.event.NovelCreatedEvent;
+import com.yushan.content_service.entity.OutboxEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxEventMapper outboxEventMapper;
+
+    @InjectMocks
+    private OutboxService outboxService;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(outboxService);
+    }
+
+    @Test
+    void enqueue_WithoutTransaction_ShouldInsertImmediately() {
+        // Act
+        outboxService.enqueue("novel-events", "1", novelCreatedEvent(1));
+
+        // Assert
+        verify(outboxEventMapper).insertBatch(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enqueue_InTransaction_ShouldWriteAllEventsInOneInsertBeforeCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        outboxService.enqueue("novel-events", "1", novelCreatedEvent(1));
+        outboxService.enqueue("novel-status-changes", "1", novelCreatedEvent(1));
+        verify(outboxEventMapper, never()).insertBatch(anyList());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        assertThat(synchronizations).hasSize(1);
+        verify(outboxEventMapper).insertBatch(captor.capture());
+        List<OutboxEvent> events = captor.getValue();
+        assertThat(events).extracting(OutboxEvent::getTopic).containsExactly("novel-events", "novel-status-changes");
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getAggregateKey()).isEqualTo("1");
+            assertThat(event.getPayloadType()).isEqualTo(NovelCreatedEvent.class.getName());
+            assertThat(event.getPayload()).contains("\"novelTitle\":\"Novel 1\"");
+        });
+        assertThat(TransactionSynchronizationManager.hasResource(outboxService)).isFalse();
+    }
+
+    @Test
+    void readPayload_ShouldRestoreTheOriginalEvent() throws Exception {
+        // Arrange
+        ArgumentCaptor<List<OutboxEvent>> captor = listCaptor();
+        outboxService.enqueue("novel-events", "7", novelCreatedEvent(7));
+        verify(outboxEventMapper).insertBatch(captor.capture());
+
+        // Act
+        Object payload = outboxService.readPayload(captor.getValue().get(0));
+
+        // Assert
+        assertThat(payload).isInstanceOf(NovelCreatedEvent.class);
+        assertThat(((NovelCreatedEvent) payload).getNovelId()).isEqualTo(7);
+        assertThat(((NovelCreatedEvent) payload).getTimestamp()).isNotNull();
+    }
+
+    @Test
+    void readPayload_WithTypeOutsideEventPackage_ShouldReject() {
+        // Arrange
+        OutboxEvent event = new OutboxEvent("1", "novel-events", "java.lang.ProcessBuilder", "{}", null);
+
+        // Act & Assert
+        assertThatThrownBy(() -> outboxService.readPayload(event)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<List<OutboxEvent>> listCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private NovelCreatedEvent novelCreatedEvent(int novelId) {
+        return NovelCreatedEvent.builder()
+                .eventType("NOVEL_CREATED")
+                .novelId(novelId)
+                .novelTitle("Novel " + novelId)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dao.PartitionMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintenanceServiceTest {
+
+    @Mock
+    private PartitionMapper partitionMapper;
+
+    @InjectMocks
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Test
+    void ensureDailyPartitions_ShouldCreateOnePartitionPerDay() {
+        // Arrange
+        LocalDate today = LocalDate.of(2024, 12, 31);
+
+        // Act
+        partitionMaintenanceService.ensureDailyPartitions("outbox_events", today, 2);
+
+        // Assert
+        verify(partitionMapper).createRangePartition("outbox_events", "outbox_events_p20241231", today, LocalDate.of(2025, 1, 1));
+        verify(partitionMapper).createRangePartition("outbox_events", "outbox_events_p20250101", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 2));
+        verify(partitionMapper).createRangePartition("outbox_events", "outbox_events_p20250102", LocalDate.of(2025, 1, 2), LocalDate.of(2025, 1, 3));
+    }
+
+    @Test
+    void dropDailyPartitionsBefore_ShouldOnlyDropExpiredPartitionsTheCallerAllows() {
+        // Arrange
+        when(partitionMapper.selectPartitionNames("outbox_events")).thenReturn(List.of(
+                "outbox_events_default",
+                "outbox_events_p20250101",
+                "outbox_events_p20250102",
+                "outbox_events_p20250105"));
+
+        // Act
+        List<String> dropped = partitionMaintenanceService.dropDailyPartitionsBefore("outbox_events",
+                LocalDate.of(2025, 1, 5), partition -> !partition.endsWith("0102"));
+
+        // Assert
+        assertThat(dropped).containsExactly("outbox_events_p20250101");
+        verify(partitionMapper).dropPartition("outbox_events_p20250101");
+        verify(partitionMapper, times(1)).dropPartition(anyString());
+    }
+
+    @Test
+    void ensureDailyPartitions_WithInvalidTableName_ShouldReject() {
+        // Act & Assert
+        assertThatThrownBy(() -> partitionMaintenanceService.ensureDailyPartitions("outbox_events; drop table novel", LocalDate.now(), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(partitionMapper);
+    }
+}
@@ -0,0 +1,58 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dao.ProcessedEventMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessedEventRetentionServiceTest {
+
+    @Mock
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Mock
+    private ProcessedEventMapper processedEventMapper;
+
+    @InjectMocks
+    private ProcessedEventRetentionService processedEventRetentionService;
+
+    @Test
+    void maintainPartitions_ShouldCreateAheadAndDropExpiredPartitions() {
+        // Arrange
+        LocalDate cutoff = LocalDate.now().minusDays(7);
+        when(partitionMaintenanceService.dropDailyPartitionsBefore(eq("processed_events"), eq(cutoff), any()))
+                .thenReturn(List.of("processed_events_p20250101"));
+
+        // Act
+        processedEventRetentionService.maintainPartitions();
+
+        // Assert
+        verify(partitionMaintenanceService).ensureDailyPartitions("processed_events", LocalDate.now(), 7);
+        verify(partitionMaintenanceService).dropDailyPartitionsBefore(eq("processed_events"), eq(cutoff),
+                argThat((Predicate<String> canDrop) -> canDrop.test("processed_events_p20250101")));
+        verify(processedEventMapper).deleteFromDefaultPartition(cutoff.atStartOfDay());
+    }
+
+    @Test
+    void maintainPartitions_WhenDatabaseFails_ShouldNotThrow() {
+        // Arrange
+        when(partitionMaintenanceService.dropDailyPartitionsBefore(anyString(), any(), any()))
+                .thenThrow(new RuntimeException("database unavailable"));
+
+        // Act
+        processedEventRetentionService.maintainPartitions();
+
+        // Assert
+        verify(processedEventMapper, never()).deleteFromDefaultPartition(any());
+    }
+}
@@ -0,0 +1,128 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.util.RedisUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchCacheServiceTest {
+
+    @Mock
+    private RedisUtil redisUtil;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private SearchCacheService searchCacheService;
+
+    @BeforeEach
+    void setUp() {
+        searchCacheService.init();
+    }
+
+    @Test
+    void keyFor_WithEquivalentQueries_ShouldProduceSameKey() {
+        // Act
+        SearchCacheService.CacheKey first = searchCacheService.keyFor("novels", params("search", "  Dragon   Emperor "));
+        SearchCacheService.CacheKey second = searchCacheService.keyFor("novels", params("search", "dragon emperor"));
+        SearchCacheService.CacheKey other = searchCacheService.keyFor("novels", params("search", "dragon king"));
+
+        // Assert
+        assertThat(first.redisKey()).isEqualTo(second.redisKey());
+        assertThat(first.redisKey()).startsWith("search:v2:novels:0:");
+        assertThat(other.redisKey()).isNotEqualTo(first.redisKey());
+    }
+
+    @Test
+    void keyFor_ShouldKeepCursorCaseSensitive() {
+        // Act
+        SearchCacheService.CacheKey lower = searchCacheService.keyFor("novels", params(SearchCacheService.CURSOR_PARAM, "abc"));
+        SearchCacheService.CacheKey upper = searchCacheService.keyFor("novels", params(SearchCacheService.CURSOR_PARAM, "ABC"));
+
+        // Assert
+        assertThat(lower.redisKey()).isNotEqualTo(upper.redisKey());
+    }
+
+    @Test
+    void bumpGeneration_ShouldMoveNewLookupsToFreshKeys() {
+        // Arrange
+        SearchCacheService.CacheKey before = searchCacheService.keyFor("novels", params("search", "dragon"));
+        when(redisUtil.increment(SearchCacheService.GENERATION_KEY)).thenReturn(1L);
+
+        // Act
+        searchCacheService.bumpGeneration();
+        SearchCacheService.CacheKey after = searchCacheService.keyFor("novels", params("search", "dragon"));
+
+        // Assert
+        assertThat(after.redisKey()).isNotEqualTo(before.redisKey());
+        assertThat(after.redisKey()).startsWith("search:v2:novels:1:");
+    }
+
+    @Test
+    void put_ShouldExtendTtlForPopularQueries() {
+        // Arrange
+        SearchCacheService.CacheKey rare = searchCacheService.keyFor("novels", params("search", "rare"));
+        SearchCacheService.CacheKey popular = searchCacheService.keyFor("novels", params("search", "popular"));
+        searchCacheService.get(rare, String.class);
+        for (int i = 0; i < 5; i++) {
+            searchCacheService.get(popular, String.class);
+        }
+
+        // Act
+        searchCacheService.put(rare, "result");
+        searchCacheService.put(popular, "result");
+
+        // Assert
+        verify(redisUtil).set(rare.redisKey(), "result", 60L);
+        verify(redisUtil).set(popular.redisKey(), "result", 300L);
+    }
+
+    @Test
+    void keyFor_ShouldOnlyNormalizeFreeTextParameters() {
+        // Act
+        SearchCacheService.CacheKey lower = searchCacheService.keyFor("novels", params("sort", "relevance"));
+        SearchCacheService.CacheKey upper = searchCacheService.keyFor("novels", params("sort", "Relevance"));
+
+        // Assert
+        assertThat(lower.redisKey()).isNotEqualTo(upper.redisKey());
+    }
+
+    @Test
+    void get_ShouldRecordHitsAndMisses() {
+        // Arrange
+        SearchCacheService.CacheKey key = searchCacheService.keyFor("chapters", params("titleKeyword", "battle"));
+        when(redisUtil.get(eq(key.redisKey()), eq(String.class))).thenReturn(null, "cached", "cached");
+
+        // Act
+        searchCacheService.get(key, String.class);
+        searchCacheService.get(key, String.class);
+        searchCacheService.get(key, String.class);
+
+        // Assert
+        assertThat(meterRegistry.counter("search.cache.requests", "scope", "chapters", "result", "hit").count()).isEqualTo(2.0);
+        assertThat(meterRegistry.counter("search.cache.requests", "scope", "chapters", "result", "miss").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("search.cache.hit.ratio").gauge().value()).isEqualTo(2.0 / 3.0);
+    }
+
+    private Map<String, Object> params(String name, Object value) {
+        Map<String, Object> params = new HashMap<>();
+        params.put(name, value);
+        params.put("page", 0);
+        return params;
+    }
+}
@@ -7,19 +7,25 @@ import com.yushan.content_service.dto.chapter.ChapterSummaryDTO;
 import com.yushan.content_service.dto.common.PageResponseDTO;
 import com.yushan.content_service.dto.novel.NovelDetailResponseDTO;
 import com.yushan.content_service.dto.novel.NovelSearchRequestDTO;
+import com.yushan.content_service.dto.search.CombinedSearchResponseDTO;
 import com.yushan.content_service.entity.Chapter;
 import com.yushan.content_service.entity.Novel;
+import com.yushan.content_service.exception.ValidationException;
 import com.yushan.content_service.util.RedisUtil;
+import com.yushan.content_service.util.SearchCursorUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -35,6 +41,9 @@ class SearchServiceTest {
     @Mock
     private RedisUtil redisUtil;
 
+    @Mock
+    private SearchCacheService searchCacheService;
+
     @Mock
     private NovelService novelService;
 
@@ -98,6 +107,60 @@ class SearchServiceTest {
         verify(chapterService).searchChapters(any());
     }
 
+    @Test
+    void combinedSearch_WhenOneElasticsearchBranchIsSlow_ShouldStillReturnTheOther() {
+        // Arrange
+        ReflectionTestUtils.setField(searchService, "combinedSearchTimeoutMs", 200L);
+        ElasticsearchSearchService elasticsearchSearchService = mock(ElasticsearchSearchService.class);
+        ReflectionTestUtils.setField(searchService, "elasticsearchSearchService", elasticsearchSearchService);
+        PageResponseDTO<NovelDetailResponseDTO> novelPageResponse = new PageResponseDTO<>();
+        novelPageResponse.setContent(new ArrayList<>());
+        novelPageResponse.setTotalElements(2L);
+        when(elasticsearchSearchService.searchNovels(any())).thenReturn(novelPageResponse);
+        when(elasticsearchSearchService.searchChapters(any())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return new PageResponseDTO<ChapterSummaryDTO>();
+        });
+
+        // Act
+        CombinedSearchResponseDTO result = searchService.combinedSearch("test", 0, 10, "all", null, null, null);
+
+        // Assert
+        assertThat(result.getTotalResults()).isEqualTo(2L);
+        assertThat(result.getNovels()).isNotNull();
+        assertThat(result.isPartial()).isTrue();
+        assertThat(result.getBranchErrors()).containsExactly(entry("chapters", "timeout"));
+        verifyNoInteractions(novelService, chapterService);
+    }
+
+    @Test
+    void combinedSearch_WhenBranchMissesDeadline_ShouldReturnPartialResults() {
+        // Arrange
+        ReflectionTestUtils.setField(searchService, "combinedSearchTimeoutMs", 200L);
+        PageResponseDTO<NovelDetailResponseDTO> novelPageResponse = new PageResponseDTO<>();
+        novelPageResponse.setContent(new ArrayList<>());
+        novelPageResponse.setTotalElements(3L);
+        when(novelService.listNovelsWithPagination(any())).thenReturn(novelPageResponse);
+        when(chapterService.searchChapters(any())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return new PageResponseDTO<ChapterSummaryDTO>();
+        });
+
+        // Act
+        long start = System.currentTimeMillis();
+        CombinedSearchResponseDTO result = searchService.combinedSearch("test", 0, 10, "all", null, null, null);
+        long elapsed = System.currentTimeMillis() - start;
+
+        // Assert
+        assertThat(result.isPartial()).isTrue();
+        assertThat(result.getNovels()).isNotNull();
+        assertThat(result.getChapters()).isNull();
+        assertThat(result.getTotalResults()).isEqualTo(3L);
+        assertThat(result.getBranchErrors()).containsOnlyKeys("chapters");
+        assertThat(elapsed).isLessThan(5000L);
+        verify(searchCacheService, never()).put(any(), any());
+    }
+
     @Test
     void searchNovels_WithValidRequest_ShouldReturnNovels() {
         // Arrange
@@ -121,6 +184,47 @@ class SearchServiceTest {
         verify(novelService).listNovelsWithPagination(any());
     }
 
+    @Test
+    void searchNovels_WithoutRanking_ShouldApplyEndpointDefault() {
+        // Arrange
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setSearch("dragon");
+        when(novelService.listNovelsWithPagination(any())).thenReturn(new PageResponseDTO<>());
+
+        // Act
+        searchService.searchNovels(request);
+
+        // Assert
+        assertThat(request.getRanking()).isEqualTo("text");
+    }
+
+    @Test
+    void searchNovels_WithUnknownRanking_ShouldRejectRequest() {
+        // Arrange
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setRanking("trending");
+
+        // Act & Assert
+        assertThatThrownBy(() -> searchService.searchNovels(request))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(novelService);
+    }
+
+    @Test
+    void searchNovels_WhenEmbeddedIndexRejectsCursor_ShouldNotFallBackToDatabase() throws Exception {
+        // Arrange
+        LuceneSearchService luceneSearchService = mock(LuceneSearchService.class);
+        ReflectionTestUtils.setField(searchService, "luceneSearchService", luceneSearchService);
+        NovelSearchRequestDTO request = new NovelSearchRequestDTO();
+        request.setCursor(SearchCursorUtil.encode(List.of(10, 1)));
+        when(luceneSearchService.searchNovels(any())).thenThrow(new ValidationException("cursor"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> searchService.searchNovels(request))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(novelService);
+    }
+
     @Test
     void searchChapters_WithValidRequest_ShouldReturnChapters() {
         // Arrange
@@ -0,0 +1,127 @@
+package com.yushan.content_service.service;
+
+import com.yushan.content_service.dao.StorageDeletionMapper;
+import com.yushan.content_service.entity.StorageDeletion;
+import com.yushan.content_service.repository.NovelRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageCleanupServiceTest {
+
+    @Mock
+    private StorageDeletionMapper storageDeletionMapper;
+
+    @Mock
+    private NovelRepository novelRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private StorageCleanupService storageCleanupService;
+
+    @BeforeEach
+    void setUp() {
+        storageCleanupService.init();
+    }
+
+    @Test
+    void deleteBatch_ShouldDeleteUnusedImagesInOneCallAndKeepUsedOnes() {
+        // Arrange
+        when(storageDeletionMapper.claimDue(anyInt())).thenReturn(List.of(
+                deletion(1L, "http://a"), deletion(2L, "http://shared"), deletion(3L, "http://b"), deletion(4L, "http://a")));
+        when(novelRepository.findReferencedCoverImgUrls(anyCollection())).thenReturn(List.of("http://shared"));
+
+        // Act
+        int handled = storageCleanupService.deleteBatch();
+
+        // Assert
+        assertThat(handled).isEqualTo(4);
+        verify(fileStorageService).deleteImages(List.of("http://a", "http://b"));
+        verify(storageDeletionMapper).deleteByIds(List.of(1L, 2L, 3L, 4L));
+        assertThat(meterRegistry.counter("storage.deletions.deleted").count()).isEqualTo(2.0);
+        assertThat(meterRegistry.counter("storage.deletions.kept").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void deleteBatch_WhenStorageFails_ShouldKeepRowsForRetry() {
+        // Arrange
+        when(storageDeletionMapper.claimDue(anyInt())).thenReturn(List.of(deletion(1L, "http://a")));
+        when(novelRepository.findReferencedCoverImgUrls(anyCollection())).thenReturn(List.of());
+        doThrow(new RuntimeException("storage down")).when(fileStorageService).deleteImages(anyList());
+
+        // Act
+        int handled = storageCleanupService.deleteBatch();
+
+        // Assert
+        assertThat(handled).isZero();
+        verify(storageDeletionMapper).markFailed(List.of(1L), "storage down", 1440);
+        verify(storageDeletionMapper, never()).deleteByIds(anyList());
+        assertThat(meterRegistry.counter("storage.deletions.failed").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void sweepOrphans_ShouldQueueStoredCoversNoNovelUsesPageByPage() {
+        // Arrange
+        when(novelRepository.findAnyCoverImgUrl()).thenReturn("http://used");
+        when(fileStorageService.imageExists("http://used")).thenReturn(true);
+        doAnswer(invocation -> {
+            Consumer<List<String>> pageConsumer = invocation.getArgument(2);
+            pageConsumer.accept(List.of("http://used", "http://orphan-1"));
+            pageConsumer.accept(List.of("http://orphan-2"));
+            return null;
+        }).when(fileStorageService).scanImages(any(), eq(1000), any());
+        when(novelRepository.findReferencedCoverImgUrls(anyCollection()))
+                .thenReturn(List.of("http://used"), List.of());
+
+        // Act
+        storageCleanupService.sweepOrphans();
+
+        // Assert
+        verify(storageDeletionMapper).insertBatch(List.of("http://orphan-1"));
+        verify(storageDeletionMapper).insertBatch(List.of("http://orphan-2"));
+        verify(fileStorageService, never()).deleteImages(anyList());
+        assertThat(meterRegistry.counter("storage.orphans.found").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void sweepOrphans_WhenNovelCoversAreNotInStorage_ShouldSkipSweep() {
+        // Arrange
+        when(novelRepository.findAnyCoverImgUrl()).thenReturn("http://old-host/covers/a.png");
+        when(fileStorageService.imageExists("http://old-host/covers/a.png")).thenReturn(false);
+
+        // Act
+        storageCleanupService.sweepOrphans();
+
+        // Assert
+        verify(fileStorageService, never()).scanImages(any(), anyInt(), any());
+        verifyNoInteractions(storageDeletionMapper);
+    }
+
+    private StorageDeletion deletion(Long id, String imageUrl) {
+        return new StorageDeletion(id, imageUrl, 0, LocalDateTime.now());
+    }
+}
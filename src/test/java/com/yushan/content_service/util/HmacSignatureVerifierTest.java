@@ -0,0 +1,80 @@
+package com.yushan.content_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HmacSignatureVerifier class
+ */
+class HmacSignatureVerifierTest {
+
+    private static final String SECRET = "test-gateway-secret";
+
+    @Test
+    void testVerifiesSignaturesProducedByTheGateway() throws Exception {
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(SECRET, 16, 30000);
+        long now = System.currentTimeMillis();
+
+        assertTrue(verifier.verify("user-1", "a@example.com", "AUTHOR", now,
+                sign("user-1|a@example.com|AUTHOR|" + now)));
+        assertTrue(verifier.verify("user-2", "b@example.com", null, now,
+                sign("user-2|b@example.com|USER|" + now)));
+        assertTrue(verifier.verify("user-3", "ünïcode@example.com", "USER", now,
+                sign("user-3|ünïcode@example.com|USER|" + now)));
+        assertTrue(HmacUtil.verifySignature("user-1", "a@example.com", "AUTHOR", now,
+                sign("user-1|a@example.com|AUTHOR|" + now), SECRET));
+    }
+
+    @Test
+    void testCachedSignatureDoesNotVouchForOtherHeaders() throws Exception {
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(SECRET, 16, 30000);
+        long now = System.currentTimeMillis();
+        String signature = sign("user-1|a@example.com|USER|" + now);
+
+        assertTrue(verifier.verify("user-1", "a@example.com", "USER", now, signature));
+        assertTrue(verifier.verify("user-1", "a@example.com", "USER", now, signature));
+        assertFalse(verifier.verify("user-1", "a@example.com", "ADMIN", now, signature));
+        assertFalse(verifier.verify("user-2", "a@example.com", "USER", now, signature));
+        assertFalse(verifier.verify("user-1", "a@example.com", "USER", now + 1, signature));
+        assertFalse(verifier.verify("user-1", "a@example.com", "USER", now,
+                sign("user-1|a@example.com|USER|" + (now + 1))));
+    }
+
+    @Test
+    void testRejectsStaleTimestampsAndMalformedSignatures() throws Exception {
+        HmacSignatureVerifier verifier = new HmacSignatureVerifier(SECRET, 0, 0);
+        long now = System.currentTimeMillis();
+        long stale = now - 6 * 60 * 1000;
+        String signature = sign("user-1|a@example.com|USER|" + now);
+
+        assertFalse(verifier.verify("user-1", "a@example.com", "USER", stale,
+                sign("user-1|a@example.com|USER|" + stale)));
+        assertFalse(verifier.verify("user-1", "a@example.com", "USER", now, null));
+        assertFalse(verifier.verify("user-1", "a@example.com", "USER", now, signature.substring(1)));
+        assertFalse(verifier.verify("user-1", "a@example.com", "USER", now, "*" + signature.substring(1)));
+        // Same bytes, but the unused low bits of the last character are set
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        int last = alphabet.indexOf(signature.charAt(42));
+        String nonCanonical = signature.substring(0, 42) + alphabet.charAt(last | 1) + "=";
+        assertFalse(verifier.verify("user-1", "a@example.com", "USER", now, nonCanonical));
+        assertTrue(verifier.verify("user-1", "a@example.com", "USER", now, signature));
+    }
+
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HmacSignatureVerifier("", 16, 30000));
+        assertThrows(IllegalArgumentException.class, () -> new HmacSignatureVerifier(SECRET, -1, 30000));
+    }
+
+    private String sign(String message) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getEncoder().encodeToString(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,52 @@
+package com.yushan.content_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PassageSplitter class
+ */
+class PassageSplitterTest {
+
+    @Test
+    void testSplitCutsOnWhitespace() {
+        List<PassageSplitter.Passage> passages = PassageSplitter.split("alpha beta gamma delta", 12);
+
+        assertEquals(2, passages.size());
+        assertEquals("alpha beta", passages.get(0).text());
+        assertEquals("gamma delta", passages.get(1).text());
+    }
+
+    @Test
+    void testSplitRecordsIndexAndOffset() {
+        String text = "  alpha beta gamma delta";
+
+        List<PassageSplitter.Passage> passages = PassageSplitter.split(text, 12);
+
+        assertEquals(0, passages.get(0).index());
+        assertEquals(2, passages.get(0).offset());
+        assertEquals(1, passages.get(1).index());
+        assertEquals(text.indexOf("gamma"), passages.get(1).offset());
+    }
+
+    @Test
+    void testSplitHardCutsTextWithoutWhitespace() {
+        List<PassageSplitter.Passage> passages = PassageSplitter.split("一二三四五六七", 3);
+
+        assertEquals(List.of("一二三", "四五六", "七"), passages.stream().map(PassageSplitter.Passage::text).toList());
+    }
+
+    @Test
+    void testSplitNullOrBlankReturnsNoPassages() {
+        assertTrue(PassageSplitter.split(null, 10).isEmpty());
+        assertTrue(PassageSplitter.split("   ", 10).isEmpty());
+    }
+
+    @Test
+    void testSplitRejectsNonPositiveLength() {
+        assertThrows(IllegalArgumentException.class, () -> PassageSplitter.split("text", 0));
+    }
+}
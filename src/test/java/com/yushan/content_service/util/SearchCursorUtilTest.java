@@ -0,0 +1,37 @@
+package com.yushan.content_service.util;
+
+import com.yushan.content_service.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SearchCursorUtil class
+ */
+class SearchCursorUtilTest {
+
+    @Test
+    void testEncodeAndDecodeRoundTrip() {
+        List<Object> sortValues = List.of(4.5, 1000, "550e8400-e29b-41d4-a716-446655440000");
+
+        String cursor = SearchCursorUtil.encode(sortValues);
+
+        assertNotNull(cursor);
+        assertFalse(cursor.contains("="));
+        assertEquals(sortValues, SearchCursorUtil.decode(cursor));
+    }
+
+    @Test
+    void testEncodeWithoutSortValuesReturnsNull() {
+        assertNull(SearchCursorUtil.encode(null));
+        assertNull(SearchCursorUtil.encode(List.of()));
+    }
+
+    @Test
+    void testDecodeMalformedCursorThrowsValidationException() {
+        assertThrows(ValidationException.class, () -> SearchCursorUtil.decode("not a cursor!"));
+        assertThrows(ValidationException.class, () -> SearchCursorUtil.decode("bm90IGpzb24"));
+    }
+}